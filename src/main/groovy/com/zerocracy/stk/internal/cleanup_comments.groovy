@@ -33,7 +33,7 @@ def exec(Project project, XML xml) {
   new Assume(project, xml).isPmo()
   new Assume(project, xml).type('Ping hourly')
   Farm farm = binding.variables.farm
-  if (new Props(farm).has('//testing')) {
+  if (new Props(farm).testing()) {
     Logger.info(this, 'skip in testing mode')
     return
   }
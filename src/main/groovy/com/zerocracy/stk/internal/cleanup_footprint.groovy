@@ -27,7 +27,7 @@ import com.zerocracy.farm.props.Props
 def exec(Project project, XML xml) {
   new Assume(project, xml).type('Ping nightly')
   Farm farm = binding.variables.farm
-  if (new Props(farm).has('//testing')) {
+  if (new Props(farm).testing()) {
     Logger.info(this, 'skip in testing mode')
     return
   }
@@ -41,7 +41,7 @@ import java.time.Instant
 def exec(Project pmo, XML xml) {
   new Assume(pmo, xml).type('Ping nightly').isPmo()
   Farm farm = binding.variables.farm
-  if (new Props(farm).has('//testing')) {
+  if (new Props(farm).testing()) {
     Logger.info('collect_revenue_metrics', 'Skipping in testing mode')
     return
   }
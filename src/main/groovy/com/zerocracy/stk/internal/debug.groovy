@@ -35,7 +35,7 @@ def exec(Project project, XML xml) {
   new Assume(project, xml).type('Ping hourly')
   Farm farm = binding.variables.farm
   ClaimIn claim = new ClaimIn(xml)
-  if (new Props(farm).has('//testing')) {
+  if (new Props(farm).testing()) {
     Logger.info(this, 'skip in testing mode')
     return
   }
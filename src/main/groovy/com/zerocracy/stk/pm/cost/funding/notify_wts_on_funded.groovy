@@ -37,7 +37,7 @@ def exec(Project project, XML xml) {
   new Assume(project, xml).notPmo().type('Funded by Stripe')
   Farm farm = binding.variables.farm
   Props props = new Props(farm)
-  if (props.has('//testing')) {
+  if (props.testing()) {
     return
   }
   ClaimIn claim = new ClaimIn(xml)
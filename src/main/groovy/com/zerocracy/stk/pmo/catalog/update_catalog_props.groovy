@@ -19,6 +19,7 @@ package com.zerocracy.stk.pmo.catalog
 import com.jcabi.github.Coordinates
 import com.jcabi.github.Github
 import com.jcabi.github.Language
+import com.jcabi.log.Logger
 import com.jcabi.xml.XML
 import com.zerocracy.Farm
 import com.zerocracy.Project
@@ -43,26 +44,43 @@ def exec(Project pkt, XML xml) {
   Estimates est = new Estimates(farm, pkt).bootstrap()
   Roles roles = new Roles(pkt).bootstrap()
   Github github = new ExtGithub(farm).value()
-  new Txn(new Pmo(farm)).withCloseable { pmo ->
-    Catalog catalog = new Catalog(pmo).bootstrap()
-    catalog.jobs(pkt.pid(), wbs.iterate().size())
-    catalog.orders(pkt.pid(), orders.iterate().size())
-    Cash cash = ledger.cash().add(est.total().mul(-1L))
-    if (cash < Cash.ZERO) {
-      cash = Cash.ZERO
+  int attempts = 3
+  for (int attempt = 1; attempt <= attempts; ++attempt) {
+    try {
+      new Txn(new Pmo(farm)).withCloseable { pmo ->
+        Catalog catalog = new Catalog(pmo).bootstrap()
+        catalog.jobs(pkt.pid(), wbs.iterate().size())
+        catalog.orders(pkt.pid(), orders.iterate().size())
+        Cash cash = ledger.cash().add(est.total().mul(-1L))
+        if (cash < Cash.ZERO) {
+          cash = Cash.ZERO
+        }
+        catalog.cash(pkt.pid(), cash, ledger.deficit())
+        catalog.members(pkt.pid(), roles.everybody())
+        List<String> arcs = roles.findByRole('ARC')
+        String arc = '0crat'
+        if (!arcs.empty) {
+          arc = arcs[0]
+        }
+        catalog.architect(pkt.pid(), arc)
+        Iterable<String> repos = catalog.links(pkt.pid(), 'github')
+        catalog.languages(pkt.pid(), languages(github, repos))
+        pmo.commit()
+      }
+      return
+    } catch (Txn.ConflictException ex) {
+      Logger.warn(
+        this, '%s, updating catalog of %s again, attempt #%d',
+        ex.message, pkt.pid(), attempt
+      )
     }
-    catalog.cash(pkt.pid(), cash, ledger.deficit())
-    catalog.members(pkt.pid(), roles.everybody())
-    List<String> arcs = roles.findByRole('ARC')
-    String arc = '0crat'
-    if (!arcs.empty) {
-      arc = arcs[0]
-    }
-    catalog.architect(pkt.pid(), arc)
-    Iterable<String> repos = catalog.links(pkt.pid(), 'github')
-    catalog.languages(pkt.pid(), languages(github, repos))
-    pmo.commit()
   }
+  throw new IOException(
+    String.format(
+      'Failed to update catalog of %s, it was changed concurrently %d times',
+      pkt.pid(), attempts
+    )
+  )
 }
 
 /**
@@ -54,7 +54,7 @@ def exec(Project pmo, XML xml) {
       ClaimOut delete = claim.copy()
         .type('Delete user')
         .param('login', uid)
-      if (!new Props(farm).has('//testing')) {
+      if (!new Props(farm).testing()) {
         delete.until(TimeUnit.HOURS.toSeconds(12))
       }
         delete.postTo(new ClaimsOf(farm))
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.xml.Sources;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import com.jcabi.xml.XSL;
+import java.io.StringWriter;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import javax.xml.transform.ErrorListener;
+import javax.xml.transform.Result;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import net.sf.saxon.jaxp.TransformerImpl;
+import net.sf.saxon.serialize.MessageWarner;
+
+/**
+ * XSL with compiled templates.
+ *
+ * <p>Use {@link Stylesheets} to get an instance.</p>
+ *
+ * @since 1.0
+ */
+public final class CompiledXsl implements XSL {
+
+    /**
+     * Compiled stylesheet.
+     */
+    private final Templates templates;
+
+    /**
+     * Sources for <code>document()</code>.
+     */
+    private final Sources sources;
+
+    /**
+     * Parameters.
+     */
+    private final Map<String, Object> params;
+
+    /**
+     * Ctor.
+     * @param tpls Compiled stylesheet
+     */
+    CompiledXsl(final Templates tpls) {
+        this(tpls, Sources.DUMMY, new HashMap<>(0));
+    }
+
+    /**
+     * Ctor.
+     * @param tpls Compiled stylesheet
+     * @param srcs Sources
+     * @param map Parameters
+     */
+    private CompiledXsl(final Templates tpls, final Sources srcs,
+        final Map<String, Object> map) {
+        this.templates = tpls;
+        this.sources = srcs;
+        this.params = map;
+    }
+
+    @Override
+    public XML transform(final XML xml) {
+        final DOMResult result = new DOMResult();
+        this.transform(xml, result);
+        return new XMLDocument(result.getNode());
+    }
+
+    @Override
+    public String applyTo(final XML xml) {
+        final StringWriter writer = new StringWriter();
+        this.transform(xml, new StreamResult(writer));
+        return writer.toString();
+    }
+
+    @Override
+    public XSL with(final Sources src) {
+        return new CompiledXsl(this.templates, src, this.params);
+    }
+
+    @Override
+    public XSL with(final String name, final Object value) {
+        final Map<String, Object> map = new HashMap<>(this.params);
+        map.put(name, value);
+        return new CompiledXsl(this.templates, this.sources, map);
+    }
+
+    /**
+     * Transform XML into result.
+     * @param xml Source XML
+     * @param result Result
+     */
+    private void transform(final XML xml, final Result result) {
+        final CompiledXsl.Errors errors = new CompiledXsl.Errors();
+        final Transformer trans;
+        try {
+            trans = this.templates.newTransformer();
+        } catch (final TransformerConfigurationException ex) {
+            throw new IllegalArgumentException(
+                String.format("Failed to configure transformer: %s", ex), ex
+            );
+        }
+        trans.setErrorListener(errors);
+        trans.setURIResolver(this.sources);
+        if (trans instanceof TransformerImpl) {
+            TransformerImpl.class.cast(trans).getUnderlyingController()
+                .setMessageEmitter(new MessageWarner());
+        }
+        for (final Map.Entry<String, Object> ent : this.params.entrySet()) {
+            trans.setParameter(ent.getKey(), ent.getValue());
+        }
+        try {
+            trans.transform(new DOMSource(xml.node()), result);
+        } catch (final TransformerException ex) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Failed to transform by %s: %s",
+                    this.getClass().getName(),
+                    String.join("; ", errors.messages)
+                ),
+                ex
+            );
+        }
+    }
+
+    /**
+     * Listener of transformation errors.
+     */
+    private static final class Errors implements ErrorListener {
+
+        /**
+         * Messages.
+         */
+        private final Collection<String> messages = new LinkedList<>();
+
+        @Override
+        public void warning(final TransformerException ex) {
+            this.messages.add(ex.getMessageAndLocation());
+        }
+
+        @Override
+        public void error(final TransformerException ex) {
+            this.messages.add(ex.getMessageAndLocation());
+        }
+
+        @Override
+        public void fatalError(final TransformerException ex) {
+            this.messages.add(ex.getMessageAndLocation());
+        }
+    }
+}
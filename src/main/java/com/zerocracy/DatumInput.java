@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import org.cactoos.Input;
+
+/**
+ * Input of a DATUM document, from classpath first.
+ *
+ * <p>DATUM release {@link Xocument#VERSION} is packaged into the jar
+ * by the build (see <code>datum</code> profile in <code>pom.xml</code>)
+ * under <code>com/zerocracy/datum/</code>. Documents of
+ * <code>http://datum.zerocracy.com</code> are read from there,
+ * <code>latest</code> is the bundled version. Everything else, and
+ * documents missing in the bundle, are downloaded by HTTP, unless
+ * <code>datum.offline</code> system property is set to true.</p>
+ *
+ * @since 1.0
+ */
+public final class DatumInput implements Input {
+
+    /**
+     * DATUM host.
+     */
+    private static final String HOST = "datum.zerocracy.com";
+
+    /**
+     * Latest version prefix.
+     */
+    private static final String LATEST = "/latest/";
+
+    /**
+     * Document URI.
+     */
+    private final URI uri;
+
+    /**
+     * Ctor.
+     * @param url Document URL
+     */
+    public DatumInput(final URL url) {
+        this(URI.create(url.toString()));
+    }
+
+    /**
+     * Ctor.
+     * @param addr Document URI
+     */
+    public DatumInput(final URI addr) {
+        this.uri = addr;
+    }
+
+    @Override
+    public InputStream stream() throws IOException {
+        final URL res = this.resource();
+        final InputStream stream;
+        if (res != null) {
+            stream = res.openStream();
+        } else if (DatumInput.HOST.equals(this.uri.getHost())
+            && Boolean.getBoolean("datum.offline")) {
+            throw new FileNotFoundException(
+                String.format("%s is not bundled, working offline", this.uri)
+            );
+        } else {
+            stream = this.uri.toURL().openStream();
+        }
+        return stream;
+    }
+
+    /**
+     * Bundled resource.
+     * @return Resource URL or NULL if it's not bundled
+     */
+    private URL resource() {
+        URL res = null;
+        if (DatumInput.HOST.equals(this.uri.getHost())) {
+            String path = this.uri.getPath();
+            if (path.startsWith(DatumInput.LATEST)) {
+                path = String.format(
+                    "/%s/%s", Xocument.VERSION,
+                    path.substring(DatumInput.LATEST.length())
+                );
+            }
+            res = DatumInput.class.getResource(
+                String.format("datum%s", path)
+            );
+        }
+        return res;
+    }
+}
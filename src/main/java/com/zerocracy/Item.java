@@ -17,6 +17,7 @@
 package com.zerocracy;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import org.cactoos.Func;
 import org.cactoos.Proc;
@@ -51,4 +52,54 @@ public interface Item {
      * @throws IOException On failure
      */
     void update(Proc<Path> writer) throws IOException;
+
+    /**
+     * Read item content.
+     * <p>
+     * Content of absent item is empty. Default implementation reads it
+     * from the file given to {@link #read(Func)}, items which keep
+     * content in memory should override it to avoid temporary files.
+     * </p>
+     * @param reader Function to read
+     * @param <T> Returned type
+     * @return Result of the function
+     * @throws IOException On failure
+     */
+    default <T> T readBytes(final Func<byte[], T> reader) throws IOException {
+        return this.read(
+            path -> {
+                byte[] bytes = new byte[0];
+                if (Files.exists(path)) {
+                    bytes = Files.readAllBytes(path);
+                }
+                return reader.apply(bytes);
+            }
+        );
+    }
+
+    /**
+     * Update item content.
+     * <p>
+     * The function returns new content of the item, or the same array
+     * if nothing has to be changed. Default implementation works through
+     * the file given to {@link #update(Proc)}.
+     * </p>
+     * @param writer Function to update
+     * @throws IOException On failure
+     */
+    default void updateBytes(final Func<byte[], byte[]> writer)
+        throws IOException {
+        this.update(
+            path -> {
+                byte[] before = new byte[0];
+                if (Files.exists(path)) {
+                    before = Files.readAllBytes(path);
+                }
+                final byte[] after = writer.apply(before);
+                if (after != before) {
+                    Files.write(path, after);
+                }
+            }
+        );
+    }
 }
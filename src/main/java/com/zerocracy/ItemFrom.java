@@ -67,6 +67,14 @@ public final class ItemFrom implements Item {
         this(text, StandardCharsets.UTF_8);
     }
 
+    /**
+     * Item from bytes.
+     * @param bytes Binary content
+     */
+    public ItemFrom(final byte[] bytes) {
+        this(() -> bytes);
+    }
+
     /**
      * From text with charset.
      * @param text Text
@@ -95,6 +103,11 @@ public final class ItemFrom implements Item {
         }
     }
 
+    @Override
+    public <T> T readBytes(final Func<byte[], T> reader) throws IOException {
+        return new IoCheckedFunc<>(reader).apply(this.content.asBytes());
+    }
+
     @Override
     public void update(final Proc<Path> writer) {
         throw new UnsupportedOperationException("Item is readonly");
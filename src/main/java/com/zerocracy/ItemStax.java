@@ -0,0 +1,567 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.cactoos.Func;
+import org.cactoos.func.IoCheckedFunc;
+
+/**
+ * Read-only streaming queries to XML item.
+ *
+ * <p>The document is read with StAX, elements which don't match the path
+ * are skipped and only matched elements are built, together with their
+ * children. Reading stops as soon as enough elements are found, so
+ * a lookup of one person in a big people.xml doesn't build the DOM of
+ * the entire document, as {@link ItemXml} does.</p>
+ *
+ * <p>Paths are a small subset of XPath: absolute location steps
+ * with element names and, optionally, attribute equality predicates,
+ * for example <code>/people/person[@id='yegor256']/links/link</code>
+ * or <code>/catalog/project/links/link[@rel='github' and @href='a/b']</code>.
+ * </p>
+ *
+ * <p>The document is read as it is stored, without validation.
+ * If the XSD of the item is known and the <code>version</code> of
+ * the root element differs from {@link Xocument#VERSION}, the item
+ * is upgraded through {@link ItemXml} first, the same way it would
+ * be upgraded by an XPath query, and then read again.</p>
+ *
+ * @since 1.0
+ */
+public final class ItemStax {
+
+    /**
+     * Streaming XML factory.
+     */
+    private static final XMLInputFactory FACTORY = ItemStax.factory();
+
+    /**
+     * Origin item.
+     */
+    private final Item origin;
+
+    /**
+     * XSD path, empty if the document is never upgraded.
+     */
+    private final String xsd;
+
+    /**
+     * Ctor.
+     * @param origin Origin item
+     */
+    public ItemStax(final Item origin) {
+        this(origin, "");
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin item
+     * @param xsd XSD path, eg "pmo/people"
+     */
+    public ItemStax(final Item origin, final String xsd) {
+        this.origin = origin;
+        this.xsd = xsd;
+    }
+
+    /**
+     * All elements by path.
+     * @param path Path
+     * @return Elements found
+     * @throws IOException On failure
+     */
+    public List<ItemStax.Element> elements(final String path)
+        throws IOException {
+        return this.elements(path, Integer.MAX_VALUE);
+    }
+
+    /**
+     * First elements by path.
+     * @param path Path
+     * @param limit Maximum number of elements to find
+     * @return Elements found
+     * @throws IOException On failure
+     */
+    public List<ItemStax.Element> elements(final String path,
+        final int limit) throws IOException {
+        return this.elements(path, elm -> true, limit);
+    }
+
+    /**
+     * All elements by path, which match the filter.
+     * @param path Path
+     * @param filter Filter of found elements
+     * @return Elements found
+     * @throws IOException On failure
+     */
+    public List<ItemStax.Element> elements(final String path,
+        final Func<ItemStax.Element, Boolean> filter) throws IOException {
+        return this.elements(path, filter, Integer.MAX_VALUE);
+    }
+
+    /**
+     * First elements by path, which match the filter.
+     * @param path Path
+     * @param filter Filter of found elements
+     * @param limit Maximum number of elements to find
+     * @return Elements found
+     * @throws IOException On failure
+     */
+    public List<ItemStax.Element> elements(final String path,
+        final Func<ItemStax.Element, Boolean> filter,
+        final int limit) throws IOException {
+        final List<ItemStax.Step> steps = ItemStax.Step.parse(path, true);
+        final IoCheckedFunc<ItemStax.Element, Boolean> matches =
+            new IoCheckedFunc<>(filter);
+        Optional<List<ItemStax.Element>> found = this.origin.readBytes(
+            bytes -> ItemStax.find(bytes, steps, matches, limit, this.xsd)
+        );
+        if (!found.isPresent()) {
+            new ItemXml(this.origin, this.xsd).update();
+            found = this.origin.readBytes(
+                bytes -> ItemStax.find(bytes, steps, matches, limit, "")
+            );
+        }
+        return found.get();
+    }
+
+    /**
+     * Find elements in the document, unless it has to be upgraded.
+     * @param bytes Document
+     * @param steps Path steps
+     * @param filter Filter of found elements
+     * @param limit Maximum number of elements to find
+     * @param xsd XSD path, empty if the document is never upgraded
+     * @return Elements found, or nothing if the document is outdated
+     * @throws IOException On failure
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private static Optional<List<ItemStax.Element>> find(final byte[] bytes,
+        final List<ItemStax.Step> steps,
+        final IoCheckedFunc<ItemStax.Element, Boolean> filter,
+        final int limit, final String xsd) throws IOException {
+        final Optional<List<ItemStax.Element>> found;
+        if (bytes.length == 0) {
+            found = Optional.of(Collections.emptyList());
+        } else if (!xsd.isEmpty()
+            && !Xocument.VERSION.equals(ItemStax.version(bytes))) {
+            found = Optional.empty();
+        } else {
+            found = Optional.of(ItemStax.find(bytes, steps, filter, limit));
+        }
+        return found;
+    }
+
+    /**
+     * Version of the document, from its root element.
+     * @param bytes Document
+     * @return Version or empty string, if it's not set
+     * @throws IOException On failure
+     */
+    private static String version(final byte[] bytes) throws IOException {
+        try {
+            final XMLStreamReader reader = ItemStax.FACTORY
+                .createXMLStreamReader(new ByteArrayInputStream(bytes));
+            try {
+                String version = "";
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        final String attr =
+                            reader.getAttributeValue(null, "version");
+                        if (attr != null) {
+                            version = attr;
+                        }
+                        break;
+                    }
+                }
+                return version;
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Find elements in the document.
+     * @param bytes Document
+     * @param steps Path steps
+     * @param filter Filter of found elements
+     * @param limit Maximum number of elements to find
+     * @return Elements found
+     * @throws IOException On failure
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private static List<ItemStax.Element> find(final byte[] bytes,
+        final List<ItemStax.Step> steps,
+        final IoCheckedFunc<ItemStax.Element, Boolean> filter,
+        final int limit) throws IOException {
+        final List<ItemStax.Element> found = new LinkedList<>();
+        try {
+            final XMLStreamReader reader = ItemStax.FACTORY
+                .createXMLStreamReader(new ByteArrayInputStream(bytes));
+            try {
+                int depth = 0;
+                while (found.size() < limit && reader.hasNext()) {
+                    final int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        if (!steps.get(depth).matches(reader)) {
+                            ItemStax.skip(reader);
+                        } else if (depth + 1 < steps.size()) {
+                            ++depth;
+                        } else {
+                            final ItemStax.Element elm =
+                                ItemStax.element(reader);
+                            if (filter.apply(elm)) {
+                                found.add(elm);
+                            }
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        --depth;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException ex) {
+            throw new IOException(ex);
+        }
+        return found;
+    }
+
+    /**
+     * Read current element with all its children.
+     * @param reader Reader at the start of the element
+     * @return Element
+     * @throws XMLStreamException On failure
+     */
+    private static ItemStax.Element element(final XMLStreamReader reader)
+        throws XMLStreamException {
+        final Map<String, String> attrs =
+            new HashMap<>(reader.getAttributeCount());
+        for (int idx = 0; idx < reader.getAttributeCount(); ++idx) {
+            attrs.put(
+                reader.getAttributeLocalName(idx),
+                reader.getAttributeValue(idx)
+            );
+        }
+        final StringBuilder text = new StringBuilder(0);
+        final List<ItemStax.Element> children = new ArrayList<>(0);
+        final String name = reader.getLocalName();
+        while (true) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                children.add(ItemStax.element(reader));
+            } else if (event == XMLStreamConstants.CHARACTERS
+                || event == XMLStreamConstants.CDATA) {
+                text.append(reader.getText());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
+        }
+        return new ItemStax.Element(name, attrs, text.toString(), children);
+    }
+
+    /**
+     * Skip current element with all its children.
+     * @param reader Reader at the start of the element
+     * @throws XMLStreamException On failure
+     */
+    private static void skip(final XMLStreamReader reader)
+        throws XMLStreamException {
+        int level = 1;
+        while (level > 0) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                ++level;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                --level;
+            }
+        }
+    }
+
+    /**
+     * Make secure XML input factory.
+     * @return Factory
+     */
+    private static XMLInputFactory factory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(
+            XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false
+        );
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    /**
+     * Element found.
+     */
+    public static final class Element {
+
+        /**
+         * Element name.
+         */
+        private final String label;
+
+        /**
+         * Attributes.
+         */
+        private final Map<String, String> attrs;
+
+        /**
+         * Own text.
+         */
+        private final String content;
+
+        /**
+         * Child elements.
+         */
+        private final List<ItemStax.Element> children;
+
+        /**
+         * Ctor.
+         * @param name Name
+         * @param attrs Attributes
+         * @param text Own text
+         * @param children Child elements
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Element(final String name, final Map<String, String> attrs,
+            final String text, final List<ItemStax.Element> children) {
+            this.label = name;
+            this.attrs = attrs;
+            this.content = text;
+            this.children = children;
+        }
+
+        /**
+         * Name of the element.
+         * @return Name
+         */
+        public String name() {
+            return this.label;
+        }
+
+        /**
+         * Attribute value.
+         * @param attr Attribute name
+         * @param def Default value
+         * @return Value or default, if there is no such attribute
+         */
+        public String attr(final String attr, final String def) {
+            return this.attrs.getOrDefault(attr, def);
+        }
+
+        /**
+         * Own text of the element.
+         * @return Text
+         */
+        public String text() {
+            return this.content;
+        }
+
+        /**
+         * Text of the first element by relative path.
+         * @param path Relative path
+         * @param def Default value
+         * @return Text or default, if there is no such element
+         */
+        public String text(final String path, final String def) {
+            final List<ItemStax.Element> found = this.nodes(path);
+            final String text;
+            if (found.isEmpty()) {
+                text = def;
+            } else {
+                text = found.get(0).text();
+            }
+            return text;
+        }
+
+        /**
+         * Element has children by relative path?
+         * @param path Relative path
+         * @return TRUE if there is at least one
+         */
+        public boolean has(final String path) {
+            return !this.nodes(path).isEmpty();
+        }
+
+        /**
+         * Descendant elements by relative path.
+         * @param path Relative path, like <code>links/link[@rel='x']</code>
+         * @return Elements found
+         */
+        public List<ItemStax.Element> nodes(final String path) {
+            List<ItemStax.Element> found = Collections.singletonList(this);
+            for (final ItemStax.Step step : ItemStax.Step.parse(path, false)) {
+                final List<ItemStax.Element> next = new LinkedList<>();
+                for (final ItemStax.Element elm : found) {
+                    for (final ItemStax.Element child : elm.children) {
+                        if (step.matches(child)) {
+                            next.add(child);
+                        }
+                    }
+                }
+                found = next;
+            }
+            return found;
+        }
+    }
+
+    /**
+     * Location step of the path.
+     */
+    private static final class Step {
+
+        /**
+         * Pattern of the step.
+         */
+        private static final Pattern STEP = Pattern.compile(
+            "([\\w\\-]+)(?:\\[(.+)])?"
+        );
+
+        /**
+         * Pattern of one predicate, with the "and" after it, if any.
+         * Quoted values are matched as a whole, so they may contain
+         * " and " too.
+         */
+        private static final Pattern PREDICATE = Pattern.compile(
+            "\\s*@([\\w\\-]+)\\s*=\\s*'([^']*)'\\s*(?:and\\s+(?=@)|$)"
+        );
+
+        /**
+         * Element name.
+         */
+        private final String name;
+
+        /**
+         * Required attribute values.
+         */
+        private final Map<String, String> attrs;
+
+        /**
+         * Ctor.
+         * @param name Element name
+         * @param attrs Attributes
+         */
+        Step(final String name, final Map<String, String> attrs) {
+            this.name = name;
+            this.attrs = attrs;
+        }
+
+        /**
+         * Parse the path.
+         * @param path Path
+         * @param absolute Path must be absolute
+         * @return Steps
+         */
+        @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+        public static List<ItemStax.Step> parse(final String path,
+            final boolean absolute) {
+            if (absolute != path.startsWith("/")) {
+                throw new IllegalArgumentException(
+                    String.format("Path is not supported: \"%s\"", path)
+                );
+            }
+            final List<ItemStax.Step> steps = new LinkedList<>();
+            for (final String step : path.substring(absolute ? 1 : 0)
+                .split("/(?![^\\[]*])")) {
+                final Matcher matcher = ItemStax.Step.STEP.matcher(step);
+                if (!matcher.matches()) {
+                    throw new IllegalArgumentException(
+                        String.format(
+                            "Step \"%s\" is not supported in \"%s\"",
+                            step, path
+                        )
+                    );
+                }
+                final Map<String, String> attrs = new HashMap<>(0);
+                if (matcher.group(2) != null) {
+                    final String preds = matcher.group(2);
+                    final Matcher attr =
+                        ItemStax.Step.PREDICATE.matcher(preds);
+                    int pos = 0;
+                    while (pos < preds.length()) {
+                        attr.region(pos, preds.length());
+                        if (!attr.lookingAt()) {
+                            throw new IllegalArgumentException(
+                                String.format(
+                                    "Unsupported predicate \"%s\" in \"%s\"",
+                                    preds.substring(pos), path
+                                )
+                            );
+                        }
+                        attrs.put(attr.group(1), attr.group(2));
+                        pos = attr.end();
+                    }
+                }
+                steps.add(new ItemStax.Step(matcher.group(1), attrs));
+            }
+            return new ArrayList<>(steps);
+        }
+
+        /**
+         * Element at the reader matches the step?
+         * @param reader Reader at the start of element
+         * @return TRUE if matches
+         */
+        public boolean matches(final XMLStreamReader reader) {
+            boolean matches = this.name.equals(reader.getLocalName());
+            for (final Map.Entry<String, String> attr : this.attrs.entrySet()) {
+                if (!matches) {
+                    break;
+                }
+                matches = attr.getValue().equals(
+                    reader.getAttributeValue(null, attr.getKey())
+                );
+            }
+            return matches;
+        }
+
+        /**
+         * Element matches the step?
+         * @param elm Element
+         * @return TRUE if matches
+         */
+        public boolean matches(final ItemStax.Element elm) {
+            boolean matches = this.name.equals(elm.name());
+            for (final Map.Entry<String, String> attr : this.attrs.entrySet()) {
+                if (!matches) {
+                    break;
+                }
+                matches = attr.getValue().equals(elm.attr(attr.getKey(), null));
+            }
+            return matches;
+        }
+    }
+}
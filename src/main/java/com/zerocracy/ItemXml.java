@@ -18,14 +18,18 @@ package com.zerocracy;
 
 import com.jcabi.xml.XML;
 import java.io.IOException;
-import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import org.cactoos.Func;
 import org.cactoos.Proc;
 import org.xembly.Directive;
 
 /**
  * XML item with {@link Xocument} inside.
+ *
+ * <p>Documents are read and modified in memory, through
+ * {@link Item#readBytes(Func)} and {@link Item#updateBytes(Func)}.</p>
+ *
  * @since 1.0
  */
 public final class ItemXml {
@@ -66,8 +70,10 @@ public final class ItemXml {
      * @throws IOException On failure
      */
     public <T> T read(final Func<Xocument, T> reader) throws IOException {
-        return this.origin.read(
-            path -> reader.apply(this.xocument(path))
+        return this.origin.readBytes(
+            bytes -> reader.apply(
+                this.xocument(new AtomicReference<>(bytes))
+            )
         );
     }
 
@@ -76,7 +82,7 @@ public final class ItemXml {
      * @throws IOException On failure
      */
     public void update() throws IOException {
-        this.origin.update(this::xocument);
+        this.update(xoc -> { });
     }
 
     /**
@@ -85,8 +91,13 @@ public final class ItemXml {
      * @throws IOException On failure
      */
     public void update(final Proc<Xocument> writer) throws IOException {
-        this.origin.update(
-            path -> writer.exec(this.xocument(path))
+        this.origin.updateBytes(
+            bytes -> {
+                final AtomicReference<byte[]> content =
+                    new AtomicReference<>(bytes);
+                writer.exec(this.xocument(content));
+                return content.get();
+            }
         );
     }
 
@@ -153,12 +164,15 @@ public final class ItemXml {
 
     /**
      * Build and bootstrap xocument.
-     * @param path Path for data
+     * @param content Content of the item
      * @return Xocument
      * @throws IOException On failure
      */
-    private Xocument xocument(final Path path) throws IOException {
-        final Xocument xocument = new Xocument(path);
+    private Xocument xocument(final AtomicReference<byte[]> content)
+        throws IOException {
+        final Xocument xocument = new Xocument(
+            content, this.origin.toString()
+        );
         if (!this.xsd.isEmpty()) {
             xocument.bootstrap(this.xsd);
         }
@@ -16,21 +16,17 @@
  */
 package com.zerocracy;
 
-import com.jcabi.xml.XMLDocument;
 import com.zerocracy.cash.Cash;
 import com.zerocracy.farm.props.Props;
 import com.zerocracy.pmo.Pmo;
 import java.io.IOException;
-import java.net.URL;
-import java.util.Iterator;
-import org.cactoos.io.InputOf;
-import org.cactoos.text.TextOf;
 
 /**
  * Policy numbers.
  *
- * <p>This class goes to our live policy at www.zerocracy.com/policy.html,
- * finds the number needed inside the HTML, and returns it.
+ * <p>This class finds the number needed in our live policy at
+ * www.zerocracy.com/policy.html, which is cached and periodically refreshed
+ * by {@link PolicyCache}, and returns it.
  * If it's a testing mode, the test value is returned.</p>
  *
  * @since 1.0
@@ -91,24 +87,10 @@ public final class Policy {
     public String get(final String param, final String test)
         throws IOException {
         final String result;
-        if (new Props(this.pmo).has("//testing")) {
+        if (new Props(this.pmo).testing()) {
             result = test;
         } else {
-            final Iterator<String> items = new XMLDocument(
-                new TextOf(
-                    new InputOf(
-                        new URL("http://www.zerocracy.com/policy.html")
-                    )
-                ).asString()
-            ).xpath(String.format("//*[@id='%s']/text()", param)).iterator();
-            if (!items.hasNext()) {
-                throw new IllegalArgumentException(
-                    String.format(
-                        "Policy item '%s' not found", param
-                    )
-                );
-            }
-            result = items.next();
+            result = PolicyCache.INSTANCE.value(param);
         }
         return result;
     }
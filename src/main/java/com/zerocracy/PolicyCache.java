@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.http.Request;
+import com.jcabi.http.Response;
+import com.jcabi.http.request.JdkRequest;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseRunnable;
+import com.jcabi.log.VerboseThreads;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.cactoos.scalar.SolidScalar;
+import org.cactoos.scalar.UncheckedScalar;
+import org.cactoos.text.TextOf;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Cached policy numbers.
+ *
+ * <p>All numbers of the policy are loaded at once into a map by
+ * their HTML ids. When the map is older than TTL, it's refreshed
+ * in background, by a conditional request with <code>ETag</code>
+ * and <code>Last-Modified</code> of the previous response, while
+ * callers get the old one. If the policy is not reachable, the last
+ * good copy is used; if there is no copy yet, the one packaged into
+ * the jar is used.</p>
+ *
+ * @since 1.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+final class PolicyCache {
+
+    /**
+     * Singleton.
+     */
+    static final PolicyCache INSTANCE = new PolicyCache(
+        URI.create("http://www.zerocracy.com/policy.html"),
+        PolicyCache.class.getResource("policy.html"),
+        TimeUnit.MINUTES.toMillis((long) Tv.TEN)
+    );
+
+    /**
+     * Remote policy.
+     */
+    private final URI remote;
+
+    /**
+     * Local policy, NULL if absent.
+     */
+    private final URL local;
+
+    /**
+     * Time to live, in milliseconds.
+     */
+    private final long ttl;
+
+    /**
+     * Current snapshot, NULL if not loaded yet.
+     */
+    private final AtomicReference<PolicyCache.Snapshot> current;
+
+    /**
+     * Refresh is in progress.
+     */
+    private final AtomicBoolean refreshing;
+
+    /**
+     * Background refresher.
+     */
+    private final UncheckedScalar<ExecutorService> service;
+
+    /**
+     * Ctor.
+     * @param uri Remote policy
+     * @param res Local policy or NULL
+     * @param msec Time to live in milliseconds
+     */
+    PolicyCache(final URI uri, final URL res, final long msec) {
+        this.remote = uri;
+        this.local = res;
+        this.ttl = msec;
+        this.current = new AtomicReference<>();
+        this.refreshing = new AtomicBoolean();
+        this.service = new UncheckedScalar<>(
+            new SolidScalar<>(
+                () -> Executors.newSingleThreadExecutor(
+                    new VerboseThreads(PolicyCache.class)
+                )
+            )
+        );
+    }
+
+    /**
+     * Value of the policy number.
+     * @param param Id of the number
+     * @return Value
+     * @throws IOException If there is no policy at all
+     */
+    public String value(final String param) throws IOException {
+        final String value = this.snapshot().values.get(param);
+        if (value == null) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Policy item '%s' not found", param
+                )
+            );
+        }
+        return value;
+    }
+
+    /**
+     * Current snapshot.
+     * @return Snapshot
+     * @throws IOException If fails to load the first one
+     */
+    private PolicyCache.Snapshot snapshot() throws IOException {
+        PolicyCache.Snapshot snap = this.current.get();
+        if (snap == null) {
+            synchronized (this.current) {
+                snap = this.current.get();
+                if (snap == null) {
+                    snap = this.load(null);
+                    this.current.set(snap);
+                }
+            }
+        } else if (System.currentTimeMillis() - snap.time > this.ttl
+            && this.refreshing.compareAndSet(false, true)) {
+            final PolicyCache.Snapshot last = snap;
+            this.service.value().submit(
+                new VerboseRunnable(
+                    () -> {
+                        try {
+                            this.current.set(this.load(last));
+                        } finally {
+                            this.refreshing.set(false);
+                        }
+                        return null;
+                    },
+                    true, true
+                )
+            );
+        }
+        return snap;
+    }
+
+    /**
+     * Load new snapshot.
+     * @param last Last good snapshot or NULL
+     * @return New snapshot
+     * @throws IOException If there is no policy at all
+     */
+    private PolicyCache.Snapshot load(final PolicyCache.Snapshot last)
+        throws IOException {
+        PolicyCache.Snapshot snap;
+        try {
+            Request req = new JdkRequest(this.remote)
+                // @checkstyle MagicNumber (1 line)
+                .timeout(5000, 10000);
+            if (last != null && last.etag != null) {
+                req = req.header("If-None-Match", last.etag);
+            }
+            if (last != null && last.modified != null) {
+                req = req.header("If-Modified-Since", last.modified);
+            }
+            final Response rsp = req.fetch();
+            if (rsp.status() == HttpURLConnection.HTTP_NOT_MODIFIED
+                && last != null) {
+                snap = last.touched();
+            } else if (rsp.status() == HttpURLConnection.HTTP_OK) {
+                snap = new PolicyCache.Snapshot(
+                    PolicyCache.parse(rsp.body()),
+                    PolicyCache.header(rsp, "ETag"),
+                    PolicyCache.header(rsp, "Last-Modified")
+                );
+                Logger.info(
+                    this, "%d policy numbers loaded from %s",
+                    snap.values.size(), this.remote
+                );
+            } else {
+                throw new IOException(
+                    String.format(
+                        "%s responded with HTTP %d",
+                        this.remote, rsp.status()
+                    )
+                );
+            }
+        } catch (final IOException | IllegalArgumentException ex) {
+            if (last == null && this.local == null) {
+                throw new IOException(
+                    String.format("Can't load policy from %s", this.remote),
+                    ex
+                );
+            }
+            Logger.warn(
+                this, "Can't refresh policy from %s: %[exception]s",
+                this.remote, ex
+            );
+            if (last == null) {
+                snap = new PolicyCache.Snapshot(
+                    PolicyCache.parse(new TextOf(this.local).asString()),
+                    null, null
+                );
+            } else {
+                snap = last.touched();
+            }
+        }
+        return snap;
+    }
+
+    /**
+     * Parse policy HTML.
+     * @param html Policy
+     * @return Numbers by ids
+     */
+    private static Map<String, String> parse(final String html) {
+        final Document doc;
+        try {
+            final DocumentBuilderFactory factory =
+                DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            doc = factory.newDocumentBuilder().parse(
+                new InputSource(new StringReader(html))
+            );
+        } catch (final ParserConfigurationException | SAXException
+            | IOException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+        final Map<String, String> map = new HashMap<>(0);
+        final NodeList all = doc.getElementsByTagName("*");
+        for (int idx = 0; idx < all.getLength(); ++idx) {
+            final Element elm = (Element) all.item(idx);
+            if (elm.hasAttribute("id")) {
+                for (Node txt = elm.getFirstChild(); txt != null;
+                    txt = txt.getNextSibling()) {
+                    if (txt.getNodeType() == Node.TEXT_NODE) {
+                        map.putIfAbsent(
+                            elm.getAttribute("id"), txt.getNodeValue()
+                        );
+                        break;
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Response header.
+     * @param rsp Response
+     * @param name Header name
+     * @return Value or NULL
+     */
+    private static String header(final Response rsp, final String name) {
+        String value = null;
+        for (final Map.Entry<String, List<String>> ent
+            : rsp.headers().entrySet()) {
+            if (name.equalsIgnoreCase(ent.getKey())
+                && !ent.getValue().isEmpty()) {
+                value = ent.getValue().get(0);
+                break;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Loaded policy.
+     */
+    private static final class Snapshot {
+
+        /**
+         * Numbers by ids.
+         */
+        private final Map<String, String> values;
+
+        /**
+         * ETag or NULL.
+         */
+        private final String etag;
+
+        /**
+         * Last-Modified or NULL.
+         */
+        private final String modified;
+
+        /**
+         * When it was loaded or validated.
+         */
+        private final long time;
+
+        /**
+         * Ctor.
+         * @param map Numbers
+         * @param tag ETag
+         * @param mdf Last-Modified
+         */
+        Snapshot(final Map<String, String> map, final String tag,
+            final String mdf) {
+            this(map, tag, mdf, System.currentTimeMillis());
+        }
+
+        /**
+         * Ctor.
+         * @param map Numbers
+         * @param tag ETag
+         * @param mdf Last-Modified
+         * @param when When loaded
+         * @checkstyle ParameterNumberCheck (3 lines)
+         */
+        Snapshot(final Map<String, String> map, final String tag,
+            final String mdf, final long when) {
+            this.values = map;
+            this.etag = tag;
+            this.modified = mdf;
+            this.time = when;
+        }
+
+        /**
+         * The same, but validated now.
+         * @return Snapshot
+         */
+        PolicyCache.Snapshot touched() {
+            return new PolicyCache.Snapshot(
+                this.values, this.etag, this.modified
+            );
+        }
+    }
+}
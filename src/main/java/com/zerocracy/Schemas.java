@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.zerocracy.farm.guts.Guts;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import org.xembly.Directive;
+import org.xembly.Directives;
+import org.xml.sax.SAXException;
+
+/**
+ * Compiled XSD schemas.
+ *
+ * <p>Compiled {@link Schema} is thread-safe, so it's compiled once
+ * per <code>xsi:noNamespaceSchemaLocation</code> URI and shared
+ * by all validations in this JVM.</p>
+ *
+ * @since 1.0
+ */
+public final class Schemas implements Iterable<Directive> {
+
+    /**
+     * Singleton.
+     */
+    public static final Schemas INSTANCE = new Schemas();
+
+    /**
+     * Hits count.
+     */
+    private final AtomicLong hits;
+
+    /**
+     * Misses count.
+     */
+    private final AtomicLong misses;
+
+    /**
+     * Compiled schemas by URI.
+     */
+    private final ConcurrentMap<String, Schema> schemas;
+
+    /**
+     * Ctor.
+     */
+    private Schemas() {
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.schemas = new ConcurrentHashMap<>(0);
+    }
+
+    /**
+     * Compiled schema.
+     * @param uri Schema location
+     * @return Schema
+     * @throws IOException If fails to load or compile
+     */
+    public Schema schema(final String uri) throws IOException {
+        Schema schema = this.schemas.get(uri);
+        if (schema == null) {
+            synchronized (this.schemas) {
+                schema = this.schemas.get(uri);
+                if (schema == null) {
+                    this.misses.incrementAndGet();
+                    schema = Schemas.compile(uri);
+                    this.schemas.put(uri, schema);
+                } else {
+                    this.hits.incrementAndGet();
+                }
+            }
+        } else {
+            this.hits.incrementAndGet();
+        }
+        return schema;
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        return new Directives()
+            .add("xsd-cache")
+            .add("hits").set(this.hits.get()).up()
+            .add("misses").set(this.misses.get()).up()
+            .add("size").set(this.schemas.size()).up()
+            .up()
+            .iterator();
+    }
+
+    /**
+     * Compile schema.
+     * @param uri Schema location
+     * @return Schema
+     * @throws IOException If fails
+     */
+    private static Schema compile(final String uri) throws IOException {
+        final SchemaFactory factory = SchemaFactory.newInstance(
+            XMLConstants.W3C_XML_SCHEMA_NS_URI
+        );
+        factory.setResourceResolver(new XsdResolver());
+        try (final InputStream xsd =
+            new DatumInput(URI.create(uri)).stream()) {
+            return factory.newSchema(new StreamSource(xsd, uri));
+        } catch (final SAXException ex) {
+            throw new IOException(
+                String.format("Can't compile XSD schema %s", uri), ex
+            );
+        }
+    }
+
+    /**
+     * Farm with guts.
+     */
+    public static final class Farm implements com.zerocracy.Farm {
+
+        /**
+         * Origin farm.
+         */
+        private final com.zerocracy.Farm origin;
+
+        /**
+         * Ctor.
+         * @param farm Farm
+         */
+        public Farm(final com.zerocracy.Farm farm) {
+            this.origin = farm;
+        }
+
+        @Override
+        public Iterable<Project> find(final String xpath) throws IOException {
+            return new Guts(
+                this.origin,
+                () -> this.origin.find(xpath),
+                () -> new Directives()
+                    .xpath("/guts")
+                    .add("farm")
+                    .attr("id", "Xocument")
+                    .append(Schemas.INSTANCE)
+                    .append(XmlCache.INSTANCE)
+                    .append(Stylesheets.INSTANCE)
+            ).apply(xpath);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.origin.close();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.xml.Sources;
+import com.jcabi.xml.XSL;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.URIResolver;
+import javax.xml.transform.stream.StreamSource;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Compiled XSL stylesheets.
+ *
+ * <p>{@link com.jcabi.xml.XSLDocument} compiles its stylesheet on every
+ * transformation. Here stylesheets are compiled once into thread-safe
+ * {@link Templates}, kept by their URI, least recently used ones are
+ * evicted when there are too many of them.</p>
+ *
+ * @since 1.0
+ */
+public final class Stylesheets implements Iterable<Directive> {
+
+    /**
+     * Singleton.
+     */
+    public static final Stylesheets INSTANCE = new Stylesheets(Tv.THOUSAND);
+
+    /**
+     * Maximum amount of stylesheets.
+     */
+    private final int max;
+
+    /**
+     * Compiled stylesheets by URI, in access order.
+     */
+    private final Map<String, Stylesheets.Entry> entries;
+
+    /**
+     * Ctor.
+     * @param size Maximum amount of stylesheets to keep
+     */
+    Stylesheets(final int size) {
+        this.max = size;
+        // @checkstyle MagicNumber (1 line)
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Stylesheet by URL.
+     * @param url Location of the stylesheet
+     * @return XSL
+     * @throws IOException If fails to read it
+     */
+    public XSL xsl(final URL url) throws IOException {
+        return this.xsl(URI.create(url.toString()));
+    }
+
+    /**
+     * Stylesheet by URI.
+     * @param uri Location of the stylesheet
+     * @return XSL
+     * @throws IOException If fails to read it
+     */
+    public XSL xsl(final URI uri) throws IOException {
+        return this.xsl(uri, Sources.DUMMY);
+    }
+
+    /**
+     * Stylesheet by URI, with includes and imports.
+     * @param uri Location of the stylesheet
+     * @param includes Resolver of included and imported stylesheets
+     * @return XSL
+     * @throws IOException If fails to read it
+     */
+    public XSL xsl(final URI uri, final URIResolver includes)
+        throws IOException {
+        final String key = uri.toString();
+        Stylesheets.Entry entry;
+        synchronized (this.entries) {
+            entry = this.entries.get(key);
+        }
+        if (entry == null) {
+            entry = Stylesheets.compile(uri, includes);
+            synchronized (this.entries) {
+                this.entries.put(key, entry);
+                final Iterator<Stylesheets.Entry> iter =
+                    this.entries.values().iterator();
+                while (this.entries.size() > this.max) {
+                    iter.next();
+                    iter.remove();
+                }
+            }
+        } else {
+            entry.hits.incrementAndGet();
+        }
+        return new CompiledXsl(entry.templates);
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        final List<Map.Entry<String, Stylesheets.Entry>> all;
+        synchronized (this.entries) {
+            all = new ArrayList<>(this.entries.entrySet());
+        }
+        final Directives dirs = new Directives().add("xsl-cache");
+        for (final Map.Entry<String, Stylesheets.Entry> ent : all) {
+            dirs.add("xsl")
+                .attr("uri", ent.getKey())
+                .attr("hits", ent.getValue().hits.get())
+                .attr("compiled", ent.getValue().msec)
+                .up();
+        }
+        return dirs.up().iterator();
+    }
+
+    /**
+     * Compile stylesheet.
+     * @param uri Location
+     * @param includes Resolver for includes
+     * @return Compiled entry
+     * @throws IOException If fails to read
+     */
+    private static Stylesheets.Entry compile(final URI uri,
+        final URIResolver includes) throws IOException {
+        final long start = System.nanoTime();
+        final TransformerFactory factory = TransformerFactory.newInstance();
+        factory.setURIResolver(includes);
+        final Templates templates;
+        try (final InputStream xsl = new DatumInput(uri).stream()) {
+            templates = factory.newTemplates(
+                new StreamSource(xsl, uri.toString())
+            );
+        } catch (final TransformerConfigurationException ex) {
+            throw new IllegalArgumentException(
+                String.format("Failed to compile XSL %s", uri), ex
+            );
+        }
+        return new Stylesheets.Entry(
+            templates,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        );
+    }
+
+    /**
+     * Compiled stylesheet.
+     */
+    private static final class Entry {
+
+        /**
+         * Templates.
+         */
+        private final Templates templates;
+
+        /**
+         * Compilation time in milliseconds.
+         */
+        private final long msec;
+
+        /**
+         * Hits count.
+         */
+        private final AtomicLong hits;
+
+        /**
+         * Ctor.
+         * @param tpls Templates
+         * @param time Compilation time
+         */
+        Entry(final Templates tpls, final long time) {
+            this.templates = tpls;
+            this.msec = time;
+            this.hits = new AtomicLong();
+        }
+    }
+}
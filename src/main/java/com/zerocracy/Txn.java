@@ -18,10 +18,49 @@ package com.zerocracy;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.cactoos.Func;
+import org.cactoos.Proc;
+import org.cactoos.func.IoCheckedFunc;
+import org.cactoos.func.IoCheckedProc;
 
 /**
  * Project's items transaction.
  *
+ * <p>Items are copied to local files when they are touched for the first
+ * time, all reads and updates inside the transaction work with these
+ * copies. Nothing is written to the origin project until
+ * {@link #commit()}, which writes the final content of each updated
+ * copy to its origin item, one update per item. If the transaction is
+ * closed without commit, its changes are discarded.</p>
+ *
+ * <p>Conflicts are detected for the transaction as a whole. Every item
+ * touched by the transaction, even if it was only read, remembers the
+ * digest of its origin content at the moment it was copied. On commit
+ * all touched items are locked in the order of their names (for writing
+ * if they were updated, for reading otherwise) and their current
+ * digests are compared with the remembered ones. If any item was changed
+ * by someone else after it was copied, nothing is written and
+ * {@link Txn.ConflictException} is thrown, since the decisions made
+ * inside of the transaction may be based on stale data. The caller
+ * may start a new transaction and try again.</p>
+ *
+ * <p>Only when all digests match, while the locks are still held,
+ * the new contents, which are computed already, are written, item by
+ * item. The writes are not rolled back: if the storage fails in the
+ * middle of them, the items written before stay written.</p>
+ *
  * @since 1.0
  */
 public final class Txn implements Project, Closeable {
@@ -31,17 +70,30 @@ public final class Txn implements Project, Closeable {
      */
     private final Project origin;
 
+    /**
+     * Items touched by transaction.
+     */
+    private final Map<String, Txn.Staged> items;
+
     /**
      * Ctor.
      * @param origin Origin project
      */
     public Txn(final Project origin) {
         this.origin = origin;
+        this.items = new LinkedHashMap<>(0);
     }
 
     @Override
     public Item acq(final String file) throws IOException {
-        return this.origin.acq(file);
+        synchronized (this.items) {
+            Txn.Staged item = this.items.get(file);
+            if (item == null) {
+                item = new Txn.Staged(this.origin.acq(file));
+                this.items.put(file, item);
+            }
+            return item;
+        }
     }
 
     @Override
@@ -51,15 +103,256 @@ public final class Txn implements Project, Closeable {
 
     /**
      * Commit transaction.
+     * @throws Txn.ConflictException If some items were changed by others
      * @throws IOException If fails
-     * @checkstyle NonStaticMethodCheck (50 lines)
      */
     public void commit() throws IOException {
-        // nothing to commit
+        synchronized (this.items) {
+            try {
+                Txn.commit(
+                    new ArrayList<>(new TreeMap<>(this.items).values()), 0
+                );
+            } finally {
+                for (final Txn.Staged item : this.items.values()) {
+                    item.close();
+                }
+            }
+        }
     }
 
     @Override
     public void close() throws IOException {
-        // nothing to close
+        synchronized (this.items) {
+            for (final Txn.Staged item : this.items.values()) {
+                item.close();
+            }
+            this.items.clear();
+        }
+    }
+
+    /**
+     * Lock the items one by one, starting from the given one, check them
+     * and write the updated ones, when all of them are locked and
+     * checked.
+     * @param items Items, in the order of their names
+     * @param idx Index of the item to lock
+     * @throws IOException If fails
+     */
+    private static void commit(final List<Txn.Staged> items, final int idx)
+        throws IOException {
+        if (idx < items.size()) {
+            items.get(idx).commit(() -> Txn.commit(items, idx + 1));
+        }
+    }
+
+    /**
+     * Digest of the file content.
+     * @param path The file
+     * @return Base64 MD5 of the content, empty if there is no file
+     * @throws IOException If fails
+     */
+    private static String digest(final Path path) throws IOException {
+        final String hash;
+        if (Files.exists(path)) {
+            try {
+                hash = Base64.getEncoder().encodeToString(
+                    MessageDigest.getInstance("MD5").digest(
+                        Files.readAllBytes(path)
+                    )
+                );
+            } catch (final NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            }
+        } else {
+            hash = "";
+        }
+        return hash;
+    }
+
+    /**
+     * Step of the commit.
+     */
+    private interface Step {
+        /**
+         * Execute it.
+         * @throws IOException If fails
+         */
+        void exec() throws IOException;
+    }
+
+    /**
+     * Conflict of transaction with changes made by others.
+     */
+    public static final class ConflictException extends IOException {
+
+        /**
+         * Serialization marker.
+         */
+        private static final long serialVersionUID = 3021785437206912519L;
+
+        /**
+         * Ctor.
+         * @param item The item changed by others
+         */
+        ConflictException(final Item item) {
+            super(
+                String.format(
+                    "%s was changed outside of the transaction", item
+                )
+            );
+        }
+    }
+
+    /**
+     * Item staged in transaction.
+     */
+    private static final class Staged implements Item, Closeable {
+
+        /**
+         * Origin item.
+         */
+        private final Item origin;
+
+        /**
+         * Local copy of the item, empty until it's touched.
+         * It's dropped after commit, to be read again from origin.
+         */
+        private final List<Path> copy;
+
+        /**
+         * Digest of origin content, when it was copied.
+         */
+        private final List<String> digest;
+
+        /**
+         * Was the copy updated.
+         */
+        private final AtomicBoolean updated;
+
+        /**
+         * Ctor.
+         * @param origin Origin item
+         */
+        Staged(final Item origin) {
+            this.origin = origin;
+            this.copy = new ArrayList<>(1);
+            this.digest = new ArrayList<>(1);
+            this.updated = new AtomicBoolean();
+        }
+
+        @Override
+        public String toString() {
+            return this.origin.toString();
+        }
+
+        @Override
+        public <T> T read(final Func<Path, T> reader) throws IOException {
+            synchronized (this.copy) {
+                return new IoCheckedFunc<>(reader).apply(this.path());
+            }
+        }
+
+        @Override
+        public void update(final Proc<Path> writer) throws IOException {
+            synchronized (this.copy) {
+                new IoCheckedProc<>(writer).exec(this.path());
+                this.updated.set(true);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (this.copy) {
+                if (!this.copy.isEmpty()) {
+                    TempFiles.INSTANCE.dispose(this.copy.get(0));
+                    this.copy.clear();
+                    this.digest.clear();
+                }
+                this.updated.set(false);
+            }
+        }
+
+        /**
+         * Lock origin item, make sure it wasn't changed since it was
+         * copied, commit the rest of the transaction and write
+         * the updated copy to origin.
+         * @param rest The rest of the transaction
+         * @throws IOException If fails
+         */
+        public void commit(final Txn.Step rest) throws IOException {
+            synchronized (this.copy) {
+                if (this.copy.isEmpty()) {
+                    rest.exec();
+                } else if (!this.updated.get()) {
+                    this.origin.read(
+                        path -> {
+                            this.verify(path);
+                            rest.exec();
+                            return true;
+                        }
+                    );
+                } else {
+                    this.origin.update(
+                        path -> {
+                            this.verify(path);
+                            rest.exec();
+                            this.write(path);
+                        }
+                    );
+                    this.updated.set(false);
+                }
+            }
+        }
+
+        /**
+         * Local copy of the item, read from origin first time.
+         * @return Path to the copy
+         * @throws IOException If fails
+         */
+        private Path path() throws IOException {
+            if (this.copy.isEmpty()) {
+                final Path tmp = TempFiles.INSTANCE.newFile(Txn.class);
+                this.origin.read(
+                    src -> {
+                        this.digest.add(Txn.digest(src));
+                        if (Files.exists(src)) {
+                            Files.copy(
+                                src, tmp, StandardCopyOption.REPLACE_EXISTING
+                            );
+                        } else {
+                            Files.delete(tmp);
+                        }
+                        return tmp;
+                    }
+                );
+                this.copy.add(tmp);
+            }
+            return this.copy.get(0);
+        }
+
+        /**
+         * Replace origin content with the copy.
+         * @param path Origin content
+         * @throws IOException If fails
+         */
+        private void write(final Path path) throws IOException {
+            final Path src = this.copy.get(0);
+            if (Files.exists(src)) {
+                Files.copy(src, path, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(path);
+            }
+        }
+
+        /**
+         * Make sure origin content wasn't changed since it was copied.
+         * @param path Current origin content
+         * @throws IOException If it was changed
+         */
+        private void verify(final Path path) throws IOException {
+            if (!this.digest.get(0).equals(Txn.digest(path))) {
+                throw new Txn.ConflictException(this.origin);
+            }
+        }
     }
 }
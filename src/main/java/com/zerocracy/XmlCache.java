@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.cactoos.io.InputOf;
+import org.cactoos.io.Md5DigestOf;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Cache of parsed XML documents.
+ *
+ * <p>Documents are kept by item identity (one entry per item) together
+ * with MD5 digest of their content, so a changed file is parsed again
+ * and replaces the previous version of the same item. The cache is
+ * bounded by the total size of cached documents, least recently used
+ * items are evicted first.</p>
+ *
+ * <p>Cached documents are shared between threads, DOM is not thread-safe
+ * even for reading, so clients must synchronize on returned
+ * {@link XML} while querying it and must not modify it.</p>
+ *
+ * @since 1.0
+ */
+final class XmlCache implements Iterable<Directive> {
+
+    /**
+     * Singleton, for 64Mb of XML content.
+     */
+    public static final XmlCache INSTANCE = new XmlCache(64L << 20);
+
+    /**
+     * DOM to text size ratio, approximate.
+     */
+    private static final int RATIO = 8;
+
+    /**
+     * Maximum weight of all entries, in bytes.
+     */
+    private final long capacity;
+
+    /**
+     * Entries by item identity, in access order.
+     */
+    private final Map<String, XmlCache.Entry> entries;
+
+    /**
+     * Current weight of all entries, in bytes.
+     */
+    private long weight;
+
+    /**
+     * Hits count.
+     */
+    private final AtomicLong hits;
+
+    /**
+     * Misses count.
+     */
+    private final AtomicLong misses;
+
+    /**
+     * Ctor.
+     * @param max Maximum size of cached XML content in bytes
+     */
+    XmlCache(final long max) {
+        this.capacity = max * (long) XmlCache.RATIO;
+        // @checkstyle MagicNumber (1 line)
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Parsed document of the item.
+     * @param item Item identity
+     * @param file File with item content
+     * @return Shared read-only document
+     * @throws FileNotFoundException If file is absent
+     */
+    public XML document(final String item, final Path file)
+        throws FileNotFoundException {
+        final byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (final NoSuchFileException ex) {
+            throw new FileNotFoundException(ex.getMessage());
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return this.document(item, bytes);
+    }
+
+    /**
+     * Parsed document of the item.
+     * @param item Item identity
+     * @param bytes Item content
+     * @return Shared read-only document
+     */
+    public XML document(final String item, final byte[] bytes) {
+        final byte[] digest = XmlCache.digest(bytes);
+        synchronized (this.entries) {
+            final XmlCache.Entry entry = this.entries.get(item);
+            if (entry != null && Arrays.equals(entry.digest, digest)) {
+                this.hits.incrementAndGet();
+                return entry.xml;
+            }
+        }
+        this.misses.incrementAndGet();
+        final XML xml;
+        try {
+            xml = new XMLDocument(new ByteArrayInputStream(bytes));
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        this.put(item, digest, bytes.length, xml);
+        return xml;
+    }
+
+    /**
+     * Put just written document to the cache.
+     * @param item Item identity
+     * @param bytes Item content
+     * @param xml Parsed document, must not be modified anymore
+     */
+    public void put(final String item, final byte[] bytes, final XML xml) {
+        this.put(item, XmlCache.digest(bytes), bytes.length, xml);
+    }
+
+    /**
+     * Cache hits.
+     * @return Number of hits
+     */
+    public long hits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Cache misses.
+     * @return Number of misses
+     */
+    public long misses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Approximate memory used by cached documents.
+     * @return Weight in bytes
+     */
+    public long weight() {
+        synchronized (this.entries) {
+            return this.weight;
+        }
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        return new Directives()
+            .add("xml-cache")
+            .add("hits").set(this.hits()).up()
+            .add("misses").set(this.misses()).up()
+            .add("weight").set(this.weight()).up()
+            .up()
+            .iterator();
+    }
+
+    /**
+     * Put document into the cache, evicting old ones if necessary.
+     * @param item Item identity
+     * @param digest Content digest
+     * @param length Content length
+     * @param xml Parsed document
+     */
+    private void put(final String item, final byte[] digest,
+        final int length, final XML xml) {
+        final long size = (long) length * (long) XmlCache.RATIO;
+        synchronized (this.entries) {
+            final XmlCache.Entry old = this.entries.remove(item);
+            if (old != null) {
+                this.weight -= old.size;
+            }
+            if (size > this.capacity) {
+                return;
+            }
+            this.entries.put(item, new XmlCache.Entry(digest, size, xml));
+            this.weight += size;
+            final Iterator<XmlCache.Entry> iter =
+                this.entries.values().iterator();
+            while (this.weight > this.capacity && iter.hasNext()) {
+                this.weight -= iter.next().size;
+                iter.remove();
+            }
+        }
+    }
+
+    /**
+     * MD5 digest of content.
+     * @param bytes Content
+     * @return Digest
+     */
+    private static byte[] digest(final byte[] bytes) {
+        try {
+            return new Md5DigestOf(new InputOf(bytes)).asBytes();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Cache entry.
+     */
+    private static final class Entry {
+
+        /**
+         * Content digest.
+         */
+        private final byte[] digest;
+
+        /**
+         * Weight in bytes.
+         */
+        private final long size;
+
+        /**
+         * Parsed document.
+         */
+        private final XML xml;
+
+        /**
+         * Ctor.
+         * @param digest Content digest
+         * @param size Weight
+         * @param xml Document
+         */
+        Entry(final byte[] digest, final long size, final XML xml) {
+            this.digest = digest.clone();
+            this.size = size;
+            this.xml = xml;
+        }
+    }
+}
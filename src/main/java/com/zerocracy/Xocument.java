@@ -20,34 +20,32 @@ import com.jcabi.log.Logger;
 import com.jcabi.xml.StrictXML;
 import com.jcabi.xml.XML;
 import com.jcabi.xml.XMLDocument;
-import com.jcabi.xml.XSL;
-import com.jcabi.xml.XSLDocument;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.commons.lang3.StringUtils;
 import org.cactoos.cache.SoftFunc;
 import org.cactoos.func.SyncFunc;
 import org.cactoos.func.UncheckedFunc;
 import org.cactoos.io.InputOf;
-import org.cactoos.io.InputStreamOf;
 import org.cactoos.io.InputWithFallback;
-import org.cactoos.io.LengthOf;
-import org.cactoos.io.TeeInput;
 import org.cactoos.iterable.Mapped;
 import org.cactoos.list.SolidList;
 import org.cactoos.scalar.Reduced;
 import org.cactoos.scalar.Ternary;
 import org.cactoos.scalar.UncheckedScalar;
 import org.cactoos.text.TextOf;
-import org.cactoos.text.UncheckedText;
 import org.cactoos.time.DateAsText;
 import org.w3c.dom.Node;
 import org.w3c.dom.ls.LSResourceResolver;
@@ -72,9 +70,9 @@ import org.xembly.Xembler;
 public final class Xocument {
 
     /**
-     * Current DATUM version.
+     * Current DATUM version, from datum.properties.
      */
-    public static final String VERSION = "0.66.1";
+    public static final String VERSION = Xocument.datum();
 
     /**
      * Cache of documents.
@@ -85,7 +83,7 @@ public final class Xocument {
                 url -> new XMLDocument(
                     new TextOf(
                         new InputWithFallback(
-                            new InputOf(url),
+                            new DatumInput(url),
                             new InputOf("<index/>")
                         )
                     ).asString()
@@ -95,37 +93,83 @@ public final class Xocument {
     );
 
     /**
-     * Compressing XSL.
+     * XSD resolver.
      */
-    private static final XSL COMPRESS = XSLDocument.make(
-        Xocument.class.getResource("compress.xsl")
-    );
+    private static final LSResourceResolver RESOLVER = new XsdResolver();
 
     /**
-     * XSD resolver.
+     * Compiled XSD schemas.
      */
-    private static final LSResourceResolver RESOLVER = new XsdResolver();
+    private static final Schemas SCHEMAS = Schemas.INSTANCE;
+
+    /**
+     * Parsed documents.
+     */
+    private static final XmlCache CACHE = XmlCache.INSTANCE;
+
+    /**
+     * Content of the document.
+     */
+    private final Xocument.Storage storage;
 
     /**
-     * File.
+     * Identity of the document, for caching.
      */
-    private final Path file;
+    private final String item;
 
     /**
      * Ctor.
      * @param path File
      */
     public Xocument(final Path path) {
-        this.file = path;
+        this(path, path.toAbsolutePath().toString());
+    }
+
+    /**
+     * Ctor.
+     *
+     * <p>The file may be a temporary copy of the item, in this case
+     * item identity should be provided to reuse parsed document
+     * between reads.</p>
+     *
+     * @param path File
+     * @param item Item identity
+     */
+    public Xocument(final Path path, final String item) {
+        this(new Xocument.FileStorage(path), item);
+    }
+
+    /**
+     * Ctor.
+     *
+     * <p>The document is kept in memory, modifications replace
+     * the content of the reference. Empty content means that
+     * the document doesn't exist yet.</p>
+     *
+     * @param content Content of the document
+     * @param item Item identity
+     */
+    public Xocument(final AtomicReference<byte[]> content, final String item) {
+        this(new Xocument.MemoryStorage(content, item), item);
+    }
+
+    /**
+     * Primary ctor.
+     * @param storage Content of the document
+     * @param item Item identity
+     */
+    private Xocument(final Xocument.Storage storage, final String item) {
+        this.storage = storage;
+        this.item = item;
     }
 
     @Override
     public String toString() {
-        return new UncheckedText(
-            new TextOf(
-                new InputOf(this.file)
-            )
-        ).asString();
+        try {
+            return new String(this.storage.content(), StandardCharsets.UTF_8);
+        } catch (final FileNotFoundException ex) {
+            throw new UncheckedIOException(ex);
+        }
     }
 
     /**
@@ -145,10 +189,8 @@ public final class Xocument {
         final String uri = Xocument.url(
             String.format("/%s/xsd/%s.xsd", Xocument.VERSION, xsd)
         ).toString();
-        final Path path = this.file;
-        if (!path.toFile().exists() || Files.size(path) == 0L) {
-            Files.write(
-                path,
+        if (this.storage.empty()) {
+            this.storage.write(
                 String.join(
                     " ",
                     String.format("<%s", root),
@@ -158,14 +200,16 @@ public final class Xocument {
                     String.format(
                         "xsi:noNamespaceSchemaLocation='%s'/>", uri
                     )
-                ).getBytes(StandardCharsets.UTF_8),
-                StandardOpenOption.CREATE
+                ).getBytes(StandardCharsets.UTF_8)
             );
         }
-        final XML xml = this.upgraded(new XMLDocument(path.toFile()), xsd);
-        final String schema = xml.xpath(
-            String.format("/%s/@xsi:noNamespaceSchemaLocation", root)
-        ).get(0);
+        final XML cached = this.document();
+        final String schema;
+        synchronized (cached) {
+            schema = this.upgraded(cached, xsd).xpath(
+                String.format("/%s/@xsi:noNamespaceSchemaLocation", root)
+            ).get(0);
+        }
         if (!schema.equals(uri)) {
             this.modify(
                 new Directives().xpath(String.format("/%s", root)).attr(
@@ -174,7 +218,7 @@ public final class Xocument {
             );
             Logger.info(
                 this, "XSD upgraded to \"%s\" in %s", uri,
-                this.file.getFileName()
+                this.storage
             );
         }
         return this;
@@ -182,16 +226,19 @@ public final class Xocument {
 
     /**
      * Query it.
+     *
+     * <p>The document is not validated here, it's validated
+     * on every {@link #modify(Iterable)}.</p>
+     *
      * @param xpath Query string
      * @return Found texts
      * @throws FileNotFoundException If fails
      */
     public List<String> xpath(final String xpath) throws FileNotFoundException {
-        final XML xml = new StrictXML(
-            new XMLDocument(this.file.toFile()),
-            Xocument.RESOLVER
-        );
-        return xml.xpath(xpath);
+        final XML xml = this.document();
+        synchronized (xml) {
+            return xml.xpath(xpath);
+        }
     }
 
     /**
@@ -228,11 +275,15 @@ public final class Xocument {
      * @throws FileNotFoundException If fails
      */
     public List<XML> nodes(final String xpath) throws FileNotFoundException {
-        final XML xml = new StrictXML(
-            new XMLDocument(this.file.toFile()),
-            Xocument.RESOLVER
-        );
-        return xml.nodes(xpath);
+        final XML xml = this.document();
+        synchronized (xml) {
+            return new SolidList<>(
+                new Mapped<>(
+                    node -> new XMLDocument(node.node()),
+                    xml.nodes(xpath)
+                )
+            );
+        }
     }
 
     /**
@@ -241,24 +292,30 @@ public final class Xocument {
      * @throws IOException On failure
      */
     public void modify(final Iterable<Directive> dirs) throws IOException {
-        final XML before = new XMLDocument(this.toString());
-        final Node node = before.node();
+        final XML before = this.document();
+        final Node node;
+        final String text;
+        synchronized (before) {
+            node = before.node();
+            text = before.toString();
+        }
         new Xembler(dirs).applyQuietly(node);
-        final XML xml = new StrictXML(
-            Xocument.COMPRESS.with(
-                "version", Xocument.VERSION
-            ).transform(new XMLDocument(node)),
-            Xocument.RESOLVER
+        final XML xml = Xocument.strict(
+            Stylesheets.INSTANCE.xsl(
+                Xocument.class.getResource("compress.xsl")
+            ).with("version", Xocument.VERSION).transform(
+                new XMLDocument(node)
+            )
         );
         final String after = xml.toString();
-        if (!before.toString().equals(after)) {
-            Files.write(
-                this.file, after.getBytes(StandardCharsets.UTF_8)
-            );
+        if (!text.equals(after)) {
+            final byte[] bytes = after.getBytes(StandardCharsets.UTF_8);
+            this.storage.write(bytes);
+            Xocument.CACHE.put(this.item, bytes, xml);
             Logger.info(
                 this,
                 "modified '%s': %s",
-                this.file,
+                this.storage,
                 String.join(
                     ";", new Mapped<>(Object::toString, dirs)
                 )
@@ -295,13 +352,12 @@ public final class Xocument {
                         if (Xocument.compare(ver, version) > 0
                             && Xocument.compare(ver, Xocument.VERSION) <= 0) {
                             final URL url = new URL(node.xpath("@uri").get(0));
-                            output = XSLDocument.make(
-                                new InputStreamOf(url)
-                            ).transform(input);
+                            output = Stylesheets.INSTANCE.xsl(url)
+                                .transform(input);
                             Logger.info(
                                 this,
                                 "XML %s.xml upgraded to \"%s\" by %s in %s",
-                                xsd, ver, url, this.file.getFileName()
+                                xsd, ver, url, this.storage
                             );
                         }
                         return output;
@@ -316,13 +372,43 @@ public final class Xocument {
                     ).nodes("/index/entry[@dir='false']")
                 )
             ).value();
-            new LengthOf(
-                new TeeInput(after.toString(), this.file)
-            ).intValue();
+            this.storage.write(
+                after.toString().getBytes(StandardCharsets.UTF_8)
+            );
         }
         return after;
     }
 
+    /**
+     * Parsed document, shared through the cache.
+     * @return Read-only document
+     * @throws FileNotFoundException If the document is absent
+     */
+    private XML document() throws FileNotFoundException {
+        return Xocument.CACHE.document(this.item, this.storage.content());
+    }
+
+    /**
+     * Validate XML against its schema.
+     * @param xml XML to validate
+     * @return Valid XML
+     * @throws IOException If fails to get the schema
+     */
+    private static XML strict(final XML xml) throws IOException {
+        final List<String> uri = xml.xpath(
+            "/*/@xsi:noNamespaceSchemaLocation"
+        );
+        final XML valid;
+        if (uri.isEmpty()) {
+            valid = new StrictXML(xml, Xocument.RESOLVER);
+        } else {
+            valid = new StrictXML(
+                xml, Xocument.SCHEMAS.schema(uri.get(0)).newValidator()
+            );
+        }
+        return valid;
+    }
+
     /**
      * Build URL.
      * @param path Path
@@ -368,4 +454,138 @@ public final class Xocument {
         }
         return sum;
     }
+
+    /**
+     * Content of the document.
+     */
+    private interface Storage {
+
+        /**
+         * Is it empty or absent?
+         * @return TRUE if empty
+         * @throws IOException If fails
+         */
+        boolean empty() throws IOException;
+
+        /**
+         * Current content.
+         * @return Bytes
+         * @throws FileNotFoundException If absent
+         */
+        byte[] content() throws FileNotFoundException;
+
+        /**
+         * Replace the content.
+         * @param bytes New content
+         * @throws IOException If fails
+         */
+        void write(byte[] bytes) throws IOException;
+    }
+
+    /**
+     * Document in a file.
+     */
+    private static final class FileStorage implements Xocument.Storage {
+
+        /**
+         * File.
+         */
+        private final Path file;
+
+        /**
+         * Ctor.
+         * @param file File
+         */
+        FileStorage(final Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public String toString() {
+            return this.file.getFileName().toString();
+        }
+
+        @Override
+        public boolean empty() throws IOException {
+            return !this.file.toFile().exists() || Files.size(this.file) == 0L;
+        }
+
+        @Override
+        public byte[] content() throws FileNotFoundException {
+            try {
+                return Files.readAllBytes(this.file);
+            } catch (final NoSuchFileException ex) {
+                throw new FileNotFoundException(ex.getMessage());
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void write(final byte[] bytes) throws IOException {
+            Files.write(this.file, bytes);
+        }
+    }
+
+    /**
+     * Document in memory.
+     */
+    private static final class MemoryStorage implements Xocument.Storage {
+
+        /**
+         * Content.
+         */
+        private final AtomicReference<byte[]> bytes;
+
+        /**
+         * Name of the document.
+         */
+        private final String name;
+
+        /**
+         * Ctor.
+         * @param bytes Content
+         * @param name Name of the document
+         */
+        MemoryStorage(final AtomicReference<byte[]> bytes, final String name) {
+            this.bytes = bytes;
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return this.name;
+        }
+
+        @Override
+        public boolean empty() {
+            return this.bytes.get().length == 0;
+        }
+
+        @Override
+        public byte[] content() {
+            return this.bytes.get();
+        }
+
+        @Override
+        public void write(final byte[] content) {
+            this.bytes.set(content);
+        }
+    }
+
+    /**
+     * DATUM version, the same one the "datum" Maven profile packages.
+     * @return Version
+     */
+    private static String datum() {
+        final Properties props = new Properties();
+        try (InputStream input = Xocument.class.getResourceAsStream(
+            "datum.properties"
+        )) {
+            props.load(input);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return props.getProperty("datum.version");
+    }
 }
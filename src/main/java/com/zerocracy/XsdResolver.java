@@ -20,7 +20,6 @@ import java.net.URL;
 import org.cactoos.Func;
 import org.cactoos.func.SolidFunc;
 import org.cactoos.func.UncheckedFunc;
-import org.cactoos.io.InputOf;
 import org.cactoos.io.LSInputOf;
 import org.cactoos.io.StickyInput;
 import org.cactoos.io.SyncInput;
@@ -42,7 +41,7 @@ public final class XsdResolver implements LSResourceResolver {
             return new LSInputOf(
                 new SyncInput(
                     new StickyInput(
-                        new InputOf(
+                        new DatumInput(
                             // @checkstyle MagicNumber (6 lines)
                             new URL(parts[3])
                         )
@@ -16,32 +16,106 @@
  */
 package com.zerocracy.claims;
 
-import com.jcabi.xml.XML;
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+import com.jcabi.log.Logger;
 import java.io.Closeable;
-import java.io.IOException;
-import java.time.Instant;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.cactoos.Func;
+import org.cactoos.func.UncheckedFunc;
+import org.cactoos.iterable.Mapped;
 
 /**
- * Batch processing of {@link Claims}.
+ * Outbox of claims, sent to SQS in batches.
+ *
+ * <p>While the outbox is open in current thread, {@link ClaimsSqs}
+ * doesn't send claims but puts them here. On {@link #commit()} they are
+ * sent with <code>SendMessageBatch</code>, up to ten messages and
+ * {@link #maximum()} kilobytes per request, in the order of submission,
+ * what keeps the order inside of each message group. If the outbox
+ * was opened inside of another one, committed claims are moved to
+ * the outer outbox. Closing the outbox without commit discards all
+ * claims in it. Before sending, the outermost outbox offers every
+ * claim to the local delivery, which may process it without SQS.
+ * If SQS fails to accept some claims, the outbox still tries to send
+ * all others, except later claims of the same message group, and then
+ * {@link #commit()} throws an exception, which reports all claims
+ * that were not sent:</p>
+ *
+ * <pre> try (BatchClaims outbox = new BatchClaims().open()) {
+ *   stakeholder.process(project, claim);
+ *   outbox.commit();
+ * }</pre>
+ *
+ * <p>The class is not thread-safe, it's supposed to be used by
+ * one thread.</p>
  *
  * @since 1.0
- * @todo #1545:30min Implement BatchClaims for sending claims in batch.
- *  Assure that maximum batch size is 256KB for each batch and after
- *  implementation remove expected exception from tests in BatchClaimsTest.
  */
-public final class BatchClaims implements Claims, Closeable {
+public final class BatchClaims implements Closeable {
+
+    /**
+     * Outbox open in current thread.
+     */
+    private static final ThreadLocal<BatchClaims> CURRENT =
+        new ThreadLocal<>();
+
+    /**
+     * Maximum messages in one batch request.
+     */
+    private static final int BATCH = 10;
 
     /**
      * Maximum batch size (in KB).
      */
     private final int max;
 
+    /**
+     * Local delivery, returns TRUE if the message was delivered.
+     */
+    private final Func<SendMessageRequest, Boolean> local;
+
+    /**
+     * Messages to send.
+     */
+    private final List<BatchClaims.Outgoing> outgoing;
+
+    /**
+     * Outer outbox, NULL if none.
+     */
+    private BatchClaims outer;
+
+    /**
+     * Is it open in current thread.
+     */
+    private boolean active;
+
     /**
      * Default ctor.
      */
-    BatchClaims() {
+    public BatchClaims() {
+        this(req -> false);
+    }
+
+    /**
+     * Ctor.
+     * @param local Local delivery, returns TRUE if the message was delivered
+     */
+    public BatchClaims(final Func<SendMessageRequest, Boolean> local) {
         // @checkstyle MagicNumberCheck (1 line)
-        this(256);
+        this(256, local);
     }
 
     /**
@@ -49,24 +123,60 @@ public final class BatchClaims implements Claims, Closeable {
      * @param max Maximum batch size, in KB
      */
     BatchClaims(final int max) {
+        this(max, req -> false);
+    }
+
+    /**
+     * Ctor.
+     * @param max Maximum batch size, in KB
+     * @param local Local delivery, returns TRUE if the message was delivered
+     */
+    BatchClaims(final int max, final Func<SendMessageRequest, Boolean> local) {
         this.max = max;
+        this.local = local;
+        this.outgoing = new LinkedList<>();
     }
 
-    @Override
-    public void submit(final XML claim) throws IOException {
-        throw new UnsupportedOperationException("submit(XML) not implemented");
+    /**
+     * Open this outbox in current thread.
+     * @return This
+     */
+    public BatchClaims open() {
+        if (!this.active) {
+            this.outer = BatchClaims.CURRENT.get();
+            BatchClaims.CURRENT.set(this);
+            this.active = true;
+        }
+        return this;
     }
 
-    @Override
-    public void submit(final XML claim, final Instant expires) {
-        throw new UnsupportedOperationException(
-            "submit(XML, Instant) not implemented"
-        );
+    /**
+     * Send all claims from this outbox (or move them to the outer one)
+     * and close it.
+     * @throws IllegalStateException If some claims were not sent
+     */
+    public void commit() {
+        final BatchClaims target = this.outer;
+        this.release();
+        if (target == null) {
+            this.flush();
+        } else {
+            target.outgoing.addAll(this.outgoing);
+            this.outgoing.clear();
+        }
     }
 
     @Override
-    public void close() throws IOException {
-        throw new UnsupportedOperationException("close() not implemented");
+    public void close() {
+        if (this.active) {
+            this.release();
+            if (!this.outgoing.isEmpty()) {
+                Logger.info(
+                    this, "%d claims were discarded", this.outgoing.size()
+                );
+                this.outgoing.clear();
+            }
+        }
     }
 
     /**
@@ -77,4 +187,239 @@ public final class BatchClaims implements Claims, Closeable {
         return this.max;
     }
 
+    /**
+     * Put the message into the outbox open in current thread, if any.
+     * @param sqs SQS client
+     * @param msg Message
+     * @return TRUE if the message will be sent later
+     */
+    static boolean defer(final AmazonSQS sqs, final SendMessageRequest msg) {
+        final BatchClaims outbox = BatchClaims.CURRENT.get();
+        final boolean deferred = outbox != null;
+        if (deferred) {
+            outbox.outgoing.add(new BatchClaims.Outgoing(sqs, msg));
+        }
+        return deferred;
+    }
+
+    /**
+     * Close the outbox in current thread, restoring the outer one.
+     */
+    private void release() {
+        if (this.active) {
+            if (this.outer == null) {
+                BatchClaims.CURRENT.remove();
+            } else {
+                BatchClaims.CURRENT.set(this.outer);
+            }
+            this.outer = null;
+            this.active = false;
+        }
+    }
+
+    /**
+     * Send all messages.
+     */
+    private void flush() {
+        this.outgoing.removeIf(
+            msg -> new UncheckedFunc<>(this.local).apply(msg.msg)
+        );
+        final int total = this.outgoing.size();
+        final List<BatchClaims.Outgoing> unsent = new LinkedList<>();
+        final Set<String> broken = new HashSet<>(0);
+        while (!this.outgoing.isEmpty()) {
+            final BatchClaims.Outgoing first = this.outgoing.get(0);
+            if (broken.contains(first.group())) {
+                unsent.add(this.outgoing.remove(0));
+                continue;
+            }
+            final List<BatchClaims.Outgoing> batch = new ArrayList<>(
+                BatchClaims.BATCH
+            );
+            long size = 0L;
+            for (final BatchClaims.Outgoing msg : this.outgoing) {
+                if (batch.size() >= BatchClaims.BATCH
+                    || !first.sameQueue(msg)
+                    || broken.contains(msg.group())) {
+                    break;
+                }
+                size += msg.size();
+                if (!batch.isEmpty() && size > this.max * 1024L) {
+                    break;
+                }
+                batch.add(msg);
+            }
+            this.outgoing.subList(0, batch.size()).clear();
+            for (final BatchClaims.Outgoing msg : BatchClaims.send(batch)) {
+                unsent.add(msg);
+                broken.add(msg.group());
+            }
+        }
+        if (!unsent.isEmpty()) {
+            throw new IllegalStateException(
+                String.format(
+                    "%d of %d claims were not sent to SQS: %s",
+                    unsent.size(), total,
+                    String.join(
+                        ", ",
+                        new Mapped<>(
+                            msg -> msg.msg.getMessageDeduplicationId(),
+                            unsent
+                        )
+                    )
+                )
+            );
+        }
+    }
+
+    /**
+     * Send a batch of messages to the same queue.
+     * @param batch Messages
+     * @return Messages which were not sent
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    private static List<BatchClaims.Outgoing> send(
+        final List<BatchClaims.Outgoing> batch) {
+        final BatchClaims.Outgoing first = batch.get(0);
+        final List<BatchClaims.Outgoing> failed = new LinkedList<>();
+        if (batch.size() == 1) {
+            if (!first.send()) {
+                failed.add(first);
+            }
+        } else {
+            final List<SendMessageBatchRequestEntry> entries =
+                new ArrayList<>(batch.size());
+            for (int idx = 0; idx < batch.size(); ++idx) {
+                entries.add(batch.get(idx).entry(Integer.toString(idx)));
+            }
+            try {
+                final SendMessageBatchResult res =
+                    first.sqs.sendMessageBatch(
+                        new SendMessageBatchRequest(
+                            first.msg.getQueueUrl(), entries
+                        )
+                    );
+                for (final BatchResultErrorEntry err : res.getFailed()) {
+                    Logger.warn(
+                        BatchClaims.class,
+                        "Failed to send claim in batch (%s - %s), retrying",
+                        err.getCode(), err.getMessage()
+                    );
+                    final BatchClaims.Outgoing msg =
+                        batch.get(Integer.parseInt(err.getId()));
+                    if (!msg.send()) {
+                        failed.add(msg);
+                    }
+                }
+            } catch (final AmazonClientException ex) {
+                Logger.warn(
+                    BatchClaims.class,
+                    "Failed to send batch of %d claims: %[exception]s",
+                    batch.size(), ex
+                );
+                failed.addAll(batch);
+            }
+        }
+        Logger.info(
+            BatchClaims.class, "%d claims were sent",
+            batch.size() - failed.size()
+        );
+        return failed;
+    }
+
+    /**
+     * Message to send.
+     */
+    private static final class Outgoing {
+
+        /**
+         * SQS client.
+         */
+        private final AmazonSQS sqs;
+
+        /**
+         * The message.
+         */
+        private final SendMessageRequest msg;
+
+        /**
+         * Ctor.
+         * @param sqs SQS client
+         * @param msg The message
+         */
+        Outgoing(final AmazonSQS sqs, final SendMessageRequest msg) {
+            this.sqs = sqs;
+            this.msg = msg;
+        }
+
+        /**
+         * Send it alone.
+         * @return TRUE if it was sent
+         */
+        boolean send() {
+            boolean sent;
+            try {
+                this.sqs.sendMessage(this.msg);
+                sent = true;
+            } catch (final AmazonClientException ex) {
+                Logger.warn(
+                    BatchClaims.class,
+                    "Failed to send claim %s: %[exception]s",
+                    this.msg.getMessageDeduplicationId(), ex
+                );
+                sent = false;
+            }
+            return sent;
+        }
+
+        /**
+         * Message group of it.
+         * @return Group ID
+         */
+        String group() {
+            return this.msg.getMessageGroupId();
+        }
+
+        /**
+         * Is it going to the same queue with the same client.
+         * @param other Other message
+         * @return TRUE if the same
+         */
+        boolean sameQueue(final BatchClaims.Outgoing other) {
+            return this.sqs.equals(other.sqs)
+                && this.msg.getQueueUrl().equals(other.msg.getQueueUrl());
+        }
+
+        /**
+         * Size of the message payload.
+         * @return Size in bytes
+         */
+        long size() {
+            long size = (long) this.msg.getMessageBody()
+                .getBytes(StandardCharsets.UTF_8).length;
+            for (final Map.Entry<String, MessageAttributeValue> attr
+                : this.msg.getMessageAttributes().entrySet()) {
+                size += (long) (attr.getKey().length()
+                    + attr.getValue().getDataType().length()
+                    + attr.getValue().getStringValue().length());
+            }
+            return size;
+        }
+
+        /**
+         * Batch entry for this message.
+         * @param id Entry ID
+         * @return Entry
+         */
+        SendMessageBatchRequestEntry entry(final String id) {
+            return new SendMessageBatchRequestEntry(
+                id, this.msg.getMessageBody()
+            )
+                .withMessageGroupId(this.msg.getMessageGroupId())
+                .withMessageDeduplicationId(
+                    this.msg.getMessageDeduplicationId()
+                )
+                .withMessageAttributes(this.msg.getMessageAttributes());
+        }
+    }
 }
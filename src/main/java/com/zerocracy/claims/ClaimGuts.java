@@ -44,11 +44,17 @@ public final class ClaimGuts implements Iterable<Directive> {
      */
     private final List<Iterable<Message>> queues;
 
+    /**
+     * Other guts to report.
+     */
+    private final List<Iterable<Directive>> others;
+
     /**
      * Ctor.
      */
     public ClaimGuts() {
         this.queues = new LinkedList<>();
+        this.others = new LinkedList<>();
     }
 
     @Override
@@ -88,6 +94,9 @@ public final class ClaimGuts implements Iterable<Directive> {
             }
         }
         dirs.up();
+        for (final Iterable<Directive> other : this.others) {
+            dirs.append(other);
+        }
         return dirs.iterator();
     }
 
@@ -99,4 +108,13 @@ public final class ClaimGuts implements Iterable<Directive> {
     public void add(final Iterable<Message> queue) {
         this.queues.add(queue);
     }
+
+    /**
+     * Report other guts too.
+     *
+     * @param dirs Guts
+     */
+    public void append(final Iterable<Directive> dirs) {
+        this.others.add(dirs);
+    }
 }
@@ -19,7 +19,7 @@ package com.zerocracy.claims;
 import com.jcabi.xml.ClasspathSources;
 import com.jcabi.xml.XMLDocument;
 import com.jcabi.xml.XSLChain;
-import com.jcabi.xml.XSLDocument;
+import com.zerocracy.Stylesheets;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
@@ -102,7 +102,7 @@ public final class ClaimOut implements Iterable<Directive> {
         claims.submit(
             new XSLChain(
                 new Mapped<>(
-                    s -> XSLDocument.make(
+                    s -> Stylesheets.INSTANCE.xsl(
                         ClaimOut.class.getResource(
                             String.format("post-claim-out/%s.xsl", s)
                         )
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+import com.jcabi.log.Logger;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Durable local journal of claims.
+ *
+ * <p>Every claim delivered locally, bypassing SQS, is written here
+ * first, one file per claim, and removed when processed. Claims left
+ * in the journal after a crash are sent to SQS
+ * by {@link #replay(AmazonSQS, String)}.</p>
+ *
+ * @since 1.0
+ */
+public final class ClaimsJournal {
+
+    /**
+     * Directory.
+     */
+    private final Path dir;
+
+    /**
+     * Ctor.
+     * @param dir Directory
+     */
+    public ClaimsJournal(final Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Add a claim to the journal.
+     * @param msg SQS message of the claim
+     * @return ID of the entry
+     * @throws IOException If fails
+     */
+    public String add(final SendMessageRequest msg) throws IOException {
+        Files.createDirectories(this.dir);
+        final String id = String.format(
+            "%013d-%s", System.currentTimeMillis(), UUID.randomUUID()
+        );
+        final Directives dirs = new Directives()
+            .add("entry")
+            .add("group").set(msg.getMessageGroupId()).up()
+            .add("dedup").set(msg.getMessageDeduplicationId()).up()
+            .add("attrs");
+        for (final Map.Entry<String, MessageAttributeValue> attr
+            : msg.getMessageAttributes().entrySet()) {
+            dirs.add("attr")
+                .attr("name", attr.getKey())
+                .set(attr.getValue().getStringValue())
+                .up();
+        }
+        dirs.up().add("body").set(msg.getMessageBody());
+        final Path tmp = this.dir.resolve(String.format("%s.tmp", id));
+        try (final FileChannel chan = FileChannel.open(
+            tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE
+        )) {
+            chan.write(
+                ByteBuffer.wrap(
+                    new Xembler(dirs).xmlQuietly()
+                        .getBytes(StandardCharsets.UTF_8)
+                )
+            );
+            chan.force(true);
+        }
+        Files.move(
+            tmp, this.file(id), StandardCopyOption.ATOMIC_MOVE
+        );
+        return id;
+    }
+
+    /**
+     * Remove the entry.
+     * @param id ID of the entry
+     * @throws IOException If fails
+     */
+    public void remove(final String id) throws IOException {
+        Files.deleteIfExists(this.file(id));
+    }
+
+    /**
+     * Send the claim to SQS and remove it from the journal.
+     * @param id ID of the entry
+     * @param sqs SQS client
+     * @param queue Queue URL
+     * @throws IOException If fails
+     */
+    public void resend(final String id, final AmazonSQS sqs,
+        final String queue) throws IOException {
+        sqs.sendMessage(this.request(id).withQueueUrl(queue));
+        this.remove(id);
+    }
+
+    /**
+     * Send all claims from the journal to SQS and remove them.
+     * @param sqs SQS client
+     * @param queue Queue URL
+     * @return How many claims were sent
+     * @throws IOException If fails
+     */
+    public int replay(final AmazonSQS sqs, final String queue)
+        throws IOException {
+        final List<String> ids = this.ids();
+        for (final String id : ids) {
+            this.resend(id, sqs, queue);
+        }
+        if (!ids.isEmpty()) {
+            Logger.info(
+                this, "%d claims from journal %s were sent to SQS",
+                ids.size(), this.dir
+            );
+        }
+        return ids.size();
+    }
+
+    /**
+     * IDs of all entries, oldest first.
+     * @return IDs
+     * @throws IOException If fails
+     */
+    List<String> ids() throws IOException {
+        final List<String> ids = new ArrayList<>(0);
+        if (Files.isDirectory(this.dir)) {
+            try (final DirectoryStream<Path> files =
+                Files.newDirectoryStream(this.dir, "*.xml")) {
+                for (final Path file : files) {
+                    final String name = file.getFileName().toString();
+                    ids.add(name.substring(0, name.length() - ".xml".length()));
+                }
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Read the entry.
+     * @param id ID of the entry
+     * @return SQS message of the claim
+     * @throws IOException If fails
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    SendMessageRequest request(final String id) throws IOException {
+        final XML xml = new XMLDocument(this.file(id));
+        final Map<String, MessageAttributeValue> attrs = new HashMap<>(0);
+        for (final XML attr : xml.nodes("/entry/attrs/attr")) {
+            attrs.put(
+                attr.xpath("@name").get(0),
+                new MessageAttributeValue()
+                    .withDataType("String")
+                    .withStringValue(attr.xpath("text()").get(0))
+            );
+        }
+        return new SendMessageRequest()
+            .withMessageBody(xml.xpath("/entry/body/text()").get(0))
+            .withMessageGroupId(xml.xpath("/entry/group/text()").get(0))
+            .withMessageDeduplicationId(
+                xml.xpath("/entry/dedup/text()").get(0)
+            )
+            .withMessageAttributes(attrs);
+    }
+
+    /**
+     * File of the entry.
+     * @param id ID of the entry
+     * @return Path
+     */
+    private Path file(final String id) {
+        return this.dir.resolve(String.format("%s.xml", id));
+    }
+}
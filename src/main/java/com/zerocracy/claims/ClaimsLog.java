@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims;
+
+import com.jcabi.log.Logger;
+import com.jcabi.xml.XML;
+import com.zerocracy.Project;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Claims queue in local {@link SegmentLog}.
+ *
+ * <p>Claims get the same attributes as in {@link ClaimsSqs}, so the
+ * same pipeline can process them.</p>
+ *
+ * @since 1.0
+ */
+public final class ClaimsLog implements Claims {
+
+    /**
+     * Log.
+     */
+    private final SegmentLog log;
+
+    /**
+     * Project.
+     */
+    private final Project project;
+
+    /**
+     * Ctor.
+     * @param log Log
+     * @param project Project
+     */
+    public ClaimsLog(final SegmentLog log, final Project project) {
+        this.log = log;
+        this.project = project;
+    }
+
+    @Override
+    public void submit(final XML claim, final Instant expires)
+        throws IOException {
+        final Map<String, String> attrs = new HashMap<>(0);
+        attrs.put("project", this.project.pid());
+        attrs.put(
+            "signature",
+            new ClaimSignature(claim.nodes("//claim").get(0)).asString()
+        );
+        if (!expires.equals(Instant.MAX)) {
+            attrs.put("expires", expires.toString());
+        }
+        final List<String> until = claim.xpath("/claim/until/text()");
+        if (!until.isEmpty()) {
+            attrs.put("until", until.get(0));
+        }
+        final List<String> priority = claim.xpath(
+            "/claim/params/param[@name='priority']/text()"
+        );
+        if (!priority.isEmpty()) {
+            attrs.put("priority", priority.get(0));
+        }
+        final long offset = this.log.append(attrs, claim.toString());
+        Logger.info(
+            this, "Claim '%s' (%s) was appended at %d",
+            claim.xpath("/claim/@id").get(0),
+            claim.xpath("/claim/type/text()").get(0),
+            offset
+        );
+    }
+}
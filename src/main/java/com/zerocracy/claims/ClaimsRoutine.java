@@ -34,24 +34,29 @@ import com.zerocracy.shutdown.ShutdownFarm;
 import java.io.Closeable;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Collection;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.cactoos.scalar.UncheckedScalar;
 import org.cactoos.text.UncheckedText;
+import org.xembly.Directive;
+import org.xembly.Directives;
 
 /**
  * Claims routine.
  * <p>
  * This class uses long-polling to fetch claims from SQS queue.
+ * A few pollers receive messages concurrently: the more full batches
+ * SQS returns, the more of them are active, while empty batches
+ * and lack of room in the local queue reduce their amount.
  *
  * @since 1.0
  * @todo #1731:30min ClaimsRoutine is too complex and not testable,
@@ -67,13 +72,8 @@ import org.cactoos.text.UncheckedText;
         "PMD.ExcessiveImports"
     }
 )
-public final class ClaimsRoutine implements Runnable, Closeable {
-
-    /**
-     * Message by priority comparator.
-     */
-    private static final Comparator<Message> BY_PRIORITY =
-        Comparator.comparing(MsgPriority::from).reversed();
+public final class ClaimsRoutine implements Runnable, Closeable,
+    Iterable<Directive> {
 
     /**
      * Until attribute.
@@ -91,15 +91,45 @@ public final class ClaimsRoutine implements Runnable, Closeable {
     private static final int QUEUE_SIZE = 1024;
 
     /**
-     * Delay to fetch claims.
+     * Delay between sanitizations of full local queue, in seconds.
      */
     private static final long DELAY = 11L;
 
+    /**
+     * Maximum amount of concurrent pollers.
+     */
+    private static final int POLLERS = Tv.EIGHT;
+
+    /**
+     * Pause between receive requests of a poller, in milliseconds.
+     */
+    private static final long PAUSE = 100L;
+
+    /**
+     * Room in the local queue for each active poller.
+     */
+    private static final int ROOM = ClaimsRoutine.LIMIT * Tv.FOUR;
+
     /**
      * Scheduled service.
      */
     private final ScheduledExecutorService service;
 
+    /**
+     * How many pollers should be active.
+     */
+    private final AtomicInteger target;
+
+    /**
+     * Time of last sanitization, in milliseconds.
+     */
+    private final AtomicLong sanitized;
+
+    /**
+     * Receive stats.
+     */
+    private final ReceiveStats stats;
+
     /**
      * Farm.
      */
@@ -108,7 +138,17 @@ public final class ClaimsRoutine implements Runnable, Closeable {
     /**
      * Local message queue.
      */
-    private final BlockingQueue<Message> queue;
+    private final FairQueue queue;
+
+    /**
+     * Claims received before their due time.
+     */
+    private final DelayedClaims delayed;
+
+    /**
+     * Thread releasing delayed claims.
+     */
+    private final ExecutorService releaser;
 
     /**
      * Ctor.
@@ -116,13 +156,19 @@ public final class ClaimsRoutine implements Runnable, Closeable {
      * @param farm Farm
      */
     public ClaimsRoutine(final Farm farm) {
-        this.service = Executors.newSingleThreadScheduledExecutor(
+        this.service = Executors.newScheduledThreadPool(
+            ClaimsRoutine.POLLERS,
             new VerboseThreads(ClaimsRoutine.class)
         );
         this.farm = farm;
-        this.queue = new PriorityBlockingQueue<>(
-            ClaimsRoutine.QUEUE_SIZE, ClaimsRoutine.BY_PRIORITY
+        this.queue = new FairQueue();
+        this.delayed = new DelayedClaims(this::hide);
+        this.releaser = Executors.newSingleThreadExecutor(
+            new VerboseThreads(DelayedClaims.class)
         );
+        this.target = new AtomicInteger(1);
+        this.sanitized = new AtomicLong();
+        this.stats = new ReceiveStats();
     }
 
     /**
@@ -136,13 +182,22 @@ public final class ClaimsRoutine implements Runnable, Closeable {
             "Starting claims routine with local queue size = %s",
             ClaimsRoutine.QUEUE_SIZE
         );
-        this.service.scheduleWithFixedDelay(
-            new VerboseRunnable(
-                new ClaimsRoutine.ShutdownRunnable(this, shutdown)
-            ),
-            0L,
-            ClaimsRoutine.DELAY,
-            TimeUnit.SECONDS
+        for (int idx = 0; idx < ClaimsRoutine.POLLERS; ++idx) {
+            final int poller = idx;
+            this.service.scheduleWithFixedDelay(
+                new VerboseRunnable(
+                    new ClaimsRoutine.ShutdownRunnable(
+                        () -> this.poll(poller), shutdown
+                    ),
+                    true, true
+                ),
+                0L,
+                ClaimsRoutine.PAUSE,
+                TimeUnit.MILLISECONDS
+            );
+        }
+        this.releaser.submit(
+            new VerboseRunnable(() -> this.release(shutdown), true, true)
         );
     }
 
@@ -164,11 +219,13 @@ public final class ClaimsRoutine implements Runnable, Closeable {
             new UncheckedText(new ClaimsQueueUrl(this.farm))
                 .asString();
         if (full) {
-            Logger.info(
-                this, "Queue is full (%s), skipping",
-                this.queue.size()
-            );
-            this.sanitize(sqs, url);
+            if (this.due()) {
+                Logger.info(
+                    this, "Queue is full (%s), skipping",
+                    this.queue.size()
+                );
+                this.sanitize(sqs, url);
+            }
             return;
         }
         Logger.debug(
@@ -176,22 +233,28 @@ public final class ClaimsRoutine implements Runnable, Closeable {
             "receiving messages: limit=%d; timout=2m",
             ClaimsRoutine.LIMIT
         );
-        final List<Message> messages = sqs.receiveMessage(
-            new ReceiveMessageRequest(url)
-                .withMessageAttributeNames(
-                    "project", "signature", ClaimsRoutine.UNTIL,
-                    "expires", "priority"
-                )
-                .withVisibilityTimeout(
-                    (int) Duration.ofMinutes(2L).getSeconds()
-                ).withWaitTimeSeconds(Tv.TEN)
-                .withMaxNumberOfMessages(ClaimsRoutine.LIMIT)
-        ).getMessages();
+        final long start = this.stats.started();
+        List<Message> messages = Collections.emptyList();
+        try {
+            messages = sqs.receiveMessage(
+                new ReceiveMessageRequest(url)
+                    .withMessageAttributeNames(
+                        "project", "signature", ClaimsRoutine.UNTIL,
+                        "expires", "priority"
+                    )
+                    .withVisibilityTimeout(
+                        (int) Duration.ofMinutes(2L).getSeconds()
+                    ).withWaitTimeSeconds(Tv.TWENTY)
+                    .withMaxNumberOfMessages(ClaimsRoutine.LIMIT)
+            ).getMessages();
+        } finally {
+            this.stats.completed(start, messages.size());
+        }
+        this.adapt(messages.size());
         Logger.info(
             this,
-            "received %d messages, sqs has %s",
-            messages.size(),
-            new UncheckedScalar<>(new SqsQueueSize(this.farm)).value()
+            "received %d messages, %d pollers active",
+            messages.size(), this.target.get()
         );
         int queued = 0;
         for (final Message message : messages) {
@@ -216,26 +279,29 @@ public final class ClaimsRoutine implements Runnable, Closeable {
                 new MessageAttributeValue()
                     .withStringValue(Instant.now().toString())
             );
-            if (attr.containsKey(ClaimsRoutine.UNTIL)
-                && Instant.parse(
-                attr.get(ClaimsRoutine.UNTIL).getStringValue()
-            ).isAfter(Instant.now())) {
-                continue;
+            if (attr.containsKey(ClaimsRoutine.UNTIL)) {
+                final Instant until = Instant.parse(
+                    attr.get(ClaimsRoutine.UNTIL).getStringValue()
+                );
+                if (until.isAfter(Instant.now())) {
+                    this.delayed.hold(message, until);
+                    continue;
+                }
             }
-            ClaimsRoutine.addClaim(this.queue, message);
+            this.queue.add(message);
             ++queued;
         }
         Logger.info(
             this,
-            "received %d messages from SQS, enqueued %d, size %d",
-            messages.size(), queued, this.queue.size()
+            "received %d messages from SQS, enqueued %d, size %d, delayed %d",
+            messages.size(), queued, this.queue.size(), this.delayed.size()
         );
-        if (this.queue.size() > Tv.HUNDRED) {
+        if (this.queue.size() > Tv.HUNDRED && this.due()) {
             try {
                 this.sanitize(sqs, url);
                 // @checkstyle IllegalCatch (1 line)
             } catch (final Exception err) {
-                Logger.warn(this, "Sanitize failed: %[exception]s");
+                Logger.warn(this, "Sanitize failed: %[exception]s", err);
             }
         }
     }
@@ -243,6 +309,20 @@ public final class ClaimsRoutine implements Runnable, Closeable {
     @Override
     public void close() {
         this.service.shutdown();
+        this.releaser.shutdownNow();
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        return new Directives()
+            .add("receiver")
+            .add("pollers").set(this.target.get()).up()
+            .add("queue").set(this.queue.size()).up()
+            .append(this.queue.guts())
+            .append(this.delayed)
+            .append(this.stats)
+            .up()
+            .iterator();
     }
 
     /**
@@ -253,6 +333,89 @@ public final class ClaimsRoutine implements Runnable, Closeable {
         return this.queue;
     }
 
+    /**
+     * Move delayed claims to the local queue as soon as they are due.
+     * @param shutdown Shutdown hook
+     */
+    private void release(final ShutdownFarm.Hook shutdown) {
+        try {
+            while (shutdown.check()) {
+                final Message msg = this.delayed.poll(1L, TimeUnit.SECONDS);
+                if (msg != null) {
+                    this.queue.add(msg);
+                }
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Change visibility timeout of the message.
+     * @param msg Message
+     * @param seconds Timeout in seconds
+     * @return TRUE if changed
+     */
+    private boolean hide(final Message msg, final int seconds) {
+        new UncheckedScalar<>(new ExtSqs(this.farm)).value()
+            .changeMessageVisibility(
+                new UncheckedText(new ClaimsQueueUrl(this.farm)).asString(),
+                msg.getReceiptHandle(),
+                seconds
+            );
+        return true;
+    }
+
+    /**
+     * Receive messages, if this poller is active now.
+     * @param idx Number of the poller
+     */
+    private void poll(final int idx) {
+        if (idx == 0 || idx < this.allowed()) {
+            this.run();
+        }
+    }
+
+    /**
+     * How many pollers may be active now. It's never more than
+     * the target, and every poller needs some room in the local queue,
+     * including the messages which are being received right now.
+     * @return Amount of pollers
+     */
+    private int allowed() {
+        final int room = ClaimsRoutine.QUEUE_SIZE - this.queue.size()
+            - this.stats.inflight() * ClaimsRoutine.LIMIT;
+        return Math.min(this.target.get(), room / ClaimsRoutine.ROOM);
+    }
+
+    /**
+     * Change amount of active pollers after a receive.
+     * @param received How many messages were received
+     */
+    private void adapt(final int received) {
+        if (received >= ClaimsRoutine.LIMIT) {
+            this.target.accumulateAndGet(
+                1, (cur, inc) -> Math.min(ClaimsRoutine.POLLERS, cur + inc)
+            );
+        } else if (received == 0) {
+            this.target.accumulateAndGet(
+                1, (cur, dec) -> Math.max(1, cur - dec)
+            );
+        }
+    }
+
+    /**
+     * Is it time to sanitize the local queue again.
+     * Only one poller gets TRUE in every {@link #DELAY} seconds.
+     * @return TRUE if this poller has to sanitize it
+     */
+    private boolean due() {
+        final long now = System.currentTimeMillis();
+        final long last = this.sanitized.get();
+        return now - last > TimeUnit.SECONDS.toMillis(ClaimsRoutine.DELAY)
+            && this.sanitized.compareAndSet(last, now);
+    }
+
     /**
      * Sanitize messages on high load.
      *
@@ -305,19 +468,6 @@ public final class ClaimsRoutine implements Runnable, Closeable {
         return ping && old;
     }
 
-    /**
-     * Remove all duplicates and add new message.
-     * @param queue Queue
-     * @param msg Message
-     */
-    private static void addClaim(final Collection<Message> queue,
-        final Message msg) {
-        queue.removeIf(
-            next -> Objects.equals(next.getMessageId(), msg.getMessageId())
-        );
-        queue.add(msg);
-    }
-
     /**
      * Runnable decorator with shutdown hook check.
      */
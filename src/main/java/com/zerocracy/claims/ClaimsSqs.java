@@ -35,6 +35,9 @@ import org.cactoos.scalar.IoCheckedScalar;
 /**
  * Claims queue on Amazon SQS.
  *
+ * <p>If {@link BatchClaims} outbox is open in current thread, claims
+ * are put there, to be sent later in a batch.</p>
+ *
  * @since 1.0
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
@@ -148,14 +151,18 @@ public final class ClaimsSqs implements Claims {
             )
         );
         msg.setMessageAttributes(attrs);
-        Logger.debug(this, "sending message: %s", msg);
-        final SendMessageResult res = this.sqs.sendMessage(msg);
-        Logger.info(
-            this,
-            "Claim '%s' (%s) was send: mid=%s",
-            claim.xpath("/claim/@id").get(0),
-            type, res
-        );
+        if (BatchClaims.defer(this.sqs, msg)) {
+            Logger.debug(this, "deferring message: %s", msg);
+        } else {
+            Logger.debug(this, "sending message: %s", msg);
+            final SendMessageResult res = this.sqs.sendMessage(msg);
+            Logger.info(
+                this,
+                "Claim '%s' (%s) was send: mid=%s",
+                claim.xpath("/claim/@id").get(0),
+                type, res
+            );
+        }
     }
 
     @Override
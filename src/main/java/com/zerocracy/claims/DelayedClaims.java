@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.jcabi.log.Logger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.cactoos.BiFunc;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Claims received before their {@code until} time.
+ *
+ * <p>Such claims are kept locally until they are due. Visibility
+ * timeout of their SQS messages is extended exactly up to that time
+ * (and a bit more, for processing), so they are not received again
+ * and again. SQS doesn't allow messages to stay invisible for
+ * more than 12 hours, claims which are due later are hidden for
+ * {@link #HORIZON} and are not kept locally.</p>
+ *
+ * @since 1.0
+ */
+final class DelayedClaims implements Iterable<Directive> {
+
+    /**
+     * How far in the future claims may be kept locally.
+     */
+    static final Duration HORIZON = Duration.ofHours(11L);
+
+    /**
+     * Visibility timeout of the message after its release.
+     */
+    private static final Duration GRACE = Duration.ofMinutes(2L);
+
+    /**
+     * Change visibility timeout of the message, in seconds.
+     */
+    private final BiFunc<Message, Integer, Boolean> hide;
+
+    /**
+     * Claims ordered by due time.
+     */
+    private final DelayQueue<DelayedClaims.Held> queue;
+
+    /**
+     * Claims by message id.
+     */
+    private final Map<String, DelayedClaims.Held> index;
+
+    /**
+     * Claims released.
+     */
+    private final AtomicLong released;
+
+    /**
+     * Claims hidden for {@link #HORIZON}.
+     */
+    private final AtomicLong deferred;
+
+    /**
+     * Claims failed to hide.
+     */
+    private final AtomicLong failed;
+
+    /**
+     * Total lateness of released claims, in milliseconds.
+     */
+    private final AtomicLong lateness;
+
+    /**
+     * Maximum lateness of released claims, in milliseconds.
+     */
+    private final AtomicLong latest;
+
+    /**
+     * Ctor.
+     * @param hide Change visibility timeout of the message, in seconds
+     */
+    DelayedClaims(final BiFunc<Message, Integer, Boolean> hide) {
+        this.hide = hide;
+        this.queue = new DelayQueue<>();
+        this.index = new ConcurrentHashMap<>(0);
+        this.released = new AtomicLong();
+        this.deferred = new AtomicLong();
+        this.failed = new AtomicLong();
+        this.lateness = new AtomicLong();
+        this.latest = new AtomicLong();
+    }
+
+    /**
+     * Keep the claim until it's due.
+     * @param msg Message
+     * @param until Due time
+     * @return TRUE if the claim is kept
+     */
+    public boolean hold(final Message msg, final Instant until) {
+        final Duration left = Duration.between(Instant.now(), until);
+        final boolean far = left.compareTo(DelayedClaims.HORIZON) > 0;
+        final Duration vis;
+        if (far) {
+            vis = DelayedClaims.HORIZON;
+        } else {
+            vis = left.plus(DelayedClaims.GRACE);
+        }
+        boolean held = false;
+        if (this.hidden(msg, (int) vis.getSeconds())) {
+            if (far) {
+                this.deferred.incrementAndGet();
+            } else {
+                final DelayedClaims.Held claim =
+                    new DelayedClaims.Held(msg, until);
+                final DelayedClaims.Held old =
+                    this.index.put(msg.getMessageId(), claim);
+                if (old != null) {
+                    this.queue.remove(old);
+                }
+                this.queue.add(claim);
+                held = true;
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Take next due claim, waiting if necessary.
+     * @param timeout How long to wait
+     * @param unit Time unit of timeout
+     * @return Message or NULL if nothing is due in time
+     * @throws InterruptedException If interrupted
+     */
+    public Message poll(final long timeout, final TimeUnit unit)
+        throws InterruptedException {
+        final DelayedClaims.Held claim = this.queue.poll(timeout, unit);
+        Message msg = null;
+        if (claim != null) {
+            this.index.remove(claim.message().getMessageId(), claim);
+            final long late = Math.max(
+                0L, -claim.getDelay(TimeUnit.MILLISECONDS)
+            );
+            this.lateness.addAndGet(late);
+            this.latest.accumulateAndGet(late, Math::max);
+            this.released.incrementAndGet();
+            msg = claim.message();
+            msg.getMessageAttributes().put(
+                "received",
+                new MessageAttributeValue()
+                    .withStringValue(Instant.now().toString())
+            );
+        }
+        return msg;
+    }
+
+    /**
+     * Amount of claims kept.
+     * @return Size
+     */
+    public int size() {
+        return this.queue.size();
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        final long done = Math.max(1L, this.released.get());
+        return new Directives()
+            .add("delayed")
+            .add("held").set(this.queue.size()).up()
+            .add("released").set(this.released.get()).up()
+            .add("deferred").set(this.deferred.get()).up()
+            .add("failed").set(this.failed.get()).up()
+            .add("lateness")
+            .attr("avg", this.lateness.get() / done)
+            .attr("max", this.latest.get())
+            .up()
+            .up()
+            .iterator();
+    }
+
+    /**
+     * Change visibility timeout of the message.
+     * @param msg Message
+     * @param seconds Timeout in seconds
+     * @return TRUE if changed
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private boolean hidden(final Message msg, final int seconds) {
+        boolean done;
+        try {
+            done = this.hide.apply(msg, seconds);
+        } catch (final AmazonClientException err) {
+            Logger.warn(
+                this, "Failed to hide delayed message %s: %[exception]s",
+                msg.getMessageId(), err
+            );
+            done = false;
+            // @checkstyle IllegalCatch (1 line)
+        } catch (final Exception err) {
+            throw new IllegalStateException(err);
+        }
+        if (!done) {
+            this.failed.incrementAndGet();
+        }
+        return done;
+    }
+
+    /**
+     * Claim kept until due time.
+     */
+    private static final class Held implements Delayed {
+
+        /**
+         * Message.
+         */
+        private final Message msg;
+
+        /**
+         * Due time, in milliseconds.
+         */
+        private final long due;
+
+        /**
+         * Ctor.
+         * @param msg Message
+         * @param until Due time
+         */
+        Held(final Message msg, final Instant until) {
+            this.msg = msg;
+            this.due = until.toEpochMilli();
+        }
+
+        /**
+         * Message.
+         * @return Message
+         */
+        public Message message() {
+            return this.msg;
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(
+                this.due - System.currentTimeMillis(), TimeUnit.MILLISECONDS
+            );
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            return Long.compare(
+                this.getDelay(TimeUnit.MILLISECONDS),
+                other.getDelay(TimeUnit.MILLISECONDS)
+            );
+        }
+    }
+}
@@ -0,0 +1,616 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims;
+
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.cactoos.Func;
+import org.cactoos.func.UncheckedFunc;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Queue of messages, fair to projects.
+ *
+ * <p>Messages of higher {@link MsgPriority} always go first. Inside
+ * of one priority every project has its own FIFO lane and lanes are
+ * served by deficit round-robin: on each turn a project may take as
+ * many messages as its weight, so one noisy project can't starve
+ * others. A message with the same ID as a queued one replaces it.</p>
+ *
+ * <p>Removed and replaced messages are not searched for in their lanes,
+ * they are marked dead and skipped when they reach the head of the lane,
+ * so removal takes constant time.</p>
+ *
+ * <p>For every project the queue reports its depth and percentiles
+ * of the time recent messages were waiting in the queue.</p>
+ *
+ * @since 1.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.AvoidDuplicateLiterals"})
+public final class FairQueue extends AbstractQueue<Message>
+    implements BlockingQueue<Message> {
+
+    /**
+     * Priorities, most important first.
+     */
+    private static final List<MsgPriority> ORDER = Arrays.asList(
+        MsgPriority.HIGH, MsgPriority.NORMAL, MsgPriority.LOW
+    );
+
+    /**
+     * How many recent wait times to keep per project.
+     */
+    private static final int WAITS = 128;
+
+    /**
+     * Weights of projects.
+     */
+    private final UncheckedFunc<String, Integer> weights;
+
+    /**
+     * Lanes by priorities and projects.
+     */
+    private final Map<MsgPriority, Map<String, FairQueue.Lane>> lanes;
+
+    /**
+     * Queued entries by message IDs.
+     */
+    private final Map<String, FairQueue.Entry> index;
+
+    /**
+     * Recent wait times by projects, in milliseconds.
+     */
+    private final Map<String, long[]> waits;
+
+    /**
+     * Amount of messages taken by projects.
+     */
+    private final Map<String, Long> taken;
+
+    /**
+     * Lock.
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * Not empty condition.
+     */
+    private final Condition ready;
+
+    /**
+     * Ctor.
+     */
+    public FairQueue() {
+        this(pid -> 1);
+    }
+
+    /**
+     * Ctor.
+     * @param weights Weights of projects, positive
+     */
+    public FairQueue(final Func<String, Integer> weights) {
+        super();
+        this.weights = new UncheckedFunc<>(weights);
+        this.lanes = new EnumMap<>(MsgPriority.class);
+        for (final MsgPriority pri : FairQueue.ORDER) {
+            this.lanes.put(pri, new LinkedHashMap<>(0));
+        }
+        this.index = new HashMap<>(0);
+        this.waits = new HashMap<>(0);
+        this.taken = new HashMap<>(0);
+        this.lock = new ReentrantLock();
+        this.ready = this.lock.newCondition();
+    }
+
+    @Override
+    public boolean offer(final Message msg) {
+        final FairQueue.Entry entry = new FairQueue.Entry(msg);
+        this.lock.lock();
+        try {
+            final FairQueue.Entry old = this.index.put(entry.id, entry);
+            if (old != null) {
+                this.unlink(old);
+            }
+            final FairQueue.Lane lane = this.lanes.get(entry.priority)
+                .computeIfAbsent(
+                    entry.pid,
+                    pid -> new FairQueue.Lane(this.weights.apply(pid))
+                );
+            lane.entries.add(entry);
+            lane.live += 1;
+            this.ready.signal();
+        } finally {
+            this.lock.unlock();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean offer(final Message msg, final long timeout,
+        final TimeUnit unit) {
+        return this.offer(msg);
+    }
+
+    @Override
+    public void put(final Message msg) {
+        this.offer(msg);
+    }
+
+    @Override
+    public Message poll() {
+        this.lock.lock();
+        try {
+            return this.next();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public Message poll(final long timeout, final TimeUnit unit)
+        throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            while (this.index.isEmpty() && nanos > 0L) {
+                nanos = this.ready.awaitNanos(nanos);
+            }
+            return this.next();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public Message take() throws InterruptedException {
+        this.lock.lockInterruptibly();
+        try {
+            while (this.index.isEmpty()) {
+                this.ready.await();
+            }
+            return this.next();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public Message peek() {
+        this.lock.lock();
+        try {
+            Message msg = null;
+            for (final MsgPriority pri : FairQueue.ORDER) {
+                final Iterator<FairQueue.Lane> iter =
+                    this.lanes.get(pri).values().iterator();
+                if (iter.hasNext()) {
+                    msg = iter.next().head().msg;
+                    break;
+                }
+            }
+            return msg;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(final Object obj) {
+        boolean removed = false;
+        if (obj instanceof Message) {
+            this.lock.lock();
+            try {
+                final FairQueue.Entry entry = this.index.get(
+                    ((Message) obj).getMessageId()
+                );
+                if (entry != null && entry.msg.equals(obj)) {
+                    this.index.remove(entry.id);
+                    this.unlink(entry);
+                    removed = true;
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean contains(final Object obj) {
+        boolean found = false;
+        if (obj instanceof Message) {
+            this.lock.lock();
+            try {
+                final FairQueue.Entry entry = this.index.get(
+                    ((Message) obj).getMessageId()
+                );
+                found = entry != null && entry.msg.equals(obj);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public int size() {
+        this.lock.lock();
+        try {
+            return this.index.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(final Collection<? super Message> target) {
+        return this.drainTo(target, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(final Collection<? super Message> target,
+        final int max) {
+        this.lock.lock();
+        try {
+            int count = 0;
+            while (count < max && !this.index.isEmpty()) {
+                target.add(this.next());
+                ++count;
+            }
+            return count;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Message> iterator() {
+        final List<Message> snapshot;
+        this.lock.lock();
+        try {
+            snapshot = new ArrayList<>(this.index.size());
+            for (final MsgPriority pri : FairQueue.ORDER) {
+                for (final FairQueue.Lane lane : this.lanes.get(pri).values()) {
+                    for (final FairQueue.Entry entry : lane.entries) {
+                        if (!entry.dead) {
+                            snapshot.add(entry.msg);
+                        }
+                    }
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        return new FairQueue.Snapshot(this, snapshot.iterator());
+    }
+
+    /**
+     * Depth and wait times of projects.
+     * @return Xembly directives
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    public Iterable<Directive> guts() {
+        this.lock.lock();
+        try {
+            final Map<String, Integer> depth = new HashMap<>(0);
+            for (final Map<String, FairQueue.Lane> pris
+                : this.lanes.values()) {
+                for (final Map.Entry<String, FairQueue.Lane> lane
+                    : pris.entrySet()) {
+                    depth.merge(
+                        lane.getKey(), lane.getValue().live,
+                        Integer::sum
+                    );
+                }
+            }
+            final Directives dirs = new Directives().add("fair");
+            for (final Map.Entry<String, long[]> ent
+                : this.waits.entrySet()) {
+                final long count = this.taken.get(ent.getKey());
+                final long[] sorted = Arrays.copyOf(
+                    ent.getValue(),
+                    (int) Math.min(count, (long) FairQueue.WAITS)
+                );
+                Arrays.sort(sorted);
+                dirs.add("project")
+                    .attr("pid", ent.getKey())
+                    .attr("depth", depth.getOrDefault(ent.getKey(), 0))
+                    .attr("taken", count)
+                    // @checkstyle MagicNumber (3 lines)
+                    .attr("p50", FairQueue.percentile(sorted, 50))
+                    .attr("p95", FairQueue.percentile(sorted, 95))
+                    .attr("p99", FairQueue.percentile(sorted, 99))
+                    .up();
+                depth.remove(ent.getKey());
+            }
+            for (final Map.Entry<String, Integer> ent : depth.entrySet()) {
+                dirs.add("project")
+                    .attr("pid", ent.getKey())
+                    .attr("depth", ent.getValue())
+                    .attr("taken", 0)
+                    .up();
+            }
+            return dirs.up();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Take next message, must be called under the lock.
+     * @return Message or NULL if empty
+     */
+    private Message next() {
+        Message msg = null;
+        for (final MsgPriority pri : FairQueue.ORDER) {
+            final Map<String, FairQueue.Lane> pris = this.lanes.get(pri);
+            final Iterator<Map.Entry<String, FairQueue.Lane>> iter =
+                pris.entrySet().iterator();
+            if (!iter.hasNext()) {
+                continue;
+            }
+            final Map.Entry<String, FairQueue.Lane> head = iter.next();
+            final FairQueue.Lane lane = head.getValue();
+            if (lane.deficit <= 0) {
+                lane.deficit += lane.weight;
+            }
+            final FairQueue.Entry entry = lane.head();
+            lane.entries.pollFirst();
+            lane.live -= 1;
+            lane.deficit -= 1;
+            if (lane.live == 0) {
+                iter.remove();
+            } else if (lane.deficit <= 0) {
+                iter.remove();
+                pris.put(head.getKey(), lane);
+            }
+            this.index.remove(entry.id);
+            this.waited(entry);
+            msg = entry.msg;
+            break;
+        }
+        return msg;
+    }
+
+    /**
+     * Remove entry from its lane, must be called under the lock.
+     * The entry is only marked dead, it's skipped later, when it
+     * reaches the head of the lane.
+     * @param entry Entry
+     */
+    private void unlink(final FairQueue.Entry entry) {
+        final Map<String, FairQueue.Lane> pris =
+            this.lanes.get(entry.priority);
+        final FairQueue.Lane lane = pris.get(entry.pid);
+        if (lane != null && !entry.dead) {
+            entry.dead = true;
+            lane.live -= 1;
+            if (lane.live == 0) {
+                pris.remove(entry.pid);
+            }
+        }
+    }
+
+    /**
+     * Record wait time of the entry, must be called under the lock.
+     * @param entry Entry taken
+     */
+    private void waited(final FairQueue.Entry entry) {
+        final long count = this.taken.merge(entry.pid, 1L, Long::sum);
+        this.waits.computeIfAbsent(
+            entry.pid, pid -> new long[FairQueue.WAITS]
+        )[(int) ((count - 1L) % (long) FairQueue.WAITS)] =
+            System.currentTimeMillis() - entry.time;
+    }
+
+    /**
+     * Percentile of sorted values.
+     * @param sorted Sorted values
+     * @param pct Percentile
+     * @return Value
+     */
+    private static long percentile(final long[] sorted, final int pct) {
+        long value = 0L;
+        if (sorted.length > 0) {
+            // @checkstyle MagicNumber (1 line)
+            value = sorted[(sorted.length - 1) * pct / 100];
+        }
+        return value;
+    }
+
+    /**
+     * Lane of one project.
+     */
+    private static final class Lane {
+
+        /**
+         * Weight.
+         */
+        private final int weight;
+
+        /**
+         * Entries, including dead ones.
+         */
+        private final Deque<FairQueue.Entry> entries;
+
+        /**
+         * Messages the lane may take in current turn.
+         */
+        private int deficit;
+
+        /**
+         * Amount of live entries.
+         */
+        private int live;
+
+        /**
+         * Ctor.
+         * @param weight Weight
+         */
+        Lane(final int weight) {
+            this.weight = Math.max(1, weight);
+            this.entries = new ArrayDeque<>(1);
+        }
+
+        /**
+         * First live entry, dead ones before it are dropped.
+         * The lane must have live entries.
+         * @return Entry
+         */
+        FairQueue.Entry head() {
+            while (this.entries.peekFirst().dead) {
+                this.entries.pollFirst();
+            }
+            return this.entries.peekFirst();
+        }
+    }
+
+    /**
+     * Queued message.
+     */
+    private static final class Entry {
+
+        /**
+         * Message.
+         */
+        private final Message msg;
+
+        /**
+         * Message ID.
+         */
+        private final String id;
+
+        /**
+         * Project ID.
+         */
+        private final String pid;
+
+        /**
+         * Priority.
+         */
+        private final MsgPriority priority;
+
+        /**
+         * When queued, in milliseconds.
+         */
+        private final long time;
+
+        /**
+         * Is it removed from the queue.
+         */
+        private boolean dead;
+
+        /**
+         * Ctor.
+         * @param msg Message
+         */
+        Entry(final Message msg) {
+            this.msg = msg;
+            if (msg.getMessageId() == null) {
+                this.id = String.format("@%x", System.identityHashCode(msg));
+            } else {
+                this.id = msg.getMessageId();
+            }
+            final MessageAttributeValue attr =
+                msg.getMessageAttributes().get("project");
+            if (attr == null) {
+                this.pid = "";
+            } else {
+                this.pid = attr.getStringValue();
+            }
+            this.priority = MsgPriority.from(msg);
+            this.time = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Iterator over a snapshot, which removes from the queue.
+     */
+    private static final class Snapshot implements Iterator<Message> {
+
+        /**
+         * Queue.
+         */
+        private final FairQueue queue;
+
+        /**
+         * Origin iterator.
+         */
+        private final Iterator<Message> origin;
+
+        /**
+         * Last returned message.
+         */
+        private Message last;
+
+        /**
+         * Ctor.
+         * @param queue Queue
+         * @param origin Origin iterator
+         */
+        Snapshot(final FairQueue queue, final Iterator<Message> origin) {
+            this.queue = queue;
+            this.origin = origin;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.origin.hasNext();
+        }
+
+        @Override
+        public Message next() {
+            if (!this.origin.hasNext()) {
+                throw new NoSuchElementException("No more messages");
+            }
+            this.last = this.origin.next();
+            return this.last;
+        }
+
+        @Override
+        public void remove() {
+            if (this.last == null) {
+                throw new IllegalStateException("Nothing to remove");
+            }
+            this.queue.remove(this.last);
+            this.last = null;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims;
+
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+import com.jcabi.log.Logger;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.cactoos.Func;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Local delivery of claims, bypassing SQS.
+ *
+ * <p>The claim is written to the {@link ClaimsJournal} and handed
+ * to the sink, which accepts it only if the project is being processed
+ * by this node and its queue is not full. Otherwise the claim
+ * has to go to SQS. Delayed claims are never delivered locally.</p>
+ *
+ * <p>SQS drops claims with the same deduplication ID (project and claim
+ * signature) sent within five minutes. Local delivery keeps the same
+ * window: a claim is dropped if its twin was delivered locally,
+ * and goes to SQS, which will drop it, if its twin went there.</p>
+ *
+ * @since 1.0
+ */
+public final class LocalClaims implements Func<SendMessageRequest, Boolean>,
+    Iterable<Directive> {
+
+    /**
+     * Message attribute with journal entry ID.
+     */
+    public static final String ATTR = "journal";
+
+    /**
+     * Deduplication window of SQS FIFO queue, in milliseconds.
+     */
+    private static final long WINDOW = TimeUnit.MINUTES.toMillis(5L);
+
+    /**
+     * Journal.
+     */
+    private final ClaimsJournal journal;
+
+    /**
+     * Sink of local messages.
+     */
+    private final Func<Message, Boolean> sink;
+
+    /**
+     * Deduplication IDs of recent claims, oldest first, and the time
+     * they were seen, negative if the claim was not delivered locally.
+     */
+    private final Map<String, Long> recent;
+
+    /**
+     * Duplicates dropped.
+     */
+    private final AtomicLong duplicates;
+
+    /**
+     * Claims delivered locally.
+     */
+    private final AtomicLong delivered;
+
+    /**
+     * Claims sent to SQS.
+     */
+    private final AtomicLong overflow;
+
+    /**
+     * Ctor.
+     * @param journal Journal
+     * @param sink Sink of local messages, returns FALSE if rejected
+     */
+    public LocalClaims(final ClaimsJournal journal,
+        final Func<Message, Boolean> sink) {
+        this.journal = journal;
+        this.sink = sink;
+        this.delivered = new AtomicLong();
+        this.overflow = new AtomicLong();
+        this.recent = new LinkedHashMap<>(0);
+        this.duplicates = new AtomicLong();
+    }
+
+    @Override
+    public Boolean apply(final SendMessageRequest req) {
+        final Long seen = this.seen(req.getMessageDeduplicationId());
+        final boolean done;
+        if (seen == null) {
+            done = this.deliver(req);
+            if (!done) {
+                this.overflown(req.getMessageDeduplicationId());
+            }
+        } else {
+            this.duplicates.incrementAndGet();
+            done = seen > 0L;
+        }
+        return done;
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        return new Directives()
+            .add("local")
+            .add("delivered").set(this.delivered.get()).up()
+            .add("overflow").set(this.overflow.get()).up()
+            .add("duplicates").set(this.duplicates.get()).up()
+            .up()
+            .iterator();
+    }
+
+    /**
+     * Deliver the claim locally.
+     * @param req SQS request
+     * @return TRUE if delivered, FALSE if it has to go to SQS
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private boolean deliver(final SendMessageRequest req) {
+        boolean done = false;
+        if (!req.getMessageAttributes().containsKey("until")) {
+            try {
+                final String id = this.journal.add(req);
+                try {
+                    done = this.sink.apply(LocalClaims.message(id, req));
+                } finally {
+                    if (!done) {
+                        this.journal.remove(id);
+                    }
+                }
+                // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final Exception err) {
+                Logger.warn(
+                    this, "Failed to deliver claim locally: %[exception]s",
+                    err
+                );
+            }
+        }
+        if (done) {
+            this.delivered.incrementAndGet();
+        } else {
+            this.overflow.incrementAndGet();
+        }
+        return done;
+    }
+
+    /**
+     * Time when the claim with the same deduplication ID was seen within
+     * the deduplication window. If it wasn't, the claim is remembered
+     * as delivered locally.
+     * @param dedup Deduplication ID
+     * @return Time, negative if it went to SQS, or NULL if not seen
+     */
+    private Long seen(final String dedup) {
+        Long seen = null;
+        if (dedup != null) {
+            final long now = System.currentTimeMillis();
+            synchronized (this.recent) {
+                final Iterator<Long> iter = this.recent.values().iterator();
+                while (iter.hasNext()
+                    && Math.abs(iter.next()) < now - LocalClaims.WINDOW) {
+                    iter.remove();
+                }
+                seen = this.recent.putIfAbsent(dedup, now);
+            }
+        }
+        return seen;
+    }
+
+    /**
+     * Remember that the claim went to SQS.
+     * @param dedup Deduplication ID
+     */
+    private void overflown(final String dedup) {
+        if (dedup != null) {
+            synchronized (this.recent) {
+                this.recent.computeIfPresent(dedup, (key, time) -> -time);
+            }
+        }
+    }
+
+    /**
+     * Message to process locally.
+     * @param id Journal entry ID
+     * @param req SQS request
+     * @return Message
+     */
+    private static Message message(final String id,
+        final SendMessageRequest req) {
+        final Map<String, MessageAttributeValue> attrs =
+            new HashMap<>(req.getMessageAttributes());
+        attrs.put(
+            "received",
+            new MessageAttributeValue()
+                .withStringValue(Instant.now().toString())
+        );
+        attrs.put(
+            LocalClaims.ATTR,
+            new MessageAttributeValue().withStringValue(id)
+        );
+        return new Message()
+            .withMessageId(String.format("local-%s", id))
+            .withBody(req.getMessageBody())
+            .withMessageAttributes(attrs);
+    }
+}
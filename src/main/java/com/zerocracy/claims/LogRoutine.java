@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims;
+
+import com.amazonaws.services.sqs.model.Message;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseRunnable;
+import com.jcabi.log.VerboseThreads;
+import com.zerocracy.Farm;
+import com.zerocracy.entry.ExtSegmentLog;
+import com.zerocracy.shutdown.ShutdownFarm;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.cactoos.scalar.IoCheckedScalar;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Routine which reads claims from local {@link SegmentLog}
+ * into the message queue, instead of {@link ClaimsRoutine}.
+ *
+ * @since 1.0
+ */
+public final class LogRoutine implements Closeable, Iterable<Directive> {
+
+    /**
+     * Local queue size.
+     */
+    private static final int QUEUE_SIZE = 1024;
+
+    /**
+     * Delay between reads when the log is empty, in milliseconds.
+     */
+    private static final long PAUSE = 100L;
+
+    /**
+     * Farm.
+     */
+    private final Farm farm;
+
+    /**
+     * Executor.
+     */
+    private final ScheduledExecutorService service;
+
+    /**
+     * Message queue.
+     */
+    private final FairQueue queue;
+
+    /**
+     * Ctor.
+     * @param farm Farm
+     */
+    public LogRoutine(final Farm farm) {
+        this.farm = farm;
+        this.service = Executors.newSingleThreadScheduledExecutor(
+            new VerboseThreads(LogRoutine.class)
+        );
+        this.queue = new FairQueue();
+    }
+
+    /**
+     * Start routine.
+     * @param shutdown Shutdown hook
+     */
+    public void start(final ShutdownFarm.Hook shutdown) {
+        Logger.info(this, "Starting claims log routine");
+        this.service.scheduleWithFixedDelay(
+            new VerboseRunnable(
+                () -> {
+                    if (shutdown.check()) {
+                        this.poll();
+                    } else {
+                        this.log().close();
+                        this.service.shutdown();
+                    }
+                    return null;
+                },
+                true, true
+            ),
+            0L, LogRoutine.PAUSE, TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Message queue.
+     * @return Queue
+     */
+    public BlockingQueue<Message> messages() {
+        return this.queue;
+    }
+
+    @Override
+    public void close() {
+        this.service.shutdown();
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        final Directives dirs = new Directives()
+            .add("receiver")
+            .add("queue").set(this.queue.size()).up()
+            .append(this.queue.guts());
+        try {
+            dirs.append(this.log());
+        } catch (final IOException err) {
+            dirs.add("error").set(err.getMessage()).up();
+        }
+        return dirs.up().iterator();
+    }
+
+    /**
+     * Move all due claims from the log to the queue.
+     * @throws IOException If fails
+     */
+    private void poll() throws IOException {
+        final SegmentLog log = this.log();
+        while (true) {
+            final int room = LogRoutine.QUEUE_SIZE - this.queue.size();
+            if (room < Tv.TEN) {
+                break;
+            }
+            final List<Message> msgs = log.read(room);
+            if (msgs.isEmpty()) {
+                break;
+            }
+            this.queue.addAll(msgs);
+            Logger.info(
+                this, "read %d messages from log, queue size %d",
+                msgs.size(), this.queue.size()
+            );
+        }
+    }
+
+    /**
+     * The log.
+     * @return Log
+     * @throws IOException If fails
+     */
+    private SegmentLog log() throws IOException {
+        return new IoCheckedScalar<>(new ExtSegmentLog(this.farm)).value();
+    }
+}
@@ -26,15 +26,23 @@ import com.zerocracy.claims.proc.BrigadeProc;
 import com.zerocracy.claims.proc.CountingProc;
 import com.zerocracy.claims.proc.ExpiryProc;
 import com.zerocracy.claims.proc.FootprintProc;
+import com.zerocracy.claims.proc.JournalProc;
+import com.zerocracy.claims.proc.LogProc;
 import com.zerocracy.claims.proc.MessageMonitorProc;
 import com.zerocracy.claims.proc.ProcGuts;
 import com.zerocracy.claims.proc.SentryProc;
+import com.zerocracy.entry.ExtSqs;
 import com.zerocracy.farm.guts.Guts;
+import com.zerocracy.farm.props.Props;
 import com.zerocracy.shutdown.ShutdownFarm;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import lombok.EqualsAndHashCode;
+import org.cactoos.Proc;
+import org.cactoos.scalar.IoCheckedScalar;
+import org.cactoos.scalar.UncheckedScalar;
 import org.xembly.Directive;
 import org.xembly.Directives;
 
@@ -66,6 +74,26 @@ public final class MessageSink implements Farm {
      */
     private final Iterable<Directive> pguts;
 
+    /**
+     * Brigade guts.
+     */
+    private final Iterable<Directive> bguts;
+
+    /**
+     * Message monitor guts.
+     */
+    private final Iterable<Directive> mguts;
+
+    /**
+     * Local delivery guts.
+     */
+    private final Iterable<Directive> lguts;
+
+    /**
+     * Journal of locally delivered claims.
+     */
+    private final ClaimsJournal journal;
+
     /**
      * Primary ctr.
      * @param farm Farm
@@ -73,35 +101,70 @@ public final class MessageSink implements Farm {
      */
     @SuppressWarnings("PMD.ConstructorOnlyInitializesOrCallOtherConstructors")
     public MessageSink(final Farm farm, final ShutdownFarm.Hook shutdown) {
+        final Props props = new Props(farm);
+        final boolean enabled = new UncheckedScalar<>(
+            () -> props.has("//claims/local")
+        ).value();
+        this.journal = new ClaimsJournal(
+            Paths.get(
+                new UncheckedScalar<>(
+                    () -> MessageSink.journal(props, enabled)
+                ).value()
+            )
+        );
+        final LocalClaims local = new LocalClaims(
+            this.journal, this::deliver
+        );
+        final BrigadeProc brigade;
+        if (enabled) {
+            brigade = new BrigadeProc(this, local);
+        } else {
+            brigade = new BrigadeProc(this);
+        }
         final ProcGuts proc = new ProcGuts(
             new FootprintProc(
                 farm,
-                new CountingProc(
-                    new BrigadeProc(this),
-                    new AtomicInteger()
-                )
+                new CountingProc(brigade, new AtomicInteger())
             )
         );
+        final Proc<Message> sentry = new SentryProc(farm, proc);
+        final MessageMonitorProc monitor = new MessageMonitorProc(
+            farm, sentry, shutdown
+        );
         this.asynk = new AsyncSink(
-            new ExpiryProc(
-                new MessageMonitorProc(
-                    farm, new SentryProc(farm, proc),
-                    shutdown
+            new LogProc(
+                farm,
+                new ExpiryProc(sentry),
+                new ExpiryProc(
+                    new SentryProc(
+                        farm,
+                        new JournalProc(this.journal, farm, proc, monitor)
+                    )
                 )
             ),
             shutdown,
             farm
         );
         this.pguts = proc;
+        this.bguts = brigade;
+        this.mguts = monitor;
+        this.lguts = local;
         this.farm = farm;
     }
 
     /**
      * Start sink.
      * @param queue Message queue
+     * @throws IOException If fails
      */
     @SuppressWarnings("PMD.AvoidCatchingThrowable")
-    public void start(final BlockingQueue<Message> queue) {
+    public void start(final BlockingQueue<Message> queue) throws IOException {
+        if (!this.journal.ids().isEmpty()) {
+            this.journal.replay(
+                new IoCheckedScalar<>(new ExtSqs(this.farm)).value(),
+                new ClaimsQueueUrl(this.farm).asString()
+            );
+        }
         final int processors = Runtime.getRuntime().availableProcessors();
         Logger.info(
             this,
@@ -155,6 +218,9 @@ public final class MessageSink implements Farm {
                 .attr("id", this.getClass().getSimpleName())
                 .append(this.asynk.guts())
                 .append(this.pguts)
+                .append(this.bguts)
+                .append(this.mguts)
+                .append(this.lguts)
         ).apply(xpath);
     }
 
@@ -162,4 +228,46 @@ public final class MessageSink implements Farm {
     public void close() throws IOException {
         this.farm.close();
     }
+
+    /**
+     * Deliver a message to the sink locally.
+     * @param msg Message
+     * @return True if accepted
+     */
+    private boolean deliver(final Message msg) {
+        return this.asynk.local(msg);
+    }
+
+    /**
+     * Directory of the journal of local claims.
+     *
+     * <p>The journal must survive restarts, so it has to be configured
+     * explicitly when local delivery is enabled. Without local delivery
+     * nothing is ever written to the journal, so a temporary directory
+     * is good enough.</p>
+     * @param props Properties
+     * @param enabled Is local delivery enabled
+     * @return Path of the directory
+     * @throws IOException If fails
+     */
+    private static String journal(final Props props, final boolean enabled)
+        throws IOException {
+        final String dir;
+        if (props.has("//claims/journal")) {
+            dir = props.get("//claims/journal");
+        } else if (enabled) {
+            throw new IllegalStateException(
+                String.join(
+                    " ",
+                    "Local delivery of claims (//claims/local) needs",
+                    "a persistent //claims/journal directory"
+                )
+            );
+        } else {
+            dir = Paths.get(
+                System.getProperty("java.io.tmpdir"), "zerocracy-claims"
+            ).toString();
+        }
+        return dir;
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Stats of SQS receive requests.
+ *
+ * @since 1.0
+ */
+final class ReceiveStats implements Iterable<Directive> {
+
+    /**
+     * Requests in flight.
+     */
+    private final AtomicInteger flight;
+
+    /**
+     * Requests completed.
+     */
+    private final AtomicLong total;
+
+    /**
+     * Requests which returned nothing.
+     */
+    private final AtomicLong empty;
+
+    /**
+     * Messages received.
+     */
+    private final AtomicLong msgs;
+
+    /**
+     * Total latency, in milliseconds.
+     */
+    private final AtomicLong latency;
+
+    /**
+     * Maximum latency, in milliseconds.
+     */
+    private final AtomicLong slowest;
+
+    /**
+     * Ctor.
+     */
+    ReceiveStats() {
+        this.flight = new AtomicInteger();
+        this.total = new AtomicLong();
+        this.empty = new AtomicLong();
+        this.msgs = new AtomicLong();
+        this.latency = new AtomicLong();
+        this.slowest = new AtomicLong();
+    }
+
+    /**
+     * Request started.
+     * @return Start time, in milliseconds
+     */
+    public long started() {
+        this.flight.incrementAndGet();
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Request completed.
+     * @param start Start time, in milliseconds
+     * @param received How many messages were received
+     */
+    public void completed(final long start, final int received) {
+        final long msec = System.currentTimeMillis() - start;
+        this.flight.decrementAndGet();
+        this.total.incrementAndGet();
+        if (received == 0) {
+            this.empty.incrementAndGet();
+        }
+        this.msgs.addAndGet((long) received);
+        this.latency.addAndGet(msec);
+        this.slowest.accumulateAndGet(msec, Math::max);
+    }
+
+    /**
+     * Requests in flight.
+     * @return Amount of requests
+     */
+    public int inflight() {
+        return this.flight.get();
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        final long done = Math.max(1L, this.total.get());
+        return new Directives()
+            .add("inflight").set(this.flight.get()).up()
+            .add("receives").set(this.total.get()).up()
+            .add("messages").set(this.msgs.get()).up()
+            .add("empty").set(this.empty.get()).up()
+            .add("empty-rate")
+            .set(
+                String.format(
+                    Locale.ENGLISH, "%.2f", (double) this.empty.get() / done
+                )
+            )
+            .up()
+            .add("latency")
+            .attr("avg", this.latency.get() / done)
+            .attr("max", this.slowest.get())
+            .up()
+            .iterator();
+    }
+}
@@ -0,0 +1,590 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims;
+
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.jcabi.log.Logger;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Append-only log of claims on local disk.
+ *
+ * <p>Claims are appended to memory-mapped segment files of fixed size,
+ * each claim as a length-prefixed record with its attributes and body.
+ * The offset of a record is its position in the log. Records are read
+ * in order, delayed ones (with <code>until</code> attribute) are held
+ * until they are due, expired ones are skipped. A read record stays
+ * pending until it's acknowledged by {@link #ack(long)}, or it may be
+ * returned to the log by {@link #release(Message)} to be read again.</p>
+ *
+ * <p>For every project the log remembers the offset below which
+ * all its records are processed, these offsets are saved to disk
+ * from time to time, so after restart only not processed records
+ * are delivered again. Segments with processed records only
+ * are deleted.</p>
+ *
+ * @since 1.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.TooManyMethods"})
+public final class SegmentLog implements Closeable, Iterable<Directive> {
+
+    /**
+     * Message attribute with record offset.
+     */
+    public static final String OFFSET = "offset";
+
+    /**
+     * Default segment size, in bytes.
+     */
+    private static final int SEGMENT = 1 << 24;
+
+    /**
+     * How often to save offsets, in milliseconds.
+     */
+    private static final long SAVE = TimeUnit.SECONDS.toMillis(1L);
+
+    /**
+     * Size of record header.
+     */
+    private static final int HEADER = Integer.BYTES;
+
+    /**
+     * Directory.
+     */
+    private final Path dir;
+
+    /**
+     * Segment size.
+     */
+    private final int size;
+
+    /**
+     * Segments by base offsets.
+     */
+    private final NavigableMap<Long, MappedByteBuffer> segments;
+
+    /**
+     * End of written records, visible to readers.
+     */
+    private final AtomicLong limit;
+
+    /**
+     * Processed offsets by projects.
+     */
+    private final Map<String, Long> committed;
+
+    /**
+     * Pending offsets by projects.
+     */
+    private final Map<String, TreeSet<Long>> pending;
+
+    /**
+     * Last read offsets by projects.
+     */
+    private final Map<String, Long> last;
+
+    /**
+     * Projects of pending offsets.
+     */
+    private final NavigableMap<Long, String> inflight;
+
+    /**
+     * Delayed messages.
+     */
+    private final PriorityQueue<Message> delayed;
+
+    /**
+     * Position of the reader.
+     */
+    private long cursor;
+
+    /**
+     * When offsets were saved, in milliseconds.
+     */
+    private long saved;
+
+    /**
+     * Ctor.
+     * @param dir Directory
+     */
+    public SegmentLog(final Path dir) {
+        this(dir, SegmentLog.SEGMENT);
+    }
+
+    /**
+     * Ctor.
+     * @param dir Directory
+     * @param size Segment size, in bytes
+     */
+    SegmentLog(final Path dir, final int size) {
+        this.dir = dir;
+        this.size = size;
+        this.segments = new ConcurrentSkipListMap<>();
+        this.limit = new AtomicLong();
+        this.committed = new HashMap<>(0);
+        this.pending = new HashMap<>(0);
+        this.last = new HashMap<>(0);
+        this.inflight = new TreeMap<>();
+        this.delayed = new PriorityQueue<>(
+            Comparator.comparing(SegmentLog::until)
+        );
+    }
+
+    /**
+     * Open segments and offsets on disk.
+     * @return This
+     * @throws IOException If fails
+     */
+    public SegmentLog bootstrap() throws IOException {
+        Files.createDirectories(this.dir);
+        synchronized (this.segments) {
+            try (final DirectoryStream<Path> files =
+                Files.newDirectoryStream(this.dir, "*.seg")) {
+                for (final Path file : files) {
+                    final String name = file.getFileName().toString();
+                    this.segments.put(
+                        Long.parseLong(name.substring(0, name.indexOf('.'))),
+                        this.map(file)
+                    );
+                }
+            }
+            if (this.segments.isEmpty()) {
+                this.segment(0L);
+            }
+            final Map.Entry<Long, MappedByteBuffer> tail =
+                this.segments.lastEntry();
+            int pos = 0;
+            while (pos + SegmentLog.HEADER <= this.size
+                && tail.getValue().getInt(pos) > 0) {
+                pos += SegmentLog.HEADER + tail.getValue().getInt(pos);
+            }
+            this.limit.set(tail.getKey() + (long) pos);
+        }
+        synchronized (this.inflight) {
+            this.cursor = this.segments.firstKey();
+            final Path file = this.dir.resolve("offsets");
+            if (Files.exists(file)) {
+                for (final String line : Files.readAllLines(file)) {
+                    final String[] parts = line.split(" ");
+                    this.committed.put(parts[0], Long.parseLong(parts[1]));
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Append a record.
+     * @param attrs Attributes
+     * @param body Body
+     * @return Offset of the record
+     * @throws IOException If fails
+     */
+    public long append(final Map<String, String> attrs, final String body)
+        throws IOException {
+        final byte[] data = SegmentLog.encode(attrs, body);
+        if (data.length + SegmentLog.HEADER > this.size) {
+            throw new IOException(
+                String.format(
+                    "Record of %d bytes doesn't fit into segment of %d",
+                    data.length, this.size
+                )
+            );
+        }
+        synchronized (this.segments) {
+            long base = this.segments.lastKey();
+            int pos = (int) (this.limit.get() - base);
+            if (pos + SegmentLog.HEADER + data.length > this.size) {
+                base += (long) this.size;
+                pos = 0;
+                this.segment(base);
+            }
+            final MappedByteBuffer buf = this.segments.get(base);
+            final ByteBuffer dup = buf.duplicate();
+            dup.position(pos + SegmentLog.HEADER);
+            dup.put(data);
+            buf.putInt(pos, data.length);
+            buf.force();
+            this.limit.set(
+                base + (long) (pos + SegmentLog.HEADER + data.length)
+            );
+            return base + (long) pos;
+        }
+    }
+
+    /**
+     * Read next records which are due.
+     * @param max Maximum amount of records
+     * @return Messages
+     * @throws IOException If fails
+     */
+    public List<Message> read(final int max) throws IOException {
+        final List<Message> msgs = new ArrayList<>(0);
+        final long now = System.currentTimeMillis();
+        synchronized (this.inflight) {
+            while (msgs.size() < max && !this.delayed.isEmpty()
+                && SegmentLog.until(this.delayed.peek()) <= now) {
+                msgs.add(this.delayed.poll());
+            }
+            final long end = this.limit.get();
+            while (msgs.size() < max && this.cursor < end) {
+                final Message msg = this.next();
+                if (msg == null) {
+                    continue;
+                }
+                if (SegmentLog.expires(msg) < now) {
+                    this.ack(SegmentLog.offset(msg));
+                } else if (SegmentLog.until(msg) > now) {
+                    this.delayed.add(msg);
+                } else {
+                    msgs.add(msg);
+                }
+            }
+        }
+        return msgs;
+    }
+
+    /**
+     * Return a read record to the log, so it's read again.
+     *
+     * <p>The record stays pending, so the processed offset of its
+     * project doesn't move until it's read again and acknowledged.</p>
+     * @param msg Message returned by {@link #read(int)}
+     */
+    public void release(final Message msg) {
+        msg.getMessageAttributes().put(
+            "until",
+            new MessageAttributeValue().withStringValue(
+                Instant.now().toString()
+            )
+        );
+        synchronized (this.inflight) {
+            this.delayed.add(msg);
+        }
+    }
+
+    /**
+     * Acknowledge the record as processed.
+     * @param offset Offset of the record
+     * @throws IOException If fails
+     */
+    public void ack(final long offset) throws IOException {
+        synchronized (this.inflight) {
+            final String pid = this.inflight.remove(offset);
+            if (pid != null) {
+                final TreeSet<Long> offsets = this.pending.get(pid);
+                offsets.remove(offset);
+                final long done;
+                if (offsets.isEmpty()) {
+                    this.pending.remove(pid);
+                    done = this.last.remove(pid);
+                } else {
+                    done = offsets.first() - 1L;
+                }
+                this.committed.merge(pid, done, Math::max);
+                this.clean();
+                if (System.currentTimeMillis() - this.saved
+                    > SegmentLog.SAVE) {
+                    this.save();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this.inflight) {
+            this.save();
+        }
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        synchronized (this.inflight) {
+            return new Directives()
+                .add("log")
+                .add("segments").set(this.segments.size()).up()
+                .add("end").set(this.limit.get()).up()
+                .add("cursor").set(this.cursor).up()
+                .add("pending").set(this.inflight.size()).up()
+                .add("delayed").set(this.delayed.size()).up()
+                .up()
+                .iterator();
+        }
+    }
+
+    /**
+     * Read the record at the cursor and move it.
+     * @return Message or NULL if the record is processed already
+     * @throws IOException If fails
+     */
+    private Message next() throws IOException {
+        final Map.Entry<Long, MappedByteBuffer> seg =
+            this.segments.floorEntry(this.cursor);
+        final int pos = (int) (this.cursor - seg.getKey());
+        int len = 0;
+        if (pos + SegmentLog.HEADER <= this.size) {
+            len = seg.getValue().getInt(pos);
+        }
+        Message msg = null;
+        if (len == 0) {
+            this.cursor = seg.getKey() + (long) this.size;
+        } else {
+            final byte[] data = new byte[len];
+            final ByteBuffer dup = seg.getValue().duplicate();
+            dup.position(pos + SegmentLog.HEADER);
+            dup.get(data);
+            final long offset = this.cursor;
+            this.cursor += (long) (SegmentLog.HEADER + len);
+            msg = SegmentLog.decode(offset, data);
+            final String pid = msg.getMessageAttributes().get("project")
+                .getStringValue();
+            if (offset <= this.committed.getOrDefault(pid, -1L)) {
+                msg = null;
+            } else {
+                this.pending.computeIfAbsent(pid, key -> new TreeSet<>())
+                    .add(offset);
+                this.last.put(pid, offset);
+                this.inflight.put(offset, pid);
+            }
+        }
+        return msg;
+    }
+
+    /**
+     * Delete segments with processed records only.
+     * @throws IOException If fails
+     */
+    private void clean() throws IOException {
+        long low = this.cursor;
+        if (!this.inflight.isEmpty()) {
+            low = Math.min(low, this.inflight.firstKey());
+        }
+        synchronized (this.segments) {
+            while (this.segments.size() > 1
+                && this.segments.firstKey() + (long) this.size <= low) {
+                final long base = this.segments.pollFirstEntry().getKey();
+                Files.deleteIfExists(this.file(base));
+                Logger.info(this, "Segment %d of %s deleted", base, this.dir);
+            }
+        }
+    }
+
+    /**
+     * Save processed offsets.
+     * @throws IOException If fails
+     */
+    private void save() throws IOException {
+        final long first = this.segments.firstKey();
+        this.committed.values().removeIf(offset -> offset < first);
+        final StringBuilder text = new StringBuilder(0);
+        for (final Map.Entry<String, Long> ent : this.committed.entrySet()) {
+            text.append(ent.getKey()).append(' ')
+                .append(ent.getValue()).append('\n');
+        }
+        final Path tmp = this.dir.resolve("offsets.tmp");
+        Files.write(tmp, text.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(
+            tmp, this.dir.resolve("offsets"),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE
+        );
+        this.saved = System.currentTimeMillis();
+    }
+
+    /**
+     * Create new segment.
+     * @param base Base offset
+     * @throws IOException If fails
+     */
+    private void segment(final long base) throws IOException {
+        final Path file = this.file(base);
+        try (final RandomAccessFile raf =
+            new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength((long) this.size);
+        }
+        this.segments.put(base, this.map(file));
+    }
+
+    /**
+     * Map segment file into memory.
+     * @param file File
+     * @return Buffer
+     * @throws IOException If fails
+     */
+    private MappedByteBuffer map(final Path file) throws IOException {
+        try (final RandomAccessFile raf =
+            new RandomAccessFile(file.toFile(), "rw")) {
+            return raf.getChannel().map(
+                FileChannel.MapMode.READ_WRITE, 0L, (long) this.size
+            );
+        }
+    }
+
+    /**
+     * File of the segment.
+     * @param base Base offset
+     * @return Path
+     */
+    private Path file(final long base) {
+        return this.dir.resolve(String.format("%020d.seg", base));
+    }
+
+    /**
+     * Encode record.
+     * @param attrs Attributes
+     * @param body Body
+     * @return Bytes
+     * @throws IOException If fails
+     */
+    private static byte[] encode(final Map<String, String> attrs,
+        final String body) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(baos)) {
+            out.writeInt(attrs.size());
+            for (final Map.Entry<String, String> attr : attrs.entrySet()) {
+                out.writeUTF(attr.getKey());
+                out.writeUTF(attr.getValue());
+            }
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Decode record.
+     * @param offset Offset of the record
+     * @param data Bytes
+     * @return Message
+     * @throws IOException If fails
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    private static Message decode(final long offset, final byte[] data)
+        throws IOException {
+        final Map<String, MessageAttributeValue> attrs = new HashMap<>(0);
+        final byte[] body;
+        try (final DataInputStream in = new DataInputStream(
+            new ByteArrayInputStream(data)
+        )) {
+            final int count = in.readInt();
+            for (int idx = 0; idx < count; ++idx) {
+                attrs.put(
+                    in.readUTF(),
+                    new MessageAttributeValue().withStringValue(in.readUTF())
+                );
+            }
+            body = new byte[in.readInt()];
+            in.readFully(body);
+        }
+        attrs.put(
+            SegmentLog.OFFSET,
+            new MessageAttributeValue().withStringValue(Long.toString(offset))
+        );
+        attrs.put(
+            "received",
+            new MessageAttributeValue()
+                .withStringValue(Instant.now().toString())
+        );
+        return new Message()
+            .withMessageId(String.format("log-%d", offset))
+            .withBody(new String(body, StandardCharsets.UTF_8))
+            .withMessageAttributes(attrs);
+    }
+
+    /**
+     * Offset of the message.
+     * @param msg Message
+     * @return Offset
+     */
+    private static long offset(final Message msg) {
+        return Long.parseLong(
+            msg.getMessageAttributes().get(SegmentLog.OFFSET).getStringValue()
+        );
+    }
+
+    /**
+     * When the message is due.
+     * @param msg Message
+     * @return Time in milliseconds
+     */
+    private static long until(final Message msg) {
+        return SegmentLog.time(msg, "until", 0L);
+    }
+
+    /**
+     * When the message expires.
+     * @param msg Message
+     * @return Time in milliseconds
+     */
+    private static long expires(final Message msg) {
+        return SegmentLog.time(msg, "expires", Long.MAX_VALUE);
+    }
+
+    /**
+     * Time in the attribute of the message.
+     * @param msg Message
+     * @param name Attribute name
+     * @param def Default value
+     * @return Time in milliseconds
+     */
+    private static long time(final Message msg, final String name,
+        final long def) {
+        final MessageAttributeValue attr =
+            msg.getMessageAttributes().get(name);
+        final long time;
+        if (attr == null) {
+            time = def;
+        } else {
+            time = Instant.parse(attr.getStringValue()).toEpochMilli();
+        }
+        return time;
+    }
+}
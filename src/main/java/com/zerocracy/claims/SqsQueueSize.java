@@ -45,7 +45,7 @@ public final class SqsQueueSize implements Scalar<Long> {
     private static final Func<Farm, AtomicLong> FACTORY = new SolidFunc<>(
         frm -> {
             final AtomicLong mem = new AtomicLong();
-            if (!new Props(frm).has("//testing")) {
+            if (!new Props(frm).testing()) {
                 final AmazonSQS sqs = new ExtSqs(frm).value();
                 final String url = new ClaimsQueueUrl(frm).asString();
                 Executors.newSingleThreadScheduledExecutor()
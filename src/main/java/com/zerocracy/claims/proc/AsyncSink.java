@@ -23,11 +23,16 @@ import com.jcabi.log.Logger;
 import com.zerocracy.Farm;
 import com.zerocracy.claims.ClaimsQueueUrl;
 import com.zerocracy.claims.MsgPriority;
+import com.zerocracy.claims.SegmentLog;
+import com.zerocracy.entry.ExtSegmentLog;
 import com.zerocracy.entry.ExtSqs;
 import com.zerocracy.shutdown.ShutdownFarm;
 import java.io.IOException;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.cactoos.Proc;
 import org.cactoos.scalar.IoCheckedScalar;
 import org.cactoos.scalar.Reduced;
@@ -50,6 +55,16 @@ import org.xembly.Directives;
 @SuppressWarnings("PMD.ConstructorOnlyInitializesOrCallOtherConstructors")
 public final class AsyncSink {
 
+    /**
+     * How long a queue may be idle before it's reclaimed, in milliseconds.
+     */
+    private static final long IDLE = TimeUnit.MINUTES.toMillis(10L);
+
+    /**
+     * How often to look for idle queues, in milliseconds.
+     */
+    private static final long SWEEP = TimeUnit.MINUTES.toMillis(1L);
+
     /**
      * Origin proc.
      */
@@ -70,6 +85,11 @@ public final class AsyncSink {
      */
     private final Farm farm;
 
+    /**
+     * Time of last search for idle queues, in milliseconds.
+     */
+    private final AtomicLong swept;
+
     /**
      * Ctor.
      *
@@ -84,6 +104,7 @@ public final class AsyncSink {
         this.shutdown = shutdown;
         this.farm = farm;
         this.queues = new ConcurrentHashMap<>(Tv.FIFTY);
+        this.swept = new AtomicLong(System.currentTimeMillis());
     }
 
     /**
@@ -99,28 +120,24 @@ public final class AsyncSink {
             this.queues.clear();
             throw new IOException("Shutting down");
         }
+        this.reclaim();
         final String pid = msg.getMessageAttributes().get("project")
             .getStringValue();
-        final ProjectQueue queue = this.queues.computeIfAbsent(
-            pid, this::startedQueue
-        );
-        final ProjectQueue repaired = queue.repair();
-        final boolean process = repaired.size() < Tv.EIGHT
-            || MsgPriority.from(msg).value() > MsgPriority.LOW.value();
-        if (process) {
-            repaired.push(msg);
-        } else {
+        final boolean urgent =
+            MsgPriority.from(msg).value() > MsgPriority.LOW.value();
+        ProjectQueue queue = this.queue(pid);
+        boolean process = queue.size() < Tv.EIGHT || urgent;
+        while (process && !queue.offer(msg)) {
+            this.queues.remove(pid, queue);
+            queue = this.queue(pid);
+            process = queue.size() < Tv.EIGHT || urgent;
+        }
+        if (!process) {
             Logger.info(
                 this, "project queue %s is full, releasing message",
-                repaired.toString()
+                queue.toString()
             );
-            new IoCheckedScalar<>(new ExtSqs(this.farm)).value()
-                .changeMessageVisibility(
-                    new ChangeMessageVisibilityRequest()
-                        .withQueueUrl(new ClaimsQueueUrl(this.farm).asString())
-                        .withVisibilityTimeout(0)
-                        .withReceiptHandle(msg.getReceiptHandle())
-                );
+            this.release(msg);
             Logger.info(
                 this, "message %s was released",
                 msg.getMessageId()
@@ -129,6 +146,31 @@ public final class AsyncSink {
         return process;
     }
 
+    /**
+     * Process a message locally, if the project is being processed
+     * by this sink and its queue is not full.
+     * @param msg Message to process
+     * @return True if accepted
+     */
+    public boolean local(final Message msg) {
+        final ProjectQueue queue = this.queues.get(
+            msg.getMessageAttributes().get("project").getStringValue()
+        );
+        boolean accepted = false;
+        if (queue != null && !this.shutdown.stopping()
+            && queue.size() < Tv.EIGHT) {
+            try {
+                accepted = queue.offer(msg);
+            } catch (final IllegalStateException err) {
+                Logger.info(
+                    this, "message %s was not accepted: %s",
+                    msg.getMessageId(), err.getMessage()
+                );
+            }
+        }
+        return accepted;
+    }
+
     /**
      * Guts of the sink.
      *
@@ -149,6 +191,76 @@ public final class AsyncSink {
             ).up();
     }
 
+    /**
+     * Release the message, so it's delivered again later.
+     *
+     * <p>Messages from local {@link SegmentLog} are returned to the log,
+     * they have no receipt handle and the node may have no SQS at all.
+     * Other messages are made visible in SQS queue again.</p>
+     * @param msg Message
+     * @throws IOException If fails
+     */
+    private void release(final Message msg) throws IOException {
+        if (msg.getMessageAttributes().containsKey(SegmentLog.OFFSET)) {
+            new IoCheckedScalar<>(new ExtSegmentLog(this.farm)).value()
+                .release(msg);
+        } else {
+            new IoCheckedScalar<>(new ExtSqs(this.farm)).value()
+                .changeMessageVisibility(
+                    new ChangeMessageVisibilityRequest()
+                        .withQueueUrl(new ClaimsQueueUrl(this.farm).asString())
+                        .withVisibilityTimeout(0)
+                        .withReceiptHandle(msg.getReceiptHandle())
+                );
+        }
+    }
+
+    /**
+     * Forget queues which were idle for a long time.
+     *
+     * <p>A queue is removed only if it's still the one in the map,
+     * after it was retired, so it doesn't accept messages anymore.
+     * A producer, which got it just before that, gets FALSE from
+     * {@link ProjectQueue#offer(Message)}, removes it and takes a new
+     * queue, thus there is never more than one live queue
+     * for a project.</p>
+     */
+    private void reclaim() {
+        final long now = System.currentTimeMillis();
+        final long last = this.swept.get();
+        if (now - last > AsyncSink.SWEEP
+            && this.swept.compareAndSet(last, now)) {
+            int reclaimed = 0;
+            for (final Map.Entry<String, ProjectQueue> ent
+                : this.queues.entrySet()) {
+                if (ent.getValue().retire(AsyncSink.IDLE)
+                    && this.queues.remove(ent.getKey(), ent.getValue())) {
+                    ++reclaimed;
+                }
+            }
+            Logger.info(
+                this, "%d idle queues reclaimed, %d left",
+                reclaimed, this.queues.size()
+            );
+        }
+    }
+
+    /**
+     * Queue of the project, created if absent and repaired if stopped.
+     * @param pid Project id
+     * @return Queue
+     */
+    private ProjectQueue queue(final String pid) {
+        final ProjectQueue queue = this.queues.computeIfAbsent(
+            pid, this::startedQueue
+        );
+        final ProjectQueue live = queue.repair();
+        if (live != queue) {
+            this.queues.replace(pid, queue, live);
+        }
+        return live;
+    }
+
     /**
      * Create new project queue and start it.
      * @param pid Project id
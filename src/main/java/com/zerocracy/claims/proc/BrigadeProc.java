@@ -17,11 +17,13 @@
 package com.zerocracy.claims.proc;
 
 import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
 import com.jcabi.log.Logger;
 import com.jcabi.xml.XML;
 import com.jcabi.xml.XMLDocument;
 import com.zerocracy.Farm;
 import com.zerocracy.Project;
+import com.zerocracy.claims.BatchClaims;
 import com.zerocracy.claims.ClaimIn;
 import com.zerocracy.farm.StkSafe;
 import com.zerocracy.farm.StkTimed;
@@ -30,13 +32,16 @@ import com.zerocracy.farm.reactive.Brigade;
 import com.zerocracy.farm.reactive.StkRuntime;
 import groovy.lang.Script;
 import java.time.Duration;
+import java.util.Iterator;
 import java.util.Map;
+import org.cactoos.Func;
 import org.cactoos.Proc;
 import org.cactoos.iterable.Mapped;
 import org.cactoos.text.JoinedText;
 import org.cactoos.text.SubText;
 import org.reflections.Reflections;
 import org.reflections.scanners.SubTypesScanner;
+import org.xembly.Directive;
 
 /**
  * Process message in stakeholders brigade.
@@ -44,7 +49,8 @@ import org.reflections.scanners.SubTypesScanner;
  * @since 1.0
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
-public final class BrigadeProc implements Proc<Message> {
+public final class BrigadeProc implements Proc<Message>,
+    Iterable<Directive> {
 
     /**
      * Stakeholders brigade.
@@ -56,12 +62,28 @@ public final class BrigadeProc implements Proc<Message> {
      */
     private final Farm farm;
 
+    /**
+     * Local delivery of claims.
+     */
+    private final Func<SendMessageRequest, Boolean> local;
+
     /**
      * Ctor.
      *
      * @param farm Farm
      */
     public BrigadeProc(final Farm farm) {
+        this(farm, req -> false);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param farm Farm
+     * @param local Local delivery of claims
+     */
+    public BrigadeProc(final Farm farm,
+        final Func<SendMessageRequest, Boolean> local) {
         this(
             new Brigade(
                 new Mapped<>(
@@ -83,7 +105,8 @@ public final class BrigadeProc implements Proc<Message> {
                     ).getSubTypesOf(Script.class)
                 )
             ),
-            farm
+            farm,
+            local
         );
     }
 
@@ -94,8 +117,21 @@ public final class BrigadeProc implements Proc<Message> {
      * @param farm Farm
      */
     public BrigadeProc(final Brigade brigade, final Farm farm) {
+        this(brigade, farm, req -> false);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param brigade Brigade
+     * @param farm Farm
+     * @param local Local delivery of claims
+     */
+    public BrigadeProc(final Brigade brigade, final Farm farm,
+        final Func<SendMessageRequest, Boolean> local) {
         this.brigade = brigade;
         this.farm = farm;
+        this.local = local;
     }
 
     @Override
@@ -112,7 +148,11 @@ public final class BrigadeProc implements Proc<Message> {
             input.getMessageId(), claim.type(),
             claim.cid(), project.pid()
         );
-        final int total = this.brigade.apply(project, xml);
+        final int total;
+        try (BatchClaims outbox = new BatchClaims(this.local).open()) {
+            total = this.brigade.apply(project, xml);
+            outbox.commit();
+        }
         if (total == 0 && claim.hasToken()) {
             throw new IllegalStateException(
                 String.format(
@@ -143,4 +183,9 @@ public final class BrigadeProc implements Proc<Message> {
             claim.hasAuthor() ? String.format(", by @%s", claim.author()) : ""
         );
     }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        return this.brigade.iterator();
+    }
 }
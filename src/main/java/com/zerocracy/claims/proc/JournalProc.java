@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims.proc;
+
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.jcabi.log.Logger;
+import com.zerocracy.Farm;
+import com.zerocracy.claims.ClaimsJournal;
+import com.zerocracy.claims.ClaimsQueueUrl;
+import com.zerocracy.claims.LocalClaims;
+import com.zerocracy.entry.ExtSqs;
+import org.cactoos.Proc;
+import org.cactoos.scalar.IoCheckedScalar;
+
+/**
+ * Proc that processes locally delivered messages without SQS
+ * and removes them from the journal.
+ *
+ * <p>If processing of a local message fails, it is sent to SQS,
+ * in order to be processed once again, by any node. This is one more
+ * attempt than SQS messages get: they are acknowledged by
+ * {@link MessageMonitorProc} even when they fail. A local claim never
+ * went through SQS, so this is its only chance to be processed by
+ * another node, if it failed because of this one. If sending to SQS
+ * fails, the message stays in the journal and will be sent to SQS
+ * on the next start.</p>
+ *
+ * @since 1.0
+ */
+public final class JournalProc implements Proc<Message> {
+
+    /**
+     * Journal.
+     */
+    private final ClaimsJournal journal;
+
+    /**
+     * Resend the journal entry to SQS.
+     */
+    private final Proc<String> resend;
+
+    /**
+     * Proc for local messages.
+     */
+    private final Proc<Message> local;
+
+    /**
+     * Proc for SQS messages.
+     */
+    private final Proc<Message> remote;
+
+    /**
+     * Ctor.
+     * @param journal Journal
+     * @param farm Farm
+     * @param local Proc for local messages
+     * @param remote Proc for SQS messages
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public JournalProc(final ClaimsJournal journal, final Farm farm,
+        final Proc<Message> local, final Proc<Message> remote) {
+        this(journal, JournalProc.resend(journal, farm), local, remote);
+    }
+
+    /**
+     * Ctor.
+     * @param journal Journal
+     * @param resend Resend the journal entry to SQS
+     * @param local Proc for local messages
+     * @param remote Proc for SQS messages
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public JournalProc(final ClaimsJournal journal,
+        final Proc<String> resend,
+        final Proc<Message> local, final Proc<Message> remote) {
+        this.journal = journal;
+        this.resend = resend;
+        this.local = local;
+        this.remote = remote;
+    }
+
+    @Override
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public void exec(final Message input) throws Exception {
+        final MessageAttributeValue entry =
+            input.getMessageAttributes().get(LocalClaims.ATTR);
+        if (entry == null) {
+            this.remote.exec(input);
+        } else {
+            final String id = entry.getStringValue();
+            try {
+                this.local.exec(input);
+                // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final Exception err) {
+                Logger.warn(
+                    this, "Local claim %s failed, sending it to SQS",
+                    id
+                );
+                this.resend.exec(id);
+                throw err;
+            }
+            this.journal.remove(id);
+        }
+    }
+
+    /**
+     * Resend journal entries to the SQS queue of the farm.
+     * @param journal Journal
+     * @param farm Farm
+     * @return Proc for entry IDs
+     */
+    private static Proc<String> resend(final ClaimsJournal journal,
+        final Farm farm) {
+        return id -> journal.resend(
+            id,
+            new IoCheckedScalar<>(new ExtSqs(farm)).value(),
+            new ClaimsQueueUrl(farm).asString()
+        );
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims.proc;
+
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.zerocracy.Farm;
+import com.zerocracy.claims.SegmentLog;
+import com.zerocracy.entry.ExtSegmentLog;
+import org.cactoos.Proc;
+
+/**
+ * Proc that processes messages from local {@link SegmentLog}
+ * and acknowledges them there.
+ *
+ * @since 1.0
+ */
+public final class LogProc implements Proc<Message> {
+
+    /**
+     * Farm.
+     */
+    private final Farm farm;
+
+    /**
+     * Proc for log messages.
+     */
+    private final Proc<Message> local;
+
+    /**
+     * Proc for other messages.
+     */
+    private final Proc<Message> remote;
+
+    /**
+     * Ctor.
+     * @param farm Farm
+     * @param local Proc for log messages
+     * @param remote Proc for other messages
+     */
+    public LogProc(final Farm farm, final Proc<Message> local,
+        final Proc<Message> remote) {
+        this.farm = farm;
+        this.local = local;
+        this.remote = remote;
+    }
+
+    @Override
+    public void exec(final Message input) throws Exception {
+        final MessageAttributeValue offset =
+            input.getMessageAttributes().get(SegmentLog.OFFSET);
+        if (offset == null) {
+            this.remote.exec(input);
+        } else {
+            try {
+                this.local.exec(input);
+            } finally {
+                new ExtSegmentLog(this.farm).value().ack(
+                    Long.parseLong(offset.getStringValue())
+                );
+            }
+        }
+    }
+}
@@ -19,8 +19,9 @@ package com.zerocracy.claims.proc;
 import com.amazonaws.services.sqs.AmazonSQS;
 import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
 import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchResult;
-import com.amazonaws.services.sqs.model.DeleteMessageRequest;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchResultEntry;
 import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
 import com.jcabi.aspects.Tv;
 import com.jcabi.log.Logger;
 import com.jcabi.log.VerboseRunnable;
@@ -30,29 +31,40 @@ import com.zerocracy.claims.ClaimsQueueUrl;
 import com.zerocracy.entry.ExtSqs;
 import com.zerocracy.shutdown.ShutdownFarm;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.cactoos.Proc;
+import org.cactoos.iterable.Filtered;
 import org.cactoos.iterable.Partitioned;
 import org.cactoos.list.ListOf;
 import org.cactoos.scalar.SolidScalar;
 import org.cactoos.scalar.UncheckedScalar;
 import org.cactoos.text.UncheckedText;
+import org.xembly.Directive;
+import org.xembly.Directives;
 
 /**
  * Monitor processing of message in SQS queue.
  *
+ * <p>Visibility timeout of the message is extended only when
+ * it is about to expire, before the next refresh. Processed messages
+ * are deleted from SQS in batches by {@link SqsAcker}.</p>
+ *
  * @since 1.0
  * @checkstyle ClassDataAbstractionCoupling (2 lines)
  */
-public final class MessageMonitorProc implements Proc<Message> {
+@SuppressWarnings("PMD.TooManyMethods")
+public final class MessageMonitorProc implements Proc<Message>,
+    Iterable<Directive> {
 
     /**
      * Maximum batch size of Amazon SQS change message visibility request.
@@ -60,6 +72,22 @@ public final class MessageMonitorProc implements Proc<Message> {
      */
     public static final int VIS_BATCH_MAX = 10;
 
+    /**
+     * Visibility timeout of received message, as requested
+     * by {@code ClaimsRoutine}.
+     */
+    private static final Duration VISIBILITY = Duration.ofMinutes(2L);
+
+    /**
+     * Interval between acker flushes, in milliseconds.
+     */
+    private static final long FLUSH = 500L;
+
+    /**
+     * Extra time for SQS request to complete, in milliseconds.
+     */
+    private static final long SLACK = TimeUnit.SECONDS.toMillis(10L);
+
     /**
      * Origin.
      */
@@ -73,12 +101,18 @@ public final class MessageMonitorProc implements Proc<Message> {
     /**
      * Monitor thread.
      */
-    private final ExecutorService routine;
+    private final ScheduledExecutorService routine;
+
+    /**
+     * Messages in processing and their visibility deadlines,
+     * in milliseconds.
+     */
+    private final Map<Message, Long> messages;
 
     /**
-     * Messages to queue.
+     * Refresh interval in milliseconds.
      */
-    private final Set<Message> messages;
+    private final long interval;
 
     /**
      * Duration of message validity.
@@ -90,6 +124,21 @@ public final class MessageMonitorProc implements Proc<Message> {
      */
     private final ShutdownFarm.Hook shutdown;
 
+    /**
+     * Acker.
+     */
+    private final SqsAcker acker;
+
+    /**
+     * Visibility extensions sent.
+     */
+    private final AtomicLong extended;
+
+    /**
+     * Visibility extensions skipped.
+     */
+    private final AtomicLong skipped;
+
     /**
      * Ctor.
      *
@@ -124,9 +173,13 @@ public final class MessageMonitorProc implements Proc<Message> {
         final ShutdownFarm.Hook shutdown) {
         this.origin = origin;
         this.farm = farm;
+        this.interval = TimeUnit.SECONDS.toMillis(interval);
         this.duration = duration;
         this.shutdown = shutdown;
-        this.messages = ConcurrentHashMap.newKeySet();
+        this.messages = new ConcurrentHashMap<>(0);
+        this.acker = new SqsAcker(farm);
+        this.extended = new AtomicLong();
+        this.skipped = new AtomicLong();
         this.routine = new UncheckedScalar<>(
             new SolidScalar<>(
                 () -> {
@@ -140,6 +193,11 @@ public final class MessageMonitorProc implements Proc<Message> {
                         ),
                         interval, interval, TimeUnit.SECONDS
                     );
+                    svc.scheduleWithFixedDelay(
+                        new VerboseRunnable(this.acker::flush, true, true),
+                        MessageMonitorProc.FLUSH, MessageMonitorProc.FLUSH,
+                        TimeUnit.MILLISECONDS
+                    );
                     return svc;
                 }
             )
@@ -148,27 +206,63 @@ public final class MessageMonitorProc implements Proc<Message> {
 
     @Override
     public void exec(final Message input) throws Exception {
-        synchronized (this.messages) {
-            this.messages.add(input);
-        }
+        this.messages.put(input, MessageMonitorProc.received(input));
         try {
-            final List<Message> btch = Collections.singletonList(input);
-            if (this.sendMessageVisibilityBatch(btch)) {
+            if (!this.due(input)
+                || this.sendMessageVisibilityBatch(
+                    Collections.singletonList(input)
+                )) {
                 this.origin.exec(input);
             }
         } finally {
-            synchronized (this.messages) {
-                this.messages.remove(input);
-            }
-            new ExtSqs(this.farm).value().deleteMessage(
-                new DeleteMessageRequest()
-                    .withQueueUrl(new ClaimsQueueUrl(this.farm).asString())
-                    .withReceiptHandle(input.getReceiptHandle())
-            );
-            Logger.info(
-                this, "message %s was deleted", input.getMessageId()
-            );
+            this.messages.remove(input);
+            this.acker.ack(input);
+        }
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        return new Directives()
+            .add("monitor")
+            .add("inflight").set(this.messages.size()).up()
+            .add("extended").set(this.extended.get()).up()
+            .add("skipped").set(this.skipped.get()).up()
+            .append(this.acker)
+            .up()
+            .iterator();
+    }
+
+    /**
+     * Visibility deadline of just received message.
+     * @param msg Message
+     * @return Deadline in milliseconds, zero if unknown
+     */
+    private static long received(final Message msg) {
+        final MessageAttributeValue attr =
+            msg.getMessageAttributes().get("received");
+        long deadline = 0L;
+        if (attr != null && attr.getStringValue() != null) {
+            deadline = Instant.parse(attr.getStringValue())
+                .plus(MessageMonitorProc.VISIBILITY)
+                .toEpochMilli();
         }
+        return deadline;
+    }
+
+    /**
+     * Message may become visible before the next refresh.
+     * @param msg Message
+     * @return TRUE if visibility has to be extended now
+     */
+    private boolean due(final Message msg) {
+        final Long deadline = this.messages.get(msg);
+        final boolean due = deadline != null
+            && deadline - System.currentTimeMillis()
+            < this.interval + MessageMonitorProc.SLACK;
+        if (!due) {
+            this.skipped.incrementAndGet();
+        }
+        return due;
     }
 
     /**
@@ -176,21 +270,24 @@ public final class MessageMonitorProc implements Proc<Message> {
      */
     private void refreshMessageValidity() {
         if (this.shutdown.check()) {
-            final List<List<Message>> parts;
-            synchronized (this.messages) {
-                parts = new ArrayList<>(
-                    new ListOf<>(
-                        new Partitioned<>(
-                            MessageMonitorProc.VIS_BATCH_MAX,
-                            this.messages
+            final List<List<Message>> parts = new ArrayList<>(
+                new ListOf<>(
+                    new Partitioned<>(
+                        MessageMonitorProc.VIS_BATCH_MAX,
+                        new ListOf<>(
+                            new Filtered<>(
+                                this::due,
+                                new ListOf<>(this.messages.keySet())
+                            )
                         )
                     )
-                );
-            }
+                )
+            );
             for (final List<Message> msgs : parts) {
                 this.sendMessageVisibilityBatch(msgs);
             }
         } else {
+            this.acker.flush();
             this.routine.shutdown();
         }
     }
@@ -204,7 +301,7 @@ public final class MessageMonitorProc implements Proc<Message> {
     private boolean sendMessageVisibilityBatch(final List<Message> msgs) {
         final List<ChangeMessageVisibilityBatchRequestEntry> entries =
             new ArrayList<>(msgs.size());
-        int num = 0;
+        final List<Message> sent = new ArrayList<>(msgs.size());
         final AmazonSQS sqs = new UncheckedScalar<>(new ExtSqs(this.farm))
             .value();
         final String queue = new UncheckedText(new ClaimsQueueUrl(this.farm))
@@ -212,24 +309,35 @@ public final class MessageMonitorProc implements Proc<Message> {
         Logger.debug(
             this,
             "changing visibility for %d messages to %d sec",
-            this.messages.size(), this.duration
+            msgs.size(), this.duration
         );
         for (final Message msg : msgs) {
-            synchronized (this.messages) {
-                if (!this.messages.contains(msg)) {
-                    continue;
-                }
+            if (!this.messages.containsKey(msg)) {
+                continue;
             }
             entries.add(
                 new ChangeMessageVisibilityBatchRequestEntry(
-                    String.format("msg_%d", num),
+                    String.format("msg_%d", sent.size()),
                     msg.getReceiptHandle()
                 ).withVisibilityTimeout(this.duration)
             );
-            num += 1;
+            sent.add(msg);
+        }
+        if (entries.isEmpty()) {
+            return true;
         }
+        final long deadline = System.currentTimeMillis()
+            + TimeUnit.SECONDS.toMillis(this.duration);
         final ChangeMessageVisibilityBatchResult res =
             sqs.changeMessageVisibilityBatch(queue, entries);
+        for (final ChangeMessageVisibilityBatchResultEntry entry
+            : res.getSuccessful()) {
+            this.messages.computeIfPresent(
+                sent.get(Integer.parseInt(entry.getId().substring(4))),
+                (msg, old) -> deadline
+            );
+        }
+        this.extended.addAndGet((long) res.getSuccessful().size());
         Logger.debug(
             this,
             "successfully changed visibility for %d messages",
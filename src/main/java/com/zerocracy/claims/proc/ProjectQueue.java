@@ -19,12 +19,21 @@ package com.zerocracy.claims.proc;
 import com.amazonaws.services.sqs.model.Message;
 import com.jcabi.aspects.Tv;
 import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseThreads;
+import com.zerocracy.claims.FairQueue;
 import com.zerocracy.claims.MsgPriority;
 import java.io.IOException;
-import java.util.Comparator;
-import java.util.Objects;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import lombok.EqualsAndHashCode;
 import org.cactoos.Proc;
 import org.cactoos.scalar.IoCheckedScalar;
@@ -35,21 +44,39 @@ import org.xembly.Directives;
 /**
  * Project queue of claim messages ordered by priority.
  *
+ * <p>Queues don't have their own threads: when a message arrives, the
+ * queue is scheduled on a shared bounded pool and drains a few messages
+ * one by one, then gives the thread back. Only one thread may drain a
+ * queue at a time, so the messages of one project are still processed
+ * serially. An idle queue doesn't hold any threads and may be
+ * reclaimed, see {@link #idle(long)}.</p>
+ *
  * @since 1.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
-@EqualsAndHashCode
+@EqualsAndHashCode(of = {"pid", "msgs"})
+@SuppressWarnings("PMD.TooManyMethods")
 public final class ProjectQueue {
 
     /**
-     * Queue order comparator.
+     * Shared pool of all queues.
+     */
+    private static final ExecutorService POOL = ProjectQueue.pool(
+        Math.max(
+            Tv.EIGHT, Runtime.getRuntime().availableProcessors() * Tv.FOUR
+        )
+    );
+
+    /**
+     * How many messages to process before giving the thread
+     * to other queues.
      */
-    private static final Comparator<Message> CMP =
-        Comparator.comparing(MsgPriority::from).reversed();
+    private static final int BATCH = Tv.TEN;
 
     /**
      * Message queue.
      */
-    private final BlockingQueue<Message> msgs;
+    private final FairQueue msgs;
 
     /**
      * Project id.
@@ -57,14 +84,49 @@ public final class ProjectQueue {
     private final String pid;
 
     /**
-     * Queue thread.
+     * Message proc.
      */
-    private final Thread thread;
+    private final Proc<Message> proc;
 
     /**
-     * Message proc.
+     * Pool to run on.
      */
-    private final Proc<Message> proc;
+    private final Executor pool;
+
+    /**
+     * Is it started.
+     */
+    private final AtomicBoolean started;
+
+    /**
+     * Is it stopped.
+     */
+    private final AtomicBoolean stopped;
+
+    /**
+     * Is it submitted to the pool or running.
+     */
+    private final AtomicBoolean scheduled;
+
+    /**
+     * Thread which drains the queue now.
+     */
+    private final AtomicReference<Thread> worker;
+
+    /**
+     * Held while the queue is drained.
+     */
+    private final Lock busy;
+
+    /**
+     * Time of last activity, in milliseconds.
+     */
+    private final AtomicLong active;
+
+    /**
+     * Is it retired after being idle, it accepts no messages then.
+     */
+    private final AtomicBoolean retired;
 
     /**
      * Ctor.
@@ -73,8 +135,8 @@ public final class ProjectQueue {
      */
     public ProjectQueue(final String pid, final Proc<Message> proc) {
         this(
-            new PriorityBlockingQueue<>(Tv.HUNDRED, ProjectQueue.CMP),
-            pid, proc
+            new FairQueue(),
+            pid, proc, ProjectQueue.POOL
         );
     }
 
@@ -83,13 +145,37 @@ public final class ProjectQueue {
      * @param msgs Message queue
      * @param pid Project id
      * @param proc Message proc
+     * @param pool Pool to run on
+     * @checkstyle ParameterNumberCheck (3 lines)
      */
-    ProjectQueue(final BlockingQueue<Message> msgs, final String pid,
-        final Proc<Message> proc) {
+    ProjectQueue(final FairQueue msgs, final String pid,
+        final Proc<Message> proc, final Executor pool) {
         this.msgs = msgs;
         this.pid = pid;
-        this.thread = ProjectQueue.newThread(pid, this::run);
         this.proc = proc;
+        this.pool = pool;
+        this.started = new AtomicBoolean();
+        this.stopped = new AtomicBoolean();
+        this.scheduled = new AtomicBoolean();
+        this.worker = new AtomicReference<>();
+        this.busy = new ReentrantLock();
+        this.active = new AtomicLong(System.currentTimeMillis());
+        this.retired = new AtomicBoolean();
+    }
+
+    /**
+     * Push message to the queue, unless it's retired.
+     * @param msg Message to push
+     * @return FALSE if the queue is retired and the message was not pushed
+     */
+    public boolean offer(final Message msg) {
+        synchronized (this.retired) {
+            final boolean accepted = !this.retired.get();
+            if (accepted) {
+                this.push(msg);
+            }
+            return accepted;
+        }
     }
 
     /**
@@ -97,59 +183,44 @@ public final class ProjectQueue {
      * @param msg Message to push
      */
     public void push(final Message msg) {
-        if (this.thread.isInterrupted()) {
+        if (this.stopped.get()) {
             throw new IllegalStateException(
-                String.format(
-                    "Thread %s was interrupted, state=%s",
-                    this.thread.getName(), this.thread.getState()
-                )
+                String.format("Queue %s was stopped", this.pid)
             );
         }
-        this.msgs.removeIf(
-            next -> Objects.equals(next.getMessageId(), msg.getMessageId())
+        new QueueStats.Ext(this.pid).value().add(msg);
+        this.msgs.put(msg);
+        Logger.info(
+            this, "Pushed message (queue_size=%d, pri=%s): %s",
+            this.msgs.size(), MsgPriority.from(msg), msg.getMessageId()
         );
-        try {
-            new QueueStats.Ext(this.pid).value().add(msg);
-            this.msgs.put(msg);
-            Logger.info(
-                this, "Pushed message (queue_size=%d, pri=%s): %s",
-                this.msgs.size(), MsgPriority.from(msg), msg.getMessageId()
-            );
-        } catch (final InterruptedException err) {
-            Thread.currentThread().interrupt();
-            Logger.warn(
-                this, "push for %s interrupted: %[exception]s",
-                this.pid, err
-            );
-        }
+        this.schedule();
     }
 
     /**
-     * Start thread queue.
+     * Start queue.
      */
     public void start() {
         Logger.info(this, "Starting queue: %s", this.pid);
-        this.thread.start();
-        Logger.info(
-            this, "Queue %s started: %s", this.pid, this.thread.getState()
-        );
+        this.started.set(true);
+        this.schedule();
+        Logger.info(this, "Queue %s started: %s", this.pid, this.state());
     }
 
     /**
-     * Stop queue thread.
+     * Stop queue, waiting for current message to be processed.
      */
     public void stop() {
         Logger.info(this, "Stopping queue %s", this.pid);
-        this.thread.interrupt();
-        try {
-            this.thread.join();
-        } catch (final InterruptedException err) {
-            Logger.info(
-                this,
-                "Queue thread %s was interrupted: %[exception]s",
-                this.thread.getName(), err
-            );
+        this.stopped.set(true);
+        synchronized (this.worker) {
+            final Thread thread = this.worker.get();
+            if (thread != null) {
+                thread.interrupt();
+            }
         }
+        this.busy.lock();
+        this.busy.unlock();
         Logger.info(this, "Queue stopped %s", this.pid);
     }
 
@@ -161,17 +232,50 @@ public final class ProjectQueue {
         return this.msgs.size();
     }
 
+    /**
+     * Is the queue idle for longer than given time.
+     * @param msec Milliseconds
+     * @return TRUE if it has no messages and nothing to do
+     */
+    public boolean idle(final long msec) {
+        return this.msgs.isEmpty() && !this.scheduled.get()
+            && System.currentTimeMillis() - this.active.get() > msec;
+    }
+
+    /**
+     * Retire the queue, if it's idle for longer than given time.
+     * Retired queue doesn't accept messages in {@link #offer(Message)},
+     * so a message can't be pushed to it after it was found idle.
+     * @param msec Milliseconds
+     * @return TRUE if it is retired
+     */
+    public boolean retire(final long msec) {
+        synchronized (this.retired) {
+            if (this.idle(msec)) {
+                this.retired.set(true);
+            }
+            return this.retired.get();
+        }
+    }
+
     /**
      * Project queu details in Xembly format.
      * @return Xembly directives
      * @throws IOException If fails
      */
     public Iterable<Directive> stats() throws IOException {
+        final Thread thread = this.worker.get();
+        final String name;
+        if (thread == null) {
+            name = String.format("PQ-%s", this.pid);
+        } else {
+            name = thread.getName();
+        }
         return new Directives()
             .add("queue").attr("pid", this.pid)
             .add("thread")
-            .add("name").set(this.thread.getName()).up()
-            .add("state").set(this.thread.getState()).up()
+            .add("name").set(name).up()
+            .add("state").set(this.state()).up()
             .up()
             .add("size").set(this.size()).up()
             .add("stats").set(new QueueStats.Ext(this.pid).value()).up()
@@ -193,21 +297,18 @@ public final class ProjectQueue {
     /**
      * Repair current queue if broken.
      * @return New queue if broken or current of OK
-     * @todo #2165:30min Some threads are getting terminated by someone
-     *  from outside. More often PQ-PMO thread is interrupted.
-     *  Most probably `Terminator` is the problem here. Let's fix this
-     *  issue and remove this dirty hack from this object.
      */
     public ProjectQueue repair() {
         final ProjectQueue res;
-        if (this.thread.getState() == Thread.State.TERMINATED) {
+        if (this.stopped.get()) {
             Logger.warn(
                 this,
-                "Thread terminated, repairing queue: %s", this.pid
+                "Queue stopped, repairing queue: %s", this.pid
             );
-            res = new ProjectQueue(this.msgs, this.pid, this.proc);
+            res = new ProjectQueue(this.msgs, this.pid, this.proc, this.pool);
             res.start();
         } else {
+            this.schedule();
             res = this;
         }
         return res;
@@ -219,63 +320,119 @@ public final class ProjectQueue {
     }
 
     /**
-     * Runnable job.
+     * Submit the queue to the pool, if it has messages
+     * and is not submitted yet.
      */
-    @SuppressWarnings({"PMD.AvoidCatchingThrowable", "OverlyBroadCatchBlock"})
-    private void run() {
-        final Thread thr = Thread.currentThread();
-        final QueueStats stats = new QueueStats.Ext(this.pid).value();
-        while (!thr.isInterrupted()) {
-            final Message msg;
+    private void schedule() {
+        if (this.started.get() && !this.stopped.get()
+            && !this.msgs.isEmpty()
+            && this.scheduled.compareAndSet(false, true)) {
             try {
-                msg = this.msgs.take();
-            } catch (final InterruptedException err) {
-                thr.interrupt();
-                Logger.info(
-                    this,
-                    "Project queue was interrupted: %[exception]s", err
-                );
-                break;
-            }
-            Logger.info(
-                this,
-                "Polled message (queue_size=%d, pri=%s): %s",
-                this.msgs.size(), MsgPriority.from(msg), msg.getMessageId()
-            );
-            try {
-                stats.runBrigade(this.proc, msg);
-                Thread.sleep(0L);
-            } catch (final InterruptedException iex) {
-                thr.interrupt();
+                this.pool.execute(this::drain);
+            } catch (final RejectedExecutionException err) {
+                this.scheduled.set(false);
                 Logger.warn(
-                    this,
-                    "Proc interrupted: %[exception]s", iex
-                );
-                break;
-                // @checkstyle IllegalCatch (1 line)
-            } catch (final Throwable err) {
-                Logger.error(
-                    this,
-                    "Proc failed for message %s: %[exception]s",
-                    msg, err
+                    this, "Queue %s was rejected: %[exception]s",
+                    this.pid, err
                 );
             }
         }
-        Logger.warn(
-            this, "Queue exited: interrupted?=%b state=%s",
-            thr.isInterrupted(), thr.getState()
+    }
+
+    /**
+     * Process a few messages and give the thread back to the pool.
+     */
+    private void drain() {
+        this.busy.lock();
+        final Thread thr = Thread.currentThread();
+        this.worker.set(thr);
+        try {
+            final QueueStats stats = new QueueStats.Ext(this.pid).value();
+            for (int idx = 0; idx < ProjectQueue.BATCH; ++idx) {
+                if (this.stopped.get() || thr.isInterrupted()) {
+                    break;
+                }
+                final Message msg = this.msgs.poll();
+                if (msg == null) {
+                    break;
+                }
+                this.process(stats, msg);
+            }
+        } finally {
+            synchronized (this.worker) {
+                this.worker.set(null);
+                Thread.interrupted();
+            }
+            this.active.set(System.currentTimeMillis());
+            this.busy.unlock();
+            this.scheduled.set(false);
+        }
+        this.schedule();
+    }
+
+    /**
+     * Process one message.
+     * @param stats Queue stats
+     * @param msg Message
+     */
+    @SuppressWarnings({"PMD.AvoidCatchingThrowable", "OverlyBroadCatchBlock"})
+    private void process(final QueueStats stats, final Message msg) {
+        Logger.info(
+            this,
+            "Polled message (queue_size=%d, pri=%s): %s",
+            this.msgs.size(), MsgPriority.from(msg), msg.getMessageId()
         );
+        try {
+            stats.runBrigade(this.proc, msg);
+            Thread.sleep(0L);
+        } catch (final InterruptedException iex) {
+            Thread.currentThread().interrupt();
+            Logger.warn(
+                this,
+                "Proc interrupted: %[exception]s", iex
+            );
+            // @checkstyle IllegalCatch (1 line)
+        } catch (final Throwable err) {
+            Logger.error(
+                this,
+                "Proc failed for message %s: %[exception]s",
+                msg, err
+            );
+        }
     }
 
     /**
-     * New thread for project.
-     * @param pid Project id
-     * @param worker Thread worker runnable
-     * @return Thread instance
+     * State of the queue.
+     * @return State
+     */
+    private String state() {
+        final String state;
+        if (this.stopped.get()) {
+            state = "STOPPED";
+        } else if (this.worker.get() != null) {
+            state = "RUNNABLE";
+        } else if (this.scheduled.get()) {
+            state = "SCHEDULED";
+        } else if (this.started.get()) {
+            state = "IDLE";
+        } else {
+            state = "NEW";
+        }
+        return state;
+    }
+
+    /**
+     * Shared pool for all queues.
+     * @param threads Maximum amount of threads
+     * @return Pool
      */
-    private static Thread newThread(final String pid, final Runnable worker) {
-        final Thread thr = new Thread(worker, String.format("PQ-%s", pid));
-        thr.setDaemon(false);
-        return thr;
+    private static ExecutorService pool(final int threads) {
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            threads, threads, 1L, TimeUnit.MINUTES,
+            new LinkedBlockingQueue<>(),
+            new VerboseThreads("PQ", false, Thread.NORM_PRIORITY)
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
     }
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims.proc;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
+import com.amazonaws.services.sqs.model.Message;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.zerocracy.Farm;
+import com.zerocracy.claims.ClaimsQueueUrl;
+import com.zerocracy.entry.ExtSqs;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import org.cactoos.Scalar;
+import org.cactoos.Text;
+import org.cactoos.scalar.UncheckedScalar;
+import org.cactoos.text.UncheckedText;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Deletes processed messages from SQS in batches.
+ *
+ * <p>Messages are collected by {@link #ack(Message)} and deleted by
+ * {@link #flush()}, which is supposed to be called periodically,
+ * with up to ten messages in one <code>DeleteMessageBatch</code>
+ * request. Entries which failed not because of the sender are
+ * retried a few times.</p>
+ *
+ * @since 1.0
+ */
+final class SqsAcker implements Iterable<Directive> {
+
+    /**
+     * Maximum batch size of Amazon SQS delete request.
+     */
+    private static final int BATCH = 10;
+
+    /**
+     * How many times to try deleting one message.
+     */
+    private static final int ATTEMPTS = Tv.FIVE;
+
+    /**
+     * SQS client.
+     */
+    private final Scalar<AmazonSQS> sqs;
+
+    /**
+     * Queue URL.
+     */
+    private final Text queue;
+
+    /**
+     * Messages to delete.
+     */
+    private final BlockingQueue<SqsAcker.Ack> pending;
+
+    /**
+     * Messages deleted.
+     */
+    private final AtomicLong deleted;
+
+    /**
+     * Messages retried.
+     */
+    private final AtomicLong retried;
+
+    /**
+     * Messages given up.
+     */
+    private final AtomicLong lost;
+
+    /**
+     * Total ack latency, in milliseconds.
+     */
+    private final AtomicLong latency;
+
+    /**
+     * Maximum ack latency, in milliseconds.
+     */
+    private final AtomicLong slowest;
+
+    /**
+     * Ctor.
+     * @param farm Farm
+     */
+    SqsAcker(final Farm farm) {
+        this(new ExtSqs(farm), new ClaimsQueueUrl(farm));
+    }
+
+    /**
+     * Ctor.
+     * @param sqs SQS client
+     * @param queue Queue URL
+     */
+    SqsAcker(final Scalar<AmazonSQS> sqs, final Text queue) {
+        this.sqs = sqs;
+        this.queue = queue;
+        this.pending = new LinkedBlockingQueue<>();
+        this.deleted = new AtomicLong();
+        this.retried = new AtomicLong();
+        this.lost = new AtomicLong();
+        this.latency = new AtomicLong();
+        this.slowest = new AtomicLong();
+    }
+
+    /**
+     * Acknowledge the message, it will be deleted soon.
+     * @param msg Message
+     */
+    public void ack(final Message msg) {
+        this.pending.add(new SqsAcker.Ack(msg));
+    }
+
+    /**
+     * Delete all pending messages.
+     */
+    public void flush() {
+        final List<SqsAcker.Ack> retry = new ArrayList<>(0);
+        while (!this.pending.isEmpty()) {
+            final List<SqsAcker.Ack> batch = new ArrayList<>(SqsAcker.BATCH);
+            this.pending.drainTo(batch, SqsAcker.BATCH);
+            retry.addAll(this.delete(batch));
+        }
+        for (final SqsAcker.Ack ack : retry) {
+            if (ack.attempts < SqsAcker.ATTEMPTS) {
+                this.retried.incrementAndGet();
+                this.pending.add(ack);
+            } else {
+                this.lost.incrementAndGet();
+                Logger.warn(
+                    this, "Failed to delete message %s after %d attempts",
+                    ack.msg.getMessageId(), ack.attempts
+                );
+            }
+        }
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        final long done = Math.max(1L, this.deleted.get());
+        return new Directives()
+            .add("acker")
+            .add("pending").set(this.pending.size()).up()
+            .add("deleted").set(this.deleted.get()).up()
+            .add("retried").set(this.retried.get()).up()
+            .add("lost").set(this.lost.get()).up()
+            .add("latency")
+            .attr("avg", this.latency.get() / done)
+            .attr("max", this.slowest.get())
+            .up()
+            .up()
+            .iterator();
+    }
+
+    /**
+     * Delete a batch of messages.
+     * @param batch Messages
+     * @return Messages to retry
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    private List<SqsAcker.Ack> delete(final List<SqsAcker.Ack> batch) {
+        final List<DeleteMessageBatchRequestEntry> entries =
+            new ArrayList<>(batch.size());
+        for (int idx = 0; idx < batch.size(); ++idx) {
+            final SqsAcker.Ack ack = batch.get(idx);
+            ack.attempts += 1;
+            entries.add(
+                new DeleteMessageBatchRequestEntry(
+                    Integer.toString(idx), ack.msg.getReceiptHandle()
+                )
+            );
+        }
+        final List<SqsAcker.Ack> retry = new ArrayList<>(0);
+        try {
+            final DeleteMessageBatchResult res = new UncheckedScalar<>(
+                this.sqs
+            ).value().deleteMessageBatch(
+                new DeleteMessageBatchRequest(
+                    new UncheckedText(this.queue).asString(), entries
+                )
+            );
+            final List<SqsAcker.Ack> done = new ArrayList<>(batch);
+            for (final BatchResultErrorEntry err : res.getFailed()) {
+                final SqsAcker.Ack ack =
+                    batch.get(Integer.parseInt(err.getId()));
+                done.remove(ack);
+                Logger.warn(
+                    this, "Failed to delete message %s: %s - %s",
+                    ack.msg.getMessageId(), err.getCode(), err.getMessage()
+                );
+                if (!err.isSenderFault()) {
+                    retry.add(ack);
+                }
+            }
+            for (final SqsAcker.Ack ack : done) {
+                final long msec = System.currentTimeMillis() - ack.since;
+                this.deleted.incrementAndGet();
+                this.latency.addAndGet(msec);
+                this.slowest.accumulateAndGet(msec, Math::max);
+            }
+            Logger.info(
+                this, "%d messages of %d were deleted",
+                done.size(), batch.size()
+            );
+        } catch (final AmazonClientException | UncheckedIOException err) {
+            Logger.warn(
+                this, "Failed to delete %d messages: %[exception]s",
+                batch.size(), err
+            );
+            retry.addAll(batch);
+        }
+        return retry;
+    }
+
+    /**
+     * Message to delete.
+     */
+    private static final class Ack {
+
+        /**
+         * The message.
+         */
+        private final Message msg;
+
+        /**
+         * When it was acknowledged, in milliseconds.
+         */
+        private final long since;
+
+        /**
+         * Attempts to delete it.
+         */
+        private int attempts;
+
+        /**
+         * Ctor.
+         * @param msg The message
+         */
+        Ack(final Message msg) {
+            this.msg = msg;
+            this.since = System.currentTimeMillis();
+        }
+    }
+}
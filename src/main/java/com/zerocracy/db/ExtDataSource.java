@@ -44,7 +44,7 @@ public final class ExtDataSource implements Scalar<DataSource> {
                     final Props props = new Props(farm);
                     final BasicDataSource dsrc = new BasicDataSource();
                     dsrc.setDriverClassName("org.postgresql.Driver");
-                    if (props.has("//testing")) {
+                    if (props.testing()) {
                         dsrc.setUrl(
                             String.format(
                                 "jdbc:postgresql://localhost:%s/test",
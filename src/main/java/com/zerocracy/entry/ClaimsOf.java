@@ -20,6 +20,7 @@ import com.jcabi.xml.XML;
 import com.zerocracy.Farm;
 import com.zerocracy.Project;
 import com.zerocracy.claims.Claims;
+import com.zerocracy.claims.ClaimsLog;
 import com.zerocracy.claims.ClaimsQueueUrl;
 import com.zerocracy.claims.ClaimsSqs;
 import com.zerocracy.claims.ClaimsXml;
@@ -47,7 +48,11 @@ public final class ClaimsOf implements Claims {
                 (farm, project) -> {
                     final Props props = new Props(farm);
                     final Claims claims;
-                    if (props.has("//sqs")) {
+                    if (props.has("//claims/log")) {
+                        claims = new ClaimsLog(
+                            new ExtSegmentLog(farm).value(), project
+                        );
+                    } else if (props.has("//sqs")) {
                         claims = new ClaimsSqs(
                             farm,
                             new ExtSqs(farm).value(),
@@ -45,7 +45,7 @@ public final class ExtGithub implements Scalar<Github> {
                 frm -> {
                     final Props props = new Props(frm);
                     final Github github;
-                    if (props.has("//testing")) {
+                    if (props.testing()) {
                         github = new MkGithub().relogin("test");
                     } else {
                         github = ExtGithub.prod(props);
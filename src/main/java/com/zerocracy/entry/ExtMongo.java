@@ -188,7 +188,7 @@ public final class ExtMongo implements Scalar<MongoClient> {
     public MongoClient value() throws IOException {
         final Props props = new Props(this.farm);
         final MongoClient client;
-        if (props.has("//testing")) {
+        if (props.testing()) {
             if (System.getProperty(ExtMongo.TEST_USER_PROPERTY) == null) {
                 client = new MongoClient(
                     ServerAddress.defaultHost(),
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.entry;
+
+import com.zerocracy.Farm;
+import com.zerocracy.claims.SegmentLog;
+import com.zerocracy.farm.props.Props;
+import java.nio.file.Paths;
+import org.cactoos.Scalar;
+import org.cactoos.func.IoCheckedFunc;
+import org.cactoos.func.SolidFunc;
+
+/**
+ * Local claims log, configured by <code>//claims/log</code> property.
+ *
+ * @since 1.0
+ */
+public final class ExtSegmentLog implements Scalar<SegmentLog> {
+
+    /**
+     * Instances.
+     */
+    private static final IoCheckedFunc<Farm, SegmentLog> INSTANCES =
+        new IoCheckedFunc<>(
+            new SolidFunc<>(
+                frm -> new SegmentLog(
+                    Paths.get(new Props(frm).get("//claims/log"))
+                ).bootstrap()
+            )
+        );
+
+    /**
+     * Farm.
+     */
+    private final Farm farm;
+
+    /**
+     * Ctor.
+     *
+     * @param farm Farm
+     */
+    public ExtSegmentLog(final Farm farm) {
+        this.farm = farm;
+    }
+
+    @Override
+    public SegmentLog value() throws Exception {
+        return ExtSegmentLog.INSTANCES.apply(this.farm);
+    }
+}
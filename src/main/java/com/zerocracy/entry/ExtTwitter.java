@@ -45,7 +45,7 @@ public final class ExtTwitter implements Scalar<ExtTwitter.Tweets> {
                 frm -> {
                     final Props props = new Props(frm);
                     final ExtTwitter.Tweets twitter;
-                    if (props.has("//testing")) {
+                    if (props.testing()) {
                         twitter = new ExtTwitter.MkTweets();
                     } else {
                         twitter = ExtTwitter.prod(props);
@@ -18,13 +18,17 @@ package com.zerocracy.entry;
 
 import com.jcabi.aspects.Loggable;
 import com.jcabi.log.Logger;
+import com.zerocracy.Farm;
+import com.zerocracy.Schemas;
 import com.zerocracy.TempFiles;
 import com.zerocracy.claims.ClaimGuts;
 import com.zerocracy.claims.ClaimsFarm;
 import com.zerocracy.claims.ClaimsRoutine;
+import com.zerocracy.claims.LogRoutine;
 import com.zerocracy.claims.MessageSink;
 import com.zerocracy.farm.S3Farm;
 import com.zerocracy.farm.SmartFarm;
+import com.zerocracy.farm.props.Props;
 import com.zerocracy.farm.props.PropsFarm;
 import com.zerocracy.farm.sync.TestLocks;
 import com.zerocracy.radars.github.GithubRoutine;
@@ -39,6 +43,7 @@ import com.zerocracy.tk.TkAlias;
 import com.zerocracy.tk.TkApp;
 import com.zerocracy.tk.TkSentry;
 import com.zerocracy.tk.TkZoldCallback;
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.Collections;
 import javax.ws.rs.HttpMethod;
@@ -111,9 +116,13 @@ public final class Main {
                 new ShutdownFarm(
                     new ClaimsFarm(
                         new TempFiles.Farm(
-                            new SmartFarm(
-                                new S3Farm(new ExtBucket().value(), locks),
-                                locks
+                            new Schemas.Farm(
+                                new SmartFarm(
+                                    new S3Farm(
+                                        new ExtBucket().value(), locks
+                                    ),
+                                    locks
+                                )
                             )
                         ),
                         cgts
@@ -122,13 +131,57 @@ public final class Main {
                 ),
                 shutdown
             );
-            final SlackRadar radar = new SlackRadar(farm);
-            final ClaimsRoutine claims = new ClaimsRoutine(farm)
+            final SlackRadar radar = new SlackRadar(farm)
         ) {
             new ExtMongobee(farm).apply();
+            this.serve(farm, radar, Main.routine(farm, cgts, shutdown));
+        }
+    }
+
+    /**
+     * Start the claims routine configured for the farm.
+     *
+     * <p>Only the routine in use is created, since {@link ClaimsRoutine}
+     * creates its pools of pollers in the constructor.</p>
+     *
+     * @param farm The farm
+     * @param cgts Claims guts
+     * @param shutdown Shutdown hook
+     * @return Started routine, to be closed at the end
+     * @throws IOException If fails on I/O
+     */
+    private static Closeable routine(final MessageSink farm,
+        final ClaimGuts cgts, final ShutdownFarm.Hook shutdown)
+        throws IOException {
+        final Closeable routine;
+        if (new Props(farm).has("//claims/log")) {
+            final LogRoutine logged = new LogRoutine(farm);
+            farm.start(logged.messages());
+            cgts.add(logged.messages());
+            cgts.append(logged);
+            logged.start(shutdown);
+            routine = logged;
+        } else {
+            final ClaimsRoutine claims = new ClaimsRoutine(farm);
             farm.start(claims.messages());
             cgts.add(claims.messages());
+            cgts.append(claims);
             claims.start(shutdown);
+            routine = claims;
+        }
+        return routine;
+    }
+
+    /**
+     * Run the web front and radars, until the app is stopped.
+     * @param farm The farm
+     * @param radar Slack radar
+     * @param routine Claims routine
+     * @throws IOException If fails on I/O
+     */
+    private void serve(final Farm farm, final SlackRadar radar,
+        final Closeable routine) throws IOException {
+        try (Closeable claims = routine) {
             new AsyncFunc<>(
                 input -> {
                     new ExtTelegram(farm).value();
@@ -19,6 +19,7 @@ package com.zerocracy.entry;
 import com.jcabi.aspects.Tv;
 import com.zerocracy.Farm;
 import com.zerocracy.Project;
+import com.zerocracy.claims.BatchClaims;
 import com.zerocracy.claims.ClaimOut;
 import com.zerocracy.claims.MsgPriority;
 import com.zerocracy.pmo.Catalog;
@@ -118,8 +119,11 @@ public final class Ping implements Job {
         } else {
             projects = this.farm.find("");
         }
-        for (final Project project : projects) {
-            this.post(project, type);
+        try (BatchClaims outbox = new BatchClaims().open()) {
+            for (final Project project : projects) {
+                this.post(project, type);
+            }
+            outbox.commit();
         }
     }
 
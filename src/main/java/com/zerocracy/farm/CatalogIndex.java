@@ -0,0 +1,560 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.jcabi.log.Logger;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Ocket;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import com.zerocracy.Item;
+import com.zerocracy.Project;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.cactoos.Func;
+import org.cactoos.Proc;
+
+/**
+ * In-memory index of PMO {@code catalog.xml}.
+ *
+ * <p>The index keeps the last parsed version of the catalog together
+ * with lookup tables for the most popular queries: {@code @id='...'},
+ * {@code links/link[@rel='...' and @href='...']} and
+ * {@code members/member='...'}. Any other query is evaluated as
+ * a full XPath against the cached document. The snapshot is replaced
+ * atomically, so lookups never take a lock. It is rebuilt only when
+ * the version (ETag) of catalog.xml in the bucket differs from the indexed
+ * one, or when catalog.xml was modified through this index.</p>
+ *
+ * @since 1.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+final class CatalogIndex {
+
+    /**
+     * Query by project ID.
+     */
+    private static final Pattern BY_ID = Pattern.compile(
+        "\\s*@id\\s*=\\s*'([^']+)'\\s*"
+    );
+
+    /**
+     * Query by project link.
+     * @checkstyle LineLengthCheck (3 lines)
+     */
+    private static final Pattern BY_LINK = Pattern.compile(
+        "\\s*links/link\\[\\s*@rel\\s*=\\s*'([^']+)'\\s+and\\s+@href\\s*=\\s*'([^']+)'\\s*]\\s*"
+    );
+
+    /**
+     * Query by project member.
+     */
+    private static final Pattern BY_MEMBER = Pattern.compile(
+        "\\s*members/member\\s*=\\s*'([^']+)'\\s*"
+    );
+
+    /**
+     * Catalog file name.
+     */
+    private static final String FILE = "catalog.xml";
+
+    /**
+     * S3 object of the catalog.
+     */
+    private final Ocket ocket;
+
+    /**
+     * How long to trust the snapshot without asking S3, in msec.
+     */
+    private final long ttl;
+
+    /**
+     * Current snapshot.
+     */
+    private final AtomicReference<CatalogIndex.Snapshot> current;
+
+    /**
+     * Generation, incremented on every local modification.
+     */
+    private final AtomicLong generation;
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     */
+    CatalogIndex(final Bucket bkt) {
+        this(
+            bkt.ocket(String.format("PMO/%s", CatalogIndex.FILE)),
+            TimeUnit.SECONDS.toMillis(10L)
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param okt Ocket with catalog
+     * @param msec How long to trust the snapshot, in milliseconds
+     */
+    CatalogIndex(final Ocket okt, final long msec) {
+        this.ocket = okt;
+        this.ttl = msec;
+        this.generation = new AtomicLong();
+        this.current = new AtomicReference<>(
+            new CatalogIndex.Snapshot(
+                "", -1L, 0L, new XMLDocument("<catalog/>")
+            )
+        );
+    }
+
+    @Override
+    public String toString() {
+        return this.current.get().toString();
+    }
+
+    /**
+     * Find project prefixes by XPath term.
+     * @param xpath XPath term, see {@link com.zerocracy.Farm#find(String)}
+     * @return Prefixes found
+     * @throws IOException If fails
+     */
+    public Collection<String> find(final String xpath) throws IOException {
+        final CatalogIndex.Snapshot snap = this.fresh();
+        final Collection<String> found;
+        final Matcher mid = CatalogIndex.BY_ID.matcher(xpath);
+        final Matcher mlink = CatalogIndex.BY_LINK.matcher(xpath);
+        final Matcher mmember = CatalogIndex.BY_MEMBER.matcher(xpath);
+        if (mid.matches()) {
+            found = snap.ids(mid.group(1));
+        } else if (mlink.matches()) {
+            found = snap.links(mlink.group(1), mlink.group(2));
+        } else if (mmember.matches()) {
+            found = snap.members(mmember.group(1));
+        } else {
+            found = snap.xpath(xpath);
+        }
+        return found;
+    }
+
+    /**
+     * Forget the snapshot, it will be reloaded on next lookup.
+     */
+    public void invalidate() {
+        this.generation.incrementAndGet();
+    }
+
+    /**
+     * Decorate PMO project, so that changes of catalog.xml
+     * made through it invalidate this index.
+     * @param pmo PMO project
+     * @return Project
+     */
+    public Project watched(final Project pmo) {
+        return new CatalogIndex.Watched(pmo, this);
+    }
+
+    /**
+     * Get fresh snapshot, reloading it if necessary.
+     * @return Snapshot
+     * @throws IOException If fails
+     */
+    private CatalogIndex.Snapshot fresh() throws IOException {
+        CatalogIndex.Snapshot snap = this.current.get();
+        if (!snap.valid(this.generation.get(), this.ttl)) {
+            synchronized (this.current) {
+                snap = this.current.get();
+                final long gen = this.generation.get();
+                if (!snap.valid(gen, this.ttl)) {
+                    snap = this.reload(snap, gen);
+                    this.current.set(snap);
+                }
+            }
+        }
+        return snap;
+    }
+
+    /**
+     * Reload snapshot if catalog version was changed.
+     * @param snap Current snapshot
+     * @param gen Current generation
+     * @return New snapshot
+     * @throws IOException If fails
+     */
+    private CatalogIndex.Snapshot reload(final CatalogIndex.Snapshot snap,
+        final long gen) throws IOException {
+        final long now = System.currentTimeMillis();
+        final CatalogIndex.Snapshot next;
+        if (this.ocket.exists()) {
+            final String version = CatalogIndex.version(this.ocket.meta());
+            if (!version.isEmpty() && version.equals(snap.version())) {
+                next = snap.touched(gen, now);
+            } else {
+                final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                this.ocket.read(baos);
+                next = new CatalogIndex.Snapshot(
+                    version, gen, now,
+                    new XMLDocument(
+                        new String(baos.toByteArray(), StandardCharsets.UTF_8)
+                    )
+                );
+                Logger.info(
+                    this, "catalog.xml re-indexed in %[ms]s: %s",
+                    System.currentTimeMillis() - now, next
+                );
+            }
+        } else {
+            next = new CatalogIndex.Snapshot(
+                "", gen, now, new XMLDocument("<catalog/>")
+            );
+        }
+        return next;
+    }
+
+    /**
+     * Version of S3 object.
+     * @param meta Object metadata
+     * @return Version, ETag if available
+     */
+    private static String version(final ObjectMetadata meta) {
+        final String version;
+        if (meta.getETag() == null) {
+            if (meta.getLastModified() == null) {
+                version = "";
+            } else {
+                version = String.format(
+                    "%d:%d",
+                    meta.getLastModified().getTime(),
+                    meta.getContentLength()
+                );
+            }
+        } else {
+            version = meta.getETag();
+        }
+        return version;
+    }
+
+    /**
+     * Immutable snapshot of catalog.
+     */
+    private static final class Snapshot {
+
+        /**
+         * Catalog version.
+         */
+        private final String ver;
+
+        /**
+         * Generation of index.
+         */
+        private final long gen;
+
+        /**
+         * When it was checked last time.
+         */
+        private final long checked;
+
+        /**
+         * Catalog document.
+         */
+        private final XML xml;
+
+        /**
+         * Prefixes by project ID.
+         */
+        private final Map<String, List<String>> byid;
+
+        /**
+         * Prefixes by "rel href".
+         */
+        private final Map<String, List<String>> bylink;
+
+        /**
+         * Prefixes by member login.
+         */
+        private final Map<String, List<String>> bymember;
+
+        /**
+         * Ctor.
+         * @param version Catalog version
+         * @param generation Index generation
+         * @param time When it was loaded
+         * @param doc Catalog document
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Snapshot(final String version, final long generation,
+            final long time, final XML doc) {
+            this(
+                version, generation, time, doc,
+                new HashMap<>(0), new HashMap<>(0), new HashMap<>(0)
+            );
+            for (final XML prj : doc.nodes("/catalog/project")) {
+                final List<String> prefix = prj.xpath("prefix/text()");
+                if (prefix.isEmpty()) {
+                    continue;
+                }
+                final String pfx = prefix.get(0);
+                Snapshot.put(this.byid, prj.xpath("@id").get(0), pfx);
+                for (final XML link : prj.nodes("links/link")) {
+                    Snapshot.put(
+                        this.bylink,
+                        Snapshot.link(
+                            link.xpath("@rel").get(0),
+                            link.xpath("@href").get(0)
+                        ),
+                        pfx
+                    );
+                }
+                for (final String member
+                    : prj.xpath("members/member/text()")) {
+                    Snapshot.put(this.bymember, member, pfx);
+                }
+            }
+        }
+
+        /**
+         * Ctor.
+         * @param version Catalog version
+         * @param generation Index generation
+         * @param time When it was checked
+         * @param doc Catalog document
+         * @param ids Prefixes by ID
+         * @param links Prefixes by links
+         * @param members Prefixes by members
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        private Snapshot(final String version, final long generation,
+            final long time, final XML doc, final Map<String, List<String>> ids,
+            final Map<String, List<String>> links,
+            final Map<String, List<String>> members) {
+            this.ver = version;
+            this.gen = generation;
+            this.checked = time;
+            this.xml = doc;
+            this.byid = ids;
+            this.bylink = links;
+            this.bymember = members;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "version=%s, gen=%d, projects=%d, links=%d, members=%d",
+                this.ver, this.gen, this.byid.size(),
+                this.bylink.size(), this.bymember.size()
+            );
+        }
+
+        /**
+         * Catalog version.
+         * @return Version
+         */
+        public String version() {
+            return this.ver;
+        }
+
+        /**
+         * Is it still valid.
+         * @param generation Current index generation
+         * @param ttl Time to live in msec
+         * @return TRUE if valid
+         */
+        public boolean valid(final long generation, final long ttl) {
+            return this.gen == generation
+                && System.currentTimeMillis() - this.checked < ttl;
+        }
+
+        /**
+         * Same snapshot, checked right now.
+         * @param generation Index generation
+         * @param time Time of the check
+         * @return Snapshot
+         */
+        public CatalogIndex.Snapshot touched(final long generation,
+            final long time) {
+            return new CatalogIndex.Snapshot(
+                this.ver, generation, time, this.xml,
+                this.byid, this.bylink, this.bymember
+            );
+        }
+
+        /**
+         * Prefixes by project ID.
+         * @param pid Project ID
+         * @return Prefixes
+         */
+        public Collection<String> ids(final String pid) {
+            return this.byid.getOrDefault(pid, Collections.emptyList());
+        }
+
+        /**
+         * Prefixes by project link.
+         * @param rel Link REL
+         * @param href Link HREF
+         * @return Prefixes
+         */
+        public Collection<String> links(final String rel, final String href) {
+            return this.bylink.getOrDefault(
+                Snapshot.link(rel, href), Collections.emptyList()
+            );
+        }
+
+        /**
+         * Prefixes by member.
+         * @param login Member login
+         * @return Prefixes
+         */
+        public Collection<String> members(final String login) {
+            return this.bymember.getOrDefault(login, Collections.emptyList());
+        }
+
+        /**
+         * Prefixes by ad-hoc XPath term.
+         * @param term XPath term
+         * @return Prefixes
+         */
+        public Collection<String> xpath(final String term) {
+            String query = term;
+            if (!query.isEmpty()) {
+                query = String.format("[%s]", query);
+            }
+            // DOM is not thread-safe even for reading
+            synchronized (this.xml) {
+                return this.xml.xpath(
+                    String.format("//project%s/prefix/text()", query)
+                );
+            }
+        }
+
+        /**
+         * Link key.
+         * @param rel REL
+         * @param href HREF
+         * @return Key
+         */
+        private static String link(final String rel, final String href) {
+            return String.format("%s %s", rel, href);
+        }
+
+        /**
+         * Add prefix to the map.
+         * @param map Map
+         * @param key Key
+         * @param prefix Prefix
+         */
+        private static void put(final Map<String, List<String>> map,
+            final String key, final String prefix) {
+            map.computeIfAbsent(key, none -> new LinkedList<>()).add(prefix);
+        }
+    }
+
+    /**
+     * PMO project, which invalidates the index on catalog changes.
+     */
+    private static final class Watched implements Project {
+
+        /**
+         * Origin project.
+         */
+        private final Project origin;
+
+        /**
+         * Index.
+         */
+        private final CatalogIndex index;
+
+        /**
+         * Ctor.
+         * @param pkt Origin project
+         * @param idx Index
+         */
+        Watched(final Project pkt, final CatalogIndex idx) {
+            this.origin = pkt;
+            this.index = idx;
+        }
+
+        @Override
+        public String pid() throws IOException {
+            return this.origin.pid();
+        }
+
+        @Override
+        public Item acq(final String file) throws IOException {
+            Item item = this.origin.acq(file);
+            if (CatalogIndex.FILE.equals(file)) {
+                item = new CatalogIndex.WatchedItem(item, this.index);
+            }
+            return item;
+        }
+    }
+
+    /**
+     * Catalog item, which invalidates the index on update.
+     */
+    private static final class WatchedItem implements Item {
+
+        /**
+         * Origin item.
+         */
+        private final Item origin;
+
+        /**
+         * Index.
+         */
+        private final CatalogIndex index;
+
+        /**
+         * Ctor.
+         * @param item Origin item
+         * @param idx Index
+         */
+        WatchedItem(final Item item, final CatalogIndex idx) {
+            this.origin = item;
+            this.index = idx;
+        }
+
+        @Override
+        public String toString() {
+            return this.origin.toString();
+        }
+
+        @Override
+        public <T> T read(final Func<Path, T> reader) throws IOException {
+            return this.origin.read(reader);
+        }
+
+        @Override
+        public void update(final Proc<Path> writer) throws IOException {
+            try {
+                this.origin.update(writer);
+            } finally {
+                this.index.invalidate();
+            }
+        }
+    }
+}
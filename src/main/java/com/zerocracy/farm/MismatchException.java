@@ -17,6 +17,9 @@
 package com.zerocracy.farm;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 
 /**
  * When type is not the right one.
@@ -30,12 +33,36 @@ public final class MismatchException extends IOException {
      */
     private static final long serialVersionUID = -6427949021762997442L;
 
+    /**
+     * Claim types expected, lower-cased.
+     */
+    private final ArrayList<String> expected;
+
     /**
      * Ctor.
      * @param cause Cause of it
      */
     public MismatchException(final String cause) {
+        this(cause, Collections.emptyList());
+    }
+
+    /**
+     * Ctor.
+     * @param cause Cause of it
+     * @param types Claim types expected, lower-cased
+     */
+    public MismatchException(final String cause,
+        final Collection<String> types) {
         super(cause);
+        this.expected = new ArrayList<>(types);
+    }
+
+    /**
+     * Claim types expected, if the claim was rejected because of its type.
+     * @return Lower-cased types, empty if it's not about the type
+     */
+    public Collection<String> types() {
+        return Collections.unmodifiableList(this.expected);
     }
 
 }
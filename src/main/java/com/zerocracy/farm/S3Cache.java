@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.cactoos.scalar.UncheckedScalar;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * On-disk cache of S3 objects.
+ *
+ * <p>Objects are kept by their keys together with their ETags, a cached
+ * copy is used only if the ETag of the object in S3 is still the same.
+ * The cache is bounded by the total size of cached files, least recently
+ * used objects are evicted first.</p>
+ *
+ * @since 1.0
+ */
+final class S3Cache implements Iterable<Directive> {
+
+    /**
+     * Singleton, for 256Mb of files.
+     */
+    public static final S3Cache INSTANCE = new S3Cache(
+        new UncheckedScalar<>(() -> Files.createTempDirectory("0crat-s3"))
+            .value(),
+        256L << 20
+    );
+
+    /**
+     * Directory with cached files.
+     */
+    private final Path dir;
+
+    /**
+     * Maximum size of all files, in bytes.
+     */
+    private final long capacity;
+
+    /**
+     * Entries by object key, in access order.
+     */
+    private final Map<String, S3Cache.Entry> entries;
+
+    /**
+     * Current size of all files, in bytes.
+     */
+    private long size;
+
+    /**
+     * Hits count.
+     */
+    private final AtomicLong hits;
+
+    /**
+     * Misses count.
+     */
+    private final AtomicLong misses;
+
+    /**
+     * Bytes not downloaded because of hits.
+     */
+    private final AtomicLong saved;
+
+    /**
+     * Ctor.
+     * @param dir Directory for cached files
+     * @param max Maximum size of cached files in bytes
+     */
+    S3Cache(final Path dir, final long max) {
+        this.dir = dir;
+        this.capacity = max;
+        // @checkstyle MagicNumber (1 line)
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.saved = new AtomicLong();
+    }
+
+    /**
+     * Content of cached object, if it's still up to date.
+     * @param key Object key
+     * @param etag Current ETag of the object
+     * @return Content or NULL if it has to be downloaded
+     * @throws IOException If fails
+     */
+    @SuppressWarnings("PMD.ReturnEmptyArrayRatherThanNull")
+    public byte[] bytes(final String key, final String etag)
+        throws IOException {
+        final S3Cache.Entry entry;
+        synchronized (this.entries) {
+            entry = this.entries.get(key);
+        }
+        byte[] bytes = null;
+        if (entry != null && entry.etag.equals(etag)) {
+            synchronized (entry) {
+                if (Files.exists(entry.file)) {
+                    bytes = Files.readAllBytes(entry.file);
+                }
+            }
+        }
+        if (bytes == null) {
+            this.misses.incrementAndGet();
+        } else {
+            this.hits.incrementAndGet();
+            this.saved.addAndGet(entry.length);
+        }
+        return bytes;
+    }
+
+    /**
+     * Put the object content to the cache.
+     * @param key Object key
+     * @param etag ETag of the object
+     * @param bytes Object content
+     * @throws IOException If fails
+     */
+    public void save(final String key, final String etag, final byte[] bytes)
+        throws IOException {
+        final long length = (long) bytes.length;
+        if (length > this.capacity) {
+            this.remove(key);
+            return;
+        }
+        final Path file = Files.createTempFile(this.dir, "obj", ".bin");
+        Files.write(file, bytes);
+        final List<S3Cache.Entry> evicted = new LinkedList<>();
+        synchronized (this.entries) {
+            final S3Cache.Entry old = this.entries.put(
+                key, new S3Cache.Entry(etag, file, length)
+            );
+            if (old != null) {
+                this.size -= old.length;
+                evicted.add(old);
+            }
+            this.size += length;
+            final Iterator<S3Cache.Entry> iter =
+                this.entries.values().iterator();
+            while (this.size > this.capacity && iter.hasNext()) {
+                final S3Cache.Entry entry = iter.next();
+                this.size -= entry.length;
+                evicted.add(entry);
+                iter.remove();
+            }
+        }
+        S3Cache.delete(evicted);
+    }
+
+    /**
+     * Forget the object.
+     * @param key Object key
+     * @throws IOException If fails
+     */
+    public void remove(final String key) throws IOException {
+        final List<S3Cache.Entry> evicted = new LinkedList<>();
+        synchronized (this.entries) {
+            final S3Cache.Entry old = this.entries.remove(key);
+            if (old != null) {
+                this.size -= old.length;
+                evicted.add(old);
+            }
+        }
+        S3Cache.delete(evicted);
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        final long hit = this.hits.get();
+        final long total = Math.max(1L, hit + this.misses.get());
+        final int count;
+        final long bytes;
+        synchronized (this.entries) {
+            count = this.entries.size();
+            bytes = this.size;
+        }
+        return new Directives()
+            .add("s3-cache")
+            .add("entries").set(count).up()
+            .add("size").set(bytes).up()
+            .add("hits").set(hit).up()
+            .add("misses").set(this.misses.get()).up()
+            .add("ratio")
+            .set(String.format(Locale.ENGLISH, "%.2f", (double) hit / total))
+            .up()
+            .add("saved").set(this.saved.get()).up()
+            .up()
+            .iterator();
+    }
+
+    /**
+     * Delete files of evicted entries.
+     * @param evicted Entries
+     * @throws IOException If fails
+     */
+    private static void delete(final Iterable<S3Cache.Entry> evicted)
+        throws IOException {
+        for (final S3Cache.Entry entry : evicted) {
+            synchronized (entry) {
+                Files.deleteIfExists(entry.file);
+            }
+        }
+    }
+
+    /**
+     * Cache entry.
+     */
+    private static final class Entry {
+
+        /**
+         * ETag of the object.
+         */
+        private final String etag;
+
+        /**
+         * Cached copy.
+         */
+        private final Path file;
+
+        /**
+         * Size in bytes.
+         */
+        private final long length;
+
+        /**
+         * Ctor.
+         * @param etag ETag
+         * @param file Cached copy
+         * @param length Size in bytes
+         */
+        Entry(final String etag, final Path file, final long length) {
+            this.etag = etag;
+            this.file = file;
+            this.length = length;
+        }
+    }
+}
@@ -38,6 +38,10 @@ import org.cactoos.list.SolidList;
 /**
  * Farm in S3.
  *
+ * <p>Projects are resolved through in-memory {@link CatalogIndex},
+ * the catalog.xml is locked only if nothing was found there and
+ * the project may have to be created.</p>
+ *
  * @since 1.0
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
@@ -54,6 +58,11 @@ public final class S3Farm implements Farm {
      */
     private final Locks locks;
 
+    /**
+     * Catalog index.
+     */
+    private final CatalogIndex index;
+
     /**
      * Ctor.
      * @param bkt Bucket
@@ -62,6 +71,7 @@ public final class S3Farm implements Farm {
     public S3Farm(final Bucket bkt, final Locks locks) {
         this.bucket = bkt;
         this.locks = locks;
+        this.index = new CatalogIndex(bkt);
     }
 
     @Override
@@ -69,36 +79,12 @@ public final class S3Farm implements Farm {
         Iterable<Project> found;
         if ("@id='PMO'".equals(xpath)) {
             found = new SolidList<>(
-                new S3Project(this.bucket, "PMO/")
+                this.index.watched(new S3Project(this.bucket, "PMO/"))
             );
         } else {
-            final ReadWriteLock rwl = this.locks.lock(
-                new Pmo(this), "catalog.xml"
-            );
-            final Lock lock = rwl.writeLock();
-            try {
-                // @checkstyle MagicNumberCheck (1 line)
-                if (!lock.tryLock(15L, TimeUnit.SECONDS)) {
-                    throw new IOException("Failed to lock in 15 seconds");
-                }
-            } catch (final InterruptedException err) {
-                throw new IllegalStateException("interrupted", err);
-            }
-            Logger.debug(this, "#find(): catalog.xml locked");
-            try {
-                final Catalog catalog = new Catalog(this).bootstrap();
-                found = new Mapped<>(
-                    prefix -> new S3Project(this.bucket, prefix),
-                    catalog.findByXPath(xpath)
-                );
-                final boolean empty = !found.iterator().hasNext();
-                Logger.debug(this, "#find(): empty?=%b", empty);
-                if (empty) {
-                    found = this.force(catalog, xpath);
-                }
-            } finally {
-                lock.unlock();
-                Logger.debug(this, "#find(): unlock");
+            found = this.projects(this.index.find(xpath));
+            if (!found.iterator().hasNext()) {
+                found = this.locked(xpath);
             }
         }
         return found;
@@ -117,7 +103,59 @@ public final class S3Farm implements Farm {
     public void delete(final String prefix) throws IOException {
         for (final String ocket : this.bucket.list(prefix)) {
             this.bucket.remove(ocket);
+            S3Listing.INSTANCE.invalidate(this.bucket.name(), ocket);
         }
+        this.index.invalidate();
+    }
+
+    /**
+     * Find projects under catalog.xml lock, creating a new one if necessary.
+     * @param xpath The XPath
+     * @return List of found projects
+     * @throws IOException If fails
+     */
+    private Iterable<Project> locked(final String xpath) throws IOException {
+        final ReadWriteLock rwl = this.locks.lock(
+            new Pmo(this), "catalog.xml"
+        );
+        final Lock lock = rwl.writeLock();
+        try {
+            // @checkstyle MagicNumberCheck (1 line)
+            if (!lock.tryLock(15L, TimeUnit.SECONDS)) {
+                throw new IOException("Failed to lock in 15 seconds");
+            }
+        } catch (final InterruptedException err) {
+            throw new IllegalStateException("interrupted", err);
+        }
+        Logger.debug(this, "#find(): catalog.xml locked");
+        Iterable<Project> found;
+        try {
+            this.index.invalidate();
+            found = this.projects(this.index.find(xpath));
+            final boolean empty = !found.iterator().hasNext();
+            Logger.debug(this, "#find(): empty?=%b", empty);
+            if (empty) {
+                found = this.force(new Catalog(this).bootstrap(), xpath);
+            }
+        } finally {
+            lock.unlock();
+            Logger.debug(this, "#find(): unlock");
+        }
+        return found;
+    }
+
+    /**
+     * Projects by prefixes.
+     * @param prefixes Prefixes
+     * @return Projects
+     */
+    private Iterable<Project> projects(final Iterable<String> prefixes) {
+        return new SolidList<>(
+            new Mapped<>(
+                prefix -> new S3Project(this.bucket, prefix),
+                prefixes
+            )
+        );
     }
 
     /**
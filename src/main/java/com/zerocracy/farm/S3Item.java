@@ -16,39 +16,78 @@
  */
 package com.zerocracy.farm;
 
+import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
 import com.jcabi.s3.Ocket;
+import com.jcabi.s3.OcketNotFoundException;
 import com.zerocracy.Item;
 import com.zerocracy.TempFiles;
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.util.Arrays;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
+import java.util.Locale;
+import java.util.regex.Pattern;
 import lombok.EqualsAndHashCode;
 import org.cactoos.Func;
 import org.cactoos.Proc;
 import org.cactoos.func.IoCheckedFunc;
 import org.cactoos.func.IoCheckedProc;
+import org.cactoos.io.BytesOf;
 import org.cactoos.io.InputOf;
-import org.cactoos.io.Md5DigestOf;
+import org.cactoos.text.HexOf;
 
 /**
  * Item in S3.
  *
+ * <p>Objects are downloaded only if their ETags differ from the ones
+ * of their copies in {@link S3Cache}.</p>
+ *
+ * <p>MD5 digests are calculated while the content is downloaded
+ * and while it is read back after the change, and the object is
+ * uploaded only if its digest was changed. Right before the upload
+ * the ETag of the object is compared with the one seen at download time,
+ * an absent object is remembered as an empty ETag, so it's noticed
+ * when someone else creates it. If someone else changed the object
+ * in between, the change is applied again to the new content, a few
+ * times at most.</p>
+ *
+ * <p>This is a best-effort conflict check, not a compare-and-swap.
+ * S3 has no conditional PUT, so the object may still be overwritten
+ * if another node uploads it between the check and the upload. Mutual
+ * exclusion of writers is the job of farm locks; the check only
+ * narrows the window, where their changes may be lost, to one
+ * round trip.</p>
+ *
  * @since 1.0
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  * @checkstyle ReturnCountCheck (500 lines)
  */
 @EqualsAndHashCode(of = {"ocket"})
-@SuppressWarnings("PMD.OnlyOneReturn")
+@SuppressWarnings({"PMD.OnlyOneReturn", "PMD.TooManyMethods"})
 final class S3Item implements Item {
 
+    /**
+     * How many times to apply a change, if the object is changed
+     * concurrently.
+     */
+    private static final int ATTEMPTS = Tv.THREE;
+
+    /**
+     * ETag which is an MD5 digest of the object.
+     */
+    private static final Pattern MD5 = Pattern.compile("[0-9a-f]{32}");
+
     /**
      * S3 ocket.
      */
@@ -71,9 +110,7 @@ final class S3Item implements Item {
     public <T> T read(final Func<Path, T> reader) throws IOException {
         final Path tmp = S3Item.tempFiles();
         try {
-            if (this.ocket.exists()) {
-                new OcketExt(this.ocket).read(tmp);
-            }
+            Files.write(tmp, this.content().bytes);
             return new IoCheckedFunc<>(reader).apply(tmp);
         } finally {
             TempFiles.INSTANCE.dispose(tmp);
@@ -84,26 +121,203 @@ final class S3Item implements Item {
     public void update(final Proc<Path> writer) throws IOException {
         final Path tmp = S3Item.tempFiles();
         try {
-            if (this.ocket.exists()) {
-                new OcketExt(this.ocket).read(tmp);
+            this.change(
+                before -> {
+                    Files.write(tmp, before.bytes);
+                    new IoCheckedProc<>(writer).exec(tmp);
+                    try (InputStream input = Files.newInputStream(tmp)) {
+                        return S3Item.Content.read(input);
+                    }
+                }
+            );
+        } finally {
+            TempFiles.INSTANCE.dispose(tmp);
+        }
+    }
+
+    @Override
+    public <T> T readBytes(final Func<byte[], T> reader) throws IOException {
+        return new IoCheckedFunc<>(reader).apply(this.content().bytes);
+    }
+
+    @Override
+    public void updateBytes(final Func<byte[], byte[]> writer)
+        throws IOException {
+        this.change(
+            before -> {
+                final byte[] after = writer.apply(before.bytes);
+                if (after == before.bytes) {
+                    return before;
+                }
+                return new S3Item.Content(
+                    after, S3Item.hex(S3Item.digest().digest(after)), null
+                );
             }
-            final Md5DigestOf mdsum = new Md5DigestOf(new InputOf(tmp));
-            final byte[] hbefore = mdsum.asBytes();
-            new IoCheckedProc<>(writer).exec(tmp);
-            final byte[] hash = mdsum.asBytes();
-            if (Arrays.equals(hbefore, hash)) {
+        );
+    }
+
+    /**
+     * Apply the change to the object and upload it, if it was changed.
+     * @param change Change of the content
+     * @throws IOException On failure
+     */
+    private void change(final Func<S3Item.Content, S3Item.Content> change)
+        throws IOException {
+        final IoCheckedFunc<S3Item.Content, S3Item.Content> func =
+            new IoCheckedFunc<>(change);
+        for (int attempt = 1; attempt <= S3Item.ATTEMPTS; ++attempt) {
+            final S3Item.Content before = this.content();
+            final S3Item.Content after = func.apply(before);
+            if (after.same(before)) {
+                S3Uploads.INSTANCE.skip();
                 return;
             }
-            final ObjectMetadata meta = new ObjectMetadata();
-            meta.setContentLength(Files.size(tmp));
-            meta.setContentMD5(Base64.getEncoder().encodeToString(hash));
-            if (Thread.currentThread().isInterrupted()) {
+            if (this.save(before, after)) {
                 return;
             }
-            new OcketExt(this.ocket).write(tmp, meta);
-        } finally {
-            TempFiles.INSTANCE.dispose(tmp);
+            S3Uploads.INSTANCE.conflict();
+            Logger.warn(
+                this, "%s was changed concurrently, attempt #%d",
+                this.ocket, attempt
+            );
+        }
+        throw new IOException(
+            String.format(
+                "Failed to update %s, it was changed concurrently %d times",
+                this.ocket, S3Item.ATTEMPTS
+            )
+        );
+    }
+
+    /**
+     * Content of the object, unless its cached copy is up to date.
+     * @return Content, empty if the object is absent
+     * @throws IOException On failure
+     */
+    private S3Item.Content content() throws IOException {
+        final String etag = this.etag();
+        S3Item.Content content;
+        if (etag == null) {
+            content = S3Item.Content.EMPTY;
+            if (this.ocket.exists()) {
+                content = this.download(null);
+            }
+        } else if (etag.isEmpty()) {
+            S3Cache.INSTANCE.remove(this.key());
+            content = S3Item.Content.EMPTY;
+        } else {
+            final byte[] bytes = S3Cache.INSTANCE.bytes(this.key(), etag);
+            if (bytes == null) {
+                content = this.download(etag);
+                S3Cache.INSTANCE.save(this.key(), etag, content.bytes);
+            } else if (S3Item.MD5.matcher(etag).matches()) {
+                content = new S3Item.Content(bytes, etag, etag);
+            } else {
+                content = new S3Item.Content(
+                    bytes, S3Item.hex(S3Item.digest().digest(bytes)), etag
+                );
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Download the object, calculating its digest on the way.
+     * @param etag ETag of the object
+     * @return Content
+     * @throws IOException On failure
+     */
+    private S3Item.Content download(final String etag) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final MessageDigest digest = S3Item.digest();
+        this.ocket.read(new DigestOutputStream(out, digest));
+        return new S3Item.Content(
+            out.toByteArray(), S3Item.hex(digest.digest()), etag
+        );
+    }
+
+    /**
+     * Current ETag of the object.
+     * @return ETag, empty if the object is absent or NULL if unknown
+     * @throws IOException On failure
+     */
+    private String etag() throws IOException {
+        try {
+            final String etag = this.ocket.meta().getETag();
+            if (etag == null) {
+                return null;
+            }
+            return etag.toLowerCase(Locale.ENGLISH);
+        } catch (final OcketNotFoundException ex) {
+            final AmazonS3Exception cause =
+                AmazonS3Exception.class.cast(ex.getCause());
+            if (cause == null
+                || cause.getStatusCode() != HttpURLConnection.HTTP_NOT_FOUND) {
+                throw ex;
+            }
+            return "";
+        }
+    }
+
+    /**
+     * Upload new content of the object, unless the object was seen
+     * changed (or created) since the previous content was downloaded.
+     * This is a best-effort check, see the class documentation.
+     * @param before Content before the change
+     * @param after Content after the change
+     * @return FALSE if the object was changed concurrently
+     * @throws IOException On failure
+     */
+    private boolean save(final S3Item.Content before,
+        final S3Item.Content after) throws IOException {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        if (this.changed(before)) {
+            return false;
+        }
+        final ObjectMetadata meta = new ObjectMetadata();
+        meta.setContentLength((long) after.bytes.length);
+        meta.setContentMD5(Base64.getEncoder().encodeToString(after.raw()));
+        this.ocket.write(new ByteArrayInputStream(after.bytes), meta);
+        S3Uploads.INSTANCE.upload();
+        S3Listing.INSTANCE.invalidate(
+            this.ocket.bucket().name(), this.ocket.key()
+        );
+        S3Cache.INSTANCE.save(this.key(), after.md5, after.bytes);
+        return true;
+    }
+
+    /**
+     * The object was changed (or created) since the content was
+     * downloaded, as far as we can see it.
+     * @param before Content before the change
+     * @return TRUE if it was changed
+     * @throws IOException On failure
+     */
+    private boolean changed(final S3Item.Content before) throws IOException {
+        final boolean changed;
+        if (before.etag == null) {
+            changed = false;
+        } else {
+            final String etag = this.etag();
+            if (etag == null) {
+                changed = before.etag.isEmpty() && this.ocket.exists();
+            } else {
+                changed = !before.etag.equals(etag);
+            }
         }
+        return changed;
+    }
+
+    /**
+     * Key of the object in the cache.
+     * @return Bucket name and object key
+     */
+    private String key() {
+        return String.format(
+            "%s/%s", this.ocket.bucket().name(), this.ocket.key()
+        );
     }
 
     /**
@@ -116,56 +330,107 @@ final class S3Item implements Item {
     }
 
     /**
-     * Ocket extensions.
+     * New MD5 digest.
+     * @return Digest
+     */
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (final NoSuchAlgorithmException err) {
+            throw new IllegalStateException("MD5 algorithm required", err);
+        }
+    }
+
+    /**
+     * Digest as a hex string, as in ETags.
+     * @param digest Digest
+     * @return Hex string
+     * @throws IOException On failure
+     */
+    private static String hex(final byte[] digest) throws IOException {
+        return new HexOf(new BytesOf(digest)).asString();
+    }
+
+    /**
+     * Content of the object with its digest.
      */
-    private static final class OcketExt {
+    private static final class Content {
+
+        /**
+         * Content of absent object, with empty ETag, so it's noticed
+         * when the object is created concurrently.
+         */
+        private static final S3Item.Content EMPTY = new S3Item.Content(
+            new byte[0], "d41d8cd98f00b204e9800998ecf8427e", ""
+        );
+
+        /**
+         * Content.
+         */
+        private final byte[] bytes;
+
+        /**
+         * MD5 digest of the content, in hex.
+         */
+        private final String md5;
 
         /**
-         * Ocket.
+         * ETag of the object, as it was downloaded, empty if the object
+         * is absent or NULL if unknown.
          */
-        private final Ocket ocket;
+        private final String etag;
 
         /**
          * Ctor.
-         * @param ocket Ocket
+         * @param bytes Content
+         * @param md5 MD5 digest in hex
+         * @param etag ETag
          */
-        OcketExt(final Ocket ocket) {
-            this.ocket = ocket;
+        Content(final byte[] bytes, final String md5, final String etag) {
+            this.bytes = bytes;
+            this.md5 = md5;
+            this.etag = etag;
         }
 
         /**
-         * Read ocket to file.
-         * @param file Output
-         * @throws IOException On IO error
+         * Read new content from the stream, calculating its digest.
+         * @param input Stream
+         * @return Content
+         * @throws IOException On failure
          */
-        public void read(final Path file) throws IOException {
-            try (
-                final OutputStream out = new BufferedOutputStream(
-                    Files.newOutputStream(
-                        file, StandardOpenOption.CREATE,
-                        StandardOpenOption.TRUNCATE_EXISTING
-                    )
-                )
-            ) {
-                this.ocket.read(out);
-            }
+        public static S3Item.Content read(final InputStream input)
+            throws IOException {
+            final MessageDigest digest = S3Item.digest();
+            final byte[] bytes = new BytesOf(
+                new InputOf(new DigestInputStream(input, digest))
+            ).asBytes();
+            return new S3Item.Content(
+                bytes, S3Item.hex(digest.digest()), null
+            );
         }
 
         /**
-         * Write file to ocket.
-         * @param file File to write
-         * @param meta S3 object metadata
-         * @throws IOException On IO error
+         * MD5 digest of the content.
+         * @return Digest
          */
-        public void write(final Path file, final ObjectMetadata meta)
-            throws IOException {
-            try (
-                final InputStream src = new BufferedInputStream(
-                    Files.newInputStream(file, StandardOpenOption.READ)
-                )
-            ) {
-                this.ocket.write(src, meta);
+        public byte[] raw() {
+            final byte[] raw = new byte[this.md5.length() / 2];
+            for (int idx = 0; idx < raw.length; ++idx) {
+                // @checkstyle MagicNumber (1 line)
+                raw[idx] = (byte) Integer.parseInt(
+                    this.md5.substring(idx * 2, idx * 2 + 2), 16
+                );
             }
+            return raw;
+        }
+
+        /**
+         * This content is the same as the other one.
+         * @param other Other content
+         * @return TRUE if the digests are equal
+         */
+        public boolean same(final S3Item.Content other) {
+            return this == other || this.md5.equals(other.md5);
         }
     }
 }
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.jcabi.log.Logger;
+import com.jcabi.s3.Bucket;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.cactoos.time.DateAsText;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Listings of project files in S3, as {@code _list.xml}.
+ *
+ * <p>All pages of the listing are fetched, following continuation
+ * tokens, and written to the XML one by one. The listing is cached for
+ * a while and dropped when this node writes an object under its
+ * prefix. A listing which was in progress while such a write happened
+ * is returned, but not cached, since it may miss the object.</p>
+ *
+ * @since 1.0
+ */
+final class S3Listing implements Iterable<Directive> {
+
+    /**
+     * Singleton, with listings valid for one minute.
+     */
+    public static final S3Listing INSTANCE =
+        new S3Listing(TimeUnit.MINUTES.toMillis(1L));
+
+    /**
+     * How long a listing is valid, in milliseconds.
+     */
+    private final long ttl;
+
+    /**
+     * Listings by bucket name and prefix.
+     */
+    private final Map<String, S3Listing.Entry> entries;
+
+    /**
+     * Listings in progress, by bucket name and prefix.
+     */
+    private final Map<String, Object> loading;
+
+    /**
+     * Listings served from the cache.
+     */
+    private final AtomicLong hits;
+
+    /**
+     * Listings made.
+     */
+    private final AtomicLong listed;
+
+    /**
+     * Keys listed.
+     */
+    private final AtomicLong keys;
+
+    /**
+     * Most keys in one listing.
+     */
+    private final AtomicLong most;
+
+    /**
+     * Time spent on listings, in milliseconds.
+     */
+    private final AtomicLong time;
+
+    /**
+     * Longest listing, in milliseconds.
+     */
+    private final AtomicLong slowest;
+
+    /**
+     * Ctor.
+     * @param ttl How long a listing is valid, in milliseconds
+     */
+    S3Listing(final long ttl) {
+        this.ttl = ttl;
+        this.entries = new ConcurrentHashMap<>(0);
+        this.loading = new ConcurrentHashMap<>(0);
+        this.hits = new AtomicLong();
+        this.listed = new AtomicLong();
+        this.keys = new AtomicLong();
+        this.most = new AtomicLong();
+        this.time = new AtomicLong();
+        this.slowest = new AtomicLong();
+    }
+
+    /**
+     * Listing of objects under the prefix.
+     * @param bucket Bucket
+     * @param prefix Prefix
+     * @return XML with items
+     * @throws IOException If fails
+     */
+    public byte[] xml(final Bucket bucket, final String prefix)
+        throws IOException {
+        final String key = S3Listing.key(bucket, prefix);
+        final long now = System.currentTimeMillis();
+        final S3Listing.Entry entry = this.entries.get(key);
+        final byte[] xml;
+        if (entry == null || entry.expires < now) {
+            final Object token = new Object();
+            this.loading.put(key, token);
+            try {
+                xml = this.list(bucket.region().aws(), bucket.name(), prefix);
+                this.entries.values().removeIf(old -> old.expires < now);
+                final S3Listing.Entry fresh =
+                    new S3Listing.Entry(xml, now + this.ttl);
+                this.loading.computeIfPresent(
+                    key,
+                    (name, current) -> {
+                        Object left = current;
+                        if (current.equals(token)) {
+                            this.entries.put(name, fresh);
+                            left = null;
+                        }
+                        return left;
+                    }
+                );
+            } finally {
+                this.loading.remove(key, token);
+            }
+        } else {
+            this.hits.incrementAndGet();
+            xml = entry.xml;
+        }
+        return xml;
+    }
+
+    /**
+     * Object was written by this node, drop the listings of it.
+     * @param bucket Bucket name
+     * @param key Object key
+     */
+    public void invalidate(final String bucket, final String key) {
+        final String path = String.format("%s/%s", bucket, key);
+        this.loading.keySet().removeIf(path::startsWith);
+        this.entries.keySet().removeIf(path::startsWith);
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        return new Directives()
+            .add("s3-listing")
+            .add("cached").set(this.entries.size()).up()
+            .add("hits").set(this.hits.get()).up()
+            .add("listed").set(this.listed.get()).up()
+            .add("keys").set(this.keys.get()).up()
+            .add("most").set(this.most.get()).up()
+            .add("time").set(this.time.get()).up()
+            .add("slowest").set(this.slowest.get()).up()
+            .up()
+            .iterator();
+    }
+
+    /**
+     * List all objects under the prefix.
+     * @param aws Amazon S3 client
+     * @param bucket Bucket name
+     * @param prefix Prefix
+     * @return XML with items
+     * @throws IOException If fails
+     */
+    private byte[] list(final AmazonS3 aws, final String bucket,
+        final String prefix) throws IOException {
+        final long start = System.currentTimeMillis();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = 0L;
+        int pages = 0;
+        try {
+            final XMLStreamWriter xml = XMLOutputFactory.newInstance()
+                .createXMLStreamWriter(out, "UTF-8");
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeStartElement("items");
+            final ListObjectsV2Request req = new ListObjectsV2Request()
+                .withBucketName(bucket)
+                .withPrefix(prefix);
+            ListObjectsV2Result page;
+            do {
+                page = aws.listObjectsV2(req);
+                for (final S3ObjectSummary sum : page.getObjectSummaries()) {
+                    S3Listing.write(
+                        xml, sum.getKey().substring(prefix.length()), sum
+                    );
+                    ++count;
+                }
+                ++pages;
+                req.setContinuationToken(page.getNextContinuationToken());
+            } while (page.isTruncated());
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        } catch (final XMLStreamException ex) {
+            throw new IOException(ex);
+        }
+        final long msec = System.currentTimeMillis() - start;
+        this.listed.incrementAndGet();
+        this.keys.addAndGet(count);
+        this.most.accumulateAndGet(count, Math::max);
+        this.time.addAndGet(msec);
+        this.slowest.accumulateAndGet(msec, Math::max);
+        Logger.info(
+            this, "%d objects listed in %s/%s, %d pages in %[ms]s",
+            count, bucket, prefix, pages, msec
+        );
+        return out.toByteArray();
+    }
+
+    /**
+     * Write one item.
+     * @param xml XML writer
+     * @param name File name
+     * @param sum Object summary
+     * @throws XMLStreamException If fails
+     */
+    private static void write(final XMLStreamWriter xml, final String name,
+        final S3ObjectSummary sum) throws XMLStreamException {
+        xml.writeStartElement("item");
+        xml.writeStartElement("name");
+        xml.writeCharacters(name);
+        xml.writeEndElement();
+        xml.writeStartElement("size");
+        xml.writeCharacters(Long.toString(sum.getSize()));
+        xml.writeEndElement();
+        xml.writeStartElement("modified");
+        xml.writeCharacters(new DateAsText(sum.getLastModified()).asString());
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    /**
+     * Key of the listing.
+     * @param bucket Bucket
+     * @param prefix Prefix
+     * @return Bucket name and prefix
+     */
+    private static String key(final Bucket bucket, final String prefix) {
+        return String.format("%s/%s", bucket.name(), prefix);
+    }
+
+    /**
+     * Cached listing.
+     */
+    private static final class Entry {
+
+        /**
+         * XML with items.
+         */
+        private final byte[] xml;
+
+        /**
+         * When it expires, in milliseconds.
+         */
+        private final long expires;
+
+        /**
+         * Ctor.
+         * @param xml XML
+         * @param expires Expiration time
+         */
+        Entry(final byte[] xml, final long expires) {
+            this.xml = xml;
+            this.expires = expires;
+        }
+    }
+}
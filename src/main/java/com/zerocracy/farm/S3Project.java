@@ -16,8 +16,6 @@
  */
 package com.zerocracy.farm;
 
-import com.amazonaws.services.s3.model.ObjectListing;
-import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.jcabi.s3.Bucket;
 import com.zerocracy.Item;
 import com.zerocracy.ItemFrom;
@@ -25,11 +23,6 @@ import com.zerocracy.Project;
 import java.io.IOException;
 import lombok.EqualsAndHashCode;
 import org.apache.commons.lang3.StringUtils;
-import org.cactoos.collection.Joined;
-import org.cactoos.collection.Mapped;
-import org.cactoos.time.DateAsText;
-import org.xembly.Directive;
-import org.xembly.Directives;
 
 /**
  * Project in S3.
@@ -72,34 +65,8 @@ final class S3Project implements Project {
     public Item acq(final String file) throws IOException {
         final Item item;
         if ("_list.xml".equals(file)) {
-            final ObjectListing listing = this.bucket.region().aws()
-                .listObjects(this.bucket.name(), this.prefix);
             item = new ItemFrom(
-                new Directives().add("items").append(
-                    new Joined<Directive>(
-                        new Mapped<S3ObjectSummary, Iterable<Directive>>(
-                            sum -> new Directives()
-                                .add("item")
-                                .add("name")
-                                .set(
-                                    sum.getKey().substring(
-                                        this.prefix.length()
-                                    )
-                                )
-                                .up()
-                                .add("size").set(sum.getSize()).up()
-                                .add("modified")
-                                .set(
-                                    new DateAsText(
-                                        sum.getLastModified()
-                                    ).asString()
-                                )
-                                .up()
-                                .up(),
-                            listing.getObjectSummaries()
-                        )
-                    )
-                )
+                S3Listing.INSTANCE.xml(this.bucket, this.prefix)
             );
         } else {
             if (!file.matches("[a-z0-9\\-/]+\\.[a-z]+")) {
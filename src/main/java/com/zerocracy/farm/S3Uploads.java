@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Statistics of uploads made by {@link S3Item}.
+ *
+ * @since 1.0
+ */
+final class S3Uploads implements Iterable<Directive> {
+
+    /**
+     * Singleton.
+     */
+    public static final S3Uploads INSTANCE = new S3Uploads();
+
+    /**
+     * Objects uploaded.
+     */
+    private final AtomicLong uploaded;
+
+    /**
+     * Uploads skipped, since the content was not changed.
+     */
+    private final AtomicLong skipped;
+
+    /**
+     * Uploads not made, since the object was changed by someone else.
+     */
+    private final AtomicLong conflicts;
+
+    /**
+     * Ctor.
+     */
+    S3Uploads() {
+        this.uploaded = new AtomicLong();
+        this.skipped = new AtomicLong();
+        this.conflicts = new AtomicLong();
+    }
+
+    /**
+     * Object was uploaded.
+     */
+    public void upload() {
+        this.uploaded.incrementAndGet();
+    }
+
+    /**
+     * Upload was skipped.
+     */
+    public void skip() {
+        this.skipped.incrementAndGet();
+    }
+
+    /**
+     * Upload was prevented by a concurrent change.
+     */
+    public void conflict() {
+        this.conflicts.incrementAndGet();
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        return new Directives()
+            .add("s3-uploads")
+            .add("uploaded").set(this.uploaded.get()).up()
+            .add("skipped").set(this.skipped.get()).up()
+            .add("conflicts").set(this.conflicts.get()).up()
+            .up()
+            .iterator();
+    }
+}
@@ -19,6 +19,7 @@ package com.zerocracy.farm;
 import com.zerocracy.Farm;
 import com.zerocracy.Project;
 import com.zerocracy.entry.ExtFarm;
+import com.zerocracy.farm.guts.Guts;
 import com.zerocracy.farm.props.PropsFarm;
 import com.zerocracy.farm.ruled.RdFarm;
 import com.zerocracy.farm.strict.StrictFarm;
@@ -28,6 +29,7 @@ import com.zerocracy.farm.sync.TestLocks;
 import java.io.IOException;
 import org.cactoos.scalar.IoCheckedScalar;
 import org.cactoos.scalar.SolidScalar;
+import org.xembly.Directives;
 
 /**
  * Smart farm.
@@ -76,7 +78,17 @@ public final class SmartFarm implements Farm {
 
     @Override
     public Iterable<Project> find(final String xpath) throws IOException {
-        return this.self.value().find(xpath);
+        return new Guts(
+            this.self.value(),
+            () -> this.self.value().find(xpath),
+            () -> new Directives()
+                .xpath("/guts")
+                .add("farm")
+                .attr("id", "S3")
+                .append(S3Cache.INSTANCE)
+                .append(S3Uploads.INSTANCE)
+                .append(S3Listing.INSTANCE)
+        ).apply(xpath);
     }
 
     @Override
@@ -22,6 +22,7 @@ import com.zerocracy.Farm;
 import com.zerocracy.Project;
 import com.zerocracy.SoftException;
 import com.zerocracy.Stakeholder;
+import com.zerocracy.claims.BatchClaims;
 import com.zerocracy.claims.ClaimIn;
 import com.zerocracy.entry.ClaimsOf;
 import com.zerocracy.farm.props.Props;
@@ -94,9 +95,10 @@ public final class StkSafe implements Stakeholder {
     public void process(final Project project,
         final XML xml) throws IOException {
         final ClaimIn claim = new ClaimIn(xml);
-        final boolean testing = new Props(this.farm).has("//testing");
-        try {
+        final boolean testing = new Props(this.farm).testing();
+        try (final BatchClaims outbox = new BatchClaims().open()) {
             this.origin.process(project, xml);
+            outbox.commit();
         } catch (final MismatchException ex) {
             throw ex;
         } catch (final SoftException ex) {
@@ -16,7 +16,6 @@
  */
 package com.zerocracy.farm.props;
 
-import com.jcabi.xml.XMLDocument;
 import com.zerocracy.Farm;
 import com.zerocracy.Item;
 import com.zerocracy.Project;
@@ -105,6 +104,15 @@ public final class Props {
         return !this.values(xpath).isEmpty();
     }
 
+    /**
+     * It's a testing environment.
+     * @return TRUE if {@code //testing} property is set
+     * @throws IOException If fails
+     */
+    public boolean testing() throws IOException {
+        return this.item().read(PropsSnapshot::of).testing();
+    }
+
     /**
      * Get one property, all values.
      * @param xpath Xpath to use
@@ -112,9 +120,7 @@ public final class Props {
      * @throws IOException If fails
      */
     private List<String> values(final String xpath) throws IOException {
-        return this.item().read(XMLDocument::new).xpath(
-            String.format("%s/text()", xpath)
-        );
+        return this.item().read(PropsSnapshot::of).values(xpath);
     }
 
     /**
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.props;
+
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed and immutable {@code _props.xml}.
+ *
+ * <p>Snapshots are kept by file location and re-parsed only when
+ * the file is modified. Every XPath is evaluated once per snapshot,
+ * its result is remembered.</p>
+ *
+ * @since 1.0
+ */
+final class PropsSnapshot {
+
+    /**
+     * Maximum amount of snapshots to keep.
+     */
+    private static final int MAX = 16;
+
+    /**
+     * Snapshots by file location, in access order.
+     */
+    private static final Map<Path, PropsSnapshot> ALL =
+        // @checkstyle MagicNumber (1 line)
+        new LinkedHashMap<>(PropsSnapshot.MAX, 0.75f, true);
+
+    /**
+     * Modification time of the file.
+     */
+    private final long modified;
+
+    /**
+     * Size of the file.
+     */
+    private final long size;
+
+    /**
+     * The document.
+     */
+    private final XML xml;
+
+    /**
+     * It's a testing environment.
+     */
+    private final boolean testing;
+
+    /**
+     * Values found by XPath.
+     */
+    private final Map<String, List<String>> values;
+
+    /**
+     * Ctor.
+     * @param time Modification time
+     * @param length File size
+     * @param doc Document
+     */
+    private PropsSnapshot(final long time, final long length, final XML doc) {
+        this.modified = time;
+        this.size = length;
+        this.xml = doc;
+        this.testing = !doc.xpath("//testing/text()").isEmpty();
+        this.values = new ConcurrentHashMap<>(0);
+    }
+
+    /**
+     * Snapshot of the file.
+     * @param path File with properties
+     * @return Snapshot
+     * @throws IOException If fails
+     */
+    public static PropsSnapshot of(final Path path) throws IOException {
+        final long time = Files.getLastModifiedTime(path).toMillis();
+        final long length = Files.size(path);
+        synchronized (PropsSnapshot.ALL) {
+            PropsSnapshot snap = PropsSnapshot.ALL.get(path);
+            if (snap == null || snap.modified != time || snap.size != length) {
+                snap = new PropsSnapshot(
+                    time, length, new XMLDocument(path.toFile())
+                );
+                PropsSnapshot.ALL.put(path, snap);
+                if (PropsSnapshot.ALL.size() > PropsSnapshot.MAX) {
+                    PropsSnapshot.ALL.remove(
+                        PropsSnapshot.ALL.keySet().iterator().next()
+                    );
+                }
+            }
+            return snap;
+        }
+    }
+
+    /**
+     * It's a testing environment, {@code //testing} is set.
+     * @return TRUE if testing
+     */
+    public boolean testing() {
+        return this.testing;
+    }
+
+    /**
+     * Text values by XPath.
+     * @param xpath XPath to element
+     * @return Texts, immutable
+     */
+    public List<String> values(final String xpath) {
+        return this.values.computeIfAbsent(
+            xpath,
+            query -> {
+                synchronized (this.xml) {
+                    return Collections.unmodifiableList(
+                        this.xml.xpath(String.format("%s/text()", query))
+                    );
+                }
+            }
+        );
+    }
+}
@@ -19,25 +19,51 @@ package com.zerocracy.farm.reactive;
 import com.jcabi.xml.XML;
 import com.zerocracy.Project;
 import com.zerocracy.Stakeholder;
+import com.zerocracy.claims.ClaimIn;
 import com.zerocracy.farm.MismatchException;
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
 import org.cactoos.BiFunc;
 import org.cactoos.iterable.Filtered;
 import org.cactoos.iterable.IterableOf;
 import org.cactoos.iterable.LengthOf;
 import org.cactoos.iterable.Mapped;
 import org.cactoos.list.SolidList;
+import org.xembly.Directive;
 
 /**
  * Brigade of stakeholders.
+ *
+ * <p>Claims are dispatched by their types, see {@link Routes}:
+ * a stakeholder which once rejected a claim because of its type
+ * is not invoked for claims of other types anymore.</p>
+ *
  * @since 1.0
  */
-public final class Brigade implements BiFunc<Project, XML, Integer> {
+public final class Brigade implements BiFunc<Project, XML, Integer>,
+    Iterable<Directive> {
+
+    /**
+     * How many mismatches to remember.
+     */
+    private static final int MAX = 10000;
 
     /**
      * Stakeholders.
      */
-    private final Iterable<Stakeholder> pool;
+    private final List<Stakeholder> pool;
+
+    /**
+     * Routing table.
+     */
+    private final Routes routes;
+
+    /**
+     * Known mismatches.
+     */
+    private final Mismatches mismatches;
 
     /**
      * Ctor.
@@ -52,19 +78,59 @@ public final class Brigade implements BiFunc<Project, XML, Integer> {
      * @param list List of stakeholders
      */
     public Brigade(final Iterable<Stakeholder> list) {
-        this.pool = new SolidList<>(new Mapped<>(StkSmart::new, list));
+        this(new SolidList<>(list));
+    }
+
+    /**
+     * Ctor.
+     * @param list List of stakeholders
+     */
+    private Brigade(final List<Stakeholder> list) {
+        this(list, new Routes(list.size()), new Mismatches(Brigade.MAX));
+    }
+
+    /**
+     * Ctor.
+     * @param list List of stakeholders
+     * @param routes Routing table
+     * @param mismatches Known mismatches
+     */
+    private Brigade(final List<Stakeholder> list, final Routes routes,
+        final Mismatches mismatches) {
+        this.pool = new SolidList<>(
+            new Mapped<>(
+                pos -> new StkSmart(
+                    new StkRouted(list.get(pos), pos, routes),
+                    Integer.toString(pos),
+                    mismatches
+                ),
+                new IterableOf<>(
+                    IntStream.range(0, list.size()).iterator()
+                )
+            )
+        );
+        this.routes = routes;
+        this.mismatches = mismatches;
     }
 
     @Override
-    public Integer apply(final Project project, final XML xml) {
+    public Integer apply(final Project project, final XML xml)
+        throws IOException {
         return new LengthOf(
             new Filtered<>(
                 stk -> Brigade.process(stk, project, xml),
-                this.pool
+                new Mapped<>(
+                    this.pool::get,
+                    this.routes.route(new ClaimIn(xml).type())
+                )
             )
         ).intValue();
     }
 
+    @Override
+    public Iterator<Directive> iterator() {
+        return this.mismatches.iterator();
+    }
     /**
      * Process this claim.
      * @param stk Stakeholder
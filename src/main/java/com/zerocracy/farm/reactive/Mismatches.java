@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.reactive;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Places where stakeholders already rejected claims.
+ *
+ * <p>The memo is bounded: when it's full, the oldest places
+ * are forgotten first. It's safe to use from many threads without
+ * locking.</p>
+ *
+ * @since 1.0
+ */
+public final class Mismatches implements Iterable<Directive> {
+
+    /**
+     * Maximum amount of places.
+     */
+    private final int max;
+
+    /**
+     * Known places.
+     */
+    private final Set<String> places;
+
+    /**
+     * Places in the order they were added.
+     */
+    private final Queue<String> order;
+
+    /**
+     * Places found in the memo.
+     */
+    private final AtomicLong hits;
+
+    /**
+     * Places forgotten.
+     */
+    private final AtomicLong evictions;
+
+    /**
+     * Ctor.
+     * @param max Maximum amount of places
+     */
+    public Mismatches(final int max) {
+        this.max = max;
+        this.places = ConcurrentHashMap.newKeySet();
+        this.order = new ConcurrentLinkedQueue<>();
+        this.hits = new AtomicLong();
+        this.evictions = new AtomicLong();
+    }
+
+    /**
+     * Is it a known mismatch.
+     * @param place The place
+     * @return TRUE if it is
+     */
+    public boolean known(final String place) {
+        final boolean known = this.places.contains(place);
+        if (known) {
+            this.hits.incrementAndGet();
+        }
+        return known;
+    }
+
+    /**
+     * Remember a mismatch.
+     * @param place The place
+     */
+    public void add(final String place) {
+        if (this.places.add(place)) {
+            this.order.offer(place);
+            while (this.places.size() > this.max) {
+                final String old = this.order.poll();
+                if (old == null) {
+                    break;
+                }
+                this.places.remove(old);
+                this.evictions.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        return new Directives()
+            .add("mismatches")
+            .add("size").set(this.places.size()).up()
+            .add("max").set(this.max).up()
+            .add("hits").set(this.hits.get()).up()
+            .add("evictions").set(this.evictions.get()).up()
+            .up()
+            .iterator();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.reactive;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.IntStream;
+
+/**
+ * Routing table of claim types to stakeholders of a {@link Brigade}.
+ *
+ * <p>Stakeholders are identified by their positions in the brigade.
+ * At the beginning all of them are in the wildcard bucket and
+ * receive every claim. When a stakeholder rejects a claim
+ * by its type, see {@link com.zerocracy.farm.Assume#type(String...)},
+ * it is moved to the buckets of the types it is expecting,
+ * and won't see claims of other types anymore.</p>
+ *
+ * @since 1.0
+ */
+final class Routes {
+
+    /**
+     * Stakeholders by claim types.
+     */
+    private final ConcurrentMap<String, NavigableSet<Integer>> buckets;
+
+    /**
+     * Stakeholders which accept any claim type.
+     */
+    private final NavigableSet<Integer> wildcard;
+
+    /**
+     * Ctor.
+     * @param total Total amount of stakeholders
+     */
+    Routes(final int total) {
+        this.buckets = new ConcurrentHashMap<>(0);
+        this.wildcard = new ConcurrentSkipListSet<>();
+        IntStream.range(0, total).forEach(this.wildcard::add);
+    }
+
+    /**
+     * Stakeholders for a claim type, in the order of the brigade.
+     * @param type Claim type
+     * @return Positions of stakeholders
+     */
+    public Collection<Integer> route(final String type) {
+        final NavigableSet<Integer> all = new TreeSet<>(this.wildcard);
+        final NavigableSet<Integer> typed =
+            this.buckets.get(type.toLowerCase(Locale.ENGLISH));
+        if (typed != null) {
+            all.addAll(typed);
+        }
+        return all;
+    }
+
+    /**
+     * Stakeholder declared claim types it is expecting.
+     * @param pos Position of the stakeholder
+     * @param types Claim types
+     */
+    public void learn(final int pos, final Collection<String> types) {
+        for (final String type : types) {
+            this.buckets.computeIfAbsent(
+                type.toLowerCase(Locale.ENGLISH),
+                key -> new ConcurrentSkipListSet<>()
+            ).add(pos);
+        }
+        this.wildcard.remove(pos);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.reactive;
+
+import com.jcabi.xml.XML;
+import com.zerocracy.Project;
+import com.zerocracy.Stakeholder;
+import com.zerocracy.farm.MismatchException;
+import java.io.IOException;
+
+/**
+ * Stakeholder which tells {@link Routes} what claim types it expects.
+ *
+ * @since 1.0
+ */
+final class StkRouted implements Stakeholder {
+
+    /**
+     * The original one.
+     */
+    private final Stakeholder origin;
+
+    /**
+     * Position in the brigade.
+     */
+    private final int pos;
+
+    /**
+     * Routing table.
+     */
+    private final Routes routes;
+
+    /**
+     * Ctor.
+     * @param stk Original
+     * @param pos Position in the brigade
+     * @param routes Routing table
+     */
+    StkRouted(final Stakeholder stk, final int pos, final Routes routes) {
+        this.origin = stk;
+        this.pos = pos;
+        this.routes = routes;
+    }
+
+    @Override
+    public void process(final Project project, final XML xml)
+        throws IOException {
+        try {
+            this.origin.process(project, xml);
+        } catch (final MismatchException ex) {
+            if (!ex.types().isEmpty()) {
+                this.routes.learn(this.pos, ex.types());
+            }
+            throw ex;
+        }
+    }
+}
@@ -22,49 +22,71 @@ import com.zerocracy.Stakeholder;
 import com.zerocracy.claims.ClaimIn;
 import com.zerocracy.farm.MismatchException;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * A stakeholder that doesn't hit the same
  * {@link MismatchException} exception twice.
  *
+ * <p>Known mismatches are kept in {@link Mismatches}, which may be
+ * shared by many stakeholders, so each of them has its own label.
+ * The origin is called without any locks, in parallel, if necessary.</p>
+ *
  * @since 1.0
  */
 final class StkSmart implements Stakeholder {
 
+    /**
+     * Default size of the memo.
+     */
+    private static final int MAX = 1000;
+
     /**
      * The original one.
      */
     private final Stakeholder origin;
 
     /**
-     * List of places where we already seen problems.
+     * Label of the stakeholder in the memo.
+     */
+    private final String label;
+
+    /**
+     * Places where we already seen problems.
      */
-    private final Set<String> places;
+    private final Mismatches places;
 
     /**
      * Ctor.
      * @param stk Original
      */
     StkSmart(final Stakeholder stk) {
+        this(stk, "", new Mismatches(StkSmart.MAX));
+    }
+
+    /**
+     * Ctor.
+     * @param stk Original
+     * @param label Label of the stakeholder in the memo
+     * @param places Known mismatches
+     */
+    StkSmart(final Stakeholder stk, final String label,
+        final Mismatches places) {
         this.origin = stk;
-        this.places = new HashSet<>(0);
+        this.label = label;
+        this.places = places;
     }
 
     @Override
     public void process(final Project project, final XML xml)
         throws IOException {
         final String place = String.format(
-            "%s:%s", project.pid(), new ClaimIn(xml).type()
+            "%s:%s:%s", this.label, project.pid(), new ClaimIn(xml).type()
         );
-        synchronized (this.places) {
-            if (!this.places.contains(place)) {
-                try {
-                    this.origin.process(project, xml);
-                } catch (final MismatchException ex) {
-                    this.places.add(place);
-                }
+        if (!this.places.known(place)) {
+            try {
+                this.origin.process(project, xml);
+            } catch (final MismatchException ex) {
+                this.places.add(place);
             }
         }
     }
@@ -16,11 +16,14 @@
  */
 package com.zerocracy.farm.ruled;
 
+import com.jcabi.xml.XML;
 import com.jcabi.xml.XMLDocument;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import org.apache.commons.lang3.StringUtils;
 import org.cactoos.Scalar;
+import org.cactoos.scalar.IoCheckedScalar;
 
 /**
  * XML file area, e.g. "pm/scope/wbs".
@@ -31,25 +34,40 @@ import org.cactoos.Scalar;
 final class RdArea implements Scalar<String> {
 
     /**
-     * The file.
+     * The document.
      */
-    private final Path path;
+    private final Scalar<XML> xml;
 
     /**
      * Ctor.
      * @param file The XML file
      */
     RdArea(final Path file) {
-        this.path = file;
+        this(() -> new XMLDocument(file.toFile()));
+    }
+
+    /**
+     * Ctor.
+     * @param bytes Content of the XML document
+     */
+    RdArea(final byte[] bytes) {
+        this(() -> new XMLDocument(new String(bytes, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Primary ctor.
+     * @param xml The document
+     */
+    private RdArea(final Scalar<XML> xml) {
+        this.xml = xml;
     }
 
     @Override
     public String value() throws IOException {
         return StringUtils.substringBeforeLast(
             StringUtils.substringAfter(
-                new XMLDocument(
-                    this.path.toFile()
-                ).xpath("/*/@xsi:noNamespaceSchemaLocation").get(0),
+                new IoCheckedScalar<>(this.xml).value()
+                    .xpath("/*/@xsi:noNamespaceSchemaLocation").get(0),
                 "/xsd/"
             ),
             ".xsd"
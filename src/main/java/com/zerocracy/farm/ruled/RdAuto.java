@@ -19,25 +19,15 @@ package com.zerocracy.farm.ruled;
 import com.jcabi.log.Logger;
 import com.jcabi.xml.XML;
 import com.jcabi.xml.XMLDocument;
-import com.jcabi.xml.XSLDocument;
 import com.zerocracy.Project;
+import com.zerocracy.Stylesheets;
 import java.io.IOException;
 import java.net.URI;
-import java.nio.file.Path;
 import org.apache.commons.lang3.StringUtils;
-import org.cactoos.Func;
-import org.cactoos.Input;
-import org.cactoos.cache.SoftFunc;
-import org.cactoos.func.SyncFunc;
-import org.cactoos.func.UncheckedFunc;
-import org.cactoos.io.InputOf;
 import org.cactoos.io.LengthOf;
-import org.cactoos.io.StickyInput;
-import org.cactoos.io.SyncInput;
 import org.cactoos.io.TeeInput;
 import org.cactoos.scalar.And;
 import org.cactoos.scalar.UncheckedScalar;
-import org.cactoos.text.TextOf;
 
 /**
  * Auto updater of XML documents.
@@ -47,28 +37,15 @@ import org.cactoos.text.TextOf;
  */
 final class RdAuto {
 
-    /**
-     * Cache of documents.
-     */
-    private static final UncheckedFunc<URI, Input> CACHE = new UncheckedFunc<>(
-        new SyncFunc<>(
-            new SoftFunc<>(
-                (Func<URI, Input>) uri -> new SyncInput(
-                    new StickyInput(new InputOf(uri))
-                )
-            )
-        )
-    );
-
     /**
      * Original project.
      */
     private final Project project;
 
     /**
-     * The file.
+     * Area of the item to start with.
      */
-    private final Path path;
+    private final RdArea area;
 
     /**
      * The reason.
@@ -78,12 +55,12 @@ final class RdAuto {
     /**
      * Ctor.
      * @param pkt Project
-     * @param file The file with the item to start with
+     * @param area Area of the item to start with
      * @param rsn The reason
      */
-    RdAuto(final Project pkt, final Path file, final String rsn) {
+    RdAuto(final Project pkt, final RdArea area, final String rsn) {
         this.project = pkt;
-        this.path = file;
+        this.area = area;
         this.reason = rsn;
     }
 
@@ -99,7 +76,7 @@ final class RdAuto {
                     URI.create(
                         String.format(
                             "/latest/auto/%s",
-                            new RdArea(this.path).value()
+                            this.area.value()
                         )
                     )
                 ).iterate()
@@ -126,12 +103,10 @@ final class RdAuto {
                 if (src.toFile().exists()
                     && src.toFile().length() > 0L) {
                     final XML xml = new XMLDocument(src.toFile());
-                    final XML after = new XSLDocument(
-                        new TextOf(
-                            RdAuto.CACHE.apply(URI.create(xsl))
-                        ).asString(),
-                        new RdSources(this.project)
-                    ).transform(xml);
+                    final XML after = Stylesheets.INSTANCE
+                        .xsl(URI.create(xsl))
+                        .with(new RdSources(this.project))
+                        .transform(xml);
                     if (!xml.equals(after)) {
                         new LengthOf(
                             new TeeInput(
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.ruled;
+
+import com.zerocracy.Item;
+import com.zerocracy.TempFiles;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import org.cactoos.Func;
+import org.cactoos.Proc;
+import org.cactoos.func.IoCheckedFunc;
+import org.cactoos.func.IoCheckedProc;
+
+/**
+ * Item being updated, kept in memory while rules are applied to it.
+ *
+ * @since 1.0
+ */
+final class RdBuffer implements Item {
+
+    /**
+     * Content of the item.
+     */
+    private final AtomicReference<byte[]> content;
+
+    /**
+     * Name of the item.
+     */
+    private final String name;
+
+    /**
+     * Ctor.
+     * @param content Content of the item
+     * @param name Name of the item
+     */
+    RdBuffer(final AtomicReference<byte[]> content, final String name) {
+        this.content = content;
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+    @Override
+    public <T> T read(final Func<Path, T> reader) throws IOException {
+        final Path tmp = TempFiles.INSTANCE.newFile(this, ".xml");
+        try {
+            Files.write(tmp, this.content.get());
+            return new IoCheckedFunc<>(reader).apply(tmp);
+        } finally {
+            TempFiles.INSTANCE.dispose(tmp);
+        }
+    }
+
+    @Override
+    public void update(final Proc<Path> writer) throws IOException {
+        final Path tmp = TempFiles.INSTANCE.newFile(this, ".xml");
+        try {
+            Files.write(tmp, this.content.get());
+            new IoCheckedProc<>(writer).exec(tmp);
+            this.content.set(Files.readAllBytes(tmp));
+        } finally {
+            TempFiles.INSTANCE.dispose(tmp);
+        }
+    }
+
+    @Override
+    public <T> T readBytes(final Func<byte[], T> reader) throws IOException {
+        return new IoCheckedFunc<>(reader).apply(this.content.get());
+    }
+
+    @Override
+    public void updateBytes(final Func<byte[], byte[]> writer)
+        throws IOException {
+        this.content.set(
+            new IoCheckedFunc<>(writer).apply(this.content.get())
+        );
+    }
+}
@@ -17,6 +17,7 @@
 package com.zerocracy.farm.ruled;
 
 import com.jcabi.xml.XMLDocument;
+import com.zerocracy.DatumInput;
 import java.io.IOException;
 import java.net.URI;
 import org.cactoos.Input;
@@ -44,7 +45,7 @@ final class RdIndex {
         new SyncFunc<>(
             new SoftFunc<>(
                 path -> new SyncInput(
-                    new StickyInput(new InputOf(path))
+                    new StickyInput(new DatumInput(path))
                 )
             )
         )
@@ -25,8 +25,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.EqualsAndHashCode;
 import org.cactoos.Func;
 import org.cactoos.Proc;
@@ -96,6 +98,36 @@ final class RdItem implements Item {
         );
     }
 
+    @Override
+    public <T> T readBytes(final Func<byte[], T> reader) throws IOException {
+        return this.origin.readBytes(reader);
+    }
+
+    @Override
+    public void updateBytes(final Func<byte[], byte[]> writer)
+        throws IOException {
+        this.origin.updateBytes(
+            before -> {
+                byte[] after = writer.apply(before);
+                if (after.length == 0) {
+                    after = before;
+                } else if (!Arrays.equals(before, after)) {
+                    final AtomicReference<byte[]> content =
+                        new AtomicReference<>(after);
+                    this.rules(
+                        new RdBuffer(content, this.origin.toString()),
+                        new RdArea(after),
+                        String.format(
+                            "Content:%d!=%d", after.length, before.length
+                        )
+                    );
+                    after = content.get();
+                }
+                return after;
+            }
+        );
+    }
+
     /**
      * Apply rules to item.
      * @param src Source path
@@ -111,20 +143,7 @@ final class RdItem implements Item {
         try {
             final String dirty = RdItem.dirty(tmp, time, length);
             if (!dirty.isEmpty()) {
-                final Project proxy = file -> {
-                    final Item item;
-                    if (this.name.equals(file)) {
-                        item = new FkItem(tmp);
-                    } else {
-                        item = this.project.acq(file);
-                    }
-                    return item;
-                };
-                if (!"PMO".equals(this.project.pid())
-                    || !"roles.xml".equals(this.name)) {
-                    new RdAuto(proxy, tmp, dirty).propagate();
-                    new RdRules(proxy, tmp, dirty).validate();
-                }
+                this.rules(new FkItem(tmp), new RdArea(tmp), dirty);
                 Files.move(tmp, src, StandardCopyOption.REPLACE_EXISTING);
             }
         } finally {
@@ -132,6 +151,31 @@ final class RdItem implements Item {
         }
     }
 
+    /**
+     * Propagate changes of the item and validate them.
+     * @param item Changed item
+     * @param area Area of the item
+     * @param dirty Reason
+     * @throws IOException On failure
+     */
+    private void rules(final Item item, final RdArea area,
+        final String dirty) throws IOException {
+        final Project proxy = file -> {
+            final Item found;
+            if (this.name.equals(file)) {
+                found = item;
+            } else {
+                found = this.project.acq(file);
+            }
+            return found;
+        };
+        if (!"PMO".equals(this.project.pid())
+            || !"roles.xml".equals(this.name)) {
+            new RdAuto(proxy, area, dirty).propagate();
+            new RdRules(proxy, area, dirty).validate();
+        }
+    }
+
     /**
      * Is it dirty?
      * @param path Path to check
@@ -18,21 +18,12 @@ package com.zerocracy.farm.ruled;
 
 import com.jcabi.log.Logger;
 import com.jcabi.xml.XMLDocument;
-import com.jcabi.xml.XSLDocument;
 import com.zerocracy.Project;
+import com.zerocracy.Stylesheets;
 import java.io.IOException;
 import java.net.URI;
-import java.nio.file.Path;
 import java.util.Collection;
 import org.apache.commons.lang3.StringUtils;
-import org.cactoos.Func;
-import org.cactoos.Input;
-import org.cactoos.cache.SoftFunc;
-import org.cactoos.func.SyncFunc;
-import org.cactoos.func.UncheckedFunc;
-import org.cactoos.io.InputOf;
-import org.cactoos.io.StickyInput;
-import org.cactoos.io.SyncInput;
 import org.cactoos.iterable.LengthOf;
 import org.cactoos.scalar.And;
 import org.cactoos.scalar.UncheckedScalar;
@@ -46,28 +37,15 @@ import org.cactoos.text.JoinedText;
  */
 final class RdRules {
 
-    /**
-     * Cache of documents.
-     */
-    private static final UncheckedFunc<URI, Input> CACHE = new UncheckedFunc<>(
-        new SyncFunc<>(
-            new SoftFunc<>(
-                (Func<URI, Input>) uri -> new SyncInput(
-                    new StickyInput(new InputOf(uri))
-                )
-            )
-        )
-    );
-
     /**
      * Original project.
      */
     private final Project project;
 
     /**
-     * The file.
+     * Area of the item.
      */
-    private final Path path;
+    private final RdArea area;
 
     /**
      * The reason for validation.
@@ -77,12 +55,12 @@ final class RdRules {
     /**
      * Ctor.
      * @param pkt Project
-     * @param file File with item
+     * @param area Area of the item
      * @param rsn Reason
      */
-    RdRules(final Project pkt, final Path file, final String rsn) {
+    RdRules(final Project pkt, final RdArea area, final String rsn) {
         this.project = pkt;
-        this.path = file;
+        this.area = area;
         this.reason = rsn;
     }
 
@@ -91,7 +69,7 @@ final class RdRules {
      * @throws IOException If fails
      */
     public void validate() throws IOException {
-        final String area = new RdArea(this.path).value();
+        final String area = this.area.value();
         final Iterable<String> xsls = new RdIndex(
             URI.create(
                 String.format(
@@ -106,9 +84,9 @@ final class RdRules {
         if (Logger.isDebugEnabled(this)) {
             Logger.debug(
                 // @checkstyle LineLength (1 line)
-                this, "%d XSLs confirm consistency in %s after changes in %s, area=\"%s\", reason=\"%s\", XSLs=\"%s\"",
+                this, "%d XSLs confirm consistency in %s after changes, area=\"%s\", reason=\"%s\", XSLs=\"%s\"",
                 new LengthOf(xsls).intValue(), this.project,
-                this.path.getFileName(), area, this.reason,
+                area, this.reason,
                 new JoinedText(";", xsls).asString()
             );
         }
@@ -121,7 +99,7 @@ final class RdRules {
      */
     private void check(final String xsl) throws IOException {
         final Collection<String> errors =
-            XSLDocument.make(RdRules.CACHE.apply(URI.create(xsl)).stream())
+            Stylesheets.INSTANCE.xsl(URI.create(xsl))
                 .with(new RdSources(this.project))
                 .transform(new XMLDocument("<i/>"))
                 .xpath("/errors/error/text()");
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.sync;
+
+import com.jcabi.aspects.Tv;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Time spent waiting for locks, per item.
+ *
+ * @since 1.0
+ */
+final class LockWaits implements Iterable<Directive> {
+
+    /**
+     * How many items to report.
+     */
+    private static final int TOP = Tv.FIFTY;
+
+    /**
+     * Stats by item.
+     */
+    private final Map<String, LockWaits.Stat> stats;
+
+    /**
+     * Ctor.
+     */
+    LockWaits() {
+        this.stats = new ConcurrentHashMap<>(0);
+    }
+
+    /**
+     * Register a wait.
+     * @param item Item
+     * @param msec Milliseconds spent
+     * @param success True if the lock was acquired
+     */
+    public void add(final String item, final long msec,
+        final boolean success) {
+        this.stats.computeIfAbsent(item, key -> new LockWaits.Stat())
+            .add(msec, success);
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        final Directives dirs = new Directives().add("lock-waits");
+        this.stats.entrySet().stream()
+            .sorted(
+                Comparator.comparingLong(
+                    (Map.Entry<String, LockWaits.Stat> ent) ->
+                        ent.getValue().total.get()
+                ).reversed()
+            )
+            .limit((long) LockWaits.TOP)
+            .forEach(
+                ent -> dirs.add("item")
+                    .attr("id", ent.getKey())
+                    .attr("locks", ent.getValue().count.get())
+                    .attr("failures", ent.getValue().failures.get())
+                    .attr("msec", ent.getValue().total.get())
+                    .attr("max", ent.getValue().max.get())
+                    .up()
+            );
+        return dirs.up().iterator();
+    }
+
+    /**
+     * Stats of one item.
+     */
+    private static final class Stat {
+
+        /**
+         * Locks acquired.
+         */
+        private final AtomicLong count = new AtomicLong();
+
+        /**
+         * Locks not acquired.
+         */
+        private final AtomicLong failures = new AtomicLong();
+
+        /**
+         * Total wait time.
+         */
+        private final AtomicLong total = new AtomicLong();
+
+        /**
+         * Longest wait.
+         */
+        private final AtomicLong max = new AtomicLong();
+
+        /**
+         * Register a wait.
+         * @param msec Milliseconds spent
+         * @param success True if the lock was acquired
+         */
+        public void add(final long msec, final boolean success) {
+            if (success) {
+                this.count.incrementAndGet();
+            } else {
+                this.failures.incrementAndGet();
+            }
+            this.total.addAndGet(msec);
+            this.max.accumulateAndGet(msec, Math::max);
+        }
+    }
+}
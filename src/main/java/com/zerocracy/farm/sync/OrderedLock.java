@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.sync;
+
+import com.zerocracy.Project;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import org.cactoos.Scalar;
+import org.cactoos.scalar.SolidScalar;
+import org.cactoos.scalar.UncheckedScalar;
+
+/**
+ * Lock of a few items, acquired in the order of their names.
+ *
+ * <p>When two threads or processes need the same items, both of them
+ * lock the items in the same order, so they never wait for each other
+ * in a cycle. If one of the items can't be locked, either by timeout
+ * or because of any exception, all items locked before it are
+ * released.</p>
+ *
+ * @since 1.0
+ */
+public final class OrderedLock implements Lock {
+
+    /**
+     * Locks in the order of acquisition.
+     */
+    private final UncheckedScalar<List<Lock>> locks;
+
+    /**
+     * Ctor.
+     * @param locks Locks
+     * @param pkt Project
+     * @param items Items to lock for writing
+     */
+    public OrderedLock(final Locks locks, final Project pkt,
+        final String... items) {
+        this(
+            () -> {
+                final Map<String, Lock> map = new HashMap<>(items.length);
+                for (final String item : items) {
+                    map.put(item, locks.lock(pkt, item).writeLock());
+                }
+                return map;
+            }
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param locks Locks of items
+     */
+    public OrderedLock(final Map<String, Lock> locks) {
+        this(() -> locks);
+    }
+
+    /**
+     * Ctor.
+     * @param locks Locks of items
+     */
+    private OrderedLock(final Scalar<Map<String, Lock>> locks) {
+        this.locks = new UncheckedScalar<>(
+            new SolidScalar<>(
+                () -> new ArrayList<>(new TreeMap<>(locks.value()).values())
+            )
+        );
+    }
+
+    @Override
+    public void lock() {
+        final List<Lock> done = new ArrayList<>(this.locks.value().size());
+        try {
+            for (final Lock lock : this.locks.value()) {
+                lock.lock();
+                done.add(lock);
+            }
+        } finally {
+            this.complete(done);
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        final List<Lock> done = new ArrayList<>(this.locks.value().size());
+        try {
+            for (final Lock lock : this.locks.value()) {
+                lock.lockInterruptibly();
+                done.add(lock);
+            }
+        } finally {
+            this.complete(done);
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        final List<Lock> done = new ArrayList<>(this.locks.value().size());
+        try {
+            for (final Lock lock : this.locks.value()) {
+                if (!lock.tryLock()) {
+                    break;
+                }
+                done.add(lock);
+            }
+        } finally {
+            this.complete(done);
+        }
+        return done.size() == this.locks.value().size();
+    }
+
+    @Override
+    public boolean tryLock(final long time, final TimeUnit unit)
+        throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(time);
+        final List<Lock> done = new ArrayList<>(this.locks.value().size());
+        try {
+            for (final Lock lock : this.locks.value()) {
+                if (!lock.tryLock(
+                    Math.max(0L, deadline - System.nanoTime()),
+                    TimeUnit.NANOSECONDS
+                )) {
+                    break;
+                }
+                done.add(lock);
+            }
+        } finally {
+            this.complete(done);
+        }
+        return done.size() == this.locks.value().size();
+    }
+
+    @Override
+    public void unlock() {
+        OrderedLock.release(this.locks.value());
+    }
+
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException(
+            "newCondition() is not implemented"
+        );
+    }
+
+    /**
+     * Release acquired locks, unless all of them are acquired.
+     * It's called in any case, even if locking has failed with an exception.
+     * @param done Acquired locks
+     */
+    private void complete(final List<Lock> done) {
+        if (done.size() != this.locks.value().size()) {
+            OrderedLock.release(done);
+        }
+    }
+
+    /**
+     * Release locks in reverse order.
+     * @param done Acquired locks
+     */
+    private static void release(final List<Lock> done) {
+        final List<Lock> reversed = new ArrayList<>(done);
+        Collections.reverse(reversed);
+        for (final Lock lock : reversed) {
+            lock.unlock();
+        }
+    }
+}
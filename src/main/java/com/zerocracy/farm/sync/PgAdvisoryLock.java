@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.sync;
+
+import com.jcabi.log.Logger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import javax.sql.DataSource;
+
+/**
+ * {@link Lock} using postgres advisory locks.
+ *
+ * <p>Unlike {@link PgLock} it doesn't poll the database: the waiting
+ * thread is blocked inside <code>pg_advisory_lock()</code> until
+ * the lock is released by its owner, or until <code>lock_timeout</code>
+ * expires. The timeout is never longer than a second, in order to
+ * notice thread interruption. The key of the lock is a 64 bits hash
+ * of project id and resource name.</p>
+ *
+ * <p>Advisory lock belongs to a database session, so the connection
+ * which acquired the lock is kept until the lock is released.
+ * Reentrancy is provided by {@link PgLock.Holder}.</p>
+ *
+ * <p>Shared lock may be held by many threads and processes at the same
+ * time, but never together with exclusive lock of the same resource.
+ * Each thread holding it has its own holder and database session.</p>
+ *
+ * @since 1.0
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+final class PgAdvisoryLock implements Lock {
+
+    /**
+     * Default time to wait.
+     */
+    private static final long DEFAULT_WAIT_SEC = 500L;
+
+    /**
+     * Maximum time to wait inside of the database, in milliseconds.
+     */
+    private static final long CHUNK_MSEC = 1000L;
+
+    /**
+     * SQL state of lock timeout.
+     */
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+    /**
+     * Data source.
+     */
+    private final DataSource data;
+
+    /**
+     * Project id.
+     */
+    private final String pid;
+
+    /**
+     * Resource to be locked.
+     */
+    private final String res;
+
+    /**
+     * Is it shared lock.
+     */
+    private final boolean shared;
+
+    /**
+     * Thread holder of exclusive lock.
+     */
+    private final PgLock.Holder holder;
+
+    /**
+     * Thread holders of shared lock.
+     */
+    private final Map<Thread, PgLock.Holder> holders;
+
+    /**
+     * Connections of lock owners.
+     */
+    private final Map<Thread, Connection> conns;
+
+    /**
+     * Ctor.
+     *
+     * @param data Data Database
+     * @param pid Project id
+     * @param res Resource to be locked
+     * @param holder Thread holder
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    PgAdvisoryLock(final DataSource data, final String pid, final String res,
+        final PgLock.Holder holder) {
+        this(data, pid, res, false, holder);
+    }
+
+    /**
+     * Ctor of shared lock.
+     *
+     * @param data Data Database
+     * @param pid Project id
+     * @param res Resource to be locked
+     */
+    PgAdvisoryLock(final DataSource data, final String pid,
+        final String res) {
+        this(data, pid, res, true, new PgLock.Holder());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param data Data Database
+     * @param pid Project id
+     * @param res Resource to be locked
+     * @param shared Is it shared lock
+     * @param holder Thread holder of exclusive lock
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private PgAdvisoryLock(final DataSource data, final String pid,
+        final String res, final boolean shared, final PgLock.Holder holder) {
+        this.data = data;
+        this.pid = pid;
+        this.res = res;
+        this.shared = shared;
+        this.holder = holder;
+        this.holders = new ConcurrentHashMap<>(0);
+        this.conns = new ConcurrentHashMap<>(0);
+    }
+
+    @Override
+    public void lock() {
+        try {
+            this.lockInterruptibly();
+        } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        while (!this.tryLock(
+            PgAdvisoryLock.DEFAULT_WAIT_SEC, TimeUnit.SECONDS
+        )) {
+            if (Logger.isDebugEnabled(this)) {
+                Logger.debug(this, "attempting to lock");
+            }
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        boolean locked = false;
+        try {
+            locked = this.tryLock(0L, TimeUnit.SECONDS);
+        } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+        return locked;
+    }
+
+    @Override
+    public boolean tryLock(final long time, final TimeUnit unit)
+        throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(time);
+        final boolean locked = this.owner().lock(() -> this.acq(deadline));
+        if (!locked && Thread.interrupted()) {
+            throw new InterruptedException(
+                String.format("Interrupted while locking %s", this)
+            );
+        }
+        return locked;
+    }
+
+    @Override
+    public void unlock() {
+        this.owner().free(
+            none -> {
+                final Thread thread = Thread.currentThread();
+                this.holders.remove(thread);
+                try (final Connection con = this.conns.remove(thread)) {
+                    try (final PreparedStatement stmt = con.prepareStatement(
+                        String.format("SELECT %s(?)", this.func("unlock"))
+                    )) {
+                        stmt.setLong(1, this.key());
+                        stmt.execute();
+                    }
+                    try (final Statement stmt = con.createStatement()) {
+                        stmt.execute("RESET lock_timeout");
+                    }
+                }
+            }
+        );
+    }
+
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException(
+            "newCondition() is not implemented"
+        );
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "PgAdvisoryLock[%s](%s:%s)", this.mode(), this.pid, this.res
+        );
+    }
+
+    /**
+     * Holder of the lock for current thread.
+     * @return Holder
+     */
+    private PgLock.Holder owner() {
+        final PgLock.Holder owner;
+        if (this.shared) {
+            owner = this.holders.computeIfAbsent(
+                Thread.currentThread(), thread -> new PgLock.Holder()
+            );
+        } else {
+            owner = this.holder;
+        }
+        return owner;
+    }
+
+    /**
+     * Lock mode, for logging.
+     * @return Mode
+     */
+    private String mode() {
+        final String mode;
+        if (this.shared) {
+            mode = String.format("shared by %d", this.conns.size());
+        } else {
+            mode = this.holder.toString();
+        }
+        return mode;
+    }
+
+    /**
+     * Name of advisory lock function.
+     * @param action Either lock or unlock
+     * @return Function name
+     */
+    private String func(final String action) {
+        final String name;
+        if (this.shared) {
+            name = String.format("pg_advisory_%s_shared", action);
+        } else {
+            name = String.format("pg_advisory_%s", action);
+        }
+        return name;
+    }
+
+    /**
+     * Acquire the lock before the deadline.
+     * @param deadline Deadline in nanoseconds
+     * @return True if success
+     * @throws SQLException If fails
+     */
+    private boolean acq(final long deadline) throws SQLException {
+        final Connection con = this.data.getConnection();
+        boolean locked = false;
+        try {
+            long left = deadline - System.nanoTime();
+            do {
+                locked = this.attempt(
+                    con,
+                    Math.max(
+                        1L,
+                        Math.min(
+                            TimeUnit.NANOSECONDS.toMillis(left),
+                            PgAdvisoryLock.CHUNK_MSEC
+                        )
+                    )
+                );
+                left = deadline - System.nanoTime();
+            } while (!locked && left > 0L
+                && !Thread.currentThread().isInterrupted());
+        } finally {
+            if (locked) {
+                this.conns.put(Thread.currentThread(), con);
+            } else {
+                con.close();
+            }
+        }
+        return locked;
+    }
+
+    /**
+     * Wait for the lock inside the database.
+     * @param con Connection
+     * @param msec How long to wait
+     * @return True if locked
+     * @throws SQLException If fails
+     */
+    private boolean attempt(final Connection con, final long msec)
+        throws SQLException {
+        try (final Statement stmt = con.createStatement()) {
+            stmt.execute(String.format("SET lock_timeout = %d", msec));
+        }
+        boolean locked;
+        try (final PreparedStatement stmt = con.prepareStatement(
+            String.format("SELECT %s(?)", this.func("lock"))
+        )) {
+            stmt.setLong(1, this.key());
+            stmt.execute();
+            locked = true;
+        } catch (final SQLException ex) {
+            if (!PgAdvisoryLock.LOCK_NOT_AVAILABLE.equals(ex.getSQLState())) {
+                throw ex;
+            }
+            locked = false;
+        }
+        return locked;
+    }
+
+    /**
+     * Key of advisory lock.
+     * @return Hash of project and resource
+     */
+    private long key() {
+        try {
+            return ByteBuffer.wrap(
+                MessageDigest.getInstance("MD5").digest(
+                    String.format("%s:%s", this.pid, this.res)
+                        .getBytes(StandardCharsets.UTF_8)
+                )
+            ).getLong();
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -191,6 +191,10 @@ final class PgLock implements Lock {
         /**
          * Acquire a lock.
          *
+         * <p>The function is called without holding any local monitor,
+         * the database is responsible for mutual exclusion of threads
+         * and processes, which are not owners of this lock yet.</p>
+         *
          * @param func Function to perform lock
          * @return True if success
          */
@@ -201,9 +205,9 @@ final class PgLock implements Lock {
                 this.cnt.incrementAndGet();
                 locked = true;
             } else {
-                synchronized (this.sync) {
-                    locked = new UncheckedScalar<>(func).value();
-                    if (locked) {
+                locked = new UncheckedScalar<>(func).value();
+                if (locked) {
+                    synchronized (this.sync) {
                         this.ref.set(thread);
                         this.cnt.set(1);
                     }
@@ -218,7 +222,7 @@ final class PgLock implements Lock {
          * @param func Function to release
          */
         public void free(final Proc<Void> func) {
-            if (this.ref.get() == null) {
+            if (this.ref.get() != null) {
                 final Thread thread = Thread.currentThread();
                 if (this.ref.get() != thread) {
                     throw new IllegalStateException(
@@ -234,6 +238,14 @@ final class PgLock implements Lock {
             }
         }
 
+        /**
+         * Is it locked by current thread.
+         * @return True if current thread is the owner
+         */
+        public boolean owned() {
+            return this.ref.get() == Thread.currentThread();
+        }
+
         @Override
         public String toString() {
             final Thread thread = this.ref.get();
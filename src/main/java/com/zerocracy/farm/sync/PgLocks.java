@@ -20,20 +20,31 @@ import com.zerocracy.Project;
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 import javax.sql.DataSource;
 
 /**
  * Postgres locks.
  *
+ * <p>Every item of a project has its own read-write lock,
+ * see {@link PgRwLock}. Use {@link OrderedLock} when a few items
+ * have to be locked together.</p>
+ *
+ * <p>Every held lock, and every lock being waited for, keeps its own
+ * connection from the data source until it's released, see
+ * {@link PgAdvisoryLock}. When the pool is exhausted, threads which
+ * already hold some locks wait for a connection forever, while others
+ * wait for their locks. Thus, the pool must allow at least
+ * <code>T * N</code> active connections on top of the ones used
+ * for queries, where <code>T</code> is the number of threads
+ * processing claims at the same time and <code>N</code> is the
+ * maximum number of items one thread locks together. The default
+ * limit of DBCP (eight connections) is not enough even for
+ * the default number of claim processing threads.</p>
+ *
  * @since 1.0
  */
-public final class PgLocks {
-
-    /**
-     * Resource name.
-     */
-    private static final String RES = "ANY";
+public final class PgLocks implements Locks {
 
     /**
      * Data source.
@@ -41,9 +52,9 @@ public final class PgLocks {
     private final DataSource data;
 
     /**
-     * Thread holders for locks.
+     * Locks by id.
      */
-    private final Map<String, PgLock.Holder> holders;
+    private final Map<String, ReadWriteLock> locks;
 
     /**
      * Ctor.
@@ -52,20 +63,16 @@ public final class PgLocks {
      */
     public PgLocks(final DataSource data) {
         this.data = data;
-        this.holders = new ConcurrentHashMap<>();
+        this.locks = new ConcurrentHashMap<>();
     }
 
-    /**
-     * Lock.
-     * @param pkt Project
-     * @param res Resource
-     * @return Lock
-     * @throws IOException If fails
-     */
-    public Lock lock(final Project pkt, final String res) throws IOException {
-        final String lid = String.format("%s:%s", pkt.pid(), PgLocks.RES);
-        final PgLock.Holder holder = this.holders
-            .computeIfAbsent(lid, key -> new PgLock.Holder());
-        return new PgLock(this.data, pkt.pid(), PgLocks.RES, holder);
+    @Override
+    public ReadWriteLock lock(final Project pkt, final String res)
+        throws IOException {
+        final String pid = pkt.pid();
+        return this.locks.computeIfAbsent(
+            String.format("%s:%s", pid, res),
+            key -> new PgRwLock(this.data, pid, res)
+        );
     }
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.sync;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import javax.sql.DataSource;
+
+/**
+ * Read-write lock of one item, using postgres advisory locks.
+ *
+ * <p>Read lock is a shared advisory lock, write lock is an exclusive
+ * one, both with the same key. The thread which holds write lock
+ * may acquire read lock too, without asking the database,
+ * as {@link java.util.concurrent.locks.ReentrantReadWriteLock} does.
+ * Upgrade from read lock to write lock is not possible.</p>
+ *
+ * @since 1.0
+ */
+final class PgRwLock implements ReadWriteLock {
+
+    /**
+     * Holder of write lock.
+     */
+    private final PgLock.Holder holder;
+
+    /**
+     * Write lock.
+     */
+    private final Lock write;
+
+    /**
+     * Read lock.
+     */
+    private final Lock read;
+
+    /**
+     * Ctor.
+     * @param data Data source
+     * @param pid Project id
+     * @param res Resource to be locked
+     */
+    PgRwLock(final DataSource data, final String pid, final String res) {
+        this(new PgLock.Holder(), data, pid, res);
+    }
+
+    /**
+     * Ctor.
+     * @param holder Holder of write lock
+     * @param data Data source
+     * @param pid Project id
+     * @param res Resource to be locked
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private PgRwLock(final PgLock.Holder holder, final DataSource data,
+        final String pid, final String res) {
+        this.holder = holder;
+        this.write = new PgAdvisoryLock(data, pid, res, holder);
+        this.read = new PgRwLock.Read(
+            new PgAdvisoryLock(data, pid, res), this.write, this.holder
+        );
+    }
+
+    @Override
+    public Lock readLock() {
+        return this.read;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return this.write;
+    }
+
+    @Override
+    public String toString() {
+        return this.write.toString();
+    }
+
+    /**
+     * Read lock.
+     */
+    private static final class Read implements Lock {
+
+        /**
+         * Shared lock.
+         */
+        private final Lock shared;
+
+        /**
+         * Write lock.
+         */
+        private final Lock write;
+
+        /**
+         * Holder of write lock.
+         */
+        private final PgLock.Holder holder;
+
+        /**
+         * Read locks taken by owners of write lock.
+         */
+        private final Map<Thread, AtomicInteger> nested;
+
+        /**
+         * Ctor.
+         * @param shared Shared lock
+         * @param write Write lock
+         * @param holder Holder of write lock
+         */
+        Read(final Lock shared, final Lock write,
+            final PgLock.Holder holder) {
+            this.shared = shared;
+            this.write = write;
+            this.holder = holder;
+            this.nested = new ConcurrentHashMap<>(0);
+        }
+
+        @Override
+        public void lock() {
+            if (!this.reenter()) {
+                this.shared.lock();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (!this.reenter()) {
+                this.shared.lockInterruptibly();
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            return this.reenter() || this.shared.tryLock();
+        }
+
+        @Override
+        public boolean tryLock(final long time, final TimeUnit unit)
+            throws InterruptedException {
+            return this.reenter() || this.shared.tryLock(time, unit);
+        }
+
+        @Override
+        public void unlock() {
+            final AtomicInteger cnt = this.nested.get(Thread.currentThread());
+            if (cnt == null) {
+                this.shared.unlock();
+            } else {
+                if (cnt.decrementAndGet() == 0) {
+                    this.nested.remove(Thread.currentThread());
+                }
+                this.write.unlock();
+            }
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException(
+                "newCondition() is not implemented"
+            );
+        }
+
+        @Override
+        public String toString() {
+            return this.shared.toString();
+        }
+
+        /**
+         * Take read lock as a part of write lock, if the current thread
+         * is the owner of write lock.
+         * @return True if done
+         */
+        private boolean reenter() {
+            final boolean owned = this.holder.owned();
+            if (owned) {
+                this.write.lock();
+                this.nested.computeIfAbsent(
+                    Thread.currentThread(), thread -> new AtomicInteger()
+                ).incrementAndGet();
+            }
+            return owned;
+        }
+    }
+}
@@ -19,12 +19,14 @@ package com.zerocracy.farm.sync;
 import com.jcabi.aspects.Tv;
 import com.zerocracy.Farm;
 import com.zerocracy.Project;
+import com.zerocracy.farm.guts.Guts;
 import java.io.IOException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.EqualsAndHashCode;
 import org.cactoos.iterable.Mapped;
+import org.xembly.Directives;
 
 /**
  * Synchronized farm.
@@ -51,6 +53,11 @@ public final class SyncFarm implements Farm {
      */
     private final ConcurrentMap<String, ConcurrentMap<String, AtomicBoolean>> lpkt;
 
+    /**
+     * Lock waits.
+     */
+    private final LockWaits waits;
+
     /**
      * Ctor.
      *
@@ -70,20 +77,30 @@ public final class SyncFarm implements Farm {
         this.origin = farm;
         this.locks = locks;
         this.lpkt = new ConcurrentHashMap<>(Tv.FIFTY);
+        this.waits = new LockWaits();
     }
 
     @Override
     public Iterable<Project> find(final String query) throws IOException {
-        return new Mapped<>(
-            pkt -> new SyncProject(
-                pkt, this.locks,
-                this.lpkt.computeIfAbsent(
-                    pkt.pid(),
-                    key -> new ConcurrentHashMap<>(Tv.FIFTY)
-                )
+        return new Guts(
+            this.origin,
+            () -> new Mapped<>(
+                pkt -> new SyncProject(
+                    pkt, this.locks,
+                    this.lpkt.computeIfAbsent(
+                        pkt.pid(),
+                        key -> new ConcurrentHashMap<>(Tv.FIFTY)
+                    ),
+                    this.waits
+                ),
+                this.origin.find(query)
             ),
-            this.origin.find(query)
-        );
+            () -> new Directives()
+                .xpath("/guts")
+                .add("farm")
+                .attr("id", this.getClass().getSimpleName())
+                .append(this.waits)
+        ).apply(query);
     }
 
     @Override
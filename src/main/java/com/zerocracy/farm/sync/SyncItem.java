@@ -45,14 +45,22 @@ final class SyncItem implements Item {
      */
     private final ReadWriteLock lock;
 
+    /**
+     * Lock waits.
+     */
+    private final LockWaits waits;
+
     /**
      * Ctor.
      * @param item Original item
      * @param lck Lock
+     * @param waits Lock waits
      */
-    SyncItem(final Item item, final ReadWriteLock lck) {
+    SyncItem(final Item item, final ReadWriteLock lck,
+        final LockWaits waits) {
         this.origin = item;
         this.lock = lck;
+        this.waits = waits;
     }
 
     @Override
@@ -88,6 +96,35 @@ final class SyncItem implements Item {
         }
     }
 
+    @Override
+    public <T> T readBytes(final Func<byte[], T> reader) throws IOException {
+        final Lock lck = this.lock.readLock();
+        Logger.debug(this, "#readBytes(): try %s", lck);
+        this.tryLock(lck);
+        Logger.debug(this, "#readBytes(): acq %s", lck);
+        try {
+            return this.origin.readBytes(reader);
+        } finally {
+            lck.unlock();
+            Logger.debug(this, "#readBytes(): unlock %s", lck);
+        }
+    }
+
+    @Override
+    public void updateBytes(final Func<byte[], byte[]> writer)
+        throws IOException {
+        final Lock lck = this.lock.writeLock();
+        Logger.debug(this, "#updateBytes(): try %s", lck);
+        this.tryLock(lck);
+        Logger.debug(this, "#updateBytes(): acq %s", lck);
+        try {
+            this.origin.updateBytes(writer);
+        } finally {
+            lck.unlock();
+            Logger.debug(this, "#updateBytes(): unlocked %s", lck);
+        }
+    }
+
     /**
      * Try to lock the resource with given time.
      * @param lck Lock to acquire
@@ -96,7 +133,13 @@ final class SyncItem implements Item {
         final long start = System.currentTimeMillis();
         try {
             // @checkstyle MagicNumber (1 line)
-            if (!lck.tryLock(15L, TimeUnit.SECONDS)) {
+            final boolean locked = lck.tryLock(15L, TimeUnit.SECONDS);
+            this.waits.add(
+                this.origin.toString(),
+                System.currentTimeMillis() - start,
+                locked
+            );
+            if (!locked) {
                 throw new IllegalStateException(
                     Logger.format(
                         "Failed to acquire a lock %s/%s for \"%s\" in %[ms]s",
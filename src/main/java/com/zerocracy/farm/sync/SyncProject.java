@@ -56,17 +56,26 @@ final class SyncProject implements Project {
      */
     private final ConcurrentMap<String, AtomicBoolean> lpkt;
 
+    /**
+     * Lock waits.
+     */
+    private final LockWaits waits;
+
     /**
      * Ctor.
      * @param pkt Project
      * @param lcks Locks
      * @param lpkt Project lock flags
+     * @param waits Lock waits
+     * @checkstyle ParameterNumberCheck (3 lines)
      */
     SyncProject(final Project pkt, final Locks lcks,
-        final ConcurrentMap<String, AtomicBoolean> lpkt) {
+        final ConcurrentMap<String, AtomicBoolean> lpkt,
+        final LockWaits waits) {
         this.origin = pkt;
         this.locks = lcks;
         this.lpkt = lpkt;
+        this.waits = waits;
     }
 
     @Override
@@ -86,7 +95,7 @@ final class SyncProject implements Project {
         } else {
             item = new WarnItem(
                 String.format("%s/%s", this.pid(), file),
-                new SyncItem(this.origin.acq(file), lock)
+                new SyncItem(this.origin.acq(file), lock, this.waits)
             );
         }
         return item;
@@ -117,6 +126,11 @@ final class SyncProject implements Project {
             this.acq = acq;
         }
 
+        @Override
+        public String toString() {
+            return this.item.toString();
+        }
+
         @Override
         @SuppressWarnings("PMD.PrematureDeclaration")
         public <T> T read(final Func<Path, T> reader) throws IOException {
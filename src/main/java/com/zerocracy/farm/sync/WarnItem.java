@@ -58,6 +58,11 @@ public final class WarnItem implements Item {
         this.origin = origin;
     }
 
+    @Override
+    public String toString() {
+        return this.origin.toString();
+    }
+
     @Override
     public <T> T read(final Func<Path, T> reader) throws IOException {
         final long opened = System.nanoTime();
@@ -73,6 +78,22 @@ public final class WarnItem implements Item {
         this.warn(opened);
     }
 
+    @Override
+    public <T> T readBytes(final Func<byte[], T> reader) throws IOException {
+        final long opened = System.nanoTime();
+        final T res = this.origin.readBytes(reader);
+        this.warn(opened);
+        return res;
+    }
+
+    @Override
+    public void updateBytes(final Func<byte[], byte[]> writer)
+        throws IOException {
+        final long opened = System.nanoTime();
+        this.origin.updateBytes(writer);
+        this.warn(opened);
+    }
+
     /**
      * Warn if necessary.
      * @param opened Opened time
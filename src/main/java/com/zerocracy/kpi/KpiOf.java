@@ -40,7 +40,7 @@ public final class KpiOf implements KpiMetrics {
             new SolidFunc<>(
                 frm -> {
                     final KpiMetrics kpi;
-                    if (new Props(frm).has("//testing")) {
+                    if (new Props(frm).testing()) {
                         kpi = new KpiMetrics.Fake();
                     } else {
                         kpi = new KpiCloudWatch(
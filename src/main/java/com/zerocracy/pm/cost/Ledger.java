@@ -117,7 +117,7 @@ public final class Ledger {
     @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
     public void add(final Ledger.Transaction... tns) throws IOException {
         try {
-            if (!new Props(this.farm).has("//testing")) {
+            if (!new Props(this.farm).testing()) {
                 new PgLedger(
                     new ExtDataSource(this.farm).value(), this.project
                 ).add(tns);
@@ -141,7 +141,7 @@ public final class Ledger {
      */
     public Ledger bootstrap() throws IOException {
         try {
-            if (!new Props(this.farm).has("//testing")
+            if (!new Props(this.farm).testing()
                 || System.getProperty("pgsql.port") != null) {
                 new PgLedger(
                     new ExtDataSource(this.farm).value(),
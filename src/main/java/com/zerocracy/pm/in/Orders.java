@@ -16,6 +16,8 @@
  */
 package com.zerocracy.pm.in;
 
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
 import com.zerocracy.Farm;
 import com.zerocracy.Item;
 import com.zerocracy.ItemXml;
@@ -50,6 +52,12 @@ import org.xembly.Directives;
 @SuppressWarnings({"PMD.TooManyMethods", "PMD.AvoidDuplicateLiterals"})
 public final class Orders {
 
+    /**
+     * How many times to assign a job, if the transaction conflicts
+     * with concurrent changes.
+     */
+    private static final int ATTEMPTS = Tv.THREE;
+
     /**
      * Farm.
      */
@@ -101,24 +109,58 @@ public final class Orders {
      */
     public void assign(final String job, final String login,
         final String reason, final Instant start) throws IOException {
-        if (this.assigned(job)) {
-            throw new SoftException(
-                String.format(
-                    "Job `%s` already assigned to @%s, can't assign to @%s",
-                    job, this.performer(job), login
-                )
-            );
-        }
-        if (!new Wbs(this.project).bootstrap().exists(job)) {
-            throw new SoftException(
-                String.format(
-                    "Job `%s` doesn't exist in WBS, can't create order",
-                    job
-                )
-            );
+        for (int attempt = 1; attempt <= Orders.ATTEMPTS; ++attempt) {
+            try {
+                this.order(job, login, reason, start);
+                return;
+            } catch (final Txn.ConflictException ex) {
+                Logger.warn(
+                    this, "%s, assigning %s again, attempt #%d",
+                    ex.getMessage(), job, attempt
+                );
+            }
         }
+        throw new IOException(
+            String.format(
+                "Failed to assign %s, it was changed concurrently %d times",
+                job, Orders.ATTEMPTS
+            )
+        );
+    }
+
+    /**
+     * Check the job, create an order and boost the job in one
+     * transaction, which fails if any of the items it has read
+     * were changed by others.
+     * @param job The job to assign
+     * @param login The login of the user
+     * @param reason The reason of this order (ID of the claim)
+     * @param start Start time of assignment
+     * @throws IOException If fails
+     * @checkstyle ParameterNumber (3 lines)
+     */
+    private void order(final String job, final String login,
+        final String reason, final Instant start) throws IOException {
         try (final Txn txn = new Txn(this.project)) {
-            this.item().update(
+            final Orders orders = new Orders(this.farm, txn);
+            if (orders.assigned(job)) {
+                throw new SoftException(
+                    String.format(
+                        "Job `%s` already assigned to @%s, can't assign to @%s",
+                        job, orders.performer(job), login
+                    )
+                );
+            }
+            final Wbs wbs = new Wbs(txn).bootstrap();
+            if (!wbs.exists(job)) {
+                throw new SoftException(
+                    String.format(
+                        "Job `%s` doesn't exist in WBS, can't create order",
+                        job
+                    )
+                );
+            }
+            new ItemXml(Orders.item(txn), "pm/in/orders").update(
                 new Directives()
                     .xpath(
                         String.format(
@@ -136,12 +178,12 @@ public final class Orders {
                     .add("reason")
                     .set(reason)
             );
-            final String role = new Wbs(this.project).bootstrap().role(job);
+            final String role = wbs.role(job);
             int factor = 2;
             if ("REV".equals(role)) {
                 factor = 1;
             }
-            new Boosts(this.farm, this.project).bootstrap().boost(job, factor);
+            new Boosts(this.farm, txn).bootstrap().boost(job, factor);
             txn.commit();
         }
     }
@@ -16,8 +16,8 @@
  */
 package com.zerocracy.pmo;
 
-import com.jcabi.xml.XML;
 import com.zerocracy.Farm;
+import com.zerocracy.ItemStax;
 import com.zerocracy.ItemXml;
 import com.zerocracy.Par;
 import com.zerocracy.Project;
@@ -143,14 +143,7 @@ public final class Catalog {
      * @throws IOException If fails
      */
     public String architect(final String pid) throws IOException {
-        return this.item().read(
-            xoc -> Catalog.require(xoc, pid).xpath(
-                String.format(
-                    "/catalog/project[@id = '%s']/architect/text()",
-                    pid
-                )
-            )
-        ).get(0);
+        return this.project(pid).nodes("architect").get(0).text();
     }
 
     /**
@@ -180,14 +173,7 @@ public final class Catalog {
      */
     public int jobs(final String pid) throws IOException {
         return Integer.parseInt(
-            this.item().read(
-                xoc -> Catalog.require(xoc, pid).xpath(
-                    String.format(
-                        "/catalog/project[@id = '%s']/jobs/text()",
-                        pid
-                    )
-                )
-            ).get(0)
+            this.project(pid).nodes("jobs").get(0).text()
         );
     }
 
@@ -218,14 +204,7 @@ public final class Catalog {
      */
     public int orders(final String pid) throws IOException {
         return Integer.parseInt(
-            this.item().read(
-                xoc -> Catalog.require(xoc, pid).xpath(
-                    String.format(
-                        "/catalog/project[@id = '%s']/orders/text()",
-                        pid
-                    )
-                )
-            ).get(0)
+            this.project(pid).nodes("orders").get(0).text()
         );
     }
 
@@ -408,7 +387,9 @@ public final class Catalog {
      * @throws IOException If fails
      */
     public boolean exists(final String pid) throws IOException {
-        return this.item().read(xoc -> Catalog.exists(xoc, pid));
+        return !this.stax().elements(
+            String.format("/catalog/project[@id='%s']", pid), 1
+        ).isEmpty();
     }
 
     /**
@@ -436,14 +417,7 @@ public final class Catalog {
      */
     public boolean pause(final String pid) throws IOException {
         return !Boolean.parseBoolean(
-            this.item().read(
-                xoc -> Catalog.require(xoc, pid).xpath(
-                    String.format(
-                        "/catalog/project[@id='%s']/alive/text()",
-                        pid
-                    )
-                )
-            ).get(0)
+            this.project(pid).nodes("alive").get(0).text()
         );
     }
 
@@ -540,14 +514,7 @@ public final class Catalog {
      */
     public boolean published(final String pid) throws IOException {
         return Boolean.parseBoolean(
-            this.item().read(
-                xoc -> Catalog.require(xoc, pid).xpath(
-                    String.format(
-                        "/catalog/project[@id='%s']/publish/text()",
-                        pid
-                    )
-                )
-            ).get(0)
+            this.project(pid).nodes("publish").get(0).text()
         );
     }
 
@@ -625,19 +592,10 @@ public final class Catalog {
     public Collection<String> links(final String pid) throws IOException {
         return new CollectionOf<>(
             new Mapped<>(
-                (XML xml) -> String.format(
-                    "%s:%s",
-                    xml.xpath("@rel").get(0),
-                    xml.xpath("@href").get(0)
+                link -> String.format(
+                    "%s:%s", link.attr("rel", ""), link.attr("href", "")
                 ),
-                this.item().<List<XML>>read(
-                    xoc -> Catalog.require(xoc, pid).nodes(
-                        String.format(
-                            "/catalog/project[@id='%s']/links/link",
-                            pid
-                        )
-                    )
-                )
+                this.project(pid).nodes("links/link")
             )
         );
     }
@@ -651,11 +609,11 @@ public final class Catalog {
      */
     public Collection<String> links(final String pid, final String rel)
         throws IOException {
-        return this.item().read(
-            xoc -> Catalog.require(xoc, pid).xpath(
-                String.format(
-                    "/catalog/project[@id='%s']/links/link[@rel='%s']/@href",
-                    pid, rel
+        return new CollectionOf<>(
+            new Mapped<>(
+                link -> link.attr("href", ""),
+                this.project(pid).nodes(
+                    String.format("links/link[@rel='%s']", rel)
                 )
             )
         );
@@ -671,10 +629,8 @@ public final class Catalog {
      */
     public boolean hasLink(final String pid, final String rel,
         final String href) throws IOException {
-        return this.item().read(
-            xoc -> Catalog.hasLink(
-                Catalog.require(xoc, pid), pid, rel, href
-            )
+        return this.project(pid).has(
+            String.format("links/link[@rel='%s' and @href='%s']", rel, href)
         );
     }
 
@@ -687,7 +643,13 @@ public final class Catalog {
      */
     public boolean linkExists(final String rel, final String href)
         throws IOException {
-        return this.item().read(xoc -> Catalog.linkexists(xoc, rel, href));
+        return !this.stax().elements(
+            String.format(
+                "/catalog/project/links/link[@rel='%s' and @href='%s']",
+                rel, href
+            ),
+            1
+        ).isEmpty();
     }
 
     /**
@@ -716,15 +678,7 @@ public final class Catalog {
      * @throws IOException If fails
      */
     public String title(final String pid) throws IOException {
-        return this.item().read(
-            xoc -> Catalog.require(xoc, pid).xpath(
-                String.format(
-                    "/catalog/project[@id = '%s']/title/text()",
-                    pid
-                ),
-                pid
-            )
-        );
+        return this.project(pid).text(Catalog.PRJ_TITLE, pid);
     }
 
     /**
@@ -790,13 +744,7 @@ public final class Catalog {
      * @throws IOException If fails
      */
     public boolean sandbox(final String pid) throws IOException {
-        return !this.item().read(
-            xoc -> Catalog.require(xoc, pid).nodes(
-                String.format(
-                    "/catalog/project[@id='%s' and sandbox='true']", pid
-                )
-            )
-        ).isEmpty();
+        return "true".equals(this.project(pid).text("sandbox", ""));
     }
 
     /**
@@ -836,7 +784,7 @@ public final class Catalog {
      */
     public boolean verbose(final String pid) throws IOException {
         return "C3NDPUA8L".equals(pid)
-            || new Props(this.pmo).has("//testing");
+            || new Props(this.pmo).testing();
     }
 
     /**
@@ -928,6 +876,35 @@ public final class Catalog {
         ).isEmpty();
     }
 
+    /**
+     * Find the project, which must exist.
+     * @param pid Project id
+     * @return The project
+     * @throws IOException If fails
+     */
+    private ItemStax.Element project(final String pid) throws IOException {
+        final List<ItemStax.Element> project = this.stax().elements(
+            String.format("/catalog/project[@id='%s']", pid), 1
+        );
+        if (project.isEmpty()) {
+            throw new IllegalArgumentException(
+                new Par(
+                    "Project %s doesn't exist"
+                ).say(pid)
+            );
+        }
+        return project.get(0);
+    }
+
+    /**
+     * The item, for streaming reads.
+     * @return Item
+     * @throws IOException If fails
+     */
+    private ItemStax stax() throws IOException {
+        return new ItemStax(this.pmo.acq("catalog.xml"), "pmo/catalog");
+    }
+
     /**
      * The item.
      * @return Item
@@ -18,6 +18,7 @@ package com.zerocracy.pmo;
 
 import com.jcabi.xml.XML;
 import com.zerocracy.Farm;
+import com.zerocracy.ItemStax;
 import com.zerocracy.ItemXml;
 import com.zerocracy.Par;
 import com.zerocracy.Policy;
@@ -28,10 +29,12 @@ import java.io.IOException;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import org.cactoos.iterable.ItemAt;
 import org.cactoos.iterable.Joined;
 import org.cactoos.iterable.Mapped;
+import org.cactoos.list.ListOf;
 import org.cactoos.scalar.NumberOf;
 import org.cactoos.scalar.UncheckedScalar;
 import org.xembly.Directives;
@@ -317,23 +320,16 @@ public final class People {
      * @throws IOException If fails
      */
     public Cash rate(final String uid) throws IOException {
-        return this.item().read(
-            xoc -> {
-                final Iterator<XML> rates = xoc.nodes(
-                    String.format(
-                        "/people/person[@id='%s']/rate",
-                        uid
-                    )
-                ).iterator();
-                final String rate;
-                if (rates.hasNext()) {
-                    rate = rates.next().xpath("text()").get(0);
-                } else {
-                    rate = Cash.ZERO.toString();
-                }
-                return new Cash.S(rate);
-            }
-        );
+        final Iterator<ItemStax.Element> rates = this.stax().elements(
+            String.format("/people/person[@id='%s']/rate", uid), 1
+        ).iterator();
+        final Cash rate;
+        if (rates.hasNext()) {
+            rate = new Cash.S(rates.next().text());
+        } else {
+            rate = Cash.ZERO;
+        }
+        return rate;
     }
 
     /**
@@ -394,13 +390,12 @@ public final class People {
      */
     public Iterable<String> find(final String rel,
         final String alias) throws IOException {
-        return this.item().read(
-            xoc -> xoc.xpath(
-                String.format(
-                    "/people/person[links/link[@rel='%s' and @href='%s']]/@id",
-                    rel, alias
-                )
-            )
+        final String link = String.format(
+            "links/link[@rel='%s' and @href='%s']", rel, alias
+        );
+        return new Mapped<>(
+            person -> person.attr("id", ""),
+            this.stax().elements("/people/person", person -> person.has(link))
         );
     }
 
@@ -411,19 +406,12 @@ public final class People {
      * @throws IOException If fails
      */
     public Iterable<String> links(final String uid) throws IOException {
-        return this.item().read(
-            xoc -> new Mapped<>(
-                xml -> String.format(
-                    "%s:%s",
-                    xml.xpath("@rel").get(0),
-                    xml.xpath("@href").get(0)
-                ),
-                xoc.nodes(
-                    String.format(
-                        "/people/person[@id='%s']/links/link",
-                        uid
-                    )
-                )
+        return new Mapped<>(
+            link -> String.format(
+                "%s:%s", link.attr("rel", ""), link.attr("href", "")
+            ),
+            this.stax().elements(
+                String.format("/people/person[@id='%s']/links/link", uid)
             )
         );
     }
@@ -437,10 +425,11 @@ public final class People {
      */
     public Iterable<String> links(final String uid, final String rel)
         throws IOException {
-        return this.item().read(
-            xoc -> xoc.xpath(
+        return new Mapped<>(
+            link -> link.attr("href", ""),
+            this.stax().elements(
                 String.format(
-                    "/people/person[@id='%s']/links/link[@rel='%s']/@href",
+                    "/people/person[@id='%s']/links/link[@rel='%s']",
                     uid, rel
                 )
             )
@@ -556,17 +545,8 @@ public final class People {
      * @throws IOException If fails
      */
     public int reputation(final String uid) throws IOException {
-        return this.item().read(
-            xoc -> new NumberOf(
-                People.checkExisting(xoc, uid)
-                    .xpath(
-                        String.format(
-                            "/people/person[@id='%s']/reputation/text()",
-                            uid
-                        ),
-                        "0"
-                    )
-            )
+        return new NumberOf(
+            this.existing(uid).text("reputation", "0")
         ).intValue();
     }
 
@@ -597,17 +577,7 @@ public final class People {
      * @throws IOException If fails
      */
     public int jobs(final String uid) throws IOException {
-        return this.item().read(
-            xoc -> new NumberOf(
-                People.checkExisting(xoc, uid).xpath(
-                    String.format(
-                        "/people/person[@id='%s']/jobs/text()",
-                        uid
-                    ),
-                    "0"
-                )
-            )
-        ).intValue();
+        return new NumberOf(this.existing(uid).text("jobs", "0")).intValue();
     }
 
     /**
@@ -637,16 +607,8 @@ public final class People {
      * @throws IOException If fails
      */
     public double speed(final String uid) throws IOException {
-        return this.item().read(
-            xoc -> new NumberOf(
-                People.checkExisting(xoc, uid).xpath(
-                    String.format(
-                        "/people/person[@id='%s']/speed/text()",
-                        uid
-                    ),
-                    "0.0"
-                )
-            )
+        return new NumberOf(
+            this.existing(uid).text("speed", "0.0")
         ).doubleValue();
     }
 
@@ -657,7 +619,7 @@ public final class People {
      * @throws IOException If fails
      */
     public boolean exists(final String uid) throws IOException {
-        return this.item().read(xoc -> People.exists(xoc, uid));
+        return !this.person(uid).isEmpty();
     }
 
     /**
@@ -780,9 +742,14 @@ public final class People {
      */
     public Set<String> hirep() throws IOException {
         return new HashSet<>(
-            this.item().read(
-                xoc -> xoc.xpath(
-                    "/people/person[reputation > 256]/@id"
+            new ListOf<>(
+                new Mapped<>(
+                    person -> person.attr("id", ""),
+                    this.stax().elements(
+                        "/people/person",
+                        // @checkstyle MagicNumber (1 line)
+                        person -> People.reputation(person) > 256.0
+                    )
                 )
             )
         );
@@ -831,9 +798,14 @@ public final class People {
      */
     public Set<String> visible() throws IOException {
         return new HashSet<>(
-            this.item().read(
-                xoc -> xoc.xpath(
-                    "/people/person[mentor and reputation > 0]/@id"
+            new ListOf<>(
+                new Mapped<>(
+                    person -> person.attr("id", ""),
+                    this.stax().elements(
+                        "/people/person",
+                        person -> person.has("mentor")
+                            && People.reputation(person) > 0.0
+                    )
                 )
             )
         );
@@ -895,6 +867,61 @@ public final class People {
         );
     }
 
+    /**
+     * The item, for streaming reads.
+     * @return Item
+     * @throws IOException If fails
+     */
+    private ItemStax stax() throws IOException {
+        return new ItemStax(
+            new Pmo(this.farm).acq("people.xml"), "pmo/people"
+        );
+    }
+
+    /**
+     * Find the person.
+     * @param uid User ID
+     * @return The person or nothing
+     * @throws IOException If fails
+     */
+    private List<ItemStax.Element> person(final String uid)
+        throws IOException {
+        return this.stax().elements(
+            String.format("/people/person[@id='%s']", uid), 1
+        );
+    }
+
+    /**
+     * Find the person, which must exist.
+     * @param uid User ID
+     * @return The person
+     * @throws IOException If fails
+     */
+    private ItemStax.Element existing(final String uid) throws IOException {
+        final List<ItemStax.Element> person = this.person(uid);
+        if (person.isEmpty()) {
+            throw new IllegalArgumentException(
+                new Par("Person @%s doesn't exist").say(uid)
+            );
+        }
+        return person.get(0);
+    }
+
+    /**
+     * Reputation of the person, as XPath number.
+     * @param person The person
+     * @return Reputation, NaN if it's absent
+     */
+    private static double reputation(final ItemStax.Element person) {
+        double rep;
+        try {
+            rep = Double.parseDouble(person.text("reputation", "").trim());
+        } catch (final NumberFormatException ex) {
+            rep = Double.NaN;
+        }
+        return rep;
+    }
+
     /**
      * Start directives, to make sure this user is in XML.
      * @param uid User ID
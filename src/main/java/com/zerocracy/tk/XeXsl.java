@@ -18,19 +18,13 @@ package com.zerocracy.tk;
 
 import com.jcabi.xml.XML;
 import com.jcabi.xml.XMLDocument;
-import com.jcabi.xml.XSLDocument;
+import com.zerocracy.DatumInput;
 import com.zerocracy.Project;
+import com.zerocracy.Stylesheets;
 import java.io.IOException;
 import java.net.URI;
 import javax.xml.transform.stream.StreamSource;
-import org.cactoos.cache.SoftFunc;
-import org.cactoos.func.SyncFunc;
-import org.cactoos.func.UncheckedFunc;
-import org.cactoos.io.InputOf;
 import org.cactoos.io.InputStreamOf;
-import org.cactoos.map.MapEntry;
-import org.cactoos.map.SolidMap;
-import org.cactoos.text.TextOf;
 import org.cactoos.time.DateAsText;
 import org.takes.rs.xe.XeAppend;
 import org.takes.rs.xe.XeSource;
@@ -44,18 +38,6 @@ import org.xembly.Directive;
  */
 public final class XeXsl implements XeSource {
 
-    /**
-     * Loader of XSL documents.
-     */
-    private static final UncheckedFunc<URI, String> STYLESHEETS =
-        new UncheckedFunc<>(
-            new SyncFunc<>(
-                new SoftFunc<>(
-                    uri -> new TextOf(new InputOf(uri)).asString()
-                )
-            )
-        );
-
     /**
      * Project.
      */
@@ -98,20 +80,19 @@ public final class XeXsl implements XeSource {
                             this.xsl
                         )
                     );
-                    content = new XSLDocument(
-                        XeXsl.STYLESHEETS.apply(uri),
-                        (href, base) -> new StreamSource(
-                            new InputStreamOf(
-                                XeXsl.STYLESHEETS.apply(
-                                    URI.create(base).resolve(href)
-                                )
-                            )
-                        ),
-                        new SolidMap<String, Object>(
-                            new MapEntry<>("today", new DateAsText().asString())
-                        ),
-                        uri.toString()
-                    ).transform(xml).nodes("/*/xhtml:body").get(0).toString();
+                    content = Stylesheets.INSTANCE.xsl(
+                        uri,
+                        (href, base) -> {
+                            final URI inc = URI.create(base).resolve(href);
+                            return new StreamSource(
+                                new InputStreamOf(new DatumInput(inc)),
+                                inc.toString()
+                            );
+                        }
+                    )
+                        .with("today", new DateAsText().asString())
+                        .transform(xml)
+                        .nodes("/*/xhtml:body").get(0).toString();
                 }
                 return new XeAppend("xml", content).toXembly();
             }
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import java.io.FileNotFoundException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.cactoos.text.TextOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link DatumInput}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class DatumInputTest {
+
+    @Test
+    public void readsOtherDocuments() throws Exception {
+        final Path file = Files.createTempFile("datum", ".xsl");
+        Files.write(file, "<xsl/>".getBytes(StandardCharsets.UTF_8));
+        MatcherAssert.assertThat(
+            new TextOf(new DatumInput(file.toUri())).asString(),
+            Matchers.equalTo("<xsl/>")
+        );
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void failsOfflineIfNotBundled() throws Exception {
+        final String prop = "datum.offline";
+        System.setProperty(prop, Boolean.TRUE.toString());
+        try {
+            new DatumInput(
+                URI.create("http://datum.zerocracy.com/latest/xsd/absent.xsd")
+            ).stream();
+        } finally {
+            System.clearProperty(prop);
+        }
+    }
+}
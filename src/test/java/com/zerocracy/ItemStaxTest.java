@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.aspects.Tv;
+import com.zerocracy.farm.fake.FkItem;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link ItemStax}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class ItemStaxTest {
+
+    @Test
+    public void findsElementsByPath() throws Exception {
+        final ItemStax stax = new ItemStax(
+            ItemStaxTest.item(
+                String.join(
+                    "",
+                    "<people><person id='a'><rate>$5</rate></person>",
+                    "<person id='b'><links><link rel='github' href='b'/>",
+                    "<link rel='email' href='b@example.com'/></links>",
+                    "</person></people>"
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            stax.elements("/people/person[@id='a']/rate").get(0).text(),
+            Matchers.equalTo("$5")
+        );
+        MatcherAssert.assertThat(
+            stax.elements("/people/person/links/link[@rel='email']")
+                .get(0).attr("href", ""),
+            Matchers.equalTo("b@example.com")
+        );
+        MatcherAssert.assertThat(
+            stax.elements(
+                "/people/person",
+                person -> person.has(
+                    "links/link[@rel='github' and @href='b']"
+                )
+            ).get(0).attr("id", ""),
+            Matchers.equalTo("b")
+        );
+        MatcherAssert.assertThat(
+            stax.elements("/people/person[@id='c']"),
+            Matchers.emptyIterable()
+        );
+    }
+
+    @Test
+    public void stopsAtLimit() throws Exception {
+        MatcherAssert.assertThat(
+            new ItemStax(
+                ItemStaxTest.item("<a><b>1</b><b>2</b><c/><b>3</b></a>")
+            ).elements("/a/b", 2),
+            Matchers.iterableWithSize(2)
+        );
+    }
+
+    @Test
+    public void readsEmptyItem() throws Exception {
+        MatcherAssert.assertThat(
+            new ItemStax(
+                new FkItem(Files.createTempFile("empty", ".xml"))
+            ).elements("/people/person"),
+            Matchers.emptyIterable()
+        );
+    }
+
+    @Test
+    public void matchesQuotedValuesWithAnd() throws Exception {
+        MatcherAssert.assertThat(
+            new ItemStax(
+                ItemStaxTest.item(
+                    "<a><b rel='x and y' id='1'/><b rel='x' id='2'/></a>"
+                )
+            ).elements("/a/b[@rel='x and y' and @id='1']"),
+            Matchers.iterableWithSize(1)
+        );
+    }
+
+    @Test
+    public void readsCurrentVersionWithoutUpgrade() throws Exception {
+        MatcherAssert.assertThat(
+            new ItemStax(
+                ItemStaxTest.item(
+                    String.format(
+                        "<people version='%s'><person id='x'/></people>",
+                        Xocument.VERSION
+                    )
+                ),
+                "pmo/people"
+            ).elements("/people/person[@id='x']"),
+            Matchers.iterableWithSize(1)
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnsupportedPath() throws Exception {
+        new ItemStax(ItemStaxTest.item("<a/>")).elements("//a[1]");
+    }
+
+    @Test
+    public void findsSameAsXpathAcrossDocument() throws Exception {
+        final StringBuilder xml = new StringBuilder("<people>");
+        for (int idx = 0; idx < Tv.THOUSAND; ++idx) {
+            xml.append(
+                String.format(
+                    "<person id='u%d'><reputation>%1$d</reputation></person>",
+                    idx
+                )
+            );
+        }
+        final Item item = ItemStaxTest.item(xml.append("</people>").toString());
+        final ItemXml dom = new ItemXml(item);
+        final ItemStax stax = new ItemStax(item);
+        for (int idx = Tv.HUNDRED - 1; idx < Tv.THOUSAND; idx += Tv.HUNDRED) {
+            MatcherAssert.assertThat(
+                stax.elements(
+                    String.format("/people/person[@id='u%d']/reputation", idx),
+                    1
+                ).get(0).text(),
+                Matchers.equalTo(
+                    dom.xpath(
+                        String.format(
+                            "/people/person[@id='u%d']/reputation/text()", idx
+                        )
+                    ).get(0)
+                )
+            );
+        }
+    }
+
+    /**
+     * Item with content.
+     * @param xml Content
+     * @return Item
+     * @throws Exception If fails
+     */
+    private static Item item(final String xml) throws Exception {
+        final Path file = Files.createTempFile("stax", ".xml");
+        Files.write(file, xml.getBytes(StandardCharsets.UTF_8));
+        return new FkItem(file);
+    }
+}
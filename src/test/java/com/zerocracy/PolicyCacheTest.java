@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.Take;
+import org.takes.http.FtRemote;
+import org.takes.rq.RqHeaders;
+import org.takes.rs.RsText;
+import org.takes.rs.RsWithHeader;
+import org.takes.rs.RsWithStatus;
+
+/**
+ * Test case for {@link PolicyCache}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class PolicyCacheTest {
+
+    /**
+     * Policy HTML.
+     */
+    private static final String HTML =
+        "<html><body><p>Min <span id='1.min-rep'>42</span></p></body></html>";
+
+    @Test
+    public void loadsPolicyOnce() throws Exception {
+        final AtomicInteger hits = new AtomicInteger();
+        new FtRemote(PolicyCacheTest.policy(hits)).exec(
+            home -> {
+                final PolicyCache cache = new PolicyCache(
+                    home, null, TimeUnit.HOURS.toMillis(1L)
+                );
+                cache.value("1.min-rep");
+                MatcherAssert.assertThat(
+                    cache.value("1.min-rep"), Matchers.equalTo("42")
+                );
+                MatcherAssert.assertThat(hits.get(), Matchers.equalTo(1));
+            }
+        );
+    }
+
+    @Test
+    public void revalidatesByEtag() throws Exception {
+        final AtomicInteger hits = new AtomicInteger();
+        final AtomicInteger same = new AtomicInteger();
+        new FtRemote(
+            req -> {
+                if ("\"v1\"".equals(
+                    new RqHeaders.Smart(
+                        new RqHeaders.Base(req)
+                    ).single("If-None-Match", "")
+                )) {
+                    same.incrementAndGet();
+                    return new RsWithStatus(
+                        HttpURLConnection.HTTP_NOT_MODIFIED
+                    );
+                }
+                return PolicyCacheTest.policy(hits).act(req);
+            }
+        ).exec(
+            home -> {
+                final PolicyCache cache = new PolicyCache(home, null, 0L);
+                cache.value("1.min-rep");
+                while (same.get() == 0) {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(10L);
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(ex);
+                    }
+                    cache.value("1.min-rep");
+                }
+                MatcherAssert.assertThat(
+                    cache.value("1.min-rep"), Matchers.equalTo("42")
+                );
+                MatcherAssert.assertThat(hits.get(), Matchers.equalTo(1));
+            }
+        );
+    }
+
+    @Test
+    public void fallsBackToLocalPolicy() throws Exception {
+        final Path local = Files.createTempFile("policy", ".html");
+        Files.write(
+            local, PolicyCacheTest.HTML.getBytes(StandardCharsets.UTF_8)
+        );
+        MatcherAssert.assertThat(
+            new PolicyCache(
+                URI.create("http://localhost:1/policy.html"),
+                local.toUri().toURL(), 1L
+            ).value("1.min-rep"),
+            Matchers.equalTo("42")
+        );
+    }
+
+    /**
+     * Policy take.
+     * @param hits Counter of full responses
+     * @return Take
+     */
+    private static Take policy(final AtomicInteger hits) {
+        return req -> {
+            hits.incrementAndGet();
+            return new RsWithHeader(
+                new RsText(PolicyCacheTest.HTML), "ETag", "\"v1\""
+            );
+        };
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import com.jcabi.xml.StrictXML;
+import com.jcabi.xml.XMLDocument;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Test case for {@link Schemas}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class SchemasTest {
+
+    @Test
+    public void compilesSchemaOnce() throws Exception {
+        final Path xsd = Files.createTempFile("schema", ".xsd");
+        Files.write(
+            xsd,
+            String.join(
+                "",
+                "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'>",
+                "<xs:element name='a' type='xs:string'/></xs:schema>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        final String uri = xsd.toUri().toString();
+        final Schemas schemas = Schemas.INSTANCE;
+        MatcherAssert.assertThat(
+            schemas.schema(uri),
+            Matchers.sameInstance(schemas.schema(uri))
+        );
+        MatcherAssert.assertThat(
+            new StrictXML(
+                new XMLDocument("<a>hello</a>"),
+                schemas.schema(uri).newValidator()
+            ).xpath("/a/text()"),
+            Matchers.contains("hello")
+        );
+        MatcherAssert.assertThat(
+            new Xembler(new Directives().add("guts").append(schemas)).xml(),
+            XhtmlMatchers.hasXPaths(
+                "/guts/xsd-cache[hits >= 2]",
+                "/guts/xsd-cache[misses >= 1]"
+            )
+        );
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import com.jcabi.xml.XMLDocument;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Test case for {@link Stylesheets}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class StylesheetsTest {
+
+    @Test
+    public void transformsWithCompiledTemplates() throws Exception {
+        final Stylesheets xsls = new Stylesheets(2);
+        final URI uri = StylesheetsTest.xsl(
+            String.join(
+                "",
+                "<xsl:param name='name'/>",
+                "<xsl:template match='/a'>",
+                "<b><xsl:value-of select='$name'/></b>",
+                "</xsl:template>"
+            )
+        );
+        xsls.xsl(uri);
+        MatcherAssert.assertThat(
+            xsls.xsl(uri).with("name", "hey")
+                .transform(new XMLDocument("<a/>")),
+            XhtmlMatchers.hasXPath("/b[.='hey']")
+        );
+        MatcherAssert.assertThat(
+            new Xembler(new Directives().add("guts").append(xsls)).xml(),
+            XhtmlMatchers.hasXPath("/guts/xsl-cache/xsl[@hits='1']")
+        );
+    }
+
+    @Test
+    public void reportsTerminatingMessage() throws Exception {
+        final URI uri = StylesheetsTest.xsl(
+            String.join(
+                "",
+                "<xsl:template match='/'>",
+                "<xsl:message terminate='yes'>it is broken</xsl:message>",
+                "</xsl:template>"
+            )
+        );
+        try {
+            new Stylesheets(1).xsl(uri).transform(new XMLDocument("<x/>"));
+            MatcherAssert.assertThat("not failed", false);
+        } catch (final IllegalArgumentException ex) {
+            MatcherAssert.assertThat(
+                ex.getMessage(), Matchers.containsString("it is broken")
+            );
+        }
+    }
+
+    @Test
+    public void evictsStylesheets() throws Exception {
+        final Stylesheets xsls = new Stylesheets(1);
+        xsls.xsl(StylesheetsTest.xsl("<xsl:template match='/'/>"));
+        xsls.xsl(StylesheetsTest.xsl("<xsl:template match='/a'/>"));
+        MatcherAssert.assertThat(
+            new Xembler(new Directives().add("guts").append(xsls)).xml(),
+            XhtmlMatchers.hasXPath("/guts/xsl-cache[count(xsl)=1]")
+        );
+    }
+
+    /**
+     * Make XSL file.
+     * @param body Stylesheet body
+     * @return URI of the file
+     * @throws Exception If fails
+     */
+    private static URI xsl(final String body) throws Exception {
+        final Path file = Files.createTempFile("stylesheet", ".xsl");
+        Files.write(
+            file,
+            String.join(
+                "",
+                "<xsl:stylesheet version='2.0' ",
+                "xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>",
+                body,
+                "</xsl:stylesheet>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        return file.toUri();
+    }
+}
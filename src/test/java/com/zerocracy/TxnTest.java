@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Txn}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public final class TxnTest {
+
+    @Test
+    public void seesOwnChangesBeforeCommit() throws Exception {
+        final Project pkt = new FkProject();
+        try (final Txn txn = new Txn(pkt)) {
+            TxnTest.append(txn.acq("a.txt"), "one");
+            MatcherAssert.assertThat(
+                TxnTest.content(txn.acq("a.txt")), Matchers.equalTo("one")
+            );
+            MatcherAssert.assertThat(
+                TxnTest.content(pkt.acq("a.txt")), Matchers.isEmptyString()
+            );
+            txn.commit();
+        }
+        MatcherAssert.assertThat(
+            TxnTest.content(pkt.acq("a.txt")), Matchers.equalTo("one")
+        );
+    }
+
+    @Test
+    public void discardsChangesWithoutCommit() throws Exception {
+        final Project pkt = new FkProject();
+        try (final Txn txn = new Txn(pkt)) {
+            TxnTest.append(txn.acq("b.txt"), "two");
+            TxnTest.append(txn.acq("c.txt"), "three");
+        }
+        MatcherAssert.assertThat(
+            TxnTest.content(pkt.acq("b.txt")), Matchers.isEmptyString()
+        );
+        MatcherAssert.assertThat(
+            TxnTest.content(pkt.acq("c.txt")), Matchers.isEmptyString()
+        );
+    }
+
+    @Test
+    public void failsOnConcurrentChanges() throws Exception {
+        final Project pkt = new FkProject();
+        try (final Txn txn = new Txn(pkt)) {
+            TxnTest.append(txn.acq("d.txt"), "x");
+            TxnTest.append(txn.acq("e.txt"), "z");
+            TxnTest.append(pkt.acq("e.txt"), "y");
+            txn.commit();
+            Assert.fail("Conflict was not detected");
+        } catch (final Txn.ConflictException ex) {
+            MatcherAssert.assertThat(
+                ex.getMessage(), Matchers.containsString("e.txt")
+            );
+        }
+        MatcherAssert.assertThat(
+            TxnTest.content(pkt.acq("d.txt")), Matchers.isEmptyString()
+        );
+        MatcherAssert.assertThat(
+            TxnTest.content(pkt.acq("e.txt")), Matchers.equalTo("y")
+        );
+    }
+
+    @Test
+    public void failsWhenReadItemChanged() throws Exception {
+        final Project pkt = new FkProject();
+        try (final Txn txn = new Txn(pkt)) {
+            TxnTest.content(txn.acq("f.txt"));
+            TxnTest.append(txn.acq("g.txt"), "w");
+            TxnTest.append(pkt.acq("f.txt"), "v");
+            txn.commit();
+            Assert.fail("Conflict with read item was not detected");
+        } catch (final Txn.ConflictException ex) {
+            MatcherAssert.assertThat(
+                TxnTest.content(pkt.acq("g.txt")), Matchers.isEmptyString()
+            );
+        }
+    }
+
+    /**
+     * Append text to the item.
+     * @param item Item
+     * @param text Text to append
+     * @throws Exception If fails
+     */
+    private static void append(final Item item, final String text)
+        throws Exception {
+        item.update(
+            path -> Files.write(
+                path, text.getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND
+            )
+        );
+    }
+
+    /**
+     * Content of the item.
+     * @param item Item
+     * @return Text
+     * @throws Exception If fails
+     */
+    private static String content(final Item item) throws Exception {
+        return item.read(
+            path -> new String(
+                Files.readAllBytes(path), StandardCharsets.UTF_8
+            )
+        );
+    }
+}
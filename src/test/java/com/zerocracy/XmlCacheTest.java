@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link XmlCache}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class XmlCacheTest {
+
+    @Test
+    public void reusesParsedDocument() throws Exception {
+        final XmlCache cache = new XmlCache(1L << 20);
+        final Path file = Files.createTempFile("cache", ".xml");
+        Files.write(file, "<a><b>1</b></a>".getBytes(StandardCharsets.UTF_8));
+        MatcherAssert.assertThat(
+            cache.document("a.xml", file),
+            Matchers.sameInstance(cache.document("a.xml", file))
+        );
+        MatcherAssert.assertThat(cache.hits(), Matchers.equalTo(1L));
+    }
+
+    @Test
+    public void reparsesChangedContent() throws Exception {
+        final XmlCache cache = new XmlCache(1L << 20);
+        final Path file = Files.createTempFile("cache", ".xml");
+        Files.write(file, "<a><b>1</b></a>".getBytes(StandardCharsets.UTF_8));
+        cache.document("x.xml", file);
+        Files.write(file, "<a><b>2</b></a>".getBytes(StandardCharsets.UTF_8));
+        MatcherAssert.assertThat(
+            cache.document("x.xml", file).xpath("/a/b/text()"),
+            Matchers.contains("2")
+        );
+        MatcherAssert.assertThat(cache.misses(), Matchers.equalTo(2L));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Exception {
+        // @checkstyle MagicNumber (1 line)
+        final XmlCache cache = new XmlCache(20L);
+        final Path first = Files.createTempFile("first", ".xml");
+        Files.write(first, "<a><b>1</b></a>".getBytes(StandardCharsets.UTF_8));
+        final Path second = Files.createTempFile("second", ".xml");
+        Files.write(second, "<a><b>2</b></a>".getBytes(StandardCharsets.UTF_8));
+        cache.document("first", first);
+        cache.document("second", second);
+        cache.document("first", first);
+        MatcherAssert.assertThat(cache.hits(), Matchers.equalTo(0L));
+        MatcherAssert.assertThat(
+            cache.weight(),
+            Matchers.lessThanOrEqualTo(20L * 8L)
+        );
+    }
+
+    @Test
+    public void queriesXocumentNodes() throws Exception {
+        final Path file = Files.createTempFile("xoc", ".xml");
+        Files.write(
+            file, "<a><b id='1'/></a>".getBytes(StandardCharsets.UTF_8)
+        );
+        final Xocument xoc = new Xocument(file, "xoc");
+        MatcherAssert.assertThat(xoc.nodes("/a/c"), Matchers.empty());
+        MatcherAssert.assertThat(
+            xoc.nodes("/a/b").get(0).xpath("@id"),
+            Matchers.contains("1")
+        );
+    }
+}
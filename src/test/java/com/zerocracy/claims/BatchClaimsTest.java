@@ -16,18 +16,21 @@
  */
 package com.zerocracy.claims;
 
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+import com.amazonaws.services.sqs.model.SendMessageResult;
 import com.jcabi.aspects.Tv;
-import com.jcabi.xml.XML;
-import com.jcabi.xml.XMLDocument;
-import java.io.Closeable;
-import java.io.IOException;
-import java.time.Instant;
 import java.util.LinkedList;
 import java.util.List;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.hamcrest.core.IsEqual;
+import org.junit.Assert;
 import org.junit.Test;
-import org.xembly.Xembler;
+import org.mockito.Mockito;
 
 /**
  * Tests for {@link BatchClaims}.
@@ -38,80 +41,154 @@ import org.xembly.Xembler;
 @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
 public final class BatchClaimsTest {
 
-    @Test(expected = UnsupportedOperationException.class)
-    public void obeyClaimBatchMaxSize() throws IOException {
-        final List<ClaimOut> claims = new LinkedList<>();
-        final int count = Tv.FIVE;
-        final ClaimOut claim = new ClaimOut();
-        final int size = new XMLDocument(
-            new Xembler(
-                claim
-            ).xmlQuietly()
-        ).toString().length();
-        for (int idx = 0; idx < count; ++idx) {
-            claims.add(new ClaimOut());
-        }
-        final FkBatchClaims batch = new FkBatchClaims(new BatchClaims());
-        final int perbatch = (int) Math.ceil((double) size / batch.maximum());
-        for (final ClaimOut item : claims) {
-            item.postTo(batch);
+    @Test
+    public void sendsClaimsInBatches() {
+        final List<Integer> sizes = new LinkedList<>();
+        final AmazonSQS sqs = BatchClaimsTest.sqs(sizes);
+        try (final BatchClaims batch = new BatchClaims().open()) {
+            for (int idx = 0; idx < Tv.TWENTY + Tv.FIVE; ++idx) {
+                BatchClaims.defer(sqs, BatchClaimsTest.msg(idx, Tv.HUNDRED));
+            }
+            batch.commit();
         }
         MatcherAssert.assertThat(
-            "Called close() wrong number of times",
-            batch.closes(),
-            new IsEqual<>((int) Math.ceil((double) count / perbatch))
+            sizes, Matchers.contains(Tv.TEN, Tv.TEN, Tv.FIVE)
         );
     }
 
-    /**
-     * Decorator for {@link BatchClaims} testing.
-     */
-    private final class FkBatchClaims implements Claims, Closeable {
-
-        /**
-         * Origin.
-         */
-        private final BatchClaims origin;
-
-        /**
-         * Count of {@link BatchClaims#close()} invocations.
-         */
-        private int count;
-
-        /**
-         * Constructor.
-         * @param origin The {@link BatchClaims} to be tested.
-         */
-        FkBatchClaims(final BatchClaims origin) {
-            this.origin = origin;
+    @Test
+    public void obeyClaimBatchMaxSize() {
+        final List<Integer> sizes = new LinkedList<>();
+        final AmazonSQS sqs = BatchClaimsTest.sqs(sizes);
+        try (final BatchClaims batch = new BatchClaims(1).open()) {
+            for (int idx = 0; idx < Tv.FIVE; ++idx) {
+                BatchClaims.defer(sqs, BatchClaimsTest.msg(idx, Tv.THOUSAND));
+            }
+            batch.commit();
         }
+        MatcherAssert.assertThat(
+            "Sent not one by one",
+            sizes, Matchers.empty()
+        );
+        Mockito.verify(sqs, Mockito.times(Tv.FIVE)).sendMessage(
+            Mockito.any(SendMessageRequest.class)
+        );
+    }
 
-        @Override
-        public void submit(final XML claim, final Instant expires)
-            throws IOException {
-            this.origin.submit(claim, expires);
+    @Test
+    public void discardsNotCommittedClaims() {
+        final List<Integer> sizes = new LinkedList<>();
+        final AmazonSQS sqs = BatchClaimsTest.sqs(sizes);
+        try (final BatchClaims outer = new BatchClaims().open()) {
+            try (final BatchClaims inner = new BatchClaims().open()) {
+                BatchClaims.defer(sqs, BatchClaimsTest.msg(0, Tv.TEN));
+                BatchClaims.defer(sqs, BatchClaimsTest.msg(1, Tv.TEN));
+            }
+            BatchClaims.defer(sqs, BatchClaimsTest.msg(2, Tv.TEN));
+            outer.commit();
         }
+        Mockito.verify(sqs, Mockito.times(1)).sendMessage(
+            Mockito.any(SendMessageRequest.class)
+        );
+        MatcherAssert.assertThat(sizes, Matchers.empty());
+    }
 
-        @Override
-        public void close() throws IOException {
-            this.count = this.count + 1;
-            this.origin.close();
+    @Test
+    public void movesCommittedClaimsToOuterOutbox() {
+        final List<Integer> sizes = new LinkedList<>();
+        final AmazonSQS sqs = BatchClaimsTest.sqs(sizes);
+        try (final BatchClaims outer = new BatchClaims().open()) {
+            try (final BatchClaims inner = new BatchClaims().open()) {
+                BatchClaims.defer(sqs, BatchClaimsTest.msg(0, Tv.TEN));
+                inner.commit();
+            }
+            BatchClaims.defer(sqs, BatchClaimsTest.msg(1, Tv.TEN));
+            MatcherAssert.assertThat(sizes, Matchers.empty());
+            outer.commit();
         }
+        MatcherAssert.assertThat(sizes, Matchers.contains(2));
+    }
 
-        /**
-         * Return the maximum batch size (in KB) allowed.
-         * @return Maximum batch size (in KB)
-         */
-        public int maximum() {
-            return this.origin.maximum();
+    @Test
+    public void reportsUnsentClaims() {
+        final List<String> sent = new LinkedList<>();
+        final AmazonSQS sqs = Mockito.mock(AmazonSQS.class);
+        Mockito.when(
+            sqs.sendMessage(Mockito.any(SendMessageRequest.class))
+        ).thenAnswer(
+            inv -> {
+                final String id = SendMessageRequest.class
+                    .cast(inv.getArguments()[0]).getMessageDeduplicationId();
+                if ("2".equals(id)) {
+                    throw new AmazonServiceException("unavailable");
+                }
+                sent.add(id);
+                return new SendMessageResult();
+            }
+        );
+        try (final BatchClaims batch = new BatchClaims(1).open()) {
+            for (int idx = 0; idx < Tv.SIX; ++idx) {
+                BatchClaims.defer(sqs, BatchClaimsTest.msg(idx, Tv.THOUSAND));
+            }
+            batch.commit();
+            Assert.fail("Unsent claims were not reported");
+        } catch (final IllegalStateException ex) {
+            MatcherAssert.assertThat(
+                ex.getMessage(),
+                Matchers.equalTo("2 of 6 claims were not sent to SQS: 2, 4")
+            );
         }
+        MatcherAssert.assertThat(
+            "Claims of other group were not sent",
+            sent, Matchers.contains("0", "1", "3", "5")
+        );
+    }
+
+    @Test
+    public void doesntDeferWithoutOutbox() {
+        new BatchClaims().open().commit();
+        MatcherAssert.assertThat(
+            BatchClaims.defer(
+                Mockito.mock(AmazonSQS.class), BatchClaimsTest.msg(0, 1)
+            ),
+            new IsEqual<>(false)
+        );
+    }
 
-        /**
-         * Returns the times that the count method was invoked.
-         * @return The times that the count method was invoked
-         */
-        public int closes() {
-            return this.count;
+    /**
+     * Fake SQS client.
+     * @param sizes Sizes of batches sent
+     * @return SQS client
+     */
+    private static AmazonSQS sqs(final List<Integer> sizes) {
+        final AmazonSQS sqs = Mockito.mock(AmazonSQS.class);
+        Mockito.when(
+            sqs.sendMessageBatch(Mockito.any(SendMessageBatchRequest.class))
+        ).thenAnswer(
+            inv -> {
+                sizes.add(
+                    SendMessageBatchRequest.class.cast(inv.getArguments()[0])
+                        .getEntries().size()
+                );
+                return new SendMessageBatchResult();
+            }
+        );
+        return sqs;
+    }
+
+    /**
+     * Message to send.
+     * @param idx Index
+     * @param length Body length
+     * @return Message
+     */
+    private static SendMessageRequest msg(final int idx, final int length) {
+        final StringBuilder body = new StringBuilder(length);
+        for (int pos = 0; pos < length; ++pos) {
+            body.append('x');
         }
+        return new SendMessageRequest("queue", body.toString())
+            .withMessageGroupId(String.format("group-%d", idx % 2))
+            .withMessageDeduplicationId(Integer.toString(idx));
     }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+import java.util.Collections;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link ClaimsJournal}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class ClaimsJournalTest {
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void readsWrittenClaims() throws Exception {
+        final ClaimsJournal journal = new ClaimsJournal(
+            this.temp.newFolder().toPath()
+        );
+        final String id = journal.add(ClaimsJournalTest.request());
+        final SendMessageRequest req = journal.request(id);
+        MatcherAssert.assertThat(
+            req.getMessageBody(),
+            Matchers.equalTo("<claim id=\"1\"><type>Ping</type></claim>")
+        );
+        MatcherAssert.assertThat(
+            req.getMessageAttributes().get("project").getStringValue(),
+            Matchers.equalTo("C00000000")
+        );
+        MatcherAssert.assertThat(
+            req.getMessageGroupId(), Matchers.equalTo("claim:1")
+        );
+        journal.remove(id);
+        MatcherAssert.assertThat(journal.ids(), Matchers.empty());
+    }
+
+    @Test
+    public void replaysClaimsToSqs() throws Exception {
+        final ClaimsJournal journal = new ClaimsJournal(
+            this.temp.newFolder().toPath()
+        );
+        journal.add(ClaimsJournalTest.request());
+        journal.add(ClaimsJournalTest.request());
+        final AmazonSQS sqs = Mockito.mock(AmazonSQS.class);
+        MatcherAssert.assertThat(
+            journal.replay(sqs, "queue"), Matchers.equalTo(2)
+        );
+        Mockito.verify(sqs, Mockito.times(2)).sendMessage(
+            Mockito.any(SendMessageRequest.class)
+        );
+        MatcherAssert.assertThat(journal.ids(), Matchers.empty());
+    }
+
+    /**
+     * SQS request of a claim.
+     * @return Request
+     */
+    private static SendMessageRequest request() {
+        return new SendMessageRequest()
+            .withMessageBody("<claim id=\"1\"><type>Ping</type></claim>")
+            .withMessageGroupId("claim:1")
+            .withMessageDeduplicationId("C00000000:1")
+            .withMessageAttributes(
+                Collections.singletonMap(
+                    "project",
+                    new MessageAttributeValue()
+                        .withDataType("String")
+                        .withStringValue("C00000000")
+                )
+            );
+    }
+}
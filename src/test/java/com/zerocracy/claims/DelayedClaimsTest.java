@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.sqs.model.Message;
+import com.jcabi.matchers.XhtmlMatchers;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Test case for {@link DelayedClaims}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class DelayedClaimsTest {
+
+    @Test
+    public void releasesClaimWhenDue() throws Exception {
+        final List<Integer> hidden = new LinkedList<>();
+        final DelayedClaims claims = new DelayedClaims(
+            (msg, sec) -> hidden.add(sec)
+        );
+        MatcherAssert.assertThat(
+            claims.hold(
+                new Message().withMessageId("a1"),
+                Instant.now().plusMillis(200L)
+            ),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            claims.poll(0L, TimeUnit.MILLISECONDS), Matchers.nullValue()
+        );
+        final Message msg = claims.poll(2L, TimeUnit.SECONDS);
+        MatcherAssert.assertThat(msg.getMessageId(), Matchers.equalTo("a1"));
+        MatcherAssert.assertThat(
+            msg.getMessageAttributes(), Matchers.hasKey("received")
+        );
+        MatcherAssert.assertThat(
+            hidden, Matchers.contains(Matchers.greaterThanOrEqualTo(100))
+        );
+        MatcherAssert.assertThat(
+            new Xembler(new Directives().add("guts").append(claims)).xml(),
+            XhtmlMatchers.hasXPaths(
+                "/guts/delayed[held='0' and released='1']",
+                "/guts/delayed/lateness[@avg and @max]"
+            )
+        );
+    }
+
+    @Test
+    public void releasesInOrderOfDueTime() throws Exception {
+        final DelayedClaims claims = new DelayedClaims((msg, sec) -> true);
+        final Instant now = Instant.now();
+        claims.hold(new Message().withMessageId("b2"), now.plusMillis(300L));
+        claims.hold(new Message().withMessageId("b1"), now.plusMillis(100L));
+        MatcherAssert.assertThat(
+            claims.poll(2L, TimeUnit.SECONDS).getMessageId(),
+            Matchers.equalTo("b1")
+        );
+        MatcherAssert.assertThat(
+            claims.poll(2L, TimeUnit.SECONDS).getMessageId(),
+            Matchers.equalTo("b2")
+        );
+    }
+
+    @Test
+    public void replacesClaimReceivedAgain() throws Exception {
+        final DelayedClaims claims = new DelayedClaims((msg, sec) -> true);
+        final Instant until = Instant.now().plusMillis(100L);
+        claims.hold(new Message().withMessageId("c1"), until);
+        claims.hold(
+            new Message().withMessageId("c1").withReceiptHandle("new"),
+            until
+        );
+        MatcherAssert.assertThat(claims.size(), Matchers.equalTo(1));
+        MatcherAssert.assertThat(
+            claims.poll(2L, TimeUnit.SECONDS).getReceiptHandle(),
+            Matchers.equalTo("new")
+        );
+    }
+
+    @Test
+    public void doesntKeepFarClaims() {
+        final List<Integer> hidden = new LinkedList<>();
+        final DelayedClaims claims = new DelayedClaims(
+            (msg, sec) -> hidden.add(sec)
+        );
+        MatcherAssert.assertThat(
+            claims.hold(
+                new Message().withMessageId("d1"),
+                Instant.now().plus(Duration.ofDays(2L))
+            ),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(claims.size(), Matchers.equalTo(0));
+        MatcherAssert.assertThat(
+            hidden,
+            Matchers.contains(
+                (int) DelayedClaims.HORIZON.getSeconds()
+            )
+        );
+    }
+
+    @Test
+    public void doesntKeepClaimFailedToHide() throws Exception {
+        final DelayedClaims claims = new DelayedClaims(
+            (msg, sec) -> {
+                throw new AmazonClientException("unavailable");
+            }
+        );
+        MatcherAssert.assertThat(
+            claims.hold(
+                new Message().withMessageId("e1"),
+                Instant.now().plusSeconds(1L)
+            ),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            new Xembler(new Directives().add("guts").append(claims)).xml(),
+            XhtmlMatchers.hasXPaths("/guts/delayed[held='0' and failed='1']")
+        );
+    }
+}
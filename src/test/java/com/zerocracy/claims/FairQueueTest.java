@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims;
+
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.jcabi.aspects.Tv;
+import com.jcabi.matchers.XhtmlMatchers;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Test case for {@link FairQueue}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public final class FairQueueTest {
+
+    @Test
+    public void doesntStarveQuietProject() {
+        final FairQueue queue = new FairQueue();
+        for (int idx = 0; idx < Tv.HUNDRED; ++idx) {
+            queue.add(FairQueueTest.msg(String.format("n%d", idx), "PMO"));
+        }
+        queue.add(FairQueueTest.msg("q1", "C1"));
+        queue.add(FairQueueTest.msg("q2", "C1"));
+        final List<String> taken = new LinkedList<>();
+        for (int idx = 0; idx < Tv.FOUR; ++idx) {
+            taken.add(queue.poll().getMessageId());
+        }
+        MatcherAssert.assertThat(
+            taken, Matchers.contains("n0", "q1", "n1", "q2")
+        );
+    }
+
+    @Test
+    public void servesHigherPriorityFirst() {
+        final FairQueue queue = new FairQueue();
+        queue.add(FairQueueTest.msg("low", "C2", MsgPriority.LOW));
+        queue.add(FairQueueTest.msg("normal", "C3"));
+        queue.add(FairQueueTest.msg("high", "C2", MsgPriority.HIGH));
+        MatcherAssert.assertThat(
+            queue.poll().getMessageId(), Matchers.equalTo("high")
+        );
+        MatcherAssert.assertThat(
+            queue.poll().getMessageId(), Matchers.equalTo("normal")
+        );
+        MatcherAssert.assertThat(
+            queue.poll().getMessageId(), Matchers.equalTo("low")
+        );
+        MatcherAssert.assertThat(queue.poll(), Matchers.nullValue());
+    }
+
+    @Test
+    public void givesMoreTurnsToHeavierProjects() {
+        final FairQueue queue = new FairQueue(
+            pid -> {
+                final int weight;
+                if ("C4".equals(pid)) {
+                    weight = 2;
+                } else {
+                    weight = 1;
+                }
+                return weight;
+            }
+        );
+        for (int idx = 0; idx < Tv.FOUR; ++idx) {
+            queue.add(FairQueueTest.msg(String.format("a%d", idx), "C4"));
+            queue.add(FairQueueTest.msg(String.format("b%d", idx), "C5"));
+        }
+        final List<String> taken = new LinkedList<>();
+        for (int idx = 0; idx < Tv.SIX; ++idx) {
+            taken.add(queue.poll().getMessageId());
+        }
+        MatcherAssert.assertThat(
+            taken, Matchers.contains("a0", "a1", "b0", "a2", "a3", "b1")
+        );
+    }
+
+    @Test
+    public void replacesMessageWithSameId() {
+        final FairQueue queue = new FairQueue();
+        queue.add(FairQueueTest.msg("same", "C6"));
+        queue.add(FairQueueTest.msg("other", "C6"));
+        queue.add(FairQueueTest.msg("same", "C6"));
+        MatcherAssert.assertThat(queue.size(), Matchers.equalTo(2));
+        MatcherAssert.assertThat(
+            queue.poll().getMessageId(), Matchers.equalTo("other")
+        );
+    }
+
+    @Test
+    public void removesThroughIterator() {
+        final FairQueue queue = new FairQueue();
+        queue.add(FairQueueTest.msg("first", "C7"));
+        queue.add(FairQueueTest.msg("second", "C7"));
+        final Iterator<Message> iter = queue.iterator();
+        iter.next();
+        iter.remove();
+        MatcherAssert.assertThat(queue.size(), Matchers.equalTo(1));
+        MatcherAssert.assertThat(
+            queue.peek().getMessageId(), Matchers.equalTo("second")
+        );
+    }
+
+    @Test
+    public void skipsRemovedMessages() {
+        final FairQueue queue = new FairQueue();
+        final Message head = FairQueueTest.msg("head", "C10");
+        final Message middle = FairQueueTest.msg("middle", "C10");
+        queue.add(head);
+        queue.add(middle);
+        queue.add(FairQueueTest.msg("tail", "C10"));
+        queue.remove(middle);
+        queue.remove(head);
+        MatcherAssert.assertThat(queue.size(), Matchers.equalTo(1));
+        MatcherAssert.assertThat(
+            queue.peek().getMessageId(), Matchers.equalTo("tail")
+        );
+        MatcherAssert.assertThat(
+            queue.poll().getMessageId(), Matchers.equalTo("tail")
+        );
+        MatcherAssert.assertThat(queue.poll(), Matchers.nullValue());
+    }
+
+    @Test
+    public void reportsProjects() throws Exception {
+        final FairQueue queue = new FairQueue();
+        queue.add(FairQueueTest.msg("x1", "C8"));
+        queue.add(FairQueueTest.msg("x2", "C8"));
+        queue.add(FairQueueTest.msg("y1", "C9"));
+        queue.take();
+        MatcherAssert.assertThat(
+            new Xembler(
+                new Directives().add("guts").append(queue.guts())
+            ).xml(),
+            XhtmlMatchers.hasXPaths(
+                "/guts/fair/project[@pid='C8' and @depth=1 and @taken=1]",
+                "/guts/fair/project[@pid='C8' and @p50 and @p99]",
+                "/guts/fair/project[@pid='C9' and @depth=1 and @taken=0]"
+            )
+        );
+    }
+
+    /**
+     * Message of normal priority.
+     * @param id Message ID
+     * @param pid Project ID
+     * @return Message
+     */
+    private static Message msg(final String id, final String pid) {
+        return FairQueueTest.msg(id, pid, MsgPriority.NORMAL);
+    }
+
+    /**
+     * Message.
+     * @param id Message ID
+     * @param pid Project ID
+     * @param pri Priority
+     * @return Message
+     */
+    private static Message msg(final String id, final String pid,
+        final MsgPriority pri) {
+        final Map<String, MessageAttributeValue> attrs = new HashMap<>(2);
+        attrs.put("project", new MessageAttributeValue().withStringValue(pid));
+        attrs.put(
+            "priority", new MessageAttributeValue().withStringValue(pri.name())
+        );
+        return new Message().withMessageId(id).withMessageAttributes(attrs);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims;
+
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test case for {@link LocalClaims}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class LocalClaimsTest {
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void deliversClaimThroughJournal() throws Exception {
+        final ClaimsJournal journal = new ClaimsJournal(
+            this.temp.newFolder().toPath()
+        );
+        final List<Message> sink = new LinkedList<>();
+        MatcherAssert.assertThat(
+            new LocalClaims(journal, sink::add).apply(
+                LocalClaimsTest.request("project")
+            ),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(sink, Matchers.hasSize(1));
+        MatcherAssert.assertThat(
+            journal.ids(),
+            Matchers.contains(
+                sink.get(0).getMessageAttributes()
+                    .get(LocalClaims.ATTR).getStringValue()
+            )
+        );
+    }
+
+    @Test
+    public void forgetsRejectedClaim() throws Exception {
+        final ClaimsJournal journal = new ClaimsJournal(
+            this.temp.newFolder().toPath()
+        );
+        MatcherAssert.assertThat(
+            new LocalClaims(journal, msg -> false).apply(
+                LocalClaimsTest.request("project")
+            ),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(journal.ids(), Matchers.empty());
+    }
+
+    @Test
+    public void doesntDeliverDelayedClaim() throws Exception {
+        final List<Message> sink = new LinkedList<>();
+        MatcherAssert.assertThat(
+            new LocalClaims(
+                new ClaimsJournal(this.temp.newFolder().toPath()), sink::add
+            ).apply(LocalClaimsTest.request("until")),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(sink, Matchers.empty());
+    }
+
+    @Test
+    public void dropsDuplicateClaims() throws Exception {
+        final List<Message> sink = new LinkedList<>();
+        final LocalClaims local = new LocalClaims(
+            new ClaimsJournal(this.temp.newFolder().toPath()), sink::add
+        );
+        local.apply(LocalClaimsTest.request("project"));
+        MatcherAssert.assertThat(
+            local.apply(LocalClaimsTest.request("project")),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(sink, Matchers.hasSize(1));
+    }
+
+    @Test
+    public void sendsDuplicateToSqsIfOriginalWentThere() throws Exception {
+        final List<Message> sink = new LinkedList<>();
+        final AtomicBoolean accept = new AtomicBoolean(false);
+        final LocalClaims local = new LocalClaims(
+            new ClaimsJournal(this.temp.newFolder().toPath()),
+            msg -> accept.get() && sink.add(msg)
+        );
+        local.apply(LocalClaimsTest.request("project"));
+        accept.set(true);
+        MatcherAssert.assertThat(
+            local.apply(LocalClaimsTest.request("project")),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(sink, Matchers.empty());
+    }
+
+    /**
+     * SQS request of a claim.
+     * @param attr Attribute to set
+     * @return Request
+     */
+    private static SendMessageRequest request(final String attr) {
+        return new SendMessageRequest()
+            .withMessageBody("<claim id=\"2\"><type>Hello</type></claim>")
+            .withMessageGroupId("claim:2")
+            .withMessageDeduplicationId("C00000000:2")
+            .withMessageAttributes(
+                Collections.singletonMap(
+                    attr,
+                    new MessageAttributeValue()
+                        .withDataType("String")
+                        .withStringValue("C00000000")
+                )
+            );
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import org.hamcrest.MatcherAssert;
+import org.junit.Test;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Test case for {@link ReceiveStats}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class ReceiveStatsTest {
+
+    @Test
+    public void countsReceives() throws Exception {
+        final ReceiveStats stats = new ReceiveStats();
+        stats.completed(stats.started(), 0);
+        stats.completed(stats.started(), 2);
+        stats.completed(stats.started(), 0);
+        stats.started();
+        MatcherAssert.assertThat(
+            new Xembler(new Directives().add("r").append(stats)).xml(),
+            XhtmlMatchers.hasXPaths(
+                "/r[inflight=1 and receives=3 and messages=2 and empty=2]",
+                "/r[empty-rate='0.67']",
+                "/r/latency[@avg and @max]"
+            )
+        );
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims;
+
+import com.amazonaws.services.sqs.model.Message;
+import com.jcabi.aspects.Tv;
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test case for {@link SegmentLog}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public final class SegmentLogTest {
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void readsAppendedRecords() throws Exception {
+        final SegmentLog log = new SegmentLog(
+            this.temp.newFolder().toPath()
+        ).bootstrap();
+        log.append(SegmentLogTest.attrs("C1"), "<claim id='1'/>");
+        log.append(SegmentLogTest.attrs("C2"), "<claim id='2'/>");
+        final List<Message> msgs = log.read(Tv.TEN);
+        MatcherAssert.assertThat(msgs, Matchers.hasSize(2));
+        MatcherAssert.assertThat(
+            msgs.get(1).getBody(), Matchers.equalTo("<claim id='2'/>")
+        );
+        MatcherAssert.assertThat(
+            msgs.get(0).getMessageAttributes().get("project")
+                .getStringValue(),
+            Matchers.equalTo("C1")
+        );
+        MatcherAssert.assertThat(log.read(Tv.TEN), Matchers.empty());
+    }
+
+    @Test
+    public void redeliversNotProcessedRecordsAfterRestart()
+        throws Exception {
+        final Path dir = this.temp.newFolder().toPath();
+        final SegmentLog log = new SegmentLog(dir).bootstrap();
+        log.append(SegmentLogTest.attrs("C3"), "first");
+        log.append(SegmentLogTest.attrs("C3"), "second");
+        log.append(SegmentLogTest.attrs("C4"), "third");
+        final List<Message> msgs = log.read(Tv.TEN);
+        log.ack(SegmentLogTest.offset(msgs.get(0)));
+        log.ack(SegmentLogTest.offset(msgs.get(2)));
+        log.close();
+        final List<Message> again = new SegmentLog(dir).bootstrap()
+            .read(Tv.TEN);
+        MatcherAssert.assertThat(again, Matchers.hasSize(1));
+        MatcherAssert.assertThat(
+            again.get(0).getBody(), Matchers.equalTo("second")
+        );
+    }
+
+    @Test
+    public void holdsDelayedAndSkipsExpiredRecords() throws Exception {
+        final SegmentLog log = new SegmentLog(
+            this.temp.newFolder().toPath()
+        ).bootstrap();
+        final Map<String, String> delayed = SegmentLogTest.attrs("C5");
+        delayed.put(
+            "until", Instant.now().plus(Duration.ofHours(1L)).toString()
+        );
+        log.append(delayed, "later");
+        final Map<String, String> expired = SegmentLogTest.attrs("C5");
+        expired.put(
+            "expires", Instant.now().minus(Duration.ofHours(1L)).toString()
+        );
+        log.append(expired, "never");
+        log.append(SegmentLogTest.attrs("C5"), "now");
+        final List<Message> msgs = log.read(Tv.TEN);
+        MatcherAssert.assertThat(msgs, Matchers.hasSize(1));
+        MatcherAssert.assertThat(
+            msgs.get(0).getBody(), Matchers.equalTo("now")
+        );
+    }
+
+    @Test
+    public void deletesProcessedSegments() throws Exception {
+        final File dir = this.temp.newFolder();
+        final SegmentLog log = new SegmentLog(dir.toPath(), Tv.HUNDRED)
+            .bootstrap();
+        for (int idx = 0; idx < Tv.TEN; ++idx) {
+            log.append(SegmentLogTest.attrs("C6"), "some claim body");
+        }
+        MatcherAssert.assertThat(
+            dir.list((file, name) -> name.endsWith(".seg")).length,
+            Matchers.greaterThan(1)
+        );
+        final List<Message> msgs = log.read(Tv.HUNDRED);
+        MatcherAssert.assertThat(msgs, Matchers.hasSize(Tv.TEN));
+        for (final Message msg : msgs) {
+            log.ack(SegmentLogTest.offset(msg));
+        }
+        MatcherAssert.assertThat(
+            dir.list((file, name) -> name.endsWith(".seg")).length,
+            Matchers.equalTo(1)
+        );
+    }
+
+    /**
+     * Attributes of a record.
+     * @param pid Project ID
+     * @return Attributes
+     */
+    private static Map<String, String> attrs(final String pid) {
+        final Map<String, String> attrs = new HashMap<>(1);
+        attrs.put("project", pid);
+        return attrs;
+    }
+
+    /**
+     * Offset of the message.
+     * @param msg Message
+     * @return Offset
+     */
+    private static long offset(final Message msg) {
+        return Long.parseLong(
+            msg.getMessageAttributes().get(SegmentLog.OFFSET).getStringValue()
+        );
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims.proc;
+
+import com.amazonaws.services.sqs.model.Message;
+import com.jcabi.aspects.Tv;
+import com.jcabi.xml.XMLDocument;
+import com.zerocracy.Farm;
+import com.zerocracy.FkFarm;
+import com.zerocracy.claims.SegmentLog;
+import com.zerocracy.entry.ExtSegmentLog;
+import com.zerocracy.farm.props.PropsFarm;
+import com.zerocracy.shutdown.ShutdownFarm;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Test case for {@link AsyncSink}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class AsyncSinkTest {
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void returnsLogMessagesToLogWhenQueueIsFull() throws Exception {
+        final Path dir = this.temp.newFolder().toPath();
+        final Path props = this.temp.newFile().toPath();
+        final Farm farm = new PropsFarm(
+            new FkFarm(),
+            new Directives().xpath("/props")
+                .add("claims").add("log").set(dir.toString()),
+            () -> props
+        );
+        final SegmentLog log = new ExtSegmentLog(farm).value();
+        for (int idx = 0; idx < Tv.TWENTY; ++idx) {
+            log.append(
+                Collections.singletonMap("project", "LOGFULL01"),
+                String.format("claim %d", idx)
+            );
+        }
+        final CountDownLatch busy = new CountDownLatch(1);
+        final Set<String> done = ConcurrentHashMap.newKeySet();
+        final AsyncSink sink = new AsyncSink(
+            new LogProc(
+                farm,
+                msg -> {
+                    busy.await();
+                    done.add(msg.getBody());
+                },
+                msg -> {
+                    throw new IllegalStateException("not from the log");
+                }
+            ),
+            new ShutdownFarm.Hook(),
+            farm
+        );
+        int rejected = 0;
+        for (final Message msg : log.read(Tv.TWENTY)) {
+            if (!sink.exec(msg)) {
+                ++rejected;
+            }
+        }
+        MatcherAssert.assertThat(rejected, Matchers.greaterThan(0));
+        busy.countDown();
+        final long start = System.currentTimeMillis();
+        while (!AsyncSinkTest.pending(log).equals("0")
+            && System.currentTimeMillis() - start < (long) Tv.THOUSAND
+            * (long) Tv.TEN) {
+            final List<Message> again = log.read(Tv.TWENTY);
+            for (final Message msg : again) {
+                if (!sink.exec(msg)) {
+                    Thread.sleep((long) Tv.TEN);
+                }
+            }
+            Thread.sleep((long) Tv.TEN);
+        }
+        MatcherAssert.assertThat(done, Matchers.hasSize(Tv.TWENTY));
+        MatcherAssert.assertThat(
+            AsyncSinkTest.pending(log), Matchers.equalTo("0")
+        );
+        log.close();
+        MatcherAssert.assertThat(
+            new SegmentLog(dir).bootstrap().read(Tv.TWENTY),
+            Matchers.empty()
+        );
+    }
+
+    /**
+     * Amount of records read from the log, but not acknowledged.
+     * @param log Log
+     * @return Amount
+     */
+    private static String pending(final SegmentLog log) {
+        return new XMLDocument(
+            new Xembler(log).xmlQuietly()
+        ).xpath("/log/pending/text()").get(0);
+    }
+}
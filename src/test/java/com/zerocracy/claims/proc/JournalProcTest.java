@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims.proc;
+
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+import com.zerocracy.claims.ClaimsJournal;
+import com.zerocracy.claims.LocalClaims;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
+import org.cactoos.Proc;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test case for {@link JournalProc}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class JournalProcTest {
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void removesProcessedClaim() throws Exception {
+        final Path dir = this.temp.newFolder().toPath();
+        final ClaimsJournal journal = new ClaimsJournal(dir);
+        final List<Message> local = new LinkedList<>();
+        new LocalClaims(journal, local::add).apply(JournalProcTest.request());
+        final List<String> resent = new LinkedList<>();
+        new JournalProc(
+            journal, (Proc<String>) resent::add, msg -> { }, msg -> { }
+        ).exec(local.get(0));
+        MatcherAssert.assertThat(
+            Files.list(dir).count(), Matchers.equalTo(0L)
+        );
+        MatcherAssert.assertThat(resent, Matchers.empty());
+    }
+
+    @Test
+    public void resendsFailedClaim() throws Exception {
+        final Path dir = this.temp.newFolder().toPath();
+        final ClaimsJournal journal = new ClaimsJournal(dir);
+        final List<Message> local = new LinkedList<>();
+        new LocalClaims(journal, local::add).apply(JournalProcTest.request());
+        final List<String> resent = new LinkedList<>();
+        try {
+            new JournalProc(
+                journal, (Proc<String>) resent::add,
+                msg -> {
+                    throw new IOException("failed");
+                },
+                msg -> { }
+            ).exec(local.get(0));
+        } catch (final IOException ex) {
+            MatcherAssert.assertThat(ex.getMessage(), Matchers.is("failed"));
+        }
+        MatcherAssert.assertThat(resent, Matchers.hasSize(1));
+        MatcherAssert.assertThat(
+            Files.list(dir).count(), Matchers.equalTo(1L)
+        );
+    }
+
+    /**
+     * SQS request of a claim.
+     * @return Request
+     */
+    private static SendMessageRequest request() {
+        return new SendMessageRequest()
+            .withMessageBody("<claim id=\"5\"><type>Ping</type></claim>")
+            .withMessageGroupId("claim:5")
+            .withMessageDeduplicationId("C00000000:5");
+    }
+}
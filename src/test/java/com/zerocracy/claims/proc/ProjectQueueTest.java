@@ -20,9 +20,15 @@ import com.amazonaws.services.sqs.model.Message;
 import com.amazonaws.services.sqs.model.MessageAttributeValue;
 import com.jcabi.aspects.Tv;
 import com.zerocracy.FkProject;
+import com.zerocracy.claims.FairQueue;
 import com.zerocracy.claims.MsgPriority;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.cactoos.Proc;
 import org.cactoos.iterable.Mapped;
 import org.hamcrest.MatcherAssert;
@@ -64,6 +70,69 @@ public final class ProjectQueueTest {
         out.assertIds(mid);
     }
 
+    @Test
+    public void processesEachProjectSerially() throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        final Map<String, AtomicInteger> inside = new ConcurrentHashMap<>();
+        final AtomicInteger done = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final List<ProjectQueue> queues = new LinkedList<>();
+        for (int pkt = 0; pkt < Tv.FIVE; ++pkt) {
+            final String pid = String.format("PRJ%d", pkt);
+            final ProjectQueue queue = new ProjectQueue(
+                new FairQueue(),
+                pid,
+                msg -> {
+                    final AtomicInteger cnt = inside.computeIfAbsent(
+                        pid, key -> new AtomicInteger()
+                    );
+                    if (cnt.incrementAndGet() > 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    Thread.sleep(1L);
+                    cnt.decrementAndGet();
+                    done.incrementAndGet();
+                },
+                pool
+            );
+            queue.start();
+            queues.add(queue);
+        }
+        for (int idx = 0; idx < Tv.TWENTY; ++idx) {
+            for (final ProjectQueue queue : queues) {
+                queue.push(
+                    ProjectQueueTest.msg(
+                        String.format("%s-%d", queue, idx), MsgPriority.NORMAL
+                    )
+                );
+            }
+        }
+        while (!queues.stream().allMatch(queue -> queue.idle(-1L))) {
+            Thread.sleep((long) Tv.TEN);
+        }
+        pool.shutdown();
+        MatcherAssert.assertThat(done.get(), Matchers.equalTo(Tv.HUNDRED));
+        MatcherAssert.assertThat(overlaps.get(), Matchers.equalTo(0));
+    }
+
+    @Test
+    public void refusesMessagesWhenRetired() throws Exception {
+        final ProjectQueue busy = new ProjectQueue(
+            new FkProject().pid(), new ProjectQueueTest.TestProc()
+        );
+        busy.push(ProjectQueueTest.msg("waiting", MsgPriority.NORMAL));
+        MatcherAssert.assertThat(busy.retire(-1L), Matchers.is(false));
+        final ProjectQueue idle = new ProjectQueue(
+            new FkProject().pid(), new ProjectQueueTest.TestProc()
+        );
+        MatcherAssert.assertThat(idle.retire(-1L), Matchers.is(true));
+        MatcherAssert.assertThat(
+            idle.offer(ProjectQueueTest.msg("late", MsgPriority.NORMAL)),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(idle.size(), Matchers.equalTo(0));
+    }
+
     private static Message msg(final String mid, final MsgPriority pri) {
         final Message msg = new Message();
         msg.setMessageId(mid);
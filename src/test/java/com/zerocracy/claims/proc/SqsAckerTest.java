@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.claims.proc;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
+import com.amazonaws.services.sqs.model.Message;
+import com.jcabi.matchers.XhtmlMatchers;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cactoos.text.TextOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Test case for {@link SqsAcker}.
+ * @since 1.0
+ * @checkstyle JavadocMethod (500 lines)
+ */
+public final class SqsAckerTest {
+
+    @Test
+    public void deletesMessagesInBatches() throws Exception {
+        final AmazonSQS sqs = Mockito.mock(AmazonSQS.class);
+        final AtomicInteger calls = new AtomicInteger();
+        Mockito.when(
+            sqs.deleteMessageBatch(
+                Mockito.any(DeleteMessageBatchRequest.class)
+            )
+        ).thenAnswer(
+            inv -> {
+                calls.incrementAndGet();
+                return new DeleteMessageBatchResult();
+            }
+        );
+        final SqsAcker acker = new SqsAcker(() -> sqs, new TextOf("queue"));
+        for (int idx = 0; idx < 25; ++idx) {
+            acker.ack(
+                new Message()
+                    .withMessageId(Integer.toString(idx))
+                    .withReceiptHandle(String.format("handle-%d", idx))
+            );
+        }
+        acker.flush();
+        MatcherAssert.assertThat(
+            new Xembler(new Directives().add("guts").append(acker)).xml(),
+            XhtmlMatchers.hasXPaths(
+                "/guts/acker[pending = 0]",
+                "/guts/acker[deleted = 25]"
+            )
+        );
+        MatcherAssert.assertThat(
+            calls.get(), Matchers.equalTo(3)
+        );
+    }
+
+    @Test
+    public void retriesFailedMessages() throws Exception {
+        final AmazonSQS sqs = Mockito.mock(AmazonSQS.class);
+        Mockito.when(
+            sqs.deleteMessageBatch(
+                Mockito.any(DeleteMessageBatchRequest.class)
+            )
+        ).thenReturn(
+            new DeleteMessageBatchResult().withFailed(
+                new BatchResultErrorEntry()
+                    .withId("0")
+                    .withCode("InternalError")
+                    .withSenderFault(false)
+            )
+        ).thenReturn(new DeleteMessageBatchResult());
+        final SqsAcker acker = new SqsAcker(() -> sqs, new TextOf("queue"));
+        acker.ack(new Message().withMessageId("a").withReceiptHandle("h"));
+        acker.flush();
+        acker.flush();
+        MatcherAssert.assertThat(
+            new Xembler(new Directives().add("guts").append(acker)).xml(),
+            XhtmlMatchers.hasXPaths(
+                "/guts/acker[retried = 1]",
+                "/guts/acker[deleted = 1]",
+                "/guts/acker[lost = 0]"
+            )
+        );
+    }
+}
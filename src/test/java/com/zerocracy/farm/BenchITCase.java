@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.jcabi.s3.fake.FkOcket;
+import com.zerocracy.ItemStax;
+import com.zerocracy.ItemXml;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.StringUtils;
+import org.cactoos.Scalar;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Benchmarks of item access paths.
+ *
+ * <p>They are ignored, since timings are meaningless in a regular build,
+ * remove {@code @Ignore} to run them locally. Every task is run a number
+ * of times to warm up the JVM before it's measured.</p>
+ *
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class BenchITCase {
+
+    /**
+     * How many times to run a task to warm up, and then to measure it.
+     */
+    private static final int ROUNDS = Tv.HUNDRED;
+
+    @Test
+    @Ignore
+    public void comparesBytesWithTempFiles() throws Exception {
+        final byte[] doc = String.format(
+            "<doc>%s</doc>", StringUtils.repeat("<x>0</x>", Tv.THOUSAND)
+        ).getBytes(StandardCharsets.UTF_8);
+        final S3Item files = new S3Item(
+            new FkOcket(Files.createTempDirectory("").toFile(), "b", "f.xml")
+        );
+        final S3Item bytes = new S3Item(
+            new FkOcket(Files.createTempDirectory("").toFile(), "b", "b.xml")
+        );
+        Logger.info(
+            this, "update and read: %[nano]s in files, %[nano]s in memory",
+            BenchITCase.nanos(
+                () -> {
+                    files.update(path -> Files.write(path, doc));
+                    return files.read(Files::readAllBytes);
+                }
+            ),
+            BenchITCase.nanos(
+                () -> {
+                    bytes.updateBytes(before -> doc);
+                    return bytes.readBytes(content -> content);
+                }
+            )
+        );
+    }
+
+    @Test
+    @Ignore
+    public void comparesStaxWithXpath() throws Exception {
+        final int people = Tv.FIVE * Tv.THOUSAND;
+        final StringBuilder xml = new StringBuilder("<people>");
+        for (int idx = 0; idx < people; ++idx) {
+            xml.append(
+                String.format(
+                    "<person id='u%d'><reputation>%1$d</reputation></person>",
+                    idx
+                )
+            );
+        }
+        final byte[] doc = xml.append("</people>").toString()
+            .getBytes(StandardCharsets.UTF_8);
+        final S3Item item = new S3Item(
+            new FkOcket(Files.createTempDirectory("").toFile(), "b", "p.xml")
+        );
+        item.updateBytes(before -> doc);
+        final ItemXml dom = new ItemXml(item);
+        final ItemStax stax = new ItemStax(item);
+        final AtomicInteger xpath = new AtomicInteger();
+        final AtomicInteger streamed = new AtomicInteger();
+        Logger.info(
+            this,
+            "lookup in %d people: %[nano]s with XPath, %[nano]s with StAX",
+            people,
+            BenchITCase.nanos(
+                () -> dom.xpath(
+                    String.format(
+                        "/people/person[@id='u%d']/reputation/text()",
+                        BenchITCase.spread(xpath, people)
+                    )
+                )
+            ),
+            BenchITCase.nanos(
+                () -> stax.elements(
+                    String.format(
+                        "/people/person[@id='u%d']/reputation",
+                        BenchITCase.spread(streamed, people)
+                    ),
+                    1
+                )
+            )
+        );
+    }
+
+    /**
+     * Next number in a sequence, which visits the whole range evenly.
+     *
+     * <p>The stride is a prime number, which doesn't divide the range,
+     * so every number of the range is visited once in {@code range} calls,
+     * in a scattered order.</p>
+     * @param counter Counter of calls
+     * @param range Size of the range
+     * @return Number from zero to range, exclusive
+     */
+    private static int spread(final AtomicInteger counter, final int range) {
+        // @checkstyle MagicNumber (1 line)
+        return (int) ((long) counter.getAndIncrement() * 7919L % (long) range);
+    }
+
+    /**
+     * Average time of the task, after warm-up.
+     * @param task The task
+     * @return Nanoseconds per run
+     * @throws Exception If fails
+     */
+    private static long nanos(final Scalar<?> task) throws Exception {
+        for (int idx = 0; idx < BenchITCase.ROUNDS; ++idx) {
+            task.value();
+        }
+        final long start = System.nanoTime();
+        for (int idx = 0; idx < BenchITCase.ROUNDS; ++idx) {
+            task.value();
+        }
+        return (System.nanoTime() - start) / (long) BenchITCase.ROUNDS;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.jcabi.s3.Ocket;
+import com.jcabi.s3.fake.FkBucket;
+import com.zerocracy.Project;
+import com.zerocracy.TextItem;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link CatalogIndex}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public final class CatalogIndexTest {
+
+    /**
+     * Catalog with two projects.
+     */
+    private static final String CATALOG = String.join(
+        "",
+        "<catalog>",
+        "<project id='AAA'><prefix>2019/01/AAA/</prefix>",
+        "<links><link rel='github' href='test/a'/></links>",
+        "<members><member>jeff</member></members></project>",
+        "<project id='BBB'><prefix>2019/01/BBB/</prefix>",
+        "<links><link rel='github' href='test/b'/></links>",
+        "<members><member>jeff</member><member>bob</member></members>",
+        "<alive>true</alive></project>",
+        "</catalog>"
+    );
+
+    @Test
+    public void findsByIdLinkAndMember() throws Exception {
+        final CatalogIndex index = new CatalogIndex(
+            CatalogIndexTest.catalog(CatalogIndexTest.CATALOG), 0L
+        );
+        MatcherAssert.assertThat(
+            index.find("@id='AAA'"),
+            Matchers.contains("2019/01/AAA/")
+        );
+        MatcherAssert.assertThat(
+            index.find("links/link[@rel='github' and @href='test/b']"),
+            Matchers.contains("2019/01/BBB/")
+        );
+        MatcherAssert.assertThat(
+            index.find("members/member='jeff'"),
+            Matchers.containsInAnyOrder("2019/01/AAA/", "2019/01/BBB/")
+        );
+    }
+
+    @Test
+    public void findsByAdHocXpath() throws Exception {
+        MatcherAssert.assertThat(
+            new CatalogIndex(
+                CatalogIndexTest.catalog(CatalogIndexTest.CATALOG), 0L
+            ).find("alive='true'"),
+            Matchers.contains("2019/01/BBB/")
+        );
+    }
+
+    @Test
+    public void findsNothingWithoutCatalog() throws Exception {
+        MatcherAssert.assertThat(
+            new CatalogIndex(
+                new FkBucket(
+                    Files.createTempDirectory("").toFile(), "empty"
+                )
+            ).find("@id='AAA'"),
+            Matchers.emptyIterable()
+        );
+    }
+
+    @Test
+    public void reindexesOnLocalUpdate() throws Exception {
+        final Ocket ocket = CatalogIndexTest.catalog(CatalogIndexTest.CATALOG);
+        final CatalogIndex index = new CatalogIndex(ocket, Long.MAX_VALUE);
+        MatcherAssert.assertThat(
+            index.find("@id='CCC'"),
+            Matchers.emptyIterable()
+        );
+        final Project pmo = index.watched(
+            new S3Project(ocket.bucket(), "PMO/")
+        );
+        new TextItem(pmo.acq("catalog.xml")).write(
+            "<catalog><project id='CCC'><prefix>C/</prefix></project></catalog>"
+        );
+        MatcherAssert.assertThat(
+            index.find("@id='CCC'"),
+            Matchers.contains("C/")
+        );
+    }
+
+    /**
+     * Catalog ocket with content.
+     * @param xml Catalog content
+     * @return Ocket
+     * @throws Exception If fails
+     */
+    private static Ocket catalog(final String xml) throws Exception {
+        final Ocket ocket = new FkBucket(
+            Files.createTempDirectory("").toFile(), "catalog"
+        ).ocket("PMO/catalog.xml");
+        final byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+        final ObjectMetadata meta = new ObjectMetadata();
+        meta.setContentLength((long) bytes.length);
+        ocket.write(new ByteArrayInputStream(bytes), meta);
+        return ocket;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Test case for {@link S3Cache}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public final class S3CacheTest {
+
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void loadsObjectWithSameEtag() throws Exception {
+        final S3Cache cache = new S3Cache(
+            this.temp.newFolder().toPath(), 1L << 20
+        );
+        cache.save("a.xml", "e1", S3CacheTest.bytes("<a/>"));
+        MatcherAssert.assertThat(
+            new String(cache.bytes("a.xml", "e1"), StandardCharsets.UTF_8),
+            Matchers.equalTo("<a/>")
+        );
+        MatcherAssert.assertThat(
+            cache.bytes("a.xml", "e2"), Matchers.nullValue()
+        );
+        MatcherAssert.assertThat(
+            new Xembler(new Directives().add("guts").append(cache)).xml(),
+            XhtmlMatchers.hasXPaths(
+                "/guts/s3-cache[entries='1' and size='4']",
+                "/guts/s3-cache[hits='1' and misses='1' and saved='4']",
+                "/guts/s3-cache[ratio='0.50']"
+            )
+        );
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Exception {
+        final S3Cache cache = new S3Cache(
+            this.temp.newFolder().toPath(), 8L
+        );
+        cache.save("x", "1", S3CacheTest.bytes("xxxx"));
+        cache.save("y", "1", S3CacheTest.bytes("yyyy"));
+        cache.bytes("x", "1");
+        cache.save("z", "1", S3CacheTest.bytes("zzzz"));
+        MatcherAssert.assertThat(cache.bytes("y", "1"), Matchers.nullValue());
+        MatcherAssert.assertThat(
+            cache.bytes("x", "1"), Matchers.notNullValue()
+        );
+        MatcherAssert.assertThat(
+            cache.bytes("z", "1"), Matchers.notNullValue()
+        );
+    }
+
+    @Test
+    public void forgetsRemovedObject() throws Exception {
+        final S3Cache cache = new S3Cache(
+            this.temp.newFolder().toPath(), 1L << 20
+        );
+        cache.save("b.xml", "e1", S3CacheTest.bytes("<b/>"));
+        cache.remove("b.xml");
+        MatcherAssert.assertThat(
+            cache.bytes("b.xml", "e1"), Matchers.nullValue()
+        );
+    }
+
+    /**
+     * Bytes of the text.
+     * @param content Content
+     * @return Bytes
+     */
+    private static byte[] bytes(final String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
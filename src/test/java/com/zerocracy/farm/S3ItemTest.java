@@ -16,13 +16,29 @@
  */
 package com.zerocracy.farm;
 
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.jcabi.aspects.Tv;
+import com.jcabi.s3.Bucket;
 import com.jcabi.s3.Ocket;
+import com.jcabi.s3.OcketNotFoundException;
 import com.jcabi.s3.fake.FkOcket;
 import com.zerocracy.ItemXml;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.StringUtils;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.mockito.Mockito;
 import org.xembly.Directives;
 
 /**
@@ -50,4 +66,162 @@ public final class S3ItemTest {
             Matchers.not(Matchers.emptyIterable())
         );
     }
+
+    @Test
+    public void updatesBytesInMemory() throws Exception {
+        final Ocket ocket = new FkOcket(
+            Files.createTempDirectory("").toFile(), "bucket", "a.txt"
+        );
+        final S3Item item = new S3Item(ocket);
+        item.updateBytes(bytes -> "first".getBytes(StandardCharsets.UTF_8));
+        item.updateBytes(bytes -> bytes);
+        MatcherAssert.assertThat(
+            item.readBytes(bytes -> new String(bytes, StandardCharsets.UTF_8)),
+            Matchers.equalTo("first")
+        );
+        MatcherAssert.assertThat(
+            new S3Item(ocket).read(
+                path -> new String(
+                    Files.readAllBytes(path), StandardCharsets.UTF_8
+                )
+            ),
+            Matchers.equalTo("first")
+        );
+    }
+
+    @Test
+    public void readsSameContentThroughBytesAndFiles() throws Exception {
+        final byte[] doc = String.format(
+            "<doc>%s</doc>", StringUtils.repeat("<x>0</x>", Tv.THOUSAND)
+        ).getBytes(StandardCharsets.UTF_8);
+        final S3Item files = new S3Item(
+            new FkOcket(Files.createTempDirectory("").toFile(), "b", "f.xml")
+        );
+        files.update(path -> Files.write(path, doc));
+        final S3Item bytes = new S3Item(
+            new FkOcket(Files.createTempDirectory("").toFile(), "b", "b.xml")
+        );
+        bytes.updateBytes(before -> doc);
+        MatcherAssert.assertThat(
+            bytes.read(Files::readAllBytes),
+            Matchers.equalTo(files.readBytes(content -> content))
+        );
+    }
+
+    @Test
+    public void readsUnchangedObjectFromCache() throws Exception {
+        final Ocket ocket = S3ItemTest.ocket("<roles/>");
+        final ObjectMetadata meta = new ObjectMetadata();
+        meta.setHeader(Headers.ETAG, "abc");
+        Mockito.when(ocket.meta()).thenReturn(meta);
+        final S3Item item = new S3Item(ocket);
+        for (int idx = 0; idx < 2; ++idx) {
+            MatcherAssert.assertThat(
+                new ItemXml(item).nodes("/roles"),
+                Matchers.not(Matchers.emptyIterable())
+            );
+        }
+        Mockito.verify(ocket, Mockito.times(1))
+            .read(Mockito.any(OutputStream.class));
+    }
+
+    @Test
+    public void downloadsChangedObjectAgain() throws Exception {
+        final Ocket ocket = S3ItemTest.ocket("<roles/>");
+        final ObjectMetadata first = new ObjectMetadata();
+        first.setHeader(Headers.ETAG, "v1");
+        final ObjectMetadata second = new ObjectMetadata();
+        second.setHeader(Headers.ETAG, "v2");
+        Mockito.when(ocket.meta()).thenReturn(first, second);
+        final S3Item item = new S3Item(ocket);
+        for (int idx = 0; idx < 2; ++idx) {
+            MatcherAssert.assertThat(
+                new ItemXml(item).nodes("/roles"),
+                Matchers.not(Matchers.emptyIterable())
+            );
+        }
+        Mockito.verify(ocket, Mockito.times(2))
+            .read(Mockito.any(OutputStream.class));
+    }
+
+    @Test
+    public void skipsUploadOfUnchangedContent() throws Exception {
+        final Ocket ocket = S3ItemTest.ocket("<skip/>");
+        final ObjectMetadata meta = new ObjectMetadata();
+        meta.setHeader(Headers.ETAG, "e1");
+        Mockito.when(ocket.meta()).thenReturn(meta);
+        final S3Item item = new S3Item(ocket);
+        item.update(path -> Files.write(path, Files.readAllBytes(path)));
+        item.updateBytes(bytes -> bytes.clone());
+        Mockito.verify(ocket, Mockito.never()).write(
+            Mockito.any(InputStream.class), Mockito.any(ObjectMetadata.class)
+        );
+    }
+
+    @Test
+    public void reappliesChangeOnConcurrentModification() throws Exception {
+        final Ocket ocket = S3ItemTest.ocket("<cas/>");
+        final ObjectMetadata first = new ObjectMetadata();
+        first.setHeader(Headers.ETAG, "e1");
+        final ObjectMetadata second = new ObjectMetadata();
+        second.setHeader(Headers.ETAG, "e2");
+        Mockito.when(ocket.meta()).thenReturn(first, second);
+        final AtomicInteger changes = new AtomicInteger();
+        new S3Item(ocket).updateBytes(
+            bytes -> {
+                changes.incrementAndGet();
+                return "<cas>1</cas>".getBytes(StandardCharsets.UTF_8);
+            }
+        );
+        MatcherAssert.assertThat(changes.get(), Matchers.equalTo(2));
+        Mockito.verify(ocket, Mockito.times(1)).write(
+            Mockito.any(InputStream.class), Mockito.any(ObjectMetadata.class)
+        );
+    }
+
+    @Test
+    public void noticesConcurrentCreation() throws Exception {
+        final Ocket ocket = S3ItemTest.ocket("<made/>");
+        final AmazonS3Exception absent = new AmazonS3Exception("absent");
+        absent.setStatusCode(HttpURLConnection.HTTP_NOT_FOUND);
+        final ObjectMetadata made = new ObjectMetadata();
+        made.setHeader(Headers.ETAG, "e3");
+        Mockito.when(ocket.meta())
+            .thenThrow(new OcketNotFoundException("absent", absent))
+            .thenReturn(made);
+        final List<String> seen = new LinkedList<>();
+        new S3Item(ocket).updateBytes(
+            bytes -> {
+                seen.add(new String(bytes, StandardCharsets.UTF_8));
+                return "<made>1</made>".getBytes(StandardCharsets.UTF_8);
+            }
+        );
+        MatcherAssert.assertThat(seen, Matchers.contains("", "<made/>"));
+        Mockito.verify(ocket, Mockito.times(1)).write(
+            Mockito.any(InputStream.class), Mockito.any(ObjectMetadata.class)
+        );
+    }
+
+    /**
+     * Mocked ocket with content.
+     * @param content Content of the object
+     * @return Ocket
+     * @throws Exception If fails
+     */
+    private static Ocket ocket(final String content) throws Exception {
+        final Bucket bucket = Mockito.mock(Bucket.class);
+        Mockito.when(bucket.name()).thenReturn("mocked");
+        final Ocket ocket = Mockito.mock(Ocket.class);
+        Mockito.when(ocket.bucket()).thenReturn(bucket);
+        Mockito.when(ocket.key()).thenReturn(UUID.randomUUID().toString());
+        Mockito.doAnswer(
+            inv -> {
+                OutputStream.class.cast(inv.getArguments()[0]).write(
+                    content.getBytes(StandardCharsets.UTF_8)
+                );
+                return null;
+            }
+        ).when(ocket).read(Mockito.any(OutputStream.class));
+        return ocket;
+    }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.jcabi.aspects.Tv;
+import com.jcabi.matchers.XhtmlMatchers;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Region;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Test case for {@link S3Listing}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class S3ListingTest {
+
+    /**
+     * Amazon S3 client.
+     */
+    private AmazonS3 aws;
+
+    /**
+     * Bucket.
+     */
+    private Bucket bucket;
+
+    @Before
+    public void mockBucket() {
+        this.aws = Mockito.mock(AmazonS3.class);
+        final ListObjectsV2Result first = S3ListingTest.page("a.xml");
+        first.setTruncated(true);
+        first.setNextContinuationToken("next");
+        final ListObjectsV2Result second = S3ListingTest.page("b.xml");
+        Mockito.when(
+            this.aws.listObjectsV2(Mockito.any(ListObjectsV2Request.class))
+        ).thenAnswer(
+            inv -> {
+                final ListObjectsV2Result page;
+                if (ListObjectsV2Request.class.cast(inv.getArguments()[0])
+                    .getContinuationToken() == null) {
+                    page = first;
+                } else {
+                    page = second;
+                }
+                return page;
+            }
+        );
+        final Region region = Mockito.mock(Region.class);
+        Mockito.when(region.aws()).thenReturn(this.aws);
+        this.bucket = Mockito.mock(Bucket.class);
+        Mockito.when(this.bucket.name()).thenReturn("test");
+        Mockito.when(this.bucket.region()).thenReturn(region);
+    }
+
+    @Test
+    public void listsAllPages() throws Exception {
+        MatcherAssert.assertThat(
+            new String(
+                new S3Listing(TimeUnit.MINUTES.toMillis(1L))
+                    .xml(this.bucket, "PMO/"),
+                "UTF-8"
+            ),
+            XhtmlMatchers.hasXPaths(
+                "/items[count(item)=2]",
+                "/items/item[name='a.xml' and size='1']",
+                "/items/item[name='b.xml']/modified"
+            )
+        );
+    }
+
+    @Test
+    public void cachesListingUntilWrite() throws Exception {
+        final S3Listing listing = new S3Listing(TimeUnit.MINUTES.toMillis(1L));
+        listing.xml(this.bucket, "PMO/");
+        listing.xml(this.bucket, "PMO/");
+        Mockito.verify(this.aws, Mockito.times(2))
+            .listObjectsV2(Mockito.any(ListObjectsV2Request.class));
+        listing.invalidate("test", "PMO/agenda/yegor256.xml");
+        listing.xml(this.bucket, "PMO/");
+        Mockito.verify(this.aws, Mockito.times(Tv.FOUR))
+            .listObjectsV2(Mockito.any(ListObjectsV2Request.class));
+        MatcherAssert.assertThat(
+            new Xembler(new Directives().add("guts").append(listing)).xml(),
+            XhtmlMatchers.hasXPaths(
+                "/guts/s3-listing[cached='1' and hits='1']",
+                "/guts/s3-listing[listed='2' and keys='4' and most='2']",
+                "/guts/s3-listing/time"
+            )
+        );
+    }
+
+    @Test
+    public void doesNotCacheListingInvalidatedMeanwhile() throws Exception {
+        final S3Listing listing = new S3Listing(TimeUnit.MINUTES.toMillis(1L));
+        final ListObjectsV2Result page = S3ListingTest.page("c.xml");
+        Mockito.when(
+            this.aws.listObjectsV2(Mockito.any(ListObjectsV2Request.class))
+        ).thenAnswer(
+            inv -> {
+                listing.invalidate("test", "PMO/c.xml");
+                return page;
+            }
+        );
+        listing.xml(this.bucket, "PMO/");
+        listing.xml(this.bucket, "PMO/");
+        Mockito.verify(this.aws, Mockito.times(2))
+            .listObjectsV2(Mockito.any(ListObjectsV2Request.class));
+        MatcherAssert.assertThat(
+            new Xembler(new Directives().add("guts").append(listing)).xml(),
+            XhtmlMatchers.hasXPaths("/guts/s3-listing[cached='0' and hits='0']")
+        );
+    }
+
+    /**
+     * Page of listing with one object.
+     * @param name File name
+     * @return Page
+     */
+    private static ListObjectsV2Result page(final String name) {
+        final S3ObjectSummary sum = new S3ObjectSummary();
+        sum.setBucketName("test");
+        sum.setKey(String.format("PMO/%s", name));
+        sum.setSize(1L);
+        sum.setLastModified(new Date());
+        final ListObjectsV2Result page = new ListObjectsV2Result();
+        page.getObjectSummaries().add(sum);
+        return page;
+    }
+}
@@ -71,4 +71,20 @@ public final class FkItemTest {
             Matchers.startsWith("hello, ")
         );
     }
+
+    @Test
+    public void readsAndUpdatesBytes() throws Exception {
+        final Path path = this.tmp.getRoot().toPath().resolve("bytes.txt");
+        final FkItem item = new FkItem(path);
+        MatcherAssert.assertThat(
+            item.readBytes(bytes -> bytes.length), Matchers.equalTo(0)
+        );
+        item.updateBytes(bytes -> bytes);
+        MatcherAssert.assertThat(Files.exists(path), Matchers.is(false));
+        item.updateBytes(bytes -> "abc".getBytes(StandardCharsets.UTF_8));
+        MatcherAssert.assertThat(
+            item.readBytes(bytes -> new String(bytes, StandardCharsets.UTF_8)),
+            Matchers.equalTo("abc")
+        );
+    }
 }
@@ -18,6 +18,9 @@ package com.zerocracy.farm.props;
 
 import com.zerocracy.Farm;
 import com.zerocracy.FkFarm;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -37,6 +40,33 @@ public final class PropsFarmTest {
         );
     }
 
+    @Test
+    public void knowsAboutTesting() throws Exception {
+        MatcherAssert.assertThat(
+            new Props(FkFarm.props()).testing(),
+            Matchers.is(true)
+        );
+    }
+
+    @Test
+    public void refreshesSnapshotOnChange() throws Exception {
+        final Path file = Files.createTempFile("props", ".xml");
+        Files.write(
+            file, "<props><a>1</a></props>".getBytes(StandardCharsets.UTF_8)
+        );
+        MatcherAssert.assertThat(
+            PropsSnapshot.of(file).values("/props/a"),
+            Matchers.contains("1")
+        );
+        Files.write(
+            file, "<props><a>22</a></props>".getBytes(StandardCharsets.UTF_8)
+        );
+        MatcherAssert.assertThat(
+            PropsSnapshot.of(file).values("/props/a"),
+            Matchers.contains("22")
+        );
+    }
+
     @Test
     public void equalsToEachOther() throws Exception {
         final Farm farm = new FkFarm();
@@ -26,6 +26,7 @@ import com.zerocracy.Stakeholder;
 import com.zerocracy.claims.ClaimOut;
 import com.zerocracy.claims.ClaimsItem;
 import com.zerocracy.entry.ClaimsOf;
+import com.zerocracy.farm.Assume;
 import com.zerocracy.farm.MismatchException;
 import com.zerocracy.farm.fake.FkStakeholder;
 import java.nio.file.Files;
@@ -135,4 +136,34 @@ public final class BrigadeTest {
         brigade.apply(project, claim);
         MatcherAssert.assertThat(hits.get(), Matchers.equalTo(1));
     }
+
+    @Test
+    public void routesClaimsByType() throws Exception {
+        final AtomicInteger hits = new AtomicInteger();
+        final Brigade brigade = new Brigade(
+            (pkt, xml) -> {
+                hits.incrementAndGet();
+                new Assume(pkt, xml).type("Alpha");
+            },
+            new FkStakeholder()
+        );
+        final Project project = new FkProject();
+        for (final String type : new String[] {"beta", "gamma", "delta"}) {
+            brigade.apply(project, BrigadeTest.claim(type));
+        }
+        MatcherAssert.assertThat(hits.get(), Matchers.equalTo(1));
+        brigade.apply(project, BrigadeTest.claim("ALPHA"));
+        MatcherAssert.assertThat(hits.get(), Matchers.equalTo(2));
+    }
+
+    /**
+     * Claim of the type.
+     * @param type Claim type
+     * @return Claim XML
+     */
+    private static XML claim(final String type) {
+        return new XMLDocument(
+            String.format("<claim><type>%s</type></claim>", type)
+        ).nodes("/claim").get(0);
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.reactive;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Test case for {@link Mismatches}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class MismatchesTest {
+
+    @Test
+    public void forgetsOldestPlaces() throws Exception {
+        final Mismatches memo = new Mismatches(2);
+        memo.add("a");
+        memo.add("b");
+        memo.add("c");
+        MatcherAssert.assertThat(memo.known("a"), Matchers.is(false));
+        MatcherAssert.assertThat(memo.known("b"), Matchers.is(true));
+        MatcherAssert.assertThat(memo.known("c"), Matchers.is(true));
+    }
+
+    @Test
+    public void countsHitsInGuts() throws Exception {
+        final Mismatches memo = new Mismatches(1);
+        memo.add("x");
+        memo.known("x");
+        memo.known("y");
+        memo.add("y");
+        MatcherAssert.assertThat(
+            new Xembler(new Directives().add("guts").append(memo)).xml(),
+            XhtmlMatchers.hasXPaths(
+                "/guts/mismatches[size=1 and max=1]",
+                "/guts/mismatches[hits=1 and evictions=1]"
+            )
+        );
+    }
+}
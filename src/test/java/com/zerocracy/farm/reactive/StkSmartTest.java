@@ -23,6 +23,11 @@ import com.zerocracy.Project;
 import com.zerocracy.Stakeholder;
 import com.zerocracy.farm.MismatchException;
 import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
@@ -96,4 +101,45 @@ public final class StkSmartTest {
         MatcherAssert.assertThat(hits.get(), Matchers.equalTo(2));
     }
 
+    @Test
+    public void processesClaimsInParallel() throws Exception {
+        final CountDownLatch inside = new CountDownLatch(2);
+        final Stakeholder stk = new StkSmart(
+            (project, xml) -> {
+                inside.countDown();
+                try {
+                    if (!inside.await(1L, TimeUnit.MINUTES)) {
+                        throw new IllegalStateException("Serialized");
+                    }
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(ex);
+                }
+            }
+        );
+        final XML claim = new XMLDocument(
+            "<claim><type>parallel</type></claim>"
+        ).nodes("/claim").get(0);
+        final ExecutorService exec = Executors.newFixedThreadPool(2);
+        try {
+            final Future<Boolean> first = exec.submit(
+                () -> {
+                    stk.process(new FkProject(), claim);
+                    return true;
+                }
+            );
+            final Future<Boolean> second = exec.submit(
+                () -> {
+                    stk.process(new FkProject(), claim);
+                    return true;
+                }
+            );
+            first.get();
+            second.get();
+        } finally {
+            exec.shutdownNow();
+        }
+        MatcherAssert.assertThat(inside.getCount(), Matchers.equalTo(0L));
+    }
+
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.sync;
+
+import com.zerocracy.FkProject;
+import com.zerocracy.Project;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.cactoos.map.MapEntry;
+import org.cactoos.map.MapOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link OrderedLock}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class OrderedLockTest {
+
+    @Test
+    public void locksAllItems() throws Exception {
+        final Locks locks = new TestLocks();
+        final Project pkt = new FkProject();
+        final Lock lock = new OrderedLock(locks, pkt, "b.xml", "a.xml");
+        lock.lock();
+        final ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            MatcherAssert.assertThat(
+                exec.submit(
+                    () -> locks.lock(pkt, "b.xml").writeLock().tryLock()
+                ).get(),
+                Matchers.is(false)
+            );
+            lock.unlock();
+            MatcherAssert.assertThat(
+                exec.submit(
+                    () -> new OrderedLock(locks, pkt, "a.xml", "b.xml")
+                        .tryLock(1L, TimeUnit.SECONDS)
+                ).get(),
+                Matchers.is(true)
+            );
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void releasesWhenOneIsBusy() throws Exception {
+        final Locks locks = new TestLocks();
+        final Project pkt = new FkProject();
+        final ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            exec.submit(
+                () -> {
+                    locks.lock(pkt, "z.xml").writeLock().lock();
+                    return true;
+                }
+            ).get();
+            MatcherAssert.assertThat(
+                new OrderedLock(locks, pkt, "z.xml", "y.xml").tryLock(),
+                Matchers.is(false)
+            );
+            MatcherAssert.assertThat(
+                exec.submit(
+                    () -> locks.lock(pkt, "y.xml").writeLock().tryLock()
+                ).get(),
+                Matchers.is(true)
+            );
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void releasesWhenOneFails() throws Exception {
+        final ReentrantLock first = new ReentrantLock();
+        final Lock broken = Mockito.mock(Lock.class);
+        Mockito.doThrow(new UncheckedIOException(new IOException("down")))
+            .when(broken).lock();
+        try {
+            new OrderedLock(
+                new MapOf<String, Lock>(
+                    new MapEntry<>("a.xml", first),
+                    new MapEntry<>("b.xml", broken)
+                )
+            ).lock();
+            Assert.fail("Lock didn't fail");
+        } catch (final UncheckedIOException ex) {
+            MatcherAssert.assertThat(first.isLocked(), Matchers.is(false));
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.sync;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.zerocracy.FkFarm;
+import com.zerocracy.db.ExtDataSource;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import javax.sql.DataSource;
+import org.cactoos.Func;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test case for {@link PgAdvisoryLock}.
+ *
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle ExecutableStatementCountCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public final class PgAdvisoryLockTest {
+
+    @BeforeClass
+    public static void setUp() {
+        Assume.assumeNotNull(System.getProperty("pgsql.port"));
+    }
+
+    @Test
+    public void lockResource() throws Exception {
+        final String res = "roles.xml";
+        final List<String> actions =
+            Collections.synchronizedList(new LinkedList<>());
+        final DataSource data = new ExtDataSource(FkFarm.props()).value();
+        final String pid = "test";
+        final Lock lone =
+            new PgAdvisoryLock(data, pid, res, new PgLock.Holder());
+        actions.add("locking1");
+        lone.lock();
+        actions.add("locked1");
+        final CountDownLatch started = new CountDownLatch(1);
+        final Thread thread = new Thread(
+            () -> {
+                final Lock ltwo =
+                    new PgAdvisoryLock(data, pid, res, new PgLock.Holder());
+                actions.add("locking2");
+                started.countDown();
+                ltwo.lock();
+                actions.add("locked2");
+                ltwo.unlock();
+            }
+        );
+        thread.start();
+        started.await();
+        TimeUnit.MILLISECONDS.sleep((long) Tv.HUNDRED);
+        actions.add("unlocking1");
+        lone.unlock();
+        thread.join();
+        MatcherAssert.assertThat(
+            actions,
+            Matchers.contains(
+                "locking1", "locked1", "locking2",
+                "unlocking1", "locked2"
+            )
+        );
+    }
+
+    @Test
+    public void reentersByOwner() throws Exception {
+        final Lock lock = new PgAdvisoryLock(
+            new ExtDataSource(FkFarm.props()).value(),
+            "reenter", "people.xml", new PgLock.Holder()
+        );
+        lock.lock();
+        MatcherAssert.assertThat(lock.tryLock(), Matchers.is(true));
+        lock.unlock();
+        lock.unlock();
+        MatcherAssert.assertThat(lock.tryLock(), Matchers.is(true));
+        lock.unlock();
+    }
+
+    @Test
+    public void timesOutWhenBusy() throws Exception {
+        final DataSource data = new ExtDataSource(FkFarm.props()).value();
+        final Lock lock =
+            new PgAdvisoryLock(data, "busy", "wbs.xml", new PgLock.Holder());
+        lock.lock();
+        final ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            MatcherAssert.assertThat(
+                exec.submit(
+                    () -> new PgAdvisoryLock(
+                        data, "busy", "wbs.xml", new PgLock.Holder()
+                    ).tryLock((long) Tv.HUNDRED, TimeUnit.MILLISECONDS)
+                ).get(),
+                Matchers.is(false)
+            );
+        } finally {
+            exec.shutdownNow();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Compare throughput of {@link PgLock} and {@link PgAdvisoryLock}
+     * under contention of many threads.
+     * @throws Exception If fails
+     */
+    @Test
+    public void outperformsPollingLock() throws Exception {
+        final DataSource data = new ExtDataSource(FkFarm.props()).value();
+        final long polling = PgAdvisoryLockTest.contend(
+            res -> new PgLock(data, "bench", res, new PgLock.Holder())
+        );
+        final long advisory = PgAdvisoryLockTest.contend(
+            res -> new PgAdvisoryLock(
+                data, "bench", res, new PgLock.Holder()
+            )
+        );
+        Logger.info(
+            this, "%d threads x %d locks: polling %[ms]s, advisory %[ms]s",
+            Tv.TEN, Tv.TWENTY, polling, advisory
+        );
+        MatcherAssert.assertThat(advisory, Matchers.lessThan(polling));
+    }
+
+    /**
+     * Lock and unlock the same resource from many threads,
+     * verifying mutual exclusion.
+     * @param locks Lock for resource per thread
+     * @return Time spent, in milliseconds
+     * @throws Exception If fails
+     */
+    private static long contend(final Func<String, Lock> locks)
+        throws Exception {
+        final String res = String.format("bench-%d.xml", System.nanoTime());
+        final AtomicInteger inside = new AtomicInteger();
+        final AtomicInteger done = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService exec = Executors.newFixedThreadPool(Tv.TEN);
+        for (int thr = 0; thr < Tv.TEN; ++thr) {
+            final Lock lock = locks.apply(res);
+            exec.submit(
+                () -> {
+                    start.await();
+                    for (int idx = 0; idx < Tv.TWENTY; ++idx) {
+                        lock.lock();
+                        try {
+                            if (inside.incrementAndGet() != 1) {
+                                throw new IllegalStateException(
+                                    "Lock is not exclusive"
+                                );
+                            }
+                            TimeUnit.MILLISECONDS.sleep(1L);
+                            inside.decrementAndGet();
+                            done.incrementAndGet();
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                    return null;
+                }
+            );
+        }
+        final long begin = System.currentTimeMillis();
+        start.countDown();
+        exec.shutdown();
+        MatcherAssert.assertThat(
+            exec.awaitTermination((long) Tv.FIVE, TimeUnit.MINUTES),
+            Matchers.is(true)
+        );
+        final long spent = System.currentTimeMillis() - begin;
+        MatcherAssert.assertThat(
+            done.get(), Matchers.equalTo(Tv.TEN * Tv.TWENTY)
+        );
+        return spent;
+    }
+}
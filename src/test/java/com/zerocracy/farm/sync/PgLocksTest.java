@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.sync;
+
+import com.zerocracy.FkFarm;
+import com.zerocracy.FkProject;
+import com.zerocracy.Project;
+import com.zerocracy.db.ExtDataSource;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test case for {@link PgLocks}.
+ *
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class PgLocksTest {
+
+    @BeforeClass
+    public static void setUp() {
+        Assume.assumeNotNull(System.getProperty("pgsql.port"));
+    }
+
+    @Test
+    public void sharesReadLock() throws Exception {
+        final Locks locks = new PgLocks(
+            new ExtDataSource(FkFarm.props()).value()
+        );
+        final Project pkt = new FkProject();
+        final ReadWriteLock lock = locks.lock(pkt, "roles.xml");
+        lock.readLock().lock();
+        final ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            MatcherAssert.assertThat(
+                exec.submit(
+                    () -> {
+                        final boolean read = lock.readLock().tryLock();
+                        if (read) {
+                            lock.readLock().unlock();
+                        }
+                        return read;
+                    }
+                ).get(),
+                Matchers.is(true)
+            );
+            MatcherAssert.assertThat(
+                exec.submit(() -> lock.writeLock().tryLock()).get(),
+                Matchers.is(false)
+            );
+            MatcherAssert.assertThat(
+                exec.submit(
+                    () -> locks.lock(pkt, "wbs.xml").writeLock().tryLock()
+                ).get(),
+                Matchers.is(true)
+            );
+        } finally {
+            exec.shutdownNow();
+            lock.readLock().unlock();
+        }
+    }
+
+    @Test
+    public void readsUnderWriteLock() throws Exception {
+        final ReadWriteLock lock = new PgLocks(
+            new ExtDataSource(FkFarm.props()).value()
+        ).lock(new FkProject(), "pmo.xml");
+        lock.writeLock().lock();
+        MatcherAssert.assertThat(
+            lock.readLock().tryLock(), Matchers.is(true)
+        );
+        lock.readLock().unlock();
+        lock.writeLock().unlock();
+        MatcherAssert.assertThat(
+            lock.writeLock().tryLock(), Matchers.is(true)
+        );
+        lock.writeLock().unlock();
+    }
+}
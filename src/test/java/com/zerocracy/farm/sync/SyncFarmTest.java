@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2016-2019 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.sync;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import com.zerocracy.Farm;
+import com.zerocracy.FkFarm;
+import com.zerocracy.Project;
+import com.zerocracy.farm.guts.Guts;
+import java.nio.file.Files;
+import org.hamcrest.MatcherAssert;
+import org.junit.Test;
+
+/**
+ * Test case for {@link SyncFarm}.
+ * @since 1.0
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class SyncFarmTest {
+
+    @Test
+    public void reportsLockWaits() throws Exception {
+        try (final Farm farm = new SyncFarm(new FkFarm())) {
+            final Project pkt = farm.find("@id='SYNCFARMT'").iterator().next();
+            pkt.acq("wbs.xml").read(Files::exists);
+            pkt.acq("wbs.xml").update(path -> { });
+            MatcherAssert.assertThat(
+                new Guts(farm).value(),
+                XhtmlMatchers.hasXPaths(
+                    "/guts/farm[@id='SyncFarm']/lock-waits",
+                    "//lock-waits/item[@locks='2' and @failures='0']"
+                )
+            );
+        }
+    }
+}